@@ -1,5 +1,6 @@
 package com.senai.conta_bancaria.application.dto;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.PositiveOrZero;
 
@@ -7,10 +8,12 @@ import java.math.BigDecimal;
 
 public record ContaAtualizacaoDto(
         @NotNull(message = "O saldo não pode ser nulo.")
+        @Digits(integer = 15, fraction = 2, message = "O saldo deve ter no máximo duas casas decimais.")
         BigDecimal saldo,
 
         @NotNull(message = "O limite não pode ser nulo.")
         @PositiveOrZero(message = "O limite não pode ser negativo.")
+        @Digits(integer = 15, fraction = 2, message = "O limite deve ter no máximo duas casas decimais.")
         BigDecimal limite,
 
         @NotNull(message = "A taxa não pode ser nulo.")
@@ -5,6 +5,9 @@ import com.senai.conta_bancaria.domain.entity.Conta;
 import com.senai.conta_bancaria.domain.entity.ContaCorrente;
 import com.senai.conta_bancaria.domain.entity.ContaPoupanca;
 import com.senai.conta_bancaria.domain.exception.TipoDeContaInvalidaException;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.domain.valueobject.ResumoConta;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Pattern;
@@ -13,7 +16,7 @@ import jakarta.validation.constraints.PositiveOrZero;
 import java.math.BigDecimal;
 
 public record ContaResumoDto(
-        @NotNull(message = "O número da conta não pode ser nulo.")
+        // Opcional na entrada: o número da conta nova é gerado pelo servidor
         @PositiveOrZero(message = "O número da conta não pode ser negativo.")
         Long numero,
 
@@ -23,8 +26,13 @@ public record ContaResumoDto(
         String tipo,
 
         @NotNull(message = "O saldo não pode ser nulo.")
+        @Digits(integer = 15, fraction = 2, message = "O saldo deve ter no máximo duas casas decimais.")
         BigDecimal saldo
 ) {
+    public ContaResumoDto(Long numero, String tipo, Dinheiro saldo) {
+        this(numero, tipo, saldo.paraBigDecimal());
+    }
+
     public static ContaResumoDto fromEntity(Conta conta) {
         return new ContaResumoDto(
                 conta.getNumero(),
@@ -33,21 +41,25 @@ public record ContaResumoDto(
         );
     }
 
+    public static ContaResumoDto de(ResumoConta conta) {
+        return new ContaResumoDto(conta.numero(), conta.tipo(), conta.saldo());
+    }
+
     public Conta toEntity(Cliente cliente) {
         return switch (tipo) {
             case "CORRENTE" -> ContaCorrente.builder()
                     .id(null)
                     .numero(numero)
-                    .saldo(saldo)
+                    .saldo(Dinheiro.de(saldo))
                     .ativo(true)
                     .cliente(cliente)
-                    .limite(new BigDecimal("500.00"))
+                    .limite(Dinheiro.deCentavos(500_00))
                     .taxa(new BigDecimal("0.05"))
                     .build();
             case "POUPANCA" -> ContaPoupanca.builder()
                     .id(null)
                     .numero(numero)
-                    .saldo(saldo)
+                    .saldo(Dinheiro.de(saldo))
                     .ativo(true)
                     .cliente(cliente)
                     .rendimento(new BigDecimal("0.03"))
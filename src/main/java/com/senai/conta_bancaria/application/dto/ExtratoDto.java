@@ -0,0 +1,10 @@
+package com.senai.conta_bancaria.application.dto;
+
+import java.util.List;
+
+// proximoCursor é nulo na última página; basta repassá-lo no parâmetro "cursor" para seguir
+public record ExtratoDto(
+        List<MovimentacaoDto> movimentacoes,
+        String proximoCursor
+) {
+}
@@ -0,0 +1,18 @@
+package com.senai.conta_bancaria.application.dto;
+
+import com.senai.conta_bancaria.domain.enums.PagamentoStatus;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+// Filtros opcionais da listagem de pagamentos, recebidos como parâmetros de consulta.
+// Período [desde, ate); faixa de valor pago inclusiva.
+public record FiltroPagamentosDto(
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime desde,
+        @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime ate,
+        PagamentoStatus status,
+        BigDecimal valorMinimo,
+        BigDecimal valorMaximo
+) {
+}
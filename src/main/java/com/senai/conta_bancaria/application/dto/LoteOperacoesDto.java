@@ -0,0 +1,22 @@
+package com.senai.conta_bancaria.application.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record LoteOperacoesDto(
+        @NotNull(message = "O modo do lote não pode ser nulo.")
+        Modo modo,
+
+        @NotEmpty(message = "O lote deve ter ao menos uma operação.")
+        @Size(max = 1000, message = "O lote pode ter no máximo 1000 operações.")
+        List<@Valid OperacaoLoteDto> operacoes
+) {
+    public enum Modo {
+        TUDO_OU_NADA,   // qualquer falha cancela o lote inteiro
+        MELHOR_ESFORCO  // grava as operações válidas e reporta as que falharam
+    }
+}
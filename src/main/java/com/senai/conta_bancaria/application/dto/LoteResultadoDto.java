@@ -0,0 +1,24 @@
+package com.senai.conta_bancaria.application.dto;
+
+import java.util.List;
+
+public record LoteResultadoDto(
+        LoteOperacoesDto.Modo modo,
+        int aplicadas,
+        int falhas,
+        List<Item> itens
+) {
+    public enum Status {
+        APLICADA,
+        FALHOU,
+        CANCELADA
+    }
+
+    public record Item(
+            int indice,
+            Status status,
+            ContaResumoDto conta,
+            String erro
+    ) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.senai.conta_bancaria.application.dto;
+
+import com.senai.conta_bancaria.domain.entity.Movimentacao;
+import com.senai.conta_bancaria.domain.enums.TipoMovimentacao;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record MovimentacaoDto(
+        TipoMovimentacao tipo,
+        BigDecimal valor,
+        BigDecimal saldoApos,
+        Long numeroContraparte,
+        String referencia,
+        LocalDateTime dataHora
+) {
+    public static MovimentacaoDto fromEntity(Movimentacao movimentacao) {
+        return new MovimentacaoDto(
+                movimentacao.getTipo(),
+                movimentacao.getValor().paraBigDecimal(),
+                movimentacao.getSaldoApos().paraBigDecimal(),
+                movimentacao.getNumeroContraparte(),
+                movimentacao.getReferencia(),
+                movimentacao.getDataHora()
+        );
+    }
+}
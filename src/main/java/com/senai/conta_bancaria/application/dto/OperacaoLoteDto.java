@@ -0,0 +1,31 @@
+package com.senai.conta_bancaria.application.dto;
+
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.math.BigDecimal;
+
+public record OperacaoLoteDto(
+        @NotNull(message = "O tipo da operação não pode ser nulo.")
+        Tipo tipo,
+
+        @NotNull(message = "O número da conta não pode ser nulo.")
+        @PositiveOrZero(message = "O número da conta não pode ser negativo.")
+        Long numero,
+
+        @PositiveOrZero(message = "O número da conta destinatária não pode ser negativo.")
+        Long numeroDestino,
+
+        @NotNull(message = "O valor não pode ser nulo.")
+        @Positive(message = "O valor deve ser maior que zero.")
+        @Digits(integer = 15, fraction = 2, message = "O valor deve ter no máximo duas casas decimais.")
+        BigDecimal valor
+) {
+    public enum Tipo {
+        SAQUE,
+        DEPOSITO,
+        TRANSFERENCIA
+    }
+}
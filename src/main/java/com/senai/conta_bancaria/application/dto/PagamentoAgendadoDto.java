@@ -0,0 +1,39 @@
+package com.senai.conta_bancaria.application.dto;
+
+import jakarta.validation.constraints.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PagamentoAgendadoDto {
+
+    @NotBlank(message = "O ID da conta é obrigatório")
+    @Pattern(regexp = "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}",
+            message = "O ID da conta deve ser um UUID")
+    private String contaId;
+
+    @NotBlank(message = "O código do boleto é obrigatório")
+    @Size(max = 120, message = "O código do boleto deve ter no máximo 120 caracteres")
+    private String boleto;
+
+    @NotNull(message = "O valor do pagamento é obrigatório")
+    @DecimalMin(value = "0.01", message = "O valor deve ser maior que zero")
+    @Digits(integer = 15, fraction = 2, message = "O valor deve ter no máximo duas casas decimais")
+    private BigDecimal valorPago;
+
+    @NotNull(message = "A data de execução é obrigatória")
+    @Future(message = "A data de execução deve estar no futuro")
+    private LocalDateTime executarEm;
+
+    private Set<String> taxasIds;
+
+    @Size(max = 500, message = "A observação deve ter no máximo 500 caracteres")
+    private String observacao;
+}
@@ -0,0 +1,42 @@
+package com.senai.conta_bancaria.application.dto;
+
+import com.senai.conta_bancaria.domain.entity.PagamentoAgendado;
+import com.senai.conta_bancaria.domain.enums.StatusAgendamento;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+// pagamentoId aponta para o pagamento gerado na execução (GET /pagamentos/{id}), inclusive os recusados
+public record PagamentoAgendadoResponseDto(
+        UUID id,
+        UUID contaId,
+        String boleto,
+        BigDecimal valorPago,
+        Set<String> taxasIds,
+        String observacao,
+        LocalDateTime executarEm,
+        StatusAgendamento status,
+        UUID pagamentoId,
+        String mensagem,
+        LocalDateTime criadoEm,
+        LocalDateTime executadoEm
+) {
+    public static PagamentoAgendadoResponseDto fromEntity(PagamentoAgendado agendamento) {
+        return new PagamentoAgendadoResponseDto(
+                agendamento.getId(),
+                agendamento.getConta().getId(),
+                agendamento.getBoleto(),
+                agendamento.getValorPago(),
+                Set.copyOf(agendamento.getTaxasIds()),
+                agendamento.getObservacao(),
+                agendamento.getExecutarEm(),
+                agendamento.getStatus(),
+                agendamento.getPagamentoId(),
+                agendamento.getMensagem(),
+                agendamento.getCriadoEm(),
+                agendamento.getExecutadoEm()
+        );
+    }
+}
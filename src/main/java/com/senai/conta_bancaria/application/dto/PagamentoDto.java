@@ -14,6 +14,8 @@ import java.util.Set;
 public class PagamentoDto {
     
     @NotBlank(message = "O ID da conta é obrigatório")
+    @Pattern(regexp = "[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}",
+            message = "O ID da conta deve ser um UUID")
     private String contaId;
     
     @NotBlank(message = "O código do boleto é obrigatório")
@@ -22,6 +24,7 @@ public class PagamentoDto {
     
     @NotNull(message = "O valor do pagamento é obrigatório")
     @DecimalMin(value = "0.01", message = "O valor deve ser maior que zero")
+    @Digits(integer = 15, fraction = 2, message = "O valor deve ter no máximo duas casas decimais")
     private BigDecimal valorPago;
     
     private Set<String> taxasIds;
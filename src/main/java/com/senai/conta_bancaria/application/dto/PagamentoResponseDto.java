@@ -1,11 +1,14 @@
 package com.senai.conta_bancaria.application.dto;
 
+import com.senai.conta_bancaria.domain.entity.Pagamento;
 import com.senai.conta_bancaria.domain.enums.PagamentoStatus;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
 import lombok.*;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 @Getter
 @Setter
@@ -24,4 +27,30 @@ public class PagamentoResponseDto {
     private PagamentoStatus status;
     private Set<TaxaResponseDto> taxas;
     private String observacao;
+
+    public static PagamentoResponseDto fromEntity(Pagamento pagamento) {
+        Set<TaxaResponseDto> taxasDto = pagamento.getTaxas().stream()
+                .map(taxa -> TaxaResponseDto.builder()
+                        .id(taxa.getId())
+                        .descricao(taxa.getDescricao())
+                        .percentual(taxa.getPercentual())
+                        .valorFixo(Dinheiro.paraBigDecimalOuNulo(taxa.getValorFixo()))
+                        .ativo(taxa.isAtivo())
+                        .build())
+                .collect(Collectors.toSet());
+
+        return PagamentoResponseDto.builder()
+                .id(pagamento.getId().toString())
+                .contaId(pagamento.getConta().getId().toString())
+                .numeroConta(pagamento.getConta().getNumero().toString())
+                .boleto(pagamento.getBoleto())
+                .valorPago(pagamento.getValorPago())
+                .valorTotalTaxas(pagamento.getValorTotalTaxas())
+                .valorTotal(pagamento.getValorTotal())
+                .dataPagamento(pagamento.getDataPagamento())
+                .status(pagamento.getStatus())
+                .taxas(taxasDto)
+                .observacao(pagamento.getObservacao())
+                .build();
+    }
 }
@@ -0,0 +1,10 @@
+package com.senai.conta_bancaria.application.dto;
+
+import java.util.List;
+
+// proximoCursor é nulo na última página; para seguir, repita os filtros e repasse-o no parâmetro "cursor"
+public record PaginaPagamentosDto(
+        List<PagamentoResponseDto> pagamentos,
+        String proximoCursor
+) {
+}
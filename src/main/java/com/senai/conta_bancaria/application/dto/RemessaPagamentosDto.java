@@ -0,0 +1,32 @@
+package com.senai.conta_bancaria.application.dto;
+
+import com.senai.conta_bancaria.domain.entity.RemessaPagamentos;
+import com.senai.conta_bancaria.domain.enums.FormatoRemessa;
+import com.senai.conta_bancaria.domain.enums.StatusExecucao;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record RemessaPagamentosDto(
+        UUID id,
+        FormatoRemessa formato,
+        StatusExecucao status,
+        long ultimaLinha,
+        long pagos,
+        long falhas,
+        LocalDateTime recebidaEm,
+        LocalDateTime concluidaEm
+) {
+    public static RemessaPagamentosDto fromEntity(RemessaPagamentos remessa) {
+        return new RemessaPagamentosDto(
+                remessa.getId(),
+                remessa.getFormato(),
+                remessa.getStatus(),
+                remessa.getUltimaLinha(),
+                remessa.getPagos(),
+                remessa.getFalhas(),
+                remessa.getRecebidaEm(),
+                remessa.getConcluidaEm()
+        );
+    }
+}
@@ -0,0 +1,13 @@
+package com.senai.conta_bancaria.application.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public record SaldoHistoricoDto(
+        Long numero,
+        LocalDateTime em,
+        BigDecimal saldo,
+        LocalDateTime consolidadoEm,
+        long movimentacoesReaplicadas
+) {
+}
@@ -22,5 +22,6 @@ public class TaxaDto {
     private BigDecimal percentual;
     
     @DecimalMin(value = "0.0", message = "O valor fixo deve ser maior ou igual a zero")
+    @Digits(integer = 15, fraction = 2, message = "O valor fixo deve ter no máximo duas casas decimais")
     private BigDecimal valorFixo;
 }
@@ -1,5 +1,6 @@
 package com.senai.conta_bancaria.application.dto;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.PositiveOrZero;
@@ -13,6 +14,7 @@ public record TransferenciaDto(
 
         @NotNull(message = "O valor transferido não pode ser nulo.")
         @Positive(message = "O valor transferido deve ser maior que zero.")
+        @Digits(integer = 15, fraction = 2, message = "O valor transferido deve ter no máximo duas casas decimais.")
         BigDecimal valor
 ) {
 }
\ No newline at end of file
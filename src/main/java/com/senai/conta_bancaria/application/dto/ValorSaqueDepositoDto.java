@@ -1,5 +1,6 @@
 package com.senai.conta_bancaria.application.dto;
 
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 
@@ -8,6 +9,7 @@ import java.math.BigDecimal;
 public record ValorSaqueDepositoDto(
         @NotNull(message = "O valor não pode ser nulo.")
         @Positive(message = "O valor deve ser maior que zero.")
+        @Digits(integer = 15, fraction = 2, message = "O valor deve ter no máximo duas casas decimais.")
         BigDecimal valor
 ) {
 }
\ No newline at end of file
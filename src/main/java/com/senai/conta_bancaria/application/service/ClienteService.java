@@ -5,10 +5,13 @@ import com.senai.conta_bancaria.application.dto.ClienteRegistroDto;
 import com.senai.conta_bancaria.application.dto.ClienteResponseDto;
 import com.senai.conta_bancaria.domain.entity.Cliente;
 import com.senai.conta_bancaria.domain.entity.Conta;
+import com.senai.conta_bancaria.domain.event.ContaAlteradaEvent;
 import com.senai.conta_bancaria.domain.exception.ContaDeMesmoTipoException;
 import com.senai.conta_bancaria.domain.exception.EntidadeNaoEncontradaException;
 import com.senai.conta_bancaria.domain.repository.ClienteRepository;
+import com.senai.conta_bancaria.infrastructure.numeracao.GeradorNumeroConta;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -22,6 +25,8 @@ import java.util.List;
 public class ClienteService {
     private final ClienteRepository repository;
     private final PasswordEncoder passwordEncoder;
+    private final ApplicationEventPublisher eventPublisher;
+    private final GeradorNumeroConta geradorNumeroConta;
 
     // CREATE
     @PreAuthorize("hasAnyRole('ADMIN','GERENTE')")
@@ -40,6 +45,8 @@ public class ClienteService {
         if (temMesmoTipo)
             throw new ContaDeMesmoTipoException(novaConta.getTipo());
 
+        // O número é sempre gerado no servidor; o enviado pelo cliente é ignorado
+        novaConta.setNumero(geradorNumeroConta.proximo());
         clienteRegistrado.getContas().add(novaConta);
         clienteRegistrado.setSenha(passwordEncoder.encode(dto.senha()));
         return ClienteResponseDto.fromEntity(repository.save(clienteRegistrado));
@@ -69,6 +76,12 @@ public class ClienteService {
         cliente.setNome(dto.nome());
         cliente.setCpf(dto.cpf());
 
+        // As contas não mudam, mas passam a ser encontradas por outro CPF
+        if (!cpf.equals(dto.cpf())) {
+            eventPublisher.publishEvent(new ContaAlteradaEvent(null, cpf));
+            eventPublisher.publishEvent(new ContaAlteradaEvent(null, dto.cpf()));
+        }
+
         return ClienteResponseDto.fromEntity(repository.save(cliente));
     }
 
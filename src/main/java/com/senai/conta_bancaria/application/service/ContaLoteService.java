@@ -0,0 +1,182 @@
+package com.senai.conta_bancaria.application.service;
+
+import com.senai.conta_bancaria.application.dto.ContaResumoDto;
+import com.senai.conta_bancaria.application.dto.LoteOperacoesDto;
+import com.senai.conta_bancaria.application.dto.LoteResultadoDto;
+import com.senai.conta_bancaria.application.dto.OperacaoLoteDto;
+import com.senai.conta_bancaria.domain.entity.Conta;
+import com.senai.conta_bancaria.domain.entity.Movimentacao;
+import com.senai.conta_bancaria.domain.enums.TipoMovimentacao;
+import com.senai.conta_bancaria.domain.event.ContaAlteradaEvent;
+import com.senai.conta_bancaria.domain.exception.EntidadeNaoEncontradaException;
+import com.senai.conta_bancaria.domain.repository.ContaRepository;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.infrastructure.cluster.CreditosEntreNos;
+import com.senai.conta_bancaria.infrastructure.concorrencia.PoliticaDeRetentativa;
+import com.senai.conta_bancaria.infrastructure.movimentacao.DiarioDeMovimentacoes;
+import com.senai.conta_bancaria.infrastructure.persistencia.ResultadosDeLote;
+import com.senai.conta_bancaria.infrastructure.saldo.SaldosFracionados;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@RequiredArgsConstructor
+public class ContaLoteService {
+
+    private static final String ATUALIZAR_SALDO =
+            "UPDATE conta SET saldo = ?, versao = versao + 1 WHERE numero = ? AND versao = ?";
+
+    private final ContaRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PoliticaDeRetentativa politicaDeRetentativa;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DiarioDeMovimentacoes diario;
+    private final SaldosFracionados saldosFracionados;
+    private final CreditosEntreNos creditosEntreNos;
+
+    @PreAuthorize("hasRole('CLIENTE')")
+    public LoteResultadoDto processar(LoteOperacoesDto dto) {
+        return politicaDeRetentativa.executar("lote", () -> transactionTemplate
+                .execute(status -> {
+                    LoteResultadoDto resultado = aplicar(dto);
+                    // Um lote cancelado pode ter consolidado fatias de saldo; nada deve ser confirmado
+                    if (resultado.aplicadas() == 0)
+                        status.setRollbackOnly();
+                    return resultado;
+                }));
+    }
+
+    private LoteResultadoDto aplicar(LoteOperacoesDto dto) {
+        Set<Long> numeros = new HashSet<>();
+        for (OperacaoLoteDto operacao : dto.operacoes()) {
+            numeros.add(operacao.numero());
+            if (operacao.numeroDestino() != null)
+                numeros.add(operacao.numeroDestino());
+        }
+
+        // Todas as contas do lote numa única consulta IN, sem dirty-checking: a gravação é feita via JDBC
+        Map<Long, Conta> contas = repository.findReadOnlyByNumeroInAndAtivoTrue(numeros)
+                .stream()
+                .collect(Collectors.toMap(Conta::getNumero, Function.identity()));
+
+        Map<Long, Conta> alteradas = new TreeMap<>();
+        List<Movimentacao> movimentacoes = new ArrayList<>(dto.operacoes().size() * 2);
+        List<LoteResultadoDto.Item> itens = new ArrayList<>(dto.operacoes().size());
+        int falhas = 0;
+
+        for (int i = 0; i < dto.operacoes().size(); i++) {
+            OperacaoLoteDto operacao = dto.operacoes().get(i);
+            try {
+                Conta conta = aplicar(operacao, contas, alteradas, movimentacoes);
+                itens.add(new LoteResultadoDto.Item(
+                        i, LoteResultadoDto.Status.APLICADA, ContaResumoDto.fromEntity(conta), null));
+            } catch (RuntimeException e) {
+                falhas++;
+                itens.add(new LoteResultadoDto.Item(i, LoteResultadoDto.Status.FALHOU, null, e.getMessage()));
+
+                if (dto.modo() == LoteOperacoesDto.Modo.TUDO_OU_NADA)
+                    return cancelar(dto, itens, i);
+            }
+        }
+
+        gravar(alteradas.values());
+        diario.registrar(movimentacoes);
+        return new LoteResultadoDto(dto.modo(), itens.size() - falhas, falhas, itens);
+    }
+
+    private Conta aplicar(OperacaoLoteDto operacao, Map<Long, Conta> contas, Map<Long, Conta> alteradas,
+                          List<Movimentacao> movimentacoes) {
+        Conta conta = buscar(contas, operacao.numero());
+        Dinheiro valor = Dinheiro.de(operacao.valor());
+
+        // As contas são somente leitura para o Hibernate: a conta consolidada é gravada mesmo se a operação falhar
+        if (operacao.tipo() != OperacaoLoteDto.Tipo.DEPOSITO && saldosFracionados.prepararDebito(conta, valor))
+            alteradas.put(conta.getNumero(), conta);
+        Dinheiro saldoAnterior = conta.getSaldo();
+
+        switch (operacao.tipo()) {
+            case SAQUE -> {
+                conta.sacar(valor);
+                movimentacoes.add(Movimentacao.apos(conta, TipoMovimentacao.SAQUE, saldoAnterior));
+            }
+            case DEPOSITO -> {
+                conta.depositar(valor);
+                movimentacoes.add(Movimentacao.apos(conta, TipoMovimentacao.DEPOSITO, saldoAnterior));
+            }
+            case TRANSFERENCIA -> {
+                Conta destino = buscar(contas, operacao.numeroDestino());
+                // Destino em outro nó: só o débito é gravado aqui; o crédito sai na mesma transação para o dono
+                if (creditosEntreNos.remoto(destino.getNumero())) {
+                    destino.validarCredito(valor);
+                    conta.sacar(valor);
+                    creditosEntreNos.encaminhar(conta.getNumero(), destino.getNumero(), valor);
+                    movimentacoes.add(Movimentacao.apos(conta, TipoMovimentacao.TRANSFERENCIA_ENVIADA,
+                            saldoAnterior, destino.getNumero(), null));
+                    break;
+                }
+                Dinheiro saldoAnteriorDestino = destino.getSaldo();
+                conta.transferir(destino, valor);
+                movimentacoes.add(Movimentacao.apos(conta, TipoMovimentacao.TRANSFERENCIA_ENVIADA,
+                        saldoAnterior, destino.getNumero(), null));
+                movimentacoes.add(Movimentacao.apos(destino, TipoMovimentacao.TRANSFERENCIA_RECEBIDA,
+                        saldoAnteriorDestino, conta.getNumero(), null));
+                alteradas.put(destino.getNumero(), destino);
+            }
+        }
+
+        alteradas.put(conta.getNumero(), conta);
+        return conta;
+    }
+
+    // Nada é gravado: as operações já aplicadas em memória são descartadas junto com a transação
+    private LoteResultadoDto cancelar(LoteOperacoesDto dto, List<LoteResultadoDto.Item> itens, int indiceFalha) {
+        List<LoteResultadoDto.Item> cancelados = new ArrayList<>(dto.operacoes().size());
+        for (int i = 0; i < dto.operacoes().size(); i++) {
+            if (i == indiceFalha) {
+                cancelados.add(itens.get(i));
+            } else {
+                cancelados.add(new LoteResultadoDto.Item(i, LoteResultadoDto.Status.CANCELADA, null,
+                        "Lote cancelado pela falha da operação " + indiceFalha + "."));
+            }
+        }
+        return new LoteResultadoDto(dto.modo(), 0, 1, cancelados);
+    }
+
+    // As contas vêm ordenadas por número, assim lotes concorrentes travam as linhas na mesma ordem
+    private void gravar(Collection<Conta> alteradas) {
+        if (alteradas.isEmpty())
+            return;
+
+        List<Conta> contas = new ArrayList<>(alteradas);
+        int[][] resultados = jdbcTemplate.batchUpdate(ATUALIZAR_SALDO, contas, contas.size(), (ps, conta) -> {
+            ps.setBigDecimal(1, conta.getSaldo().paraBigDecimal());
+            ps.setLong(2, conta.getNumero());
+            ps.setLong(3, conta.getVersao());
+        });
+
+        int semEfeito = ResultadosDeLote.primeiroSemEfeito(resultados);
+        if (semEfeito >= 0)
+            throw new OptimisticLockingFailureException(
+                    "Conta " + contas.get(semEfeito).getNumero() + " alterada por outra operação durante o lote");
+
+        // A gravação via JDBC não passa pelos callbacks do Hibernate, então o evento é publicado aqui
+        contas.forEach(conta -> eventPublisher.publishEvent(new ContaAlteradaEvent(conta.getNumero(), null)));
+    }
+
+    private Conta buscar(Map<Long, Conta> contas, Long numero) {
+        Conta conta = numero != null ? contas.get(numero) : null;
+        if (conta == null)
+            throw new EntidadeNaoEncontradaException("conta");
+        return conta;
+    }
+}
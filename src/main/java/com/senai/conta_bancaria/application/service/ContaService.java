@@ -1,28 +1,75 @@
 package com.senai.conta_bancaria.application.service;
 
-import com.senai.conta_bancaria.application.dto.ContaAtualizacaoDto;
-import com.senai.conta_bancaria.application.dto.ContaResumoDto;
-import com.senai.conta_bancaria.application.dto.TransferenciaDto;
-import com.senai.conta_bancaria.application.dto.ValorSaqueDepositoDto;
+import com.senai.conta_bancaria.application.dto.*;
 import com.senai.conta_bancaria.domain.entity.Conta;
 import com.senai.conta_bancaria.domain.entity.ContaCorrente;
 import com.senai.conta_bancaria.domain.entity.ContaPoupanca;
+import com.senai.conta_bancaria.domain.entity.Movimentacao;
+import com.senai.conta_bancaria.domain.enums.TipoMovimentacao;
 import com.senai.conta_bancaria.domain.exception.EntidadeNaoEncontradaException;
 import com.senai.conta_bancaria.domain.exception.RendimentoInvalidoException;
+import com.senai.conta_bancaria.domain.exception.SaldoFracionadoInvalidoException;
+import com.senai.conta_bancaria.domain.exception.SaldoInsuficienteException;
 import com.senai.conta_bancaria.domain.exception.TipoDeContaInvalidaException;
 import com.senai.conta_bancaria.domain.repository.ContaRepository;
+import com.senai.conta_bancaria.domain.repository.MovimentacaoRepository;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.domain.valueobject.ResumoConta;
+import com.senai.conta_bancaria.infrastructure.cache.CacheContasPorCpf;
+import com.senai.conta_bancaria.infrastructure.cache.CacheContasPorNumero;
+import com.senai.conta_bancaria.infrastructure.concorrencia.CommitEmGrupo;
+import com.senai.conta_bancaria.infrastructure.concorrencia.OperacoesAtomicasConta;
+import com.senai.conta_bancaria.infrastructure.concorrencia.PoliticaDeRetentativa;
+import com.senai.conta_bancaria.infrastructure.concorrencia.TransferenciaExecutor;
+import com.senai.conta_bancaria.infrastructure.ledger.LedgerContas;
+import com.senai.conta_bancaria.infrastructure.movimentacao.DiarioDeMovimentacoes;
+import com.senai.conta_bancaria.infrastructure.movimentacao.HistoricoDeSaldos;
+import com.senai.conta_bancaria.infrastructure.replicacao.ReplicacaoSeguidor;
+import com.senai.conta_bancaria.infrastructure.saldo.SaldosFracionados;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 @Transactional
 public class ContaService {
+    private static final int LIMITE_MAXIMO_EXTRATO = 200;
+
+    public enum ModoOperacao {
+        LEDGER,  // saques e depósitos assíncronos enfileirados no ledger, gravados em lote por shard
+        ATOMICO, // um UPDATE condicional por operação, na própria thread da requisição
+        AGRUPADO // depósitos por UPDATE condicional, várias requisições por commit (saques como em ATOMICO)
+    }
+
     private final ContaRepository repository;
+    private final LedgerContas ledger;
+    private final TransferenciaExecutor transferenciaExecutor;
+    private final CacheContasPorCpf cacheContasPorCpf;
+    private final CacheContasPorNumero cacheContasPorNumero;
+    private final DiarioDeMovimentacoes diario;
+    private final MovimentacaoRepository movimentacaoRepository;
+    private final HistoricoDeSaldos historicoDeSaldos;
+    private final SaldosFracionados saldosFracionados;
+    private final TransactionTemplate transactionTemplate;
+    private final PoliticaDeRetentativa politicaDeRetentativa;
+    private final CommitEmGrupo commitEmGrupo;
+    private final ObjectProvider<ReplicacaoSeguidor> replicacao;
+    private final OperacoesAtomicasConta operacoesAtomicas;
+
+    @Value("${conta.operacoes.modo:LEDGER}")
+    private ModoOperacao modo;
 
     // CREATE: embutido em Cliente
 
@@ -30,38 +77,102 @@ public class ContaService {
     @Transactional(readOnly = true)
     @PreAuthorize("hasRole('CLIENTE')")
     public List<ContaResumoDto> listarTodasAsContas() {
-        return repository
-                .findAllByAtivoTrue()
+        return saldosFracionados.somarFatias(repository
+                        .findAllByAtivoTrue()
+                        .stream()
+                        .map(ResumoConta::de)
+                        .toList())
                 .stream()
-                .map(ContaResumoDto::fromEntity)
+                .map(ContaResumoDto::de)
                 .toList();
     }
 
     @Transactional(readOnly = true)
     @PreAuthorize("hasRole('CLIENTE')")
     public List<ContaResumoDto> listarContasPorCpf(Long cpf) {
-        return repository
-                .findAllByAtivoTrue()
+        return cacheContasPorCpf
+                .buscar(cpf, chave -> saldosFracionados.somarFatias(repository.findResumoAtivasByCpf(chave)))
                 .stream()
-                .filter(c -> c.getCliente().getCpf().equals(cpf))
-                .map(ContaResumoDto::fromEntity)
+                .map(ContaResumoDto::de)
                 .toList();
     }
 
-    @Transactional(readOnly = true)
+    // SUPPORTS: no seguidor da replicação a leitura em memória não chega a pegar conexão com o banco
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     @PreAuthorize("hasRole('CLIENTE')")
     public ContaResumoDto buscarConta(Long numero) {
-        return ContaResumoDto.fromEntity(procurarContaAtiva(numero));
+        ReplicacaoSeguidor replica = replicacao.getIfAvailable();
+        if (replica != null && replica.emDia())
+            return replica.conta(numero)
+                    .map(ContaResumoDto::de)
+                    .orElseThrow(() -> new EntidadeNaoEncontradaException("conta"));
+
+        return procurarResumoAtivo(numero);
+    }
+
+    // Extrato do mais recente para o mais antigo, paginado pelo cursor (data_hora, id) da última linha entregue
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasRole('CLIENTE')")
+    public ExtratoDto extrato(Long numero, String cursor, int limite) {
+        procurarResumoAtivo(numero);
+        limite = Math.clamp(limite, 1, LIMITE_MAXIMO_EXTRATO);
+
+        // Um item a mais indica se existe próxima página sem precisar de COUNT
+        Limit limiteConsulta = Limit.of(limite + 1);
+        List<Movimentacao> movimentacoes;
+        if (cursor == null || cursor.isBlank()) {
+            movimentacoes = movimentacaoRepository.findExtrato(numero, limiteConsulta);
+        } else {
+            CursorExtrato posicao = CursorExtrato.decodificar(cursor);
+            movimentacoes = movimentacaoRepository
+                    .findExtratoAntesDe(numero, posicao.dataHora(), posicao.id(), limiteConsulta);
+        }
+
+        boolean haMais = movimentacoes.size() > limite;
+        List<Movimentacao> pagina = haMais ? movimentacoes.subList(0, limite) : movimentacoes;
+        String proximoCursor = haMais ? CursorExtrato.de(pagina.get(pagina.size() - 1)).codificar() : null;
+
+        return new ExtratoDto(pagina.stream().map(MovimentacaoDto::fromEntity).toList(), proximoCursor);
+    }
+
+    // Saldo histórico para auditoria: consolidação mais próxima antes do instante mais as movimentações
+    // seguintes. Vale também para contas encerradas, cujo histórico continua no diário.
+    @Transactional(readOnly = true)
+    @PreAuthorize("hasAnyRole('ADMIN','GERENTE')")
+    public SaldoHistoricoDto saldoEm(Long numero, LocalDateTime instante) {
+        Conta conta = repository
+                .findByNumero(numero)
+                .orElseThrow(() -> new EntidadeNaoEncontradaException("conta"));
+        // totais sempre consulta as fatias: a auditoria não depende do mapa local de contas quentes
+        HistoricoDeSaldos.SaldoReconstruido reconstruido =
+                historicoDeSaldos.saldoEm(numero, instante, saldosFracionados.totais(List.of(conta)).get(numero));
+
+        return new SaldoHistoricoDto(
+                numero,
+                instante,
+                reconstruido.saldo().paraBigDecimal(),
+                reconstruido.consolidadoEm(),
+                reconstruido.movimentacoesReaplicadas());
     }
 
     // UPDATE
     @PreAuthorize("hasRole('CLIENTE')")
     public ContaResumoDto atualizarConta(Long numero, ContaAtualizacaoDto dto) {
         Conta conta = procurarContaAtiva(numero);
+        // O saldo informado é o total, então as fatias de uma conta quente são incorporadas antes
+        saldosFracionados.consolidar(conta);
+        Dinheiro saldoAnterior = conta.getSaldo();
+
+        conta.setSaldo(Dinheiro.de(dto.saldo()));
+        if (!conta.getSaldo().equals(saldoAnterior)) {
+            TipoMovimentacao tipo = conta.getSaldo().maiorQue(saldoAnterior)
+                    ? TipoMovimentacao.AJUSTE_CREDITO
+                    : TipoMovimentacao.AJUSTE_DEBITO;
+            diario.registrar(Movimentacao.apos(conta, tipo, saldoAnterior));
+        }
 
-        conta.setSaldo(dto.saldo());
         if (conta instanceof ContaCorrente contaCorrente) {
-            contaCorrente.setLimite(dto.limite());
+            contaCorrente.setLimite(Dinheiro.de(dto.limite()));
             contaCorrente.setTaxa(dto.taxa());
         } else if (conta instanceof ContaPoupanca contaPoupanca) {
             contaPoupanca.setRendimento(dto.rendimento());
@@ -69,7 +180,7 @@ public class ContaService {
             throw new TipoDeContaInvalidaException("");
         }
 
-        return ContaResumoDto.fromEntity(repository.save(conta));
+        return resumo(repository.save(conta));
     }
 
     // DELETE
@@ -86,31 +197,86 @@ public class ContaService {
 
     @PreAuthorize("hasRole('CLIENTE')")
     public ContaResumoDto sacar(Long numero, ValorSaqueDepositoDto dto) {
-        Conta conta = procurarContaAtiva(numero);
-
-        conta.sacar(dto.valor());
-
-        return ContaResumoDto.fromEntity(repository.save(conta));
+        return sacarAtomico(numero, Dinheiro.de(dto.valor()));
     }
 
     @PreAuthorize("hasRole('CLIENTE')")
     public ContaResumoDto depositar(Long numero, ValorSaqueDepositoDto dto) {
+        return depositarAtomico(numero, Dinheiro.de(dto.valor()));
+    }
+
+    // Sem transação aqui: o executor abre uma por tentativa para poder repetir em caso de conflito
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @PreAuthorize("hasRole('CLIENTE')")
+    public ContaResumoDto transferir(Long numeroOrigem, TransferenciaDto dto) {
+        return resumo(
+                transferenciaExecutor.transferir(numeroOrigem, dto.numeroDestino(), Dinheiro.de(dto.valor())));
+    }
+
+    // Liga (fatias > 1) ou desliga o saldo fracionado de uma conta que recebe muitos créditos concorrentes
+    @PreAuthorize("hasAnyRole('ADMIN','GERENTE')")
+    public ContaResumoDto definirFatiasSaldo(Long numero, int fatias) {
         Conta conta = procurarContaAtiva(numero);
+        int quantidade = fatias > 1 ? Math.min(fatias, SaldosFracionados.MAXIMO_FATIAS) : 0;
+        // O rendimento mensal atualiza só a linha conta: numa poupança fracionada o dinheiro das fatias não renderia
+        if (quantidade > 1 && conta instanceof ContaPoupanca)
+            throw new SaldoFracionadoInvalidoException();
 
-        conta.depositar(dto.valor());
+        // As fatias existentes voltam para a linha conta; se o modo continuar ligado, os créditos recomeçam nelas
+        saldosFracionados.consolidar(conta);
+        conta.setFatiasSaldo(quantidade);
+        saldosFracionados.registrarModo(numero, quantidade);
 
         return ContaResumoDto.fromEntity(repository.save(conta));
     }
 
+    // Ações assíncronas: aplicadas pelo ledger, sem prender a thread da requisição numa transação
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     @PreAuthorize("hasRole('CLIENTE')")
-    public ContaResumoDto transferir(Long numeroOrigem, TransferenciaDto dto) {
-        Conta contaOrigem = procurarContaAtiva(numeroOrigem);
-        Conta contaDestino = procurarContaAtiva(dto.numeroDestino());
+    public CompletableFuture<ContaResumoDto> sacarAsync(Long numero, ValorSaqueDepositoDto dto) {
+        if (modo != ModoOperacao.LEDGER) {
+            Dinheiro valor = Dinheiro.de(dto.valor());
+            return CompletableFuture.completedFuture(emTransacao("saque", () -> sacarAtomico(numero, valor)));
+        }
+
+        return ledger
+                .sacar(numero, Dinheiro.de(dto.valor()))
+                .thenApply(this::resumo);
+    }
+
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @PreAuthorize("hasRole('CLIENTE')")
+    public CompletableFuture<ContaResumoDto> depositarAsync(Long numero, ValorSaqueDepositoDto dto) {
+        if (modo == ModoOperacao.AGRUPADO) {
+            Dinheiro valor = Dinheiro.de(dto.valor());
+            return commitEmGrupo.submeter("deposito", () -> depositarAtomico(numero, valor));
+        }
+
+        // Modo atômico, ou conta quente (o crédito vai direto para uma fatia): resolve na thread da requisição em
+        // vez de enfileirar no único escritor do shard da conta
+        if (modo == ModoOperacao.ATOMICO || saldosFracionados.quente(numero)) {
+            Dinheiro valor = Dinheiro.de(dto.valor());
+            return CompletableFuture.completedFuture(emTransacao("deposito", () -> depositarAtomico(numero, valor)));
+        }
+
+        return ledger
+                .depositar(numero, Dinheiro.de(dto.valor()))
+                .thenApply(this::resumo);
+    }
 
-        contaOrigem.transferir(contaDestino, dto.valor());
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    @PreAuthorize("hasRole('CLIENTE')")
+    public CompletableFuture<ContaResumoDto> transferirAsync(Long numeroOrigem, TransferenciaDto dto) {
+        // Destino quente: o executor credita uma fatia sem travar a linha do destino. Destino em outro nó: o
+        // executor debita aqui e deixa o crédito para o dono
+        if (saldosFracionados.quente(dto.numeroDestino())
+                || transferenciaExecutor.destinoEmOutroNo(dto.numeroDestino()))
+            return CompletableFuture.completedFuture(transferir(numeroOrigem, dto));
 
-        repository.save(contaDestino);
-        return ContaResumoDto.fromEntity(repository.save(contaOrigem));
+        return ledger
+                .transferir(numeroOrigem, dto.numeroDestino(), Dinheiro.de(dto.valor()))
+                .thenApply(this::resumo);
     }
 
     @PreAuthorize("hasRole('CLIENTE')")
@@ -120,9 +286,74 @@ public class ContaService {
         if (!(conta instanceof ContaPoupanca contaPoupanca))
             throw new RendimentoInvalidoException();
 
+        saldosFracionados.consolidar(contaPoupanca);
+        Dinheiro saldoAnterior = contaPoupanca.getSaldo();
         contaPoupanca.aplicarRendimento();
+        diario.registrar(Movimentacao.apos(contaPoupanca, TipoMovimentacao.RENDIMENTO, saldoAnterior));
 
-        return ContaResumoDto.fromEntity(repository.save(conta));
+        return resumo(repository.save(conta));
+    }
+
+    // Um UPDATE condicional resolve o saque. Se a linha não cobre o valor, a conta só é carregada quando há saldo
+    // em fatias; quem responde é o banco, porque o mapa local pode não saber ainda que outro nó ligou o modo.
+    private ContaResumoDto sacarAtomico(Long numero, Dinheiro valor) {
+        if (saldosFracionados.quente(numero))
+            return sacarCarregando(numero, valor);
+
+        OperacoesAtomicasConta.SaldoAtualizado atualizado;
+        try {
+            atualizado = operacoesAtomicas.debitar(numero, valor);
+        } catch (SaldoInsuficienteException e) {
+            if (!saldosFracionados.temSaldoEmFatias(numero))
+                throw e;
+            return sacarCarregando(numero, valor);
+        }
+
+        diario.registrar(Movimentacao.de(numero, TipoMovimentacao.SAQUE, atualizado.valor(), atualizado.saldo(),
+                null, null));
+        return new ContaResumoDto(numero, atualizado.tipo(), atualizado.saldo());
+    }
+
+    private ContaResumoDto sacarCarregando(Long numero, Dinheiro valor) {
+        Conta conta = procurarContaAtiva(numero);
+        saldosFracionados.prepararDebito(conta, valor);
+        Dinheiro saldoAnterior = conta.getSaldo();
+
+        conta.sacar(valor);
+        diario.registrar(Movimentacao.apos(conta, TipoMovimentacao.SAQUE, saldoAnterior));
+
+        return resumo(repository.save(conta));
+    }
+
+    private ContaResumoDto depositarAtomico(Long numero, Dinheiro valor) {
+        // O mapa local pode estar atrasado: a fatia só é usada se a conta lida agora ainda estiver fracionada
+        if (saldosFracionados.quente(numero)) {
+            Conta conta = procurarContaAtiva(numero);
+            if (saldosFracionados.fracionada(conta))
+                return depositarEmFatia(conta, valor);
+        }
+
+        OperacoesAtomicasConta.SaldoAtualizado atualizado = operacoesAtomicas.creditar(numero, valor);
+        diario.registrar(Movimentacao.de(numero, TipoMovimentacao.DEPOSITO, atualizado.valor(), atualizado.saldo(),
+                null, null));
+        return new ContaResumoDto(numero, atualizado.tipo(), atualizado.saldo());
+    }
+
+    private ContaResumoDto depositarEmFatia(Conta conta, Dinheiro valor) {
+        conta.validarCredito(valor);
+        Dinheiro saldoApos = saldosFracionados.creditar(conta, valor);
+        diario.registrar(Movimentacao.credito(conta, TipoMovimentacao.DEPOSITO, valor, saldoApos, null, null));
+
+        return new ContaResumoDto(conta.getNumero(), conta.getTipo(), saldoApos);
+    }
+
+    // Para os caminhos assíncronos, que rodam fora da transação da classe
+    private ContaResumoDto emTransacao(String operacao, Supplier<ContaResumoDto> acao) {
+        return politicaDeRetentativa.executar(operacao, () -> transactionTemplate.execute(status -> acao.get()));
+    }
+
+    private ContaResumoDto resumo(Conta conta) {
+        return new ContaResumoDto(conta.getNumero(), conta.getTipo(), saldosFracionados.total(conta));
     }
 
     // Mét0do auxiliar para as requisições
@@ -131,4 +362,12 @@ public class ContaService {
                 .findByNumeroAndAtivoTrue(numero)
                 .orElseThrow(() -> new EntidadeNaoEncontradaException("conta"));
     }
+
+    // Leituras que só precisam do resumo passam pelo cache; as escritas continuam carregando a entidade
+    private ContaResumoDto procurarResumoAtivo(Long numero) {
+        return cacheContasPorNumero
+                .buscar(numero, chave -> saldosFracionados.somarFatias(repository.findResumoAtivaByNumero(chave)))
+                .map(ContaResumoDto::de)
+                .orElseThrow(() -> new EntidadeNaoEncontradaException("conta"));
+    }
 }
\ No newline at end of file
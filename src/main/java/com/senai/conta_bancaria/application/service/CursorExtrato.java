@@ -0,0 +1,39 @@
+package com.senai.conta_bancaria.application.service;
+
+import com.senai.conta_bancaria.domain.entity.Movimentacao;
+import com.senai.conta_bancaria.domain.exception.CursorInvalidoException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Posição da última movimentação entregue, opaca para o cliente (Base64 de "dataHora|id")
+record CursorExtrato(LocalDateTime dataHora, Long id) {
+
+    private static final String SEPARADOR = "|";
+
+    static CursorExtrato de(Movimentacao movimentacao) {
+        return new CursorExtrato(movimentacao.getDataHora(), movimentacao.getId());
+    }
+
+    static CursorExtrato decodificar(String cursor) {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = texto.indexOf(SEPARADOR);
+            if (separador < 0)
+                throw new CursorInvalidoException();
+
+            return new CursorExtrato(
+                    LocalDateTime.parse(texto.substring(0, separador)),
+                    Long.parseLong(texto.substring(separador + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new CursorInvalidoException();
+        }
+    }
+
+    String codificar() {
+        String texto = dataHora + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,40 @@
+package com.senai.conta_bancaria.application.service;
+
+import com.senai.conta_bancaria.domain.entity.Pagamento;
+import com.senai.conta_bancaria.domain.exception.CursorInvalidoException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+// Posição do último pagamento entregue, opaca para o cliente (Base64 de "dataPagamento|id")
+record CursorPagamentos(LocalDateTime dataPagamento, UUID id) {
+
+    private static final String SEPARADOR = "|";
+
+    static CursorPagamentos de(Pagamento pagamento) {
+        return new CursorPagamentos(pagamento.getDataPagamento(), pagamento.getId());
+    }
+
+    static CursorPagamentos decodificar(String cursor) {
+        try {
+            String texto = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separador = texto.indexOf(SEPARADOR);
+            if (separador < 0)
+                throw new CursorInvalidoException();
+
+            return new CursorPagamentos(
+                    LocalDateTime.parse(texto.substring(0, separador)),
+                    UUID.fromString(texto.substring(separador + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new CursorInvalidoException();
+        }
+    }
+
+    String codificar() {
+        String texto = dataPagamento + SEPARADOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,173 @@
+package com.senai.conta_bancaria.application.service;
+
+import com.senai.conta_bancaria.application.dto.PagamentoAgendadoDto;
+import com.senai.conta_bancaria.application.dto.PagamentoAgendadoResponseDto;
+import com.senai.conta_bancaria.application.service.PagamentoLoteService.Pedido;
+import com.senai.conta_bancaria.application.service.PagamentoLoteService.Resultado;
+import com.senai.conta_bancaria.domain.entity.Conta;
+import com.senai.conta_bancaria.domain.entity.PagamentoAgendado;
+import com.senai.conta_bancaria.domain.enums.PagamentoStatus;
+import com.senai.conta_bancaria.domain.enums.StatusAgendamento;
+import com.senai.conta_bancaria.domain.exception.EntidadeNaoEncontradaException;
+import com.senai.conta_bancaria.domain.repository.ContaRepository;
+import com.senai.conta_bancaria.domain.repository.PagamentoAgendadoRepository;
+import com.senai.conta_bancaria.infrastructure.cache.CatalogoDeTaxas;
+import com.senai.conta_bancaria.infrastructure.concorrencia.PoliticaDeRetentativa;
+import com.senai.conta_bancaria.infrastructure.coordenacao.CoordenacaoDeNos;
+import com.senai.conta_bancaria.infrastructure.coordenacao.CoordenacaoDeNos.Posse;
+import com.senai.conta_bancaria.infrastructure.persistencia.ResultadosDeLote;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+@Service
+@RequiredArgsConstructor
+public class PagamentoAgendadoService {
+
+    // Só enquanto AGENDADO: um cancelamento confirmado antes faz o lote ser refeito sem o agendamento
+    private static final String GRAVAR_RESULTADO = """
+            UPDATE pagamento_agendado
+            SET status = ?, pagamento_id = ?, mensagem = ?, executado_em = ?, versao = versao + 1
+            WHERE id = ? AND status = 'AGENDADO'""";
+
+    private static final String ESTACIONAR = """
+            UPDATE pagamento_agendado
+            SET status = ?, mensagem = ?, executado_em = ?, versao = versao + 1
+            WHERE id = ? AND status = 'AGENDADO'""";
+
+    private static final int TAMANHO_MENSAGEM = 500;
+
+    private record Execucao(PagamentoAgendado agendamento, Resultado resultado) {
+    }
+
+    private final PagamentoAgendadoRepository repository;
+    private final ContaRepository contaRepository;
+    private final CatalogoDeTaxas catalogoDeTaxas;
+    private final PagamentoLoteService pagamentoLoteService;
+    private final CoordenacaoDeNos coordenacao;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PoliticaDeRetentativa politicaDeRetentativa;
+
+    @Transactional
+    public PagamentoAgendadoResponseDto agendar(PagamentoAgendadoDto dto) {
+        Conta conta = contaRepository.findById(UUID.fromString(dto.getContaId()))
+                .orElseThrow(() -> new EntidadeNaoEncontradaException("Conta não encontrada"));
+        // Taxa desconhecida é recusada já no agendamento; o valor delas é calculado na execução
+        catalogoDeTaxas.resolver(dto.getTaxasIds());
+
+        PagamentoAgendado agendamento = repository.save(PagamentoAgendado.agendar(
+                conta, dto.getBoleto(), dto.getValorPago(), dto.getTaxasIds(), dto.getObservacao(),
+                dto.getExecutarEm()));
+        return PagamentoAgendadoResponseDto.fromEntity(agendamento);
+    }
+
+    // Pagamentos de remessa cujas contas são atendidas por outro nó do cluster viram agendamentos para agora, que o
+    // despachante do dono executa no próximo giro. Roda na transação de quem chama; devolve os ids na mesma ordem.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<UUID> encaminhar(List<Pedido> pedidos) {
+        if (pedidos.isEmpty())
+            return List.of();
+
+        LocalDateTime agora = LocalDateTime.now();
+        return repository.saveAll(pedidos.stream()
+                        .map(pedido -> PagamentoAgendado.agendar(contaRepository.getReferenceById(pedido.contaId()),
+                                pedido.boleto(), pedido.valor(), pedido.taxasIds(), pedido.observacao(), agora))
+                        .toList())
+                .stream()
+                .map(PagamentoAgendado::getId)
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    public PagamentoAgendadoResponseDto buscar(UUID id) {
+        return PagamentoAgendadoResponseDto.fromEntity(procurar(id));
+    }
+
+    // Concorre com a execução pela versão: se ela venceu, a nova tentativa encontra o agendamento já executado
+    public PagamentoAgendadoResponseDto cancelar(UUID id) {
+        return politicaDeRetentativa.executar("cancelamento de agendamento", () -> transactionTemplate
+                .execute(status -> {
+                    PagamentoAgendado agendamento = procurar(id);
+                    agendamento.cancelar();
+                    return PagamentoAgendadoResponseDto.fromEntity(repository.saveAndFlush(agendamento));
+                }));
+    }
+
+    // Executa os agendamentos vencidos de um lote do despachante numa transação só; os que já não estão
+    // AGENDADO (cancelados, executados por um líder anterior) são ignorados. Retorna quantos foram executados.
+    public int executar(Collection<UUID> ids, Posse posse) {
+        return politicaDeRetentativa.executar("agendamento", () -> transactionTemplate.execute(status -> {
+            coordenacao.validar(posse);
+            List<PagamentoAgendado> pendentes = new ArrayList<>(
+                    repository.findReadOnlyComTaxas(ids, StatusAgendamento.AGENDADO));
+            if (pendentes.isEmpty())
+                return 0;
+
+            // Dentro de uma conta, na ordem em que foram marcados para executar
+            pendentes.sort(Comparator.comparing(PagamentoAgendado::getExecutarEm)
+                    .thenComparing(PagamentoAgendado::getCriadoEm));
+            List<Resultado> resultados = pagamentoLoteService.pagar(pendentes.stream()
+                    .map(agendamento -> new Pedido(agendamento.getConta().getId(), agendamento.getBoleto(),
+                            agendamento.getValorPago(), agendamento.getTaxasIds(), agendamento.getObservacao()))
+                    .toList());
+
+            List<Execucao> execucoes = new ArrayList<>(pendentes.size());
+            for (int i = 0; i < pendentes.size(); i++)
+                execucoes.add(new Execucao(pendentes.get(i), resultados.get(i)));
+            gravarResultados(execucoes);
+            return pendentes.size();
+        }));
+    }
+
+    // Agendamento que falhou seguidas vezes sem chegar a um resultado sai da fila como REJEITADO, com o motivo
+    public void estacionar(UUID id, String mensagem, Posse posse) {
+        String motivo = mensagem.length() > TAMANHO_MENSAGEM ? mensagem.substring(0, TAMANHO_MENSAGEM) : mensagem;
+        transactionTemplate.executeWithoutResult(status -> {
+            coordenacao.validar(posse);
+            jdbcTemplate.update(ESTACIONAR, StatusAgendamento.REJEITADO.name(), motivo,
+                    Timestamp.valueOf(LocalDateTime.now()), PagamentoLoteService.bytes(id));
+        });
+    }
+
+    private void gravarResultados(List<Execucao> execucoes) {
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        int[][] gravados = jdbcTemplate.batchUpdate(GRAVAR_RESULTADO, execucoes, execucoes.size(), (ps, execucao) -> {
+            Resultado resultado = execucao.resultado();
+            if (resultado.pagamento() == null) {
+                ps.setString(1, StatusAgendamento.REJEITADO.name());
+                ps.setBytes(2, null);
+                ps.setString(3, resultado.erro());
+            } else {
+                ps.setString(1, StatusAgendamento.EXECUTADO.name());
+                ps.setBytes(2, PagamentoLoteService.bytes(resultado.pagamento().getId()));
+                ps.setString(3, resultado.pagamento().getStatus() == PagamentoStatus.SUCESSO
+                        ? null : resultado.pagamento().getObservacao());
+            }
+            ps.setTimestamp(4, agora);
+            ps.setBytes(5, PagamentoLoteService.bytes(execucao.agendamento().getId()));
+        });
+
+        int semEfeito = ResultadosDeLote.primeiroSemEfeito(gravados);
+        if (semEfeito >= 0)
+            throw new OptimisticLockingFailureException("Agendamento "
+                    + execucoes.get(semEfeito).agendamento().getId() + " cancelado durante a execução");
+    }
+
+    private PagamentoAgendado procurar(UUID id) {
+        return repository.findById(id)
+                .orElseThrow(() -> new EntidadeNaoEncontradaException("Pagamento agendado não encontrado"));
+    }
+}
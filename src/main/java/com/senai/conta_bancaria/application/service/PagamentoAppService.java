@@ -1,141 +1,153 @@
 package com.senai.conta_bancaria.application.service;
 
+import com.senai.conta_bancaria.application.dto.FiltroPagamentosDto;
 import com.senai.conta_bancaria.application.dto.PagamentoDto;
 import com.senai.conta_bancaria.application.dto.PagamentoResponseDto;
-import com.senai.conta_bancaria.application.dto.TaxaResponseDto;
+import com.senai.conta_bancaria.application.dto.PaginaPagamentosDto;
 import com.senai.conta_bancaria.domain.entity.Conta;
+import com.senai.conta_bancaria.domain.entity.Movimentacao;
 import com.senai.conta_bancaria.domain.entity.Pagamento;
 import com.senai.conta_bancaria.domain.entity.Taxa;
 import com.senai.conta_bancaria.domain.enums.PagamentoStatus;
+import com.senai.conta_bancaria.domain.enums.TipoMovimentacao;
 import com.senai.conta_bancaria.domain.exception.BoletoVencidoException;
 import com.senai.conta_bancaria.domain.exception.EntidadeNaoEncontradaException;
+import com.senai.conta_bancaria.domain.exception.PagamentoInvalidoException;
 import com.senai.conta_bancaria.domain.exception.SaldoInsuficienteException;
 import com.senai.conta_bancaria.domain.repository.ContaRepository;
+import com.senai.conta_bancaria.domain.repository.PagamentoConsulta;
 import com.senai.conta_bancaria.domain.repository.PagamentoRepository;
-import com.senai.conta_bancaria.domain.repository.TaxaRepository;
 import com.senai.conta_bancaria.domain.service.PagamentoDomainService;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.infrastructure.cache.CatalogoDeTaxas;
+import com.senai.conta_bancaria.infrastructure.movimentacao.DiarioDeMovimentacoes;
+import com.senai.conta_bancaria.infrastructure.replicacao.ReplicacaoSeguidor;
+import com.senai.conta_bancaria.infrastructure.saldo.SaldosFracionados;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.time.LocalDateTime;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.UUID;
 
 @Service
 @RequiredArgsConstructor
 public class PagamentoAppService {
     
+    private static final int LIMITE_MAXIMO_PAGINA = 200;
+    
     private final PagamentoRepository pagamentoRepository;
     private final ContaRepository contaRepository;
-    private final TaxaRepository taxaRepository;
+    private final CatalogoDeTaxas catalogoDeTaxas;
     private final PagamentoDomainService pagamentoDomainService;
+    private final DiarioDeMovimentacoes diario;
+    private final SaldosFracionados saldosFracionados;
+    private final ObjectProvider<ReplicacaoSeguidor> replicacao;
     
     @Transactional
     public PagamentoResponseDto realizarPagamento(PagamentoDto dto) {
-        Conta conta = contaRepository.findById(dto.getContaId())
+        Conta conta = contaRepository.findById(UUID.fromString(dto.getContaId()))
                 .orElseThrow(() -> new EntidadeNaoEncontradaException("Conta não encontrada"));
         
-        Set<Taxa> taxas = new HashSet<>();
-        if (dto.getTaxasIds() != null && !dto.getTaxasIds().isEmpty()) {
-            taxas = dto.getTaxasIds().stream()
-                    .map(id -> taxaRepository.findById(id)
-                            .orElseThrow(() -> new EntidadeNaoEncontradaException("Taxa não encontrada: " + id)))
-                    .collect(Collectors.toSet());
-        }
+        Set<Taxa> taxas = catalogoDeTaxas.resolver(dto.getTaxasIds());
         
+        // Taxas calculadas uma vez só, tanto para o pagamento quanto para o registro de falha
+        Dinheiro valorPago = Dinheiro.de(dto.getValorPago());
+        Dinheiro valorTotalTaxas = pagamentoDomainService.calcularTotalTaxas(valorPago, taxas);
+        saldosFracionados.prepararDebito(conta, valorPago.mais(valorTotalTaxas));
+
         Pagamento pagamento;
+        Dinheiro saldoAnterior = conta.getSaldo();
         try {
             pagamento = pagamentoDomainService.processarPagamento(
                     conta, 
                     dto.getBoleto(), 
                     dto.getValorPago(), 
-                    taxas
+                    taxas,
+                    valorTotalTaxas
             );
             pagamento.setObservacao(dto.getObservacao());
             
         } catch (SaldoInsuficienteException e) {
-            pagamento = criarPagamentoFalha(conta, dto, taxas, PagamentoStatus.SALDO_INSUFICIENTE, e.getMessage());
+            pagamento = criarPagamentoFalha(conta, dto, taxas, valorTotalTaxas,
+                    PagamentoStatus.SALDO_INSUFICIENTE, e.getMessage());
         } catch (BoletoVencidoException e) {
-            pagamento = criarPagamentoFalha(conta, dto, taxas, PagamentoStatus.BOLETO_VENCIDO, e.getMessage());
+            pagamento = criarPagamentoFalha(conta, dto, taxas, valorTotalTaxas,
+                    PagamentoStatus.BOLETO_VENCIDO, e.getMessage());
         } catch (Exception e) {
-            pagamento = criarPagamentoFalha(conta, dto, taxas, PagamentoStatus.FALHA, e.getMessage());
+            pagamento = criarPagamentoFalha(conta, dto, taxas, valorTotalTaxas,
+                    PagamentoStatus.FALHA, e.getMessage());
         }
         
         Pagamento pagamentoSalvo = pagamentoRepository.save(pagamento);
         contaRepository.save(conta);
+        if (!conta.getSaldo().equals(saldoAnterior))
+            diario.registrar(Movimentacao.apos(
+                    conta, TipoMovimentacao.PAGAMENTO, saldoAnterior, null, pagamentoSalvo.getBoleto()));
         
-        return converterParaDto(pagamentoSalvo);
+        return PagamentoResponseDto.fromEntity(pagamentoSalvo);
     }
     
-    private Pagamento criarPagamentoFalha(Conta conta, PagamentoDto dto, Set<Taxa> taxas, 
+    private Pagamento criarPagamentoFalha(Conta conta, PagamentoDto dto, Set<Taxa> taxas, Dinheiro valorTotalTaxas,
                                           PagamentoStatus status, String observacao) {
-        return Pagamento.builder()
-                .conta(conta)
-                .boleto(dto.getBoleto())
-                .valorPago(dto.getValorPago())
-                .valorTotalTaxas(pagamentoDomainService.calcularTotalTaxas(dto.getValorPago(), taxas))
-                .valorTotal(pagamentoDomainService.calcularValorTotal(dto.getValorPago(), taxas))
-                .taxas(taxas)
-                .dataPagamento(LocalDateTime.now())
-                .status(status)
-                .observacao(observacao)
-                .build();
+        return pagamentoDomainService.recusarPagamento(
+                conta, dto.getBoleto(), dto.getValorPago(), taxas, valorTotalTaxas, status, observacao);
     }
     
     @Transactional(readOnly = true)
-    public List<PagamentoResponseDto> listarTodos() {
-        return pagamentoRepository.findAll().stream()
-                .map(this::converterParaDto)
-                .collect(Collectors.toList());
+    public PaginaPagamentosDto listarTodos(FiltroPagamentosDto filtro, String cursor, int limite) {
+        return buscar(null, null, filtro, cursor, limite);
     }
     
     @Transactional(readOnly = true)
-    public List<PagamentoResponseDto> listarPorConta(String contaId) {
-        return pagamentoRepository.findByContaId(contaId).stream()
-                .map(this::converterParaDto)
-                .collect(Collectors.toList());
+    public PaginaPagamentosDto listarPorConta(UUID contaId, FiltroPagamentosDto filtro, String cursor, int limite) {
+        return buscar(contaId, null, filtro, cursor, limite);
     }
     
     @Transactional(readOnly = true)
-    public List<PagamentoResponseDto> listarPorCliente(String clienteId) {
-        return pagamentoRepository.findByContaClienteId(clienteId).stream()
-                .map(this::converterParaDto)
-                .collect(Collectors.toList());
+    public PaginaPagamentosDto listarPorCliente(String clienteId, FiltroPagamentosDto filtro, String cursor,
+                                                int limite) {
+        return buscar(null, clienteId, filtro, cursor, limite);
     }
     
-    @Transactional(readOnly = true)
-    public PagamentoResponseDto buscarPorId(String id) {
-        Pagamento pagamento = pagamentoRepository.findById(id)
-                .orElseThrow(() -> new EntidadeNaoEncontradaException("Pagamento não encontrado"));
-        return converterParaDto(pagamento);
+    // Do mais recente para o mais antigo, paginado pelo cursor (dataPagamento, id) do último pagamento entregue
+    private PaginaPagamentosDto buscar(UUID contaId, String clienteId, FiltroPagamentosDto filtro, String cursor,
+                                       int limite) {
+        if (filtro.desde() != null && filtro.ate() != null && !filtro.desde().isBefore(filtro.ate()))
+            throw new PagamentoInvalidoException("A data inicial deve ser anterior à data final");
+        if (filtro.valorMinimo() != null && filtro.valorMaximo() != null
+                && filtro.valorMinimo().compareTo(filtro.valorMaximo()) > 0)
+            throw new PagamentoInvalidoException("O valor mínimo deve ser menor ou igual ao valor máximo");
+        limite = Math.clamp(limite, 1, LIMITE_MAXIMO_PAGINA);
+        
+        PagamentoConsulta.Filtro consulta = new PagamentoConsulta.Filtro(contaId, clienteId, filtro.desde(),
+                filtro.ate(), filtro.status(), filtro.valorMinimo(), filtro.valorMaximo());
+        CursorPagamentos posicao = cursor == null || cursor.isBlank() ? null : CursorPagamentos.decodificar(cursor);
+        
+        // Um item a mais indica se existe próxima página sem precisar de COUNT
+        List<Pagamento> pagamentos = posicao == null
+                ? pagamentoRepository.buscar(consulta, null, null, limite + 1)
+                : pagamentoRepository.buscar(consulta, posicao.dataPagamento(), posicao.id(), limite + 1);
+        
+        boolean haMais = pagamentos.size() > limite;
+        List<Pagamento> pagina = haMais ? pagamentos.subList(0, limite) : pagamentos;
+        String proximoCursor = haMais ? CursorPagamentos.de(pagina.get(pagina.size() - 1)).codificar() : null;
+        
+        return new PaginaPagamentosDto(pagina.stream().map(PagamentoResponseDto::fromEntity).toList(), proximoCursor);
     }
     
-    private PagamentoResponseDto converterParaDto(Pagamento pagamento) {
-        Set<TaxaResponseDto> taxasDto = pagamento.getTaxas().stream()
-                .map(taxa -> TaxaResponseDto.builder()
-                        .id(taxa.getId())
-                        .descricao(taxa.getDescricao())
-                        .percentual(taxa.getPercentual())
-                        .valorFixo(taxa.getValorFixo())
-                        .ativo(taxa.isAtivo())
-                        .build())
-                .collect(Collectors.toSet());
-        
-        return PagamentoResponseDto.builder()
-                .id(pagamento.getId())
-                .contaId(pagamento.getConta().getId())
-                .numeroConta(pagamento.getConta().getNumero().toString())
-                .boleto(pagamento.getBoleto())
-                .valorPago(pagamento.getValorPago())
-                .valorTotalTaxas(pagamento.getValorTotalTaxas())
-                .valorTotal(pagamento.getValorTotal())
-                .dataPagamento(pagamento.getDataPagamento())
-                .status(pagamento.getStatus())
-                .taxas(taxasDto)
-                .observacao(pagamento.getObservacao())
-                .build();
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public PagamentoResponseDto buscarPorId(UUID id) {
+        ReplicacaoSeguidor replica = replicacao.getIfAvailable();
+        if (replica != null && replica.emDia())
+            return replica.pagamento(id)
+                    .orElseThrow(() -> new EntidadeNaoEncontradaException("Pagamento não encontrado"));
+
+        Pagamento pagamento = pagamentoRepository.findById(id)
+                .orElseThrow(() -> new EntidadeNaoEncontradaException("Pagamento não encontrado"));
+        return PagamentoResponseDto.fromEntity(pagamento);
     }
 }
@@ -0,0 +1,209 @@
+package com.senai.conta_bancaria.application.service;
+
+import com.senai.conta_bancaria.domain.entity.Conta;
+import com.senai.conta_bancaria.domain.entity.GeradorIdOrdenado;
+import com.senai.conta_bancaria.domain.entity.Movimentacao;
+import com.senai.conta_bancaria.domain.entity.Pagamento;
+import com.senai.conta_bancaria.domain.entity.Taxa;
+import com.senai.conta_bancaria.domain.enums.PagamentoStatus;
+import com.senai.conta_bancaria.domain.enums.TipoMovimentacao;
+import com.senai.conta_bancaria.domain.event.ContaAlteradaEvent;
+import com.senai.conta_bancaria.domain.event.PagamentoAlteradoEvent;
+import com.senai.conta_bancaria.domain.exception.BoletoVencidoException;
+import com.senai.conta_bancaria.domain.exception.EntidadeNaoEncontradaException;
+import com.senai.conta_bancaria.domain.exception.SaldoInsuficienteException;
+import com.senai.conta_bancaria.domain.repository.ContaRepository;
+import com.senai.conta_bancaria.domain.service.PagamentoDomainService;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.infrastructure.cache.CatalogoDeTaxas;
+import com.senai.conta_bancaria.infrastructure.movimentacao.DiarioDeMovimentacoes;
+import com.senai.conta_bancaria.infrastructure.persistencia.ResultadosDeLote;
+import com.senai.conta_bancaria.infrastructure.saldo.SaldosFracionados;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Pagamentos em lote (remessas e agendamentos). Os pedidos são agrupados por conta (contas em ordem, pedidos de uma
+// conta na ordem recebida), passam pela mesma regra do pagamento avulso e são gravados com inserts em lote; cada
+// conta é carregada e atualizada uma única vez por lote. Roda na transação de quem chama, que cuida da retentativa.
+@Service
+@RequiredArgsConstructor
+public class PagamentoLoteService {
+
+    private static final String ATUALIZAR_SALDO =
+            "UPDATE conta SET saldo = ?, versao = versao + 1 WHERE numero = ? AND versao = ?";
+    private static final String INSERIR_PAGAMENTO = """
+            INSERT INTO pagamento (id, conta_id, boleto, valor_pago, data_pagamento, status, valor_total_taxas,
+                                   valor_total, observacao)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)""";
+    private static final String INSERIR_PAGAMENTO_TAXA =
+            "INSERT INTO pagamento_taxa (pagamento_id, taxa_id) VALUES (?, ?)";
+
+    public record Pedido(UUID contaId, String boleto, BigDecimal valor, Set<String> taxasIds, String observacao) {
+    }
+
+    // Sem pagamento quando o pedido é rejeitado antes de virar um (conta, taxa desconhecida ou inativa)
+    public record Resultado(Pagamento pagamento, String erro) {
+        public boolean pago() {
+            return pagamento != null && pagamento.getStatus() == PagamentoStatus.SUCESSO;
+        }
+    }
+
+    private record TaxaDoPagamento(UUID pagamentoId, String taxaId) {
+    }
+
+    private final ContaRepository contaRepository;
+    private final PagamentoDomainService pagamentoDomainService;
+    private final CatalogoDeTaxas catalogoDeTaxas;
+    private final SaldosFracionados saldosFracionados;
+    private final DiarioDeMovimentacoes diario;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Um resultado por pedido, na mesma ordem
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<Resultado> pagar(List<Pedido> pedidos) {
+        // Índices dos pedidos por conta, com as contas em ordem para que lotes concorrentes travem na mesma ordem
+        Map<UUID, List<Integer>> porConta = new TreeMap<>();
+        for (int i = 0; i < pedidos.size(); i++)
+            porConta.computeIfAbsent(pedidos.get(i).contaId(), contaId -> new ArrayList<>()).add(i);
+
+        // Todas as contas do lote numa única consulta IN, sem dirty-checking: a gravação é feita via JDBC
+        Map<UUID, Conta> contas = contaRepository.findReadOnlyByIdIn(porConta.keySet()).stream()
+                .collect(Collectors.toMap(Conta::getId, Function.identity()));
+
+        Resultado[] resultados = new Resultado[pedidos.size()];
+        Map<Long, Conta> alteradas = new TreeMap<>();
+        List<Pagamento> pagamentos = new ArrayList<>(pedidos.size());
+        List<Movimentacao> movimentacoes = new ArrayList<>(pedidos.size());
+
+        for (Map.Entry<UUID, List<Integer>> grupo : porConta.entrySet()) {
+            Conta conta = contas.get(grupo.getKey());
+            for (int indice : grupo.getValue()) {
+                if (conta == null) {
+                    resultados[indice] = new Resultado(null, "Conta não encontrada");
+                    continue;
+                }
+
+                Pagamento pagamento;
+                try {
+                    pagamento = pagar(conta, pedidos.get(indice), alteradas, movimentacoes);
+                } catch (EntidadeNaoEncontradaException e) {
+                    // Taxa desconhecida ou inativa: como no pagamento avulso, nada é registrado
+                    resultados[indice] = new Resultado(null, e.getMessage());
+                    continue;
+                }
+
+                pagamento.setId(GeradorIdOrdenado.novo());
+                pagamentos.add(pagamento);
+                resultados[indice] = new Resultado(pagamento, null);
+            }
+        }
+
+        gravarContas(alteradas.values());
+        gravarPagamentos(pagamentos);
+        diario.registrar(movimentacoes);
+        return Arrays.asList(resultados);
+    }
+
+    // Mesma regra de PagamentoAppService.realizarPagamento, sobre a conta já carregada para o lote
+    private Pagamento pagar(Conta conta, Pedido pedido, Map<Long, Conta> alteradas, List<Movimentacao> movimentacoes) {
+        Set<Taxa> taxas = catalogoDeTaxas.resolver(pedido.taxasIds());
+        Dinheiro valorTotalTaxas = pagamentoDomainService.calcularTotalTaxas(Dinheiro.de(pedido.valor()), taxas);
+
+        // As contas são somente leitura para o Hibernate: a conta consolidada é gravada mesmo se o pagamento falhar
+        if (saldosFracionados.prepararDebito(conta, Dinheiro.de(pedido.valor()).mais(valorTotalTaxas)))
+            alteradas.put(conta.getNumero(), conta);
+        Dinheiro saldoAnterior = conta.getSaldo();
+
+        try {
+            Pagamento pagamento = pagamentoDomainService.processarPagamento(
+                    conta, pedido.boleto(), pedido.valor(), taxas, valorTotalTaxas);
+            pagamento.setObservacao(pedido.observacao());
+            movimentacoes.add(Movimentacao.apos(
+                    conta, TipoMovimentacao.PAGAMENTO, saldoAnterior, null, pagamento.getBoleto()));
+            alteradas.put(conta.getNumero(), conta);
+            return pagamento;
+        } catch (SaldoInsuficienteException e) {
+            return recusar(conta, pedido, taxas, valorTotalTaxas, PagamentoStatus.SALDO_INSUFICIENTE, e);
+        } catch (BoletoVencidoException e) {
+            return recusar(conta, pedido, taxas, valorTotalTaxas, PagamentoStatus.BOLETO_VENCIDO, e);
+        } catch (RuntimeException e) {
+            return recusar(conta, pedido, taxas, valorTotalTaxas, PagamentoStatus.FALHA, e);
+        }
+    }
+
+    private Pagamento recusar(Conta conta, Pedido pedido, Set<Taxa> taxas, Dinheiro valorTotalTaxas,
+                              PagamentoStatus status, RuntimeException causa) {
+        return pagamentoDomainService.recusarPagamento(
+                conta, pedido.boleto(), pedido.valor(), taxas, valorTotalTaxas, status, causa.getMessage());
+    }
+
+    // As contas vêm ordenadas por número, assim lotes concorrentes travam as linhas na mesma ordem
+    private void gravarContas(Collection<Conta> alteradas) {
+        if (alteradas.isEmpty())
+            return;
+
+        List<Conta> contas = new ArrayList<>(alteradas);
+        int[][] resultados = jdbcTemplate.batchUpdate(ATUALIZAR_SALDO, contas, contas.size(), (ps, conta) -> {
+            ps.setBigDecimal(1, conta.getSaldo().paraBigDecimal());
+            ps.setLong(2, conta.getNumero());
+            ps.setLong(3, conta.getVersao());
+        });
+
+        int semEfeito = ResultadosDeLote.primeiroSemEfeito(resultados);
+        if (semEfeito >= 0)
+            throw new OptimisticLockingFailureException(
+                    "Conta " + contas.get(semEfeito).getNumero() + " alterada por outra operação durante o lote");
+
+        // A gravação via JDBC não passa pelos callbacks do Hibernate, então o evento é publicado aqui
+        contas.forEach(conta -> eventPublisher.publishEvent(new ContaAlteradaEvent(conta.getNumero(), null)));
+    }
+
+    private void gravarPagamentos(List<Pagamento> pagamentos) {
+        if (pagamentos.isEmpty())
+            return;
+
+        jdbcTemplate.batchUpdate(INSERIR_PAGAMENTO, pagamentos, pagamentos.size(), (ps, pagamento) -> {
+            ps.setBytes(1, bytes(pagamento.getId()));
+            ps.setBytes(2, bytes(pagamento.getConta().getId()));
+            ps.setString(3, pagamento.getBoleto());
+            ps.setBigDecimal(4, pagamento.getValorPago());
+            ps.setTimestamp(5, Timestamp.valueOf(pagamento.getDataPagamento()));
+            ps.setString(6, pagamento.getStatus().name());
+            ps.setBigDecimal(7, pagamento.getValorTotalTaxas());
+            ps.setBigDecimal(8, pagamento.getValorTotal());
+            ps.setString(9, pagamento.getObservacao());
+        });
+
+        List<TaxaDoPagamento> taxas = pagamentos.stream()
+                .flatMap(pagamento -> pagamento.getTaxas().stream()
+                        .map(taxa -> new TaxaDoPagamento(pagamento.getId(), taxa.getId())))
+                .toList();
+        if (!taxas.isEmpty())
+            jdbcTemplate.batchUpdate(INSERIR_PAGAMENTO_TAXA, taxas, taxas.size(), (ps, taxa) -> {
+                ps.setBytes(1, bytes(taxa.pagamentoId()));
+                ps.setString(2, taxa.taxaId());
+            });
+
+        pagamentos.forEach(pagamento -> eventPublisher.publishEvent(new PagamentoAlteradoEvent(pagamento.getId())));
+    }
+
+    static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+}
@@ -0,0 +1,249 @@
+package com.senai.conta_bancaria.application.service;
+
+import com.senai.conta_bancaria.application.dto.RemessaPagamentosDto;
+import com.senai.conta_bancaria.application.service.PagamentoLoteService.Pedido;
+import com.senai.conta_bancaria.application.service.PagamentoLoteService.Resultado;
+import com.senai.conta_bancaria.domain.entity.GeradorIdOrdenado;
+import com.senai.conta_bancaria.domain.entity.Pagamento;
+import com.senai.conta_bancaria.domain.entity.RemessaPagamentos;
+import com.senai.conta_bancaria.domain.enums.FormatoRemessa;
+import com.senai.conta_bancaria.domain.enums.StatusAgendamento;
+import com.senai.conta_bancaria.domain.enums.StatusExecucao;
+import com.senai.conta_bancaria.domain.exception.EntidadeNaoEncontradaException;
+import com.senai.conta_bancaria.domain.repository.RemessaPagamentosRepository;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.infrastructure.cluster.MembrosDoCluster;
+import com.senai.conta_bancaria.infrastructure.concorrencia.PoliticaDeRetentativa;
+import com.senai.conta_bancaria.infrastructure.coordenacao.CoordenacaoDeNos;
+import com.senai.conta_bancaria.infrastructure.coordenacao.CoordenacaoDeNos.Posse;
+import com.senai.conta_bancaria.infrastructure.remessa.ArquivosDeRemessa;
+import com.senai.conta_bancaria.infrastructure.remessa.LeitorDeRemessa;
+import com.senai.conta_bancaria.infrastructure.remessa.LinhaRemessa;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Pagamentos em lote a partir de um arquivo de remessa. O arquivo é gravado em disco e lido em blocos de linhas;
+// cada bloco passa pelo PagamentoLoteService e é confirmado numa transação junto com o ponto de retomada.
+// Depois de uma queda a remessa continua a partir do último bloco confirmado, no nó que tem o arquivo.
+// Em cluster, as linhas de contas atendidas por outro nó não são pagas aqui: viram agendamentos para agora, na
+// mesma transação do bloco, e o retorno traz o id do agendamento que o nó dono executa.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RemessaPagamentosService {
+
+    private static final String REJEITADA = "REJEITADA";
+    private static final String ENCAMINHADA = "Encaminhada ao nó que atende a conta";
+
+    private record ResultadoBloco(List<String> retornos, int pagos, int falhas) {
+    }
+
+    private final RemessaPagamentosRepository remessaRepository;
+    private final PagamentoLoteService pagamentoLoteService;
+    private final PagamentoAgendadoService agendamentoService;
+    private final MembrosDoCluster cluster;
+    private final ArquivosDeRemessa arquivos;
+    private final CoordenacaoDeNos coordenacao;
+    private final TransactionTemplate transactionTemplate;
+    private final PoliticaDeRetentativa politicaDeRetentativa;
+
+    private final Set<UUID> emExecucao = ConcurrentHashMap.newKeySet();
+
+    @Value("${conta.remessa.tamanho-bloco:500}")
+    private int tamanhoBloco;
+
+    // O arquivo é gravado e forçado para o disco antes do registro da remessa; o processamento segue em segundo plano
+    @PreAuthorize("hasRole('CLIENTE') or hasRole('GERENTE') or hasRole('ADMIN')")
+    public RemessaPagamentosDto receber(FormatoRemessa formato, InputStream corpo, long tamanhoDeclarado) {
+        arquivos.verificarTamanho(tamanhoDeclarado);
+        UUID id = GeradorIdOrdenado.novo();
+        RemessaPagamentos remessa;
+        try {
+            long posicaoRetorno = arquivos.receber(id, corpo);
+            remessa = remessaRepository.save(RemessaPagamentos.iniciar(id, formato, posicaoRetorno));
+        } catch (IOException e) {
+            descartar(id);
+            throw new UncheckedIOException("Falha ao gravar o arquivo de remessa", e);
+        } catch (RuntimeException e) {
+            descartar(id);
+            throw e;
+        }
+
+        iniciar(id);
+        return RemessaPagamentosDto.fromEntity(remessa);
+    }
+
+    @PreAuthorize("hasRole('CLIENTE') or hasRole('GERENTE') or hasRole('ADMIN')")
+    public RemessaPagamentosDto buscar(UUID id) {
+        return RemessaPagamentosDto.fromEntity(remessaRepository.findById(id)
+                .orElseThrow(() -> new EntidadeNaoEncontradaException("Remessa não encontrada")));
+    }
+
+    // O retorno cresce a cada bloco confirmado; durante o processamento ele cobre só as linhas já confirmadas
+    @PreAuthorize("hasRole('CLIENTE') or hasRole('GERENTE') or hasRole('ADMIN')")
+    public Path retorno(UUID id) {
+        buscar(id);
+        Path retorno = arquivos.retorno(id);
+        if (!Files.exists(retorno))
+            throw new EntidadeNaoEncontradaException("Arquivo de retorno não encontrado neste nó");
+        return retorno;
+    }
+
+    // Retoma remessas interrompidas (queda do nó, conflitos esgotados) cujo arquivo está neste nó
+    @Scheduled(
+            initialDelayString = "${conta.remessa.retomada-ms:60000}",
+            fixedDelayString = "${conta.remessa.retomada-ms:60000}")
+    public void retomarPendentes() {
+        remessaRepository.findByStatus(StatusExecucao.EM_ANDAMENTO).stream()
+                .map(RemessaPagamentos::getId)
+                .filter(id -> Files.exists(arquivos.entrada(id)))
+                .forEach(this::iniciar);
+    }
+
+    private void iniciar(UUID id) {
+        if (!emExecucao.add(id))
+            return;
+        Thread.ofPlatform().daemon().name("remessa-" + id).start(() -> {
+            try {
+                // O arrendamento impede que dois nós com acesso ao mesmo diretório processem a mesma remessa
+                if (!coordenacao.comArrendamento("remessa/" + id, posse -> processar(id, posse)))
+                    log.debug("Remessa {} em processamento em outro nó", id);
+            } catch (RuntimeException e) {
+                log.warn("Remessa {} interrompida; será retomada do último bloco confirmado: {}", id, e.getMessage());
+            } finally {
+                emExecucao.remove(id);
+            }
+        });
+    }
+
+    private void processar(UUID id, Posse posse) {
+        RemessaPagamentos remessa = remessaRepository.findById(id).orElseThrow();
+        if (remessa.getStatus() == StatusExecucao.CONCLUIDA)
+            return;
+
+        long inicioNanos = System.nanoTime();
+        try (LeitorDeRemessa leitor = LeitorDeRemessa.abrir(arquivos.entrada(id), remessa.getFormato(),
+                remessa.getPosicaoArquivo(), remessa.getUltimaLinha())) {
+            List<LinhaRemessa> bloco;
+            while (!(bloco = leitor.proximas(tamanhoBloco)).isEmpty()) {
+                List<LinhaRemessa> linhas = bloco;
+                long posicaoArquivo = leitor.posicao();
+                long ultimaLinha = leitor.ultimaLinha();
+
+                // Pagamentos, saldos, retorno e ponto de retomada do bloco são confirmados juntos
+                remessa = politicaDeRetentativa.executar("remessa", () -> transactionTemplate.execute(status -> {
+                    coordenacao.validar(posse);
+                    ResultadoBloco resultado = aplicar(linhas);
+
+                    RemessaPagamentos atual = remessaRepository.findById(id).orElseThrow();
+                    long posicaoRetorno = escreverRetorno(id, atual.getPosicaoRetorno(), resultado.retornos());
+                    atual.avancar(posicaoArquivo, ultimaLinha, posicaoRetorno, resultado.pagos(), resultado.falhas());
+                    return atual;
+                }));
+            }
+
+            // Linhas finais ignoradas (em branco, comentários) também contam para o ponto de retomada
+            long posicaoFinal = leitor.posicao();
+            long linhaFinal = leitor.ultimaLinha();
+            remessa = transactionTemplate.execute(status -> {
+                coordenacao.validar(posse);
+                RemessaPagamentos atual = remessaRepository.findById(id).orElseThrow();
+                atual.avancar(posicaoFinal, linhaFinal, atual.getPosicaoRetorno(), 0, 0);
+                atual.concluir();
+                return atual;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao ler a remessa " + id, e);
+        }
+
+        log.info("Remessa {} concluída: {} pagos, {} com falha, {} linhas em {} ms", id, remessa.getPagos(),
+                remessa.getFalhas(), remessa.getUltimaLinha(), (System.nanoTime() - inicioNanos) / 1_000_000);
+    }
+
+    private ResultadoBloco aplicar(List<LinhaRemessa> linhas) {
+        List<LinhaRemessa> validas = linhas.stream().filter(LinhaRemessa::valida).toList();
+        Set<UUID> remotas = cluster.contasDeOutrosNos(validas.stream().map(LinhaRemessa::contaId).toList());
+
+        Iterator<Resultado> resultados = pagamentoLoteService.pagar(validas.stream()
+                .filter(linha -> !remotas.contains(linha.contaId()))
+                .map(RemessaPagamentosService::pedido)
+                .toList()).iterator();
+        Iterator<UUID> agendamentos = agendamentoService.encaminhar(validas.stream()
+                .filter(linha -> remotas.contains(linha.contaId()))
+                .map(RemessaPagamentosService::pedido)
+                .toList()).iterator();
+
+        List<String> retornos = new ArrayList<>(linhas.size());
+        int pagos = 0;
+        int encaminhadas = 0;
+        for (LinhaRemessa linha : linhas) {
+            if (!linha.valida()) {
+                retornos.add(retorno(linha.numero(), REJEITADA, null, null, linha.erro()));
+                continue;
+            }
+            if (remotas.contains(linha.contaId())) {
+                retornos.add(retorno(linha.numero(), StatusAgendamento.AGENDADO.name(), agendamentos.next(), null,
+                        ENCAMINHADA));
+                encaminhadas++;
+                continue;
+            }
+
+            Resultado resultado = resultados.next();
+            Pagamento pagamento = resultado.pagamento();
+            if (pagamento == null) {
+                retornos.add(retorno(linha.numero(), REJEITADA, null, null, resultado.erro()));
+                continue;
+            }
+
+            if (resultado.pago())
+                pagos++;
+            retornos.add(retorno(linha.numero(), pagamento.getStatus().name(), pagamento.getId(),
+                    Dinheiro.de(pagamento.getValorTotal()), resultado.pago() ? null : pagamento.getObservacao()));
+        }
+        return new ResultadoBloco(retornos, pagos, linhas.size() - pagos - encaminhadas);
+    }
+
+    private static Pedido pedido(LinhaRemessa linha) {
+        return new Pedido(linha.contaId(), linha.boleto(), linha.valor(), linha.taxasIds(), linha.observacao());
+    }
+
+    private long escreverRetorno(UUID id, long posicao, List<String> retornos) {
+        try {
+            return arquivos.escreverRetorno(id, posicao, retornos);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Falha ao gravar o retorno da remessa " + id, e);
+        }
+    }
+
+    private void descartar(UUID id) {
+        try {
+            arquivos.remover(id);
+        } catch (IOException e) {
+            log.warn("Não foi possível remover os arquivos da remessa {}: {}", id, e.getMessage());
+        }
+    }
+
+    private static String retorno(long linha, String status, UUID pagamentoId, Dinheiro valorTotal, String mensagem) {
+        return linha + ";" + status + ";" + (pagamentoId != null ? pagamentoId : "") + ";"
+                + (valorTotal != null ? valorTotal : "") + ";"
+                + (mensagem != null ? mensagem.replace(';', ',').replace('\n', ' ').replace('\r', ' ') : "") + "\n";
+    }
+
+}
@@ -6,6 +6,7 @@ import com.senai.conta_bancaria.domain.entity.Taxa;
 import com.senai.conta_bancaria.domain.exception.EntidadeNaoEncontradaException;
 import com.senai.conta_bancaria.domain.repository.TaxaRepository;
 import com.senai.conta_bancaria.domain.service.PagamentoDomainService;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -25,7 +26,7 @@ public class TaxaService {
         Taxa taxa = Taxa.builder()
                 .descricao(dto.getDescricao())
                 .percentual(dto.getPercentual())
-                .valorFixo(dto.getValorFixo())
+                .valorFixo(Dinheiro.deOuNulo(dto.getValorFixo()))
                 .ativo(true)
                 .build();
         
@@ -63,7 +64,7 @@ public class TaxaService {
         
         taxa.setDescricao(dto.getDescricao());
         taxa.setPercentual(dto.getPercentual());
-        taxa.setValorFixo(dto.getValorFixo());
+        taxa.setValorFixo(Dinheiro.deOuNulo(dto.getValorFixo()));
         
         pagamentoDomainService.validarTaxa(taxa);
         
@@ -92,7 +93,7 @@ public class TaxaService {
                 .id(taxa.getId())
                 .descricao(taxa.getDescricao())
                 .percentual(taxa.getPercentual())
-                .valorFixo(taxa.getValorFixo())
+                .valorFixo(Dinheiro.paraBigDecimalOuNulo(taxa.getValorFixo()))
                 .ativo(taxa.isAtivo())
                 .build();
     }
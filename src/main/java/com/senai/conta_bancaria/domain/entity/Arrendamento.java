@@ -0,0 +1,33 @@
+package com.senai.conta_bancaria.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Arrendamento de uma tarefa entre nós (líder ou partição de um job); atualizada via JDBC pelo CoordenacaoDeNos.
+// O token cresce a cada troca de dono e serve de token de cerca para as escritas da tarefa.
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "arrendamento")
+public class Arrendamento {
+    @Id
+    @Column(length = 80)
+    private String nome;
+
+    @Column(nullable = false, length = 200)
+    private String dono;
+
+    @Column(nullable = false)
+    private Long token;
+
+    @Column(nullable = false, columnDefinition = "datetime(6)")
+    private LocalDateTime expiraEm;
+}
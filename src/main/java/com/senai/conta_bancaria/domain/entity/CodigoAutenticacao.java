@@ -2,8 +2,11 @@ package com.senai.conta_bancaria.domain.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 @Entity
 @Getter
@@ -15,8 +18,10 @@ import java.time.LocalDateTime;
 public class CodigoAutenticacao {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    private String id;
+    @IdOrdenadoNoTempo
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16)
+    private UUID id;
     
     @Column(nullable = false, length = 10)
     private String codigo;
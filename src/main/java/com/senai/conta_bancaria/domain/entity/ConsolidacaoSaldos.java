@@ -0,0 +1,61 @@
+package com.senai.conta_bancaria.domain.entity;
+
+import com.senai.conta_bancaria.domain.enums.StatusExecucao;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Uma rodada do consolidador: fotografa o saldo em "ate" das contas da partição movimentadas no intervalo (desde, ate]
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "consolidacao_saldos")
+public class ConsolidacaoSaldos {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Shard das contas cobertas (numero % conta.coordenacao.particoes); cada partição avança independente
+    @Column(nullable = false, columnDefinition = "int default 0")
+    private int particao;
+
+    @Column(nullable = false, columnDefinition = "datetime(6)")
+    private LocalDateTime desde;
+
+    @Column(nullable = false, columnDefinition = "datetime(6)")
+    private LocalDateTime ate;
+
+    @Column(nullable = false)
+    private Long ultimoNumero;
+
+    @Column(nullable = false)
+    private long contasConsolidadas;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StatusExecucao status;
+
+    public static ConsolidacaoSaldos iniciar(int particao, LocalDateTime desde, LocalDateTime ate) {
+        return ConsolidacaoSaldos.builder()
+                .particao(particao)
+                .desde(desde)
+                .ate(ate)
+                .ultimoNumero(-1L)
+                .contasConsolidadas(0)
+                .status(StatusExecucao.EM_ANDAMENTO)
+                .build();
+    }
+
+    public void avancar(Long numero, long consolidadas) {
+        ultimoNumero = numero;
+        contasConsolidadas += consolidadas;
+    }
+
+    public void concluir() {
+        status = StatusExecucao.CONCLUIDA;
+    }
+}
@@ -3,12 +3,15 @@ package com.senai.conta_bancaria.domain.entity;
 import com.senai.conta_bancaria.domain.exception.SaldoInsuficienteException;
 import com.senai.conta_bancaria.domain.exception.TransferenciaParaMesmaContaException;
 import com.senai.conta_bancaria.domain.exception.ValoresNegativosException;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.experimental.SuperBuilder;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
-import java.math.BigDecimal;
+import java.util.UUID;
 
 @Entity
 @Data
@@ -21,43 +24,67 @@ import java.math.BigDecimal;
         uniqueConstraints = {
                 @UniqueConstraint(name = "uk_conta_numero", columnNames = "numero"),
                 @UniqueConstraint(name = "uk_cliente_tipo", columnNames = {"cliente_id", "tipo_conta"})
+        },
+        indexes = {
+                @Index(name = "idx_conta_cliente_ativo", columnList = "cliente_id, ativo"),
+                @Index(name = "idx_conta_tipo_ativo_numero", columnList = "tipo_conta, ativo, numero")
         }
 )
 public abstract class Conta {
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    private String id;
+    @IdOrdenadoNoTempo
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16)
+    private UUID id;
 
     @Column(nullable = false, length = 20)
     private Long numero;
 
     @Column(nullable = false, precision = 19, scale = 2)
-    private BigDecimal saldo;
+    private Dinheiro saldo;
 
     @Column(nullable = false)
     private boolean ativo;
 
+    // Quantidade de fatias do saldo (modo "conta quente"); 0 = saldo inteiro na própria linha
+    @Column(nullable = false, columnDefinition = "int default 0")
+    private int fatiasSaldo;
+
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long versao;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "cliente_id", nullable = false, foreignKey = @ForeignKey(name = "fk_conta_cliente"))
     private Cliente cliente;
 
     public abstract String getTipo();
 
-    public void sacar(BigDecimal valor) {
-        if (valor.compareTo(getSaldo()) > 0)
+    public void sacar(Dinheiro valor) {
+        if (valor.maiorQue(getSaldo()))
             throw new SaldoInsuficienteException("saque");
         validarValorMaiorQueZero(valor, "saque");
 
-        saldo = saldo.subtract(valor);
+        saldo = saldo.menos(valor);
     }
 
-    public void depositar(BigDecimal valor) {
+    public void depositar(Dinheiro valor) {
         validarValorMaiorQueZero(valor, "depósito");
 
-        saldo = saldo.add(valor);
+        saldo = saldo.mais(valor);
+    }
+
+    // Se o saldo desta linha cobre um débito desse valor; as subclasses incluem tarifas e limite
+    public boolean comporta(Dinheiro valor) {
+        return !valor.maiorQue(saldo);
+    }
+
+    // Créditos em fatias de conta quente não alteram esta linha, só passam pela mesma validação
+    public void validarCredito(Dinheiro valor) {
+        validarValorMaiorQueZero(valor, "depósito");
     }
 
-    public void transferir(Conta contaDestino, BigDecimal valor) {
+    public void transferir(Conta contaDestino, Dinheiro valor) {
         if (id.equals(contaDestino.getId()))
             throw new TransferenciaParaMesmaContaException();
 
@@ -65,8 +92,8 @@ public abstract class Conta {
         contaDestino.depositar(valor);
     }
 
-    protected void validarValorMaiorQueZero(BigDecimal valor, String operacao) {
-        if (valor.compareTo(BigDecimal.ZERO) <= 0)
+    protected void validarValorMaiorQueZero(Dinheiro valor, String operacao) {
+        if (!valor.positivo())
             throw new ValoresNegativosException(operacao);
     }
 }
\ No newline at end of file
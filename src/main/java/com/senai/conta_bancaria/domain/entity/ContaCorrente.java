@@ -1,6 +1,7 @@
 package com.senai.conta_bancaria.domain.entity;
 
 import com.senai.conta_bancaria.domain.exception.SaldoInsuficienteException;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
 import jakarta.persistence.Column;
 import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
@@ -19,7 +20,7 @@ import java.math.BigDecimal;
 @DiscriminatorValue("CORRENTE")
 public class ContaCorrente extends Conta {
     @Column(precision = 19, scale = 2)
-    private BigDecimal limite;
+    private Dinheiro limite;
 
     @Column(precision = 19, scale = 2)
     private BigDecimal taxa;
@@ -30,15 +31,20 @@ public class ContaCorrente extends Conta {
     }
 
     @Override
-    public void sacar(BigDecimal valor) {
+    public boolean comporta(Dinheiro valor) {
+        return !valor.mais(valor.multiplicar(taxa)).maiorQue(getSaldo().mais(limite));
+    }
+
+    @Override
+    public void sacar(Dinheiro valor) {
         validarValorMaiorQueZero(valor, "saque");
 
-        BigDecimal custoTaxa = valor.multiply(taxa);
-        BigDecimal valorComTaxa = valor.add(custoTaxa);
+        Dinheiro custoTaxa = valor.multiplicar(taxa);
+        Dinheiro valorComTaxa = valor.mais(custoTaxa);
 
-        if (valorComTaxa.compareTo(getSaldo().add(limite)) > 0)
+        if (valorComTaxa.maiorQue(getSaldo().mais(limite)))
             throw new SaldoInsuficienteException("saque");
 
-        setSaldo(getSaldo().subtract(valorComTaxa));
+        setSaldo(getSaldo().menos(valorComTaxa));
     }
 }
\ No newline at end of file
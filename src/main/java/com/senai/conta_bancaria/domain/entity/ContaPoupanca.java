@@ -1,5 +1,6 @@
 package com.senai.conta_bancaria.domain.entity;
 
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
 import jakarta.persistence.Column;
 import jakarta.persistence.DiscriminatorValue;
 import jakarta.persistence.Entity;
@@ -20,13 +21,25 @@ public class ContaPoupanca extends Conta {
     @Column(precision = 19, scale = 2)
     private BigDecimal rendimento;
 
+    // Último mês (AAAAMM) em que o rendimento mensal foi aplicado; evita aplicar duas vezes ao retomar o job
+    private Integer competenciaRendimento;
+
     @Override
     public String getTipo() {
         return "POUPANCA";
     }
 
     public void aplicarRendimento() {
-        BigDecimal valorRendimento = getSaldo().multiply(rendimento);
-        setSaldo(getSaldo().add(valorRendimento));
+        Dinheiro valorRendimento = getSaldo().multiplicar(rendimento);
+        setSaldo(getSaldo().mais(valorRendimento));
+    }
+
+    public boolean aplicarRendimento(int competencia) {
+        if (competenciaRendimento != null && competenciaRendimento >= competencia)
+            return false;
+
+        aplicarRendimento();
+        competenciaRendimento = competencia;
+        return true;
     }
 }
\ No newline at end of file
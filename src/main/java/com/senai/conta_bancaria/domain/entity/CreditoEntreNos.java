@@ -0,0 +1,53 @@
+package com.senai.conta_bancaria.domain.entity;
+
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Crédito de uma transferência cujo destino é atendido por outro nó: o nó da origem grava o débito e este registro
+// na mesma transação, e só o nó dono do destino escreve na conta ao entregá-lo
+@Entity
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+        name = "credito_entre_nos",
+        indexes = @Index(name = "idx_credito_entre_nos_no", columnList = "no_destino, id")
+)
+public class CreditoEntreNos {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "numero_conta", nullable = false)
+    private Long numeroConta;
+
+    @Column(name = "numero_origem", nullable = false)
+    private Long numeroOrigem;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private Dinheiro valor;
+
+    // Endereço base do dono do destino quando o crédito foi gravado
+    @Column(name = "no_destino", nullable = false)
+    private String noDestino;
+
+    @Column(name = "criado_em", nullable = false, columnDefinition = "datetime(6)")
+    private LocalDateTime criadoEm;
+
+    public static CreditoEntreNos para(Long numeroConta, Long numeroOrigem, Dinheiro valor, String noDestino) {
+        return CreditoEntreNos.builder()
+                .numeroConta(numeroConta)
+                .numeroOrigem(numeroOrigem)
+                .valor(valor)
+                .noDestino(noDestino)
+                .criadoEm(Movimentacao.agora())
+                .build();
+    }
+}
@@ -0,0 +1,57 @@
+package com.senai.conta_bancaria.domain.entity;
+
+import com.senai.conta_bancaria.domain.enums.StatusExecucao;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Ponto de retomada do rendimento mensal: guarda o último número de conta cujo bloco já foi confirmado
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "execucao_rendimento")
+public class ExecucaoRendimento {
+
+    // Mês de referência no formato AAAAMM
+    @Id
+    private Integer competencia;
+
+    @Column(nullable = false)
+    private Long ultimoNumero;
+
+    @Column(nullable = false)
+    private long contasAtualizadas;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StatusExecucao status;
+
+    @Column(nullable = false)
+    private LocalDateTime iniciadaEm;
+
+    private LocalDateTime concluidaEm;
+
+    public static ExecucaoRendimento iniciar(int competencia) {
+        return ExecucaoRendimento.builder()
+                .competencia(competencia)
+                .ultimoNumero(-1L)
+                .contasAtualizadas(0)
+                .status(StatusExecucao.EM_ANDAMENTO)
+                .iniciadaEm(LocalDateTime.now())
+                .build();
+    }
+
+    public void avancar(Long numero, long atualizadas) {
+        ultimoNumero = numero;
+        contasAtualizadas += atualizadas;
+    }
+
+    public void concluir() {
+        status = StatusExecucao.CONCLUIDA;
+        concluidaEm = LocalDateTime.now();
+    }
+}
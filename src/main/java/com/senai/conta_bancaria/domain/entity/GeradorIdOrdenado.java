@@ -0,0 +1,55 @@
+package com.senai.conta_bancaria.domain.entity;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.security.SecureRandom;
+import java.util.EnumSet;
+import java.util.UUID;
+
+// UUIDv7 (RFC 9562): 48 bits de epoch em ms, versão, 12 bits de sequência dentro do mesmo ms, variante e 62 bits
+// aleatórios. A sequência mantém os ids crescentes neste nó mesmo com vários inserts no mesmo milissegundo.
+public class GeradorIdOrdenado implements BeforeExecutionGenerator {
+
+    private static final SecureRandom random = new SecureRandom();
+    private static final int SEQUENCIA_MAXIMA = 0xFFF;
+
+    private static long ultimoMillis;
+    private static int sequencia;
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        return novo();
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+
+    public static UUID novo() {
+        long millis;
+        int seq;
+        synchronized (GeradorIdOrdenado.class) {
+            millis = Math.max(System.currentTimeMillis(), ultimoMillis);
+            if (millis == ultimoMillis) {
+                if (++sequencia > SEQUENCIA_MAXIMA) {
+                    // Sequência esgotada neste ms: avança o relógio lógico em vez de esperar
+                    millis++;
+                    sequencia = 0;
+                }
+            } else {
+                sequencia = 0;
+            }
+            ultimoMillis = millis;
+            seq = sequencia;
+        }
+
+        long maisSignificativos = (millis << 16) | 0x7000L | seq;
+        long menosSignificativos = (random.nextLong() & 0x3FFF_FFFF_FFFF_FFFFL) | 0x8000_0000_0000_0000L;
+        return new UUID(maisSignificativos, menosSignificativos);
+    }
+}
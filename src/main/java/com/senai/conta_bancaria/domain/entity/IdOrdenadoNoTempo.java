@@ -0,0 +1,16 @@
+package com.senai.conta_bancaria.domain.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Gera o id como UUID versão 7 (prefixo em milissegundos), gravado em binary(16):
+// novas linhas entram no fim do índice clusterizado em vez de em páginas aleatórias
+@IdGeneratorType(GeradorIdOrdenado.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD, ElementType.METHOD})
+public @interface IdOrdenadoNoTempo {
+}
@@ -0,0 +1,33 @@
+package com.senai.conta_bancaria.domain.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// Lote do journal de saldos que já chegou ao banco. Inserido via JDBC pelo JournalDeSaldos na mesma transação das
+// alterações de saldo do lote: é por ele, e não pela versão da conta, que a reaplicação sabe se o lote já entrou.
+@Entity
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+        name = "journal_lote",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_journal_lote_origem_lote", columnNames = {"origem", "lote"})
+        }
+)
+public class JournalLote {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Identificador do diretório do journal mais o nome do arquivo do shard
+    @Column(nullable = false, length = 120)
+    private String origem;
+
+    @Column(nullable = false)
+    private Long lote;
+}
@@ -0,0 +1,103 @@
+package com.senai.conta_bancaria.domain.entity;
+
+import com.senai.conta_bancaria.domain.enums.TipoMovimentacao;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+// Diário somente de inclusão: cada alteração de saldo gera uma linha, nunca atualizada nem apagada.
+// O valor é sempre positivo; o sentido (crédito ou débito) vem do tipo.
+@Entity
+@Immutable
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+        name = "movimentacao",
+        indexes = {
+                @Index(name = "idx_movimentacao_conta_data", columnList = "numero_conta, data_hora"),
+                @Index(name = "idx_movimentacao_data", columnList = "data_hora")
+        }
+)
+public class Movimentacao {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "numero_conta", nullable = false)
+    private Long numeroConta;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 30)
+    private TipoMovimentacao tipo;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private Dinheiro valor;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private Dinheiro saldoApos;
+
+    private Long numeroContraparte;
+
+    @Column(length = 120)
+    private String referencia;
+
+    @Column(name = "data_hora", nullable = false, columnDefinition = "datetime(6)")
+    private LocalDateTime dataHora;
+
+    public Dinheiro valorComSinal() {
+        return tipo.isCredito() ? valor : Dinheiro.ZERO.menos(valor);
+    }
+
+    // Relógio da aplicação na precisão da coluna (DATETIME(6)); também usado pelas gravações em SQL puro, para
+    // que todas as movimentações sigam o mesmo relógio
+    public static LocalDateTime agora() {
+        return LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+    }
+
+    // O valor é a diferença efetiva no saldo, então inclui tarifas cobradas pela própria conta (ex.: taxa do saque)
+    public static Movimentacao apos(Conta conta, TipoMovimentacao tipo, Dinheiro saldoAnterior) {
+        return apos(conta, tipo, saldoAnterior, null, null);
+    }
+
+    public static Movimentacao apos(Conta conta, TipoMovimentacao tipo, Dinheiro saldoAnterior,
+                                    Long numeroContraparte, String referencia) {
+        return Movimentacao.builder()
+                .numeroConta(conta.getNumero())
+                .tipo(tipo)
+                .valor(conta.getSaldo().menos(saldoAnterior).absoluto())
+                .saldoApos(conta.getSaldo())
+                .numeroContraparte(numeroContraparte)
+                .referencia(referencia)
+                .dataHora(agora())
+                .build();
+    }
+
+    // Crédito numa fatia de conta quente: a linha conta não muda, então o valor e o saldo após vêm de fora
+    public static Movimentacao credito(Conta conta, TipoMovimentacao tipo, Dinheiro valor, Dinheiro saldoApos,
+                                       Long numeroContraparte, String referencia) {
+        return de(conta.getNumero(), tipo, valor, saldoApos, numeroContraparte, referencia);
+    }
+
+    // Para gravações feitas direto no banco, sem a entidade Conta carregada
+    public static Movimentacao de(Long numeroConta, TipoMovimentacao tipo, Dinheiro valor, Dinheiro saldoApos,
+                                  Long numeroContraparte, String referencia) {
+        return Movimentacao.builder()
+                .numeroConta(numeroConta)
+                .tipo(tipo)
+                .valor(valor)
+                .saldoApos(saldoApos)
+                .numeroContraparte(numeroContraparte)
+                .referencia(referencia)
+                .dataHora(agora())
+                .build();
+    }
+}
@@ -0,0 +1,26 @@
+package com.senai.conta_bancaria.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Último pulso de cada nó em execução; atualizada via JDBC pelo CoordenacaoDeNos
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "no_ativo")
+public class NoAtivo {
+    @Id
+    @Column(length = 200)
+    private String no;
+
+    @Column(nullable = false, columnDefinition = "datetime(6)")
+    private LocalDateTime ultimoPulso;
+}
@@ -3,11 +3,14 @@ package com.senai.conta_bancaria.domain.entity;
 import com.senai.conta_bancaria.domain.enums.PagamentoStatus;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.UUID;
 
 @Entity
 @Getter
@@ -15,12 +18,22 @@ import java.util.Set;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "pagamento")
+// O id (chave primária) vai implícito no fim de cada índice do InnoDB, então (data_pagamento, id) sai ordenado
+@Table(
+        name = "pagamento",
+        indexes = {
+                @Index(name = "idx_pagamento_conta_data", columnList = "conta_id, data_pagamento"),
+                @Index(name = "idx_pagamento_status_data", columnList = "status, data_pagamento"),
+                @Index(name = "idx_pagamento_data", columnList = "data_pagamento")
+        }
+)
 public class Pagamento {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.UUID)
-    private String id;
+    @IdOrdenadoNoTempo
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16)
+    private UUID id;
     
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "conta_id", nullable = false, foreignKey = @ForeignKey(name = "fk_pagamento_conta"))
@@ -39,7 +52,8 @@ public class Pagamento {
     @Column(nullable = false, length = 30)
     private PagamentoStatus status;
     
-    @ManyToMany(fetch = FetchType.LAZY, cascade = {CascadeType.PERSIST, CascadeType.MERGE})
+    // Sem cascata: as taxas vêm do CatalogoDeTaxas, desanexadas, e só as chaves vão para pagamento_taxa
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(
         name = "pagamento_taxa",
         joinColumns = @JoinColumn(name = "pagamento_id", foreignKey = @ForeignKey(name = "fk_pagamento_taxa_pagamento")),
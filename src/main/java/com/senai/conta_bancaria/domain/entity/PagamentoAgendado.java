@@ -0,0 +1,103 @@
+package com.senai.conta_bancaria.domain.entity;
+
+import com.senai.conta_bancaria.domain.enums.StatusAgendamento;
+import com.senai.conta_bancaria.domain.exception.PagamentoInvalidoException;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+// Pagamento de boleto marcado para uma data futura. O resultado (status e pagamento gerado) é gravado via JDBC
+// pelo DespachanteDePagamentosAgendados só enquanto o status ainda é AGENDADO; o cancelamento concorre pela versão.
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+        name = "pagamento_agendado",
+        indexes = {
+                @Index(name = "idx_agendamento_status_execucao", columnList = "status, executar_em"),
+                @Index(name = "idx_agendamento_criado_em", columnList = "criado_em")
+        }
+)
+public class PagamentoAgendado {
+
+    @Id
+    @IdOrdenadoNoTempo
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16)
+    private UUID id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "conta_id", nullable = false, foreignKey = @ForeignKey(name = "fk_agendamento_conta"))
+    private Conta conta;
+
+    @Column(nullable = false, length = 120)
+    private String boleto;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal valorPago;
+
+    // Só os ids: as taxas são resolvidas no catálogo vigente na data da execução
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(
+            name = "pagamento_agendado_taxa",
+            joinColumns = @JoinColumn(name = "agendamento_id",
+                    foreignKey = @ForeignKey(name = "fk_agendamento_taxa_agendamento")))
+    @Column(name = "taxa_id", length = 36)
+    private Set<String> taxasIds;
+
+    @Column(length = 500)
+    private String observacao;
+
+    @Column(nullable = false)
+    private LocalDateTime executarEm;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StatusAgendamento status;
+
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16)
+    private UUID pagamentoId;
+
+    @Column(length = 500)
+    private String mensagem;
+
+    @Column(nullable = false)
+    private LocalDateTime criadoEm;
+
+    private LocalDateTime executadoEm;
+
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long versao;
+
+    public static PagamentoAgendado agendar(Conta conta, String boleto, BigDecimal valorPago, Set<String> taxasIds,
+                                            String observacao, LocalDateTime executarEm) {
+        return PagamentoAgendado.builder()
+                .conta(conta)
+                .boleto(boleto)
+                .valorPago(valorPago)
+                .taxasIds(taxasIds == null ? new HashSet<>() : new HashSet<>(taxasIds))
+                .observacao(observacao)
+                .executarEm(executarEm)
+                .status(StatusAgendamento.AGENDADO)
+                .criadoEm(LocalDateTime.now())
+                .build();
+    }
+
+    public void cancelar() {
+        if (status != StatusAgendamento.AGENDADO)
+            throw new PagamentoInvalidoException("Só pagamentos ainda agendados podem ser cancelados");
+        status = StatusAgendamento.CANCELADO;
+    }
+}
@@ -0,0 +1,46 @@
+package com.senai.conta_bancaria.domain.entity;
+
+import com.senai.conta_bancaria.domain.enums.StatusExecucao;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+// Camada durável das chaves de idempotência; a gravação e a leitura são feitas via JDBC
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+        name = "idempotencia",
+        indexes = {
+                @Index(name = "idx_idempotencia_expira_em", columnList = "expira_em")
+        }
+)
+public class RegistroIdempotencia {
+    // SHA-256 de usuário autenticado + operação + Idempotency-Key
+    @Id
+    @Column(length = 64)
+    private String chave;
+
+    // SHA-256 da requisição, para recusar a mesma chave com outro conteúdo
+    @Column(nullable = false, length = 64)
+    private String impressao;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StatusExecucao status;
+
+    private Integer statusHttp;
+
+    @Column(columnDefinition = "text")
+    private String corpo;
+
+    @Column(nullable = false)
+    private LocalDateTime criadaEm;
+
+    @Column(name = "expira_em", nullable = false)
+    private LocalDateTime expiraEm;
+}
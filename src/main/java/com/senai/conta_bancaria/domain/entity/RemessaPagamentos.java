@@ -0,0 +1,79 @@
+package com.senai.conta_bancaria.domain.entity;
+
+import com.senai.conta_bancaria.domain.enums.FormatoRemessa;
+import com.senai.conta_bancaria.domain.enums.StatusExecucao;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Arquivo de pagamentos em lote e seu ponto de retomada: posição no arquivo, última linha lida e tamanho do
+// arquivo de retorno logo após o último bloco confirmado. O id é atribuído antes da gravação do arquivo.
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "remessa_pagamentos")
+public class RemessaPagamentos {
+
+    @Id
+    @JdbcTypeCode(SqlTypes.BINARY)
+    @Column(length = 16)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private FormatoRemessa formato;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private StatusExecucao status;
+
+    @Column(nullable = false)
+    private long posicaoArquivo;
+
+    @Column(nullable = false)
+    private long ultimaLinha;
+
+    @Column(nullable = false)
+    private long posicaoRetorno;
+
+    @Column(nullable = false)
+    private long pagos;
+
+    @Column(nullable = false)
+    private long falhas;
+
+    @Column(nullable = false)
+    private LocalDateTime recebidaEm;
+
+    private LocalDateTime concluidaEm;
+
+    public static RemessaPagamentos iniciar(UUID id, FormatoRemessa formato, long posicaoRetorno) {
+        return RemessaPagamentos.builder()
+                .id(id)
+                .formato(formato)
+                .status(StatusExecucao.EM_ANDAMENTO)
+                .posicaoRetorno(posicaoRetorno)
+                .recebidaEm(LocalDateTime.now())
+                .build();
+    }
+
+    public void avancar(long posicaoArquivo, long ultimaLinha, long posicaoRetorno, long pagos, long falhas) {
+        this.posicaoArquivo = posicaoArquivo;
+        this.ultimaLinha = ultimaLinha;
+        this.posicaoRetorno = posicaoRetorno;
+        this.pagos += pagos;
+        this.falhas += falhas;
+    }
+
+    public void concluir() {
+        status = StatusExecucao.CONCLUIDA;
+        concluidaEm = LocalDateTime.now();
+    }
+}
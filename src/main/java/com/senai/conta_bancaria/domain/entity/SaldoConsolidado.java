@@ -0,0 +1,39 @@
+package com.senai.conta_bancaria.domain.entity;
+
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import java.time.LocalDateTime;
+
+// Saldo de uma conta ao final de dataHora; o saldo em qualquer instante posterior é este mais as movimentações seguintes
+@Entity
+@Immutable
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+        name = "saldo_consolidado",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_saldo_consolidado_conta_data", columnNames = {"numero_conta", "data_hora"})
+        }
+)
+public class SaldoConsolidado {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "numero_conta", nullable = false)
+    private Long numeroConta;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private Dinheiro saldo;
+
+    @Column(name = "data_hora", nullable = false, columnDefinition = "datetime(6)")
+    private LocalDateTime dataHora;
+}
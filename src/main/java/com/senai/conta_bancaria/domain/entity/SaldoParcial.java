@@ -0,0 +1,36 @@
+package com.senai.conta_bancaria.domain.entity;
+
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// Fatia do saldo de uma conta "quente": créditos caem numa fatia sorteada e o saldo da conta é o da linha
+// conta mais a soma das fatias. Gravada via JDBC pelo SaldosFracionados.
+@Entity
+@Getter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(
+        name = "saldo_parcial",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_saldo_parcial_conta_fatia", columnNames = {"numero_conta", "fatia"})
+        }
+)
+public class SaldoParcial {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "numero_conta", nullable = false)
+    private Long numeroConta;
+
+    @Column(nullable = false)
+    private int fatia;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private Dinheiro saldo;
+}
@@ -0,0 +1,24 @@
+package com.senai.conta_bancaria.domain.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+// Próximo bloco livre de cada sequência (hi/lo); atualizada via JDBC pelo GeradorNumeroConta
+@Entity
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "sequencia_numero")
+public class SequenciaNumero {
+    @Id
+    @Column(length = 40)
+    private String nome;
+
+    @Column(nullable = false)
+    private Long proximoBloco;
+}
@@ -1,5 +1,6 @@
 package com.senai.conta_bancaria.domain.entity;
 
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -27,17 +28,21 @@ public class Taxa {
     private BigDecimal percentual;
     
     @Column(precision = 19, scale = 2)
-    private BigDecimal valorFixo;
+    private Dinheiro valorFixo;
     
     @Column(nullable = false)
     private boolean ativo = true;
+
+    // Toda alteração incrementa; a soma com a quantidade de taxas é a versão do CatalogoDeTaxas
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long versao;
     
     @ManyToMany(mappedBy = "taxas")
     private Set<Pagamento> pagamentos = new HashSet<>();
     
-    public BigDecimal calcularTaxa(BigDecimal valorBase) {
-        BigDecimal taxaPercentual = valorBase.multiply(percentual).divide(new BigDecimal("100"));
-        BigDecimal taxaFixa = valorFixo != null ? valorFixo : BigDecimal.ZERO;
-        return taxaPercentual.add(taxaFixa);
+    public Dinheiro calcularTaxa(Dinheiro valorBase) {
+        Dinheiro taxaPercentual = valorBase.percentual(percentual, Dinheiro.ARREDONDAMENTO_PADRAO);
+        return valorFixo != null ? taxaPercentual.mais(valorFixo) : taxaPercentual;
     }
 }
@@ -0,0 +1,6 @@
+package com.senai.conta_bancaria.domain.enums;
+
+public enum FormatoRemessa {
+    CSV,        // contaId;boleto;valor;taxasIds separados por vírgula;observacao
+    POSICIONAL  // colunas de largura fixa, ver LeitorDeRemessa
+}
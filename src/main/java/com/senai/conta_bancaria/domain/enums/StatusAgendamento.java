@@ -0,0 +1,8 @@
+package com.senai.conta_bancaria.domain.enums;
+
+public enum StatusAgendamento {
+    AGENDADO,
+    EXECUTADO,   // gerou um pagamento, com sucesso ou não (ver o status do pagamento)
+    REJEITADO,   // não gerou pagamento: conta ou taxa não encontrada na data da execução
+    CANCELADO
+}
@@ -0,0 +1,6 @@
+package com.senai.conta_bancaria.domain.enums;
+
+public enum StatusExecucao {
+    EM_ANDAMENTO,
+    CONCLUIDA
+}
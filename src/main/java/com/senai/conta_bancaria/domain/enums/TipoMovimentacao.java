@@ -0,0 +1,35 @@
+package com.senai.conta_bancaria.domain.enums;
+
+import java.util.Arrays;
+import java.util.List;
+
+public enum TipoMovimentacao {
+    SAQUE(false),
+    DEPOSITO(true),
+    TRANSFERENCIA_ENVIADA(false),
+    TRANSFERENCIA_RECEBIDA(true),
+    PAGAMENTO(false),
+    RENDIMENTO(true),
+    AJUSTE_CREDITO(true),
+    AJUSTE_DEBITO(false);
+
+    private static final List<String> CREDITOS = Arrays.stream(values())
+            .filter(TipoMovimentacao::isCredito)
+            .map(Enum::name)
+            .toList();
+
+    private final boolean credito;
+
+    TipoMovimentacao(boolean credito) {
+        this.credito = credito;
+    }
+
+    public boolean isCredito() {
+        return credito;
+    }
+
+    // Nomes dos tipos que somam ao saldo, para as consultas nativas que reconstroem saldos
+    public static List<String> creditos() {
+        return CREDITOS;
+    }
+}
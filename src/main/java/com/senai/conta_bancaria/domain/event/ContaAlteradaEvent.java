@@ -0,0 +1,8 @@
+package com.senai.conta_bancaria.domain.event;
+
+// Publicado sempre que o estado de uma conta muda. O CPF vem preenchido quando é conhecido sem nova consulta.
+public record ContaAlteradaEvent(
+        Long numero,
+        Long cpf
+) {
+}
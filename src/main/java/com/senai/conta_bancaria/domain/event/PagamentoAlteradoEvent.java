@@ -0,0 +1,9 @@
+package com.senai.conta_bancaria.domain.event;
+
+import java.util.UUID;
+
+// Publicado sempre que um pagamento é gravado ou alterado
+public record PagamentoAlteradoEvent(
+        UUID id
+) {
+}
@@ -0,0 +1,7 @@
+package com.senai.conta_bancaria.domain.event;
+
+// Publicado sempre que uma taxa é criada, alterada, ativada ou desativada
+public record TaxaAlteradaEvent(
+        String id
+) {
+}
@@ -0,0 +1,8 @@
+package com.senai.conta_bancaria.domain.exception;
+
+// O nó deixou de ser dono da tarefa (arrendamento vencido ou tomado por outro nó); o trabalho em curso é desfeito
+public class ArrendamentoPerdidoException extends RuntimeException {
+    public ArrendamentoPerdidoException(String nome, long token) {
+        super("Arrendamento " + nome + " (token " + token + ") não pertence mais a este nó.");
+    }
+}
@@ -0,0 +1,7 @@
+package com.senai.conta_bancaria.domain.exception;
+
+public class ChaveIdempotenciaReutilizadaException extends RuntimeException {
+    public ChaveIdempotenciaReutilizadaException() {
+        super("A Idempotency-Key informada já foi usada com outra requisição.");
+    }
+}
@@ -0,0 +1,7 @@
+package com.senai.conta_bancaria.domain.exception;
+
+public class ConflitoDeConcorrenciaException extends RuntimeException {
+    public ConflitoDeConcorrenciaException(String operacao) {
+        super("Não foi possível concluir " + operacao + " por concorrência com outras operações. Tente novamente.");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package com.senai.conta_bancaria.domain.exception;
+
+import lombok.Getter;
+
+// A conta pertence a outro nó do cluster; quem a atende é o endereço base em "dono"
+@Getter
+public class ContaEmOutroNoException extends RuntimeException {
+    private final String dono;
+
+    public ContaEmOutroNoException(Long numero, String dono) {
+        super("A conta " + numero + " é atendida pelo nó " + dono + ".");
+        this.dono = dono;
+    }
+}
@@ -0,0 +1,7 @@
+package com.senai.conta_bancaria.domain.exception;
+
+public class CursorInvalidoException extends RuntimeException {
+    public CursorInvalidoException() {
+        super("Cursor de paginação inválido.");
+    }
+}
@@ -0,0 +1,10 @@
+package com.senai.conta_bancaria.domain.exception;
+
+import java.util.Collection;
+
+// As contas de origem de um lote são atendidas por nós diferentes do cluster
+public class LoteEntreNosException extends RuntimeException {
+    public LoteEntreNosException(Collection<String> nos) {
+        super("O lote tem contas atendidas pelos nós " + nos + "; envie um lote para cada nó.");
+    }
+}
@@ -0,0 +1,8 @@
+package com.senai.conta_bancaria.domain.exception;
+
+// O arquivo de remessa (declarado ou recebido) passa do limite de conta.remessa.tamanho-maximo-mb
+public class RemessaMuitoGrandeException extends RuntimeException {
+    public RemessaMuitoGrandeException(long limiteMb) {
+        super("Arquivo de remessa maior que " + limiteMb + " MB.");
+    }
+}
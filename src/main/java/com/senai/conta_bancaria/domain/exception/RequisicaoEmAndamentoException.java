@@ -0,0 +1,7 @@
+package com.senai.conta_bancaria.domain.exception;
+
+public class RequisicaoEmAndamentoException extends RuntimeException {
+    public RequisicaoEmAndamentoException() {
+        super("Já existe uma requisição com esta Idempotency-Key em processamento. Tente novamente em instantes.");
+    }
+}
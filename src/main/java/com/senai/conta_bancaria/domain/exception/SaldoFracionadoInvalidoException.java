@@ -0,0 +1,8 @@
+package com.senai.conta_bancaria.domain.exception;
+
+public class SaldoFracionadoInvalidoException extends RuntimeException {
+    public SaldoFracionadoInvalidoException() {
+        super("O saldo fracionado só pode ser ligado em contas correntes: o rendimento da poupança incide apenas"
+                + " sobre o saldo da conta, sem as fatias.");
+    }
+}
@@ -0,0 +1,7 @@
+package com.senai.conta_bancaria.domain.exception;
+
+public class SistemaSobrecarregadoException extends RuntimeException {
+    public SistemaSobrecarregadoException(String recurso) {
+        super("Sistema sobrecarregado: " + recurso + " sem capacidade no momento. Tente novamente.");
+    }
+}
\ No newline at end of file
@@ -5,9 +5,10 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
-public interface CodigoAutenticacaoRepository extends JpaRepository<CodigoAutenticacao, String> {
+public interface CodigoAutenticacaoRepository extends JpaRepository<CodigoAutenticacao, UUID> {
     Optional<CodigoAutenticacao> findByCodigoAndClienteIdAndValidadoFalse(String codigo, String clienteId);
     Optional<CodigoAutenticacao> findTopByClienteIdAndValidadoFalseOrderByExpiraEmDesc(String clienteId);
 }
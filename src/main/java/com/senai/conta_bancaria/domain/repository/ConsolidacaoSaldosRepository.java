@@ -0,0 +1,13 @@
+package com.senai.conta_bancaria.domain.repository;
+
+import com.senai.conta_bancaria.domain.entity.ConsolidacaoSaldos;
+import com.senai.conta_bancaria.domain.enums.StatusExecucao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface ConsolidacaoSaldosRepository extends JpaRepository<ConsolidacaoSaldos, Long> {
+    Optional<ConsolidacaoSaldos> findFirstByParticaoAndStatusOrderByAteDesc(int particao, StatusExecucao status);
+}
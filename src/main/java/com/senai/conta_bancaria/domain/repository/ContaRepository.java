@@ -1,15 +1,98 @@
 package com.senai.conta_bancaria.domain.repository;
 
 import com.senai.conta_bancaria.domain.entity.Conta;
+import com.senai.conta_bancaria.domain.entity.ContaPoupanca;
+import com.senai.conta_bancaria.domain.valueobject.ResumoConta;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.UUID;
 
 @Repository
-public interface ContaRepository extends JpaRepository<Conta, String> {
+public interface ContaRepository extends JpaRepository<Conta, UUID> {
+
+    interface NumeroDaConta {
+        UUID getId();
+
+        Long getNumero();
+    }
+
     Optional<Conta> findByNumeroAndAtivoTrue(Long cpf);
 
+    // Sem filtro de ativo: a auditoria consulta também contas encerradas
+    Optional<Conta> findByNumero(Long numero);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Conta> findForUpdateByNumeroAndAtivoTrue(Long numero);
+
     List<Conta> findAllByAtivoTrue();
+
+    // Busca indexada pelo CPF (uk em usuarios.cpf) projetando direto no resumo, sem carregar Cliente
+    @Query("""
+            select new com.senai.conta_bancaria.domain.valueobject.ResumoConta(
+                c.numero,
+                case when type(c) = ContaCorrente then 'CORRENTE' else 'POUPANCA' end,
+                c.saldo)
+            from Conta c join c.cliente u
+            where u.cpf = :cpf and c.ativo = true
+            """)
+    List<ResumoConta> findResumoAtivasByCpf(@Param("cpf") Long cpf);
+
+    // Carga do cache por número: mesma projeção, pela uk_conta_numero
+    @Query("""
+            select new com.senai.conta_bancaria.domain.valueobject.ResumoConta(
+                c.numero,
+                case when type(c) = ContaCorrente then 'CORRENTE' else 'POUPANCA' end,
+                c.saldo)
+            from Conta c
+            where c.numero = :numero and c.ativo = true
+            """)
+    Optional<ResumoConta> findResumoAtivaByNumero(@Param("numero") Long numero);
+
+    // Mesma projeção para um conjunto de números (replicação para o seguidor)
+    @Query("""
+            select new com.senai.conta_bancaria.domain.valueobject.ResumoConta(
+                c.numero,
+                case when type(c) = ContaCorrente then 'CORRENTE' else 'POUPANCA' end,
+                c.saldo)
+            from Conta c
+            where c.numero in :numeros and c.ativo = true
+            """)
+    List<ResumoConta> findResumoAtivasByNumeroIn(@Param("numeros") Collection<Long> numeros);
+
+    // Dono da conta no cluster, para requisições que chegam pelo id
+    @Query("select c.numero from Conta c where c.id = :id")
+    Optional<Long> findNumeroById(@Param("id") UUID id);
+
+    @Query("select c.id as id, c.numero as numero from Conta c where c.id in :ids")
+    List<NumeroDaConta> findNumerosByIdIn(@Param("ids") Collection<UUID> ids);
+
+    List<Conta> findAllByNumeroInAndAtivoTrue(Collection<Long> numeros);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    List<Conta> findReadOnlyByNumeroInAndAtivoTrue(Collection<Long> numeros);
+
+    // Inclui contas inativas, que continuam tendo histórico
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    List<Conta> findReadOnlyByNumeroIn(Collection<Long> numeros);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    List<Conta> findReadOnlyByIdIn(Collection<UUID> ids);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    @Query("""
+            select c from ContaPoupanca c
+            where c.ativo = true and c.rendimento is not null and c.numero > :de and c.numero <= :ate
+            order by c.numero
+            """)
+    List<ContaPoupanca> findReadOnlyPoupancasParaRendimento(@Param("de") Long de, @Param("ate") Long ate);
 }
\ No newline at end of file
@@ -0,0 +1,15 @@
+package com.senai.conta_bancaria.domain.repository;
+
+import com.senai.conta_bancaria.domain.entity.CreditoEntreNos;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CreditoEntreNosRepository extends JpaRepository<CreditoEntreNos, Long> {
+
+    // Página por id: créditos que ficaram parados não impedem a entrega dos seguintes
+    List<CreditoEntreNos> findByNoDestinoAndIdGreaterThanOrderByIdAsc(String noDestino, Long id, Limit limite);
+}
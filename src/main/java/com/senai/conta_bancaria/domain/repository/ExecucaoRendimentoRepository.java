@@ -0,0 +1,9 @@
+package com.senai.conta_bancaria.domain.repository;
+
+import com.senai.conta_bancaria.domain.entity.ExecucaoRendimento;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ExecucaoRendimentoRepository extends JpaRepository<ExecucaoRendimento, Integer> {
+}
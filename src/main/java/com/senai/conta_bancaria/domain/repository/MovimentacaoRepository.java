@@ -0,0 +1,68 @@
+package com.senai.conta_bancaria.domain.repository;
+
+import com.senai.conta_bancaria.domain.entity.Movimentacao;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface MovimentacaoRepository extends JpaRepository<Movimentacao, Long> {
+
+    interface VariacaoSaldo {
+        BigDecimal getTotal();
+
+        long getQuantidade();
+    }
+
+    // Paginação por chave (data_hora, id) sobre idx_movimentacao_conta_data: sem OFFSET, toda página custa igual
+    @Query("""
+            select m from Movimentacao m
+            where m.numeroConta = :numero
+            order by m.dataHora desc, m.id desc
+            """)
+    List<Movimentacao> findExtrato(@Param("numero") Long numero, Limit limite);
+
+    @Query("""
+            select m from Movimentacao m
+            where m.numeroConta = :numero
+              and (m.dataHora < :dataHora or (m.dataHora = :dataHora and m.id < :id))
+            order by m.dataHora desc, m.id desc
+            """)
+    List<Movimentacao> findExtratoAntesDe(@Param("numero") Long numero,
+                                          @Param("dataHora") LocalDateTime dataHora,
+                                          @Param("id") Long id,
+                                          Limit limite);
+
+    // Soma com sinal (créditos positivos, débitos negativos) das movimentações no intervalo (desde, ate]
+    @Query(value = """
+            SELECT COALESCE(SUM(CASE WHEN tipo IN (:creditos) THEN valor ELSE -valor END), 0) AS total,
+                   COUNT(*) AS quantidade
+            FROM movimentacao
+            WHERE numero_conta = :numero AND data_hora > :desde AND data_hora <= :ate
+            """, nativeQuery = true)
+    VariacaoSaldo somarVariacao(@Param("numero") Long numero,
+                                @Param("creditos") Collection<String> creditos,
+                                @Param("desde") LocalDateTime desde,
+                                @Param("ate") LocalDateTime ate);
+
+    @Query(value = """
+            SELECT DISTINCT numero_conta FROM movimentacao
+            WHERE data_hora > :desde AND data_hora <= :ate AND numero_conta > :depoisDe
+              AND MOD(numero_conta, :particoes) = :particao
+            ORDER BY numero_conta
+            LIMIT :limite
+            """, nativeQuery = true)
+    List<Long> findContasMovimentadas(@Param("desde") LocalDateTime desde,
+                                      @Param("ate") LocalDateTime ate,
+                                      @Param("depoisDe") Long depoisDe,
+                                      @Param("particao") int particao,
+                                      @Param("particoes") int particoes,
+                                      @Param("limite") int limite);
+}
@@ -0,0 +1,28 @@
+package com.senai.conta_bancaria.domain.repository;
+
+import com.senai.conta_bancaria.domain.entity.PagamentoAgendado;
+import com.senai.conta_bancaria.domain.enums.StatusAgendamento;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PagamentoAgendadoRepository extends JpaRepository<PagamentoAgendado, UUID> {
+
+    // Lote do despachante numa consulta só, já com os ids das taxas; o resultado é gravado via JDBC
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    @Query("""
+            select a from PagamentoAgendado a
+            left join fetch a.taxasIds
+            where a.id in :ids and a.status = :status
+            """)
+    List<PagamentoAgendado> findReadOnlyComTaxas(@Param("ids") Collection<UUID> ids,
+                                                 @Param("status") StatusAgendamento status);
+}
@@ -0,0 +1,29 @@
+package com.senai.conta_bancaria.domain.repository;
+
+import com.senai.conta_bancaria.domain.entity.Pagamento;
+import com.senai.conta_bancaria.domain.enums.PagamentoStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+// Busca filtrada de pagamentos, implementada em PagamentoConsultaImpl e exposta pelo PagamentoRepository
+public interface PagamentoConsulta {
+
+    // Filtros nulos são ignorados; o período é [desde, ate) e a faixa de valor é sobre o valor pago, inclusiva
+    record Filtro(
+            UUID contaId,
+            String clienteId,
+            LocalDateTime desde,
+            LocalDateTime ate,
+            PagamentoStatus status,
+            BigDecimal valorMinimo,
+            BigDecimal valorMaximo
+    ) {
+    }
+
+    // Do mais recente para o mais antigo, a partir do cursor (dataPagamento, id) exclusivo quando informado.
+    // Conta e taxas já vêm carregadas.
+    List<Pagamento> buscar(Filtro filtro, LocalDateTime antesDeData, UUID antesDeId, int limite);
+}
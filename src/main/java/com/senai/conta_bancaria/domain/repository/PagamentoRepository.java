@@ -2,14 +2,28 @@ package com.senai.conta_bancaria.domain.repository;
 
 import com.senai.conta_bancaria.domain.entity.Pagamento;
 import com.senai.conta_bancaria.domain.enums.PagamentoStatus;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.UUID;
 
 @Repository
-public interface PagamentoRepository extends JpaRepository<Pagamento, String> {
-    List<Pagamento> findByContaId(String contaId);
+public interface PagamentoRepository extends JpaRepository<Pagamento, UUID>, PagamentoConsulta {
     List<Pagamento> findByStatus(PagamentoStatus status);
-    List<Pagamento> findByContaClienteId(String clienteId);
+
+    // Uma página de pagamentos com conta e taxas numa consulta só (replicação)
+    @QueryHints(@QueryHint(name = "org.hibernate.readOnly", value = "true"))
+    @Query("""
+            select distinct p from Pagamento p
+            join fetch p.conta
+            left join fetch p.taxas
+            where p.id in :ids
+            """)
+    List<Pagamento> findReadOnlyComContaETaxasByIdIn(@Param("ids") Collection<UUID> ids);
 }
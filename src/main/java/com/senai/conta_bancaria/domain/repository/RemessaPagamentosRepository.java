@@ -0,0 +1,14 @@
+package com.senai.conta_bancaria.domain.repository;
+
+import com.senai.conta_bancaria.domain.entity.RemessaPagamentos;
+import com.senai.conta_bancaria.domain.enums.StatusExecucao;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RemessaPagamentosRepository extends JpaRepository<RemessaPagamentos, UUID> {
+    List<RemessaPagamentos> findByStatus(StatusExecucao status);
+}
@@ -64,7 +64,7 @@ public class AutenticacaoIoTService {
         log.info("Autenticação IoT iniciada para cliente {} - Operação: {}", 
                 cliente.getId(), tipoOperacao);
         
-        return codigoAutenticacao.getId();
+        return codigoAutenticacao.getId().toString();
     }
     
     @Transactional
@@ -8,6 +8,8 @@ import com.senai.conta_bancaria.domain.exception.BoletoVencidoException;
 import com.senai.conta_bancaria.domain.exception.PagamentoInvalidoException;
 import com.senai.conta_bancaria.domain.exception.SaldoInsuficienteException;
 import com.senai.conta_bancaria.domain.exception.TaxaInvalidaException;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
@@ -15,7 +17,12 @@ import java.time.LocalDateTime;
 import java.util.Set;
 
 @Service
+@RequiredArgsConstructor
 public class PagamentoDomainService {
+
+    private static final BigDecimal CEM = BigDecimal.valueOf(100);
+
+    private final PlanosDeTaxas planosDeTaxas;
     
     public void validarPagamento(Pagamento pagamento) {
         if (pagamento.getValorPago() == null || pagamento.getValorPago().compareTo(BigDecimal.ZERO) <= 0) {
@@ -40,32 +47,27 @@ public class PagamentoDomainService {
             throw new TaxaInvalidaException("O percentual da taxa deve ser maior ou igual a zero");
         }
         
-        if (taxa.getPercentual().compareTo(new BigDecimal("100")) > 0) {
+        if (taxa.getPercentual().compareTo(CEM) > 0) {
             throw new TaxaInvalidaException("O percentual da taxa não pode ser maior que 100%");
         }
         
-        if (taxa.getValorFixo() != null && taxa.getValorFixo().compareTo(BigDecimal.ZERO) < 0) {
+        if (taxa.getValorFixo() != null && taxa.getValorFixo().negativo()) {
             throw new TaxaInvalidaException("O valor fixo da taxa deve ser maior ou igual a zero");
         }
     }
     
-    public BigDecimal calcularTotalTaxas(BigDecimal valorBase, Set<Taxa> taxas) {
-        if (taxas == null || taxas.isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-        
-        return taxas.stream()
-                .map(taxa -> taxa.calcularTaxa(valorBase))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    // Mesmo resultado de somar Taxa.calcularTaxa de cada taxa, numa passada pelo plano compilado do conjunto
+    public Dinheiro calcularTotalTaxas(Dinheiro valorBase, Set<Taxa> taxas) {
+        return planosDeTaxas.plano(taxas).totalTaxas(valorBase);
     }
     
-    public BigDecimal calcularValorTotal(BigDecimal valorPago, Set<Taxa> taxas) {
-        BigDecimal totalTaxas = calcularTotalTaxas(valorPago, taxas);
-        return valorPago.add(totalTaxas);
+    public Dinheiro calcularValorTotal(Dinheiro valorPago, Set<Taxa> taxas) {
+        Dinheiro totalTaxas = calcularTotalTaxas(valorPago, taxas);
+        return valorPago.mais(totalTaxas);
     }
     
-    public void validarSaldo(Conta conta, BigDecimal valorTotal) {
-        if (conta.getSaldo().compareTo(valorTotal) < 0) {
+    public void validarSaldo(Conta conta, Dinheiro valorTotal) {
+        if (conta.getSaldo().menorQue(valorTotal)) {
             throw new SaldoInsuficienteException("Saldo insuficiente para realizar o pagamento com as taxas");
         }
     }
@@ -84,10 +86,15 @@ public class PagamentoDomainService {
     }
     
     public Pagamento processarPagamento(Conta conta, String boleto, BigDecimal valorPago, Set<Taxa> taxas) {
+        return processarPagamento(conta, boleto, valorPago, taxas, calcularTotalTaxas(Dinheiro.de(valorPago), taxas));
+    }
+
+    // Para quem já calculou o total das taxas (ex.: para preparar o débito), sem repetir o cálculo
+    public Pagamento processarPagamento(Conta conta, String boleto, BigDecimal valorPago, Set<Taxa> taxas,
+                                        Dinheiro valorTotalTaxas) {
         validarBoleto(boleto);
         
-        BigDecimal valorTotalTaxas = calcularTotalTaxas(valorPago, taxas);
-        BigDecimal valorTotal = calcularValorTotal(valorPago, taxas);
+        Dinheiro valorTotal = Dinheiro.de(valorPago).mais(valorTotalTaxas);
         
         validarSaldo(conta, valorTotal);
         
@@ -99,8 +106,8 @@ public class PagamentoDomainService {
                 .conta(conta)
                 .boleto(boleto)
                 .valorPago(valorPago)
-                .valorTotalTaxas(valorTotalTaxas)
-                .valorTotal(valorTotal)
+                .valorTotalTaxas(valorTotalTaxas.paraBigDecimal())
+                .valorTotal(valorTotal.paraBigDecimal())
                 .taxas(taxas)
                 .dataPagamento(LocalDateTime.now())
                 .status(PagamentoStatus.SUCESSO)
@@ -108,4 +115,20 @@ public class PagamentoDomainService {
         
         return pagamento;
     }
+
+    // Pagamento não efetuado (saldo, boleto vencido ou outra falha), registrado com as taxas que teria
+    public Pagamento recusarPagamento(Conta conta, String boleto, BigDecimal valorPago, Set<Taxa> taxas,
+                                      Dinheiro valorTotalTaxas, PagamentoStatus status, String observacao) {
+        return Pagamento.builder()
+                .conta(conta)
+                .boleto(boleto)
+                .valorPago(valorPago)
+                .valorTotalTaxas(valorTotalTaxas.paraBigDecimal())
+                .valorTotal(Dinheiro.de(valorPago).mais(valorTotalTaxas).paraBigDecimal())
+                .taxas(taxas)
+                .dataPagamento(LocalDateTime.now())
+                .status(status)
+                .observacao(observacao)
+                .build();
+    }
 }
@@ -0,0 +1,12 @@
+package com.senai.conta_bancaria.domain.service;
+
+import com.senai.conta_bancaria.domain.entity.Taxa;
+import com.senai.conta_bancaria.domain.valueobject.PlanoDeTaxas;
+
+import java.util.Collection;
+
+// Plano compilado de um conjunto de taxas, implementado em CachePlanosDeTaxas. Vazio para nenhuma taxa.
+public interface PlanosDeTaxas {
+
+    PlanoDeTaxas plano(Collection<Taxa> taxas);
+}
@@ -0,0 +1,130 @@
+package com.senai.conta_bancaria.domain.valueobject;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Valor monetário em centavos (long). Os cálculos do domínio usam apenas aritmética de long com checagem de
+// overflow; a conversão para BigDecimal acontece só na fronteira com JPA (DinheiroConverter) e com os DTOs.
+public record Dinheiro(long centavos) implements Comparable<Dinheiro> {
+
+    public static final Dinheiro ZERO = new Dinheiro(0);
+    public static final RoundingMode ARREDONDAMENTO_PADRAO = RoundingMode.HALF_UP;
+    public static final RoundingMode ARREDONDAMENTO_BANCARIO = RoundingMode.HALF_EVEN;
+
+    private static final int ESCALA = 2;
+    private static final long[] POTENCIAS_DE_DEZ = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L,
+            1_000_000_000L, 10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L,
+            100_000_000_000_000L, 1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L,
+            1_000_000_000_000_000_000L
+    };
+
+    public static Dinheiro deCentavos(long centavos) {
+        return centavos == 0 ? ZERO : new Dinheiro(centavos);
+    }
+
+    public static Dinheiro de(BigDecimal valor) {
+        return de(valor, ARREDONDAMENTO_PADRAO);
+    }
+
+    // movePointRight leva à escala 0 sem sair da representação compacta; unscaledValue() criaria um BigInteger
+    public static Dinheiro de(BigDecimal valor, RoundingMode arredondamento) {
+        return deCentavos(valor.setScale(ESCALA, arredondamento).movePointRight(ESCALA).longValueExact());
+    }
+
+    public static Dinheiro deOuNulo(BigDecimal valor) {
+        return valor != null ? de(valor) : null;
+    }
+
+    public static BigDecimal paraBigDecimalOuNulo(Dinheiro valor) {
+        return valor != null ? valor.paraBigDecimal() : null;
+    }
+
+    public BigDecimal paraBigDecimal() {
+        return BigDecimal.valueOf(centavos, ESCALA);
+    }
+
+    public Dinheiro mais(Dinheiro outro) {
+        return deCentavos(Math.addExact(centavos, outro.centavos));
+    }
+
+    public Dinheiro menos(Dinheiro outro) {
+        return deCentavos(Math.subtractExact(centavos, outro.centavos));
+    }
+
+    public Dinheiro absoluto() {
+        return centavos < 0 ? deCentavos(Math.negateExact(centavos)) : this;
+    }
+
+    // Fator adimensional (ex.: taxa 0.05 ou rendimento 0.03)
+    public Dinheiro multiplicar(BigDecimal fator) {
+        return multiplicar(fator, ARREDONDAMENTO_PADRAO);
+    }
+
+    public Dinheiro multiplicar(BigDecimal fator, RoundingMode arredondamento) {
+        return escalar(fator, 0, arredondamento);
+    }
+
+    // Percentual expresso de 0 a 100 (ex.: 2.50 para 2,5%)
+    public Dinheiro percentual(BigDecimal percentual, RoundingMode arredondamento) {
+        return escalar(percentual, 2, arredondamento);
+    }
+
+    public boolean maiorQue(Dinheiro outro) {
+        return centavos > outro.centavos;
+    }
+
+    public boolean menorQue(Dinheiro outro) {
+        return centavos < outro.centavos;
+    }
+
+    public boolean positivo() {
+        return centavos > 0;
+    }
+
+    public boolean negativo() {
+        return centavos < 0;
+    }
+
+    @Override
+    public int compareTo(Dinheiro outro) {
+        return Long.compare(centavos, outro.centavos);
+    }
+
+    @Override
+    public String toString() {
+        return paraBigDecimal().toPlainString();
+    }
+
+    private Dinheiro escalar(BigDecimal fator, int escalaExtra, RoundingMode arredondamento) {
+        BigDecimal normalizado = fator.scale() < 0 ? fator.setScale(0) : fator;
+        int escala = normalizado.scale() + escalaExtra;
+        if (escala >= POTENCIAS_DE_DEZ.length)
+            throw new ArithmeticException("Fator com casas decimais demais: " + fator);
+
+        long produto = Math.multiplyExact(centavos, normalizado.movePointRight(normalizado.scale()).longValueExact());
+        return deCentavos(dividir(produto, POTENCIAS_DE_DEZ[escala], arredondamento));
+    }
+
+    // Divisão inteira por potência de dez (divisor positivo) aplicando o modo de arredondamento
+    static long dividir(long dividendo, long divisor, RoundingMode arredondamento) {
+        long quociente = dividendo / divisor;
+        long resto = dividendo % divisor;
+        if (resto == 0)
+            return quociente;
+
+        long sinal = dividendo < 0 ? -1 : 1;
+        long dobroResto = Math.abs(resto) * 2;
+        boolean afastaDoZero = switch (arredondamento) {
+            case UP -> true;
+            case DOWN -> false;
+            case CEILING -> sinal > 0;
+            case FLOOR -> sinal < 0;
+            case HALF_UP -> dobroResto >= divisor;
+            case HALF_DOWN -> dobroResto > divisor;
+            case HALF_EVEN -> dobroResto > divisor || (dobroResto == divisor && (quociente & 1) != 0);
+            case UNNECESSARY -> throw new ArithmeticException("Arredondamento necessário para " + dividendo);
+        };
+        return afastaDoZero ? quociente + sinal : quociente;
+    }
+}
@@ -0,0 +1,21 @@
+package com.senai.conta_bancaria.domain.valueobject;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.math.BigDecimal;
+
+// Mantém as colunas DECIMAL(19,2) existentes; aplicado automaticamente a todo atributo do tipo Dinheiro
+@Converter(autoApply = true)
+public class DinheiroConverter implements AttributeConverter<Dinheiro, BigDecimal> {
+
+    @Override
+    public BigDecimal convertToDatabaseColumn(Dinheiro valor) {
+        return Dinheiro.paraBigDecimalOuNulo(valor);
+    }
+
+    @Override
+    public Dinheiro convertToEntityAttribute(BigDecimal valor) {
+        return Dinheiro.deOuNulo(valor);
+    }
+}
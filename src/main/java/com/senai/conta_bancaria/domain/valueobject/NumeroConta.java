@@ -0,0 +1,35 @@
+package com.senai.conta_bancaria.domain.valueobject;
+
+// Número de conta = sequencial seguido de um dígito verificador (Luhn, módulo 10),
+// que detecta qualquer dígito trocado e a maioria das transposições de dígitos vizinhos.
+public final class NumeroConta {
+
+    private NumeroConta() {
+    }
+
+    public static long comDigito(long sequencial) {
+        if (sequencial < 0 || sequencial > (Long.MAX_VALUE - 9) / 10)
+            throw new IllegalArgumentException("Sequencial de conta fora do intervalo: " + sequencial);
+        return sequencial * 10 + digito(sequencial);
+    }
+
+    public static boolean valido(long numero) {
+        return numero >= 0 && digito(numero / 10) == numero % 10;
+    }
+
+    private static int digito(long sequencial) {
+        int soma = 0;
+        boolean dobrar = true; // o dígito mais à direita do sequencial fica numa posição dobrada
+        for (long resto = sequencial; resto > 0; resto /= 10) {
+            int d = (int) (resto % 10);
+            if (dobrar) {
+                d *= 2;
+                if (d > 9)
+                    d -= 9;
+            }
+            soma += d;
+            dobrar = !dobrar;
+        }
+        return (10 - soma % 10) % 10;
+    }
+}
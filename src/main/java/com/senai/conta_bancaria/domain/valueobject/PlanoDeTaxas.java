@@ -0,0 +1,59 @@
+package com.senai.conta_bancaria.domain.valueobject;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Collection;
+
+// Conjunto de taxas compilado para um cálculo de uma passada só: a parte fixa já somada em centavos e os
+// percentuais convertidos para inteiros numa escala comum. Cada percentual continua arredondado à parte, como em
+// Taxa.calcularTaxa, então o total é o mesmo de somar as taxas uma a uma, sem BigDecimal no cálculo.
+public final class PlanoDeTaxas {
+
+    public static final PlanoDeTaxas VAZIO = new PlanoDeTaxas(0, new long[0], 1);
+
+    private static final RoundingMode ARREDONDAMENTO = Dinheiro.ARREDONDAMENTO_PADRAO;
+    private static final int ESCALA_MAXIMA = 18;
+
+    private final long fixoCentavos;
+    private final long[] percentuais; // na escala comum, multiplicados por 10^escala
+    private final long divisor;       // 10^(escala + 2): percentual de 0 a 100
+
+    private PlanoDeTaxas(long fixoCentavos, long[] percentuais, long divisor) {
+        this.fixoCentavos = fixoCentavos;
+        this.percentuais = percentuais;
+        this.divisor = divisor;
+    }
+
+    // Percentuais de 0 a 100 (um por taxa) e a soma das partes fixas
+    public static PlanoDeTaxas compilar(Collection<BigDecimal> percentuais, Dinheiro fixo) {
+        // Percentual zero não contribui em nenhum arredondamento
+        BigDecimal[] naoNulos = percentuais.stream()
+                .filter(percentual -> percentual.signum() != 0)
+                .map(percentual -> percentual.scale() < 0 ? percentual.setScale(0) : percentual)
+                .toArray(BigDecimal[]::new);
+
+        int escala = 0;
+        for (BigDecimal percentual : naoNulos)
+            escala = Math.max(escala, percentual.scale());
+        if (escala + 2 > ESCALA_MAXIMA)
+            throw new ArithmeticException("Percentual com casas decimais demais para o plano de taxas");
+
+        long[] normalizados = new long[naoNulos.length];
+        for (int i = 0; i < naoNulos.length; i++)
+            normalizados[i] = naoNulos[i].setScale(escala).unscaledValue().longValueExact();
+
+        long divisor = 1;
+        for (int i = 0; i < escala + 2; i++)
+            divisor *= 10;
+
+        return new PlanoDeTaxas(fixo.centavos(), normalizados, divisor);
+    }
+
+    public Dinheiro totalTaxas(Dinheiro valorBase) {
+        long total = fixoCentavos;
+        for (long percentual : percentuais)
+            total = Math.addExact(total,
+                    Dinheiro.dividir(Math.multiplyExact(valorBase.centavos(), percentual), divisor, ARREDONDAMENTO));
+        return Dinheiro.deCentavos(total);
+    }
+}
@@ -0,0 +1,17 @@
+package com.senai.conta_bancaria.domain.valueobject;
+
+import com.senai.conta_bancaria.domain.entity.Conta;
+
+// Número, tipo e saldo de uma conta, sem carregar a entidade. É a forma em que as projeções do repositório, os
+// caches e a réplica guardam as contas; a API converte para ContaResumoDto na saída.
+public record ResumoConta(Long numero, String tipo, Dinheiro saldo) {
+
+    public static ResumoConta de(Conta conta) {
+        return new ResumoConta(conta.getNumero(), conta.getTipo(), conta.getSaldo());
+    }
+
+    // Soma ao saldo da linha conta o que está nas fatias de uma conta quente
+    public ResumoConta somandoAoSaldo(Dinheiro parcial) {
+        return parcial.positivo() ? new ResumoConta(numero, tipo, saldo.mais(parcial)) : this;
+    }
+}
@@ -0,0 +1,374 @@
+package com.senai.conta_bancaria.infrastructure.agendamento;
+
+import com.senai.conta_bancaria.application.service.PagamentoAgendadoService;
+import com.senai.conta_bancaria.domain.exception.ArrendamentoPerdidoException;
+import com.senai.conta_bancaria.infrastructure.cluster.MembrosDoCluster;
+import com.senai.conta_bancaria.infrastructure.coordenacao.CoordenacaoDeNos;
+import com.senai.conta_bancaria.infrastructure.coordenacao.CoordenacaoDeNos.Posse;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Executa os pagamentos agendados no líder. Os agendamentos que vencem dentro do horizonte são carregados
+// antes da hora numa roda de tempo em memória (só id, conta e instante), então no pico do dia 5 ou 10 o banco só
+// é lido para executar, nunca para procurar o que venceu. Quem vence vai para a fila de um dos executores,
+// escolhido pela conta: os lotes de uma conta nunca correm em paralelo, e cada lote agrupa os pagamentos por conta
+// no PagamentoLoteService, que carrega e atualiza cada conta uma vez por lote.
+// O banco continua sendo a fonte da verdade: um novo líder recarrega tudo o que ainda está AGENDADO.
+// Com cluster configurado não há líder: cada nó despacha só os agendamentos das contas que atende, sob um
+// arrendamento próprio, e os pagamentos rodam no mesmo nó que serializa os saques e depósitos da conta.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DespachanteDePagamentosAgendados {
+
+    private static final String TAREFA = "pagamentos-agendados";
+    private static final String JANELA = """
+            SELECT a.id, a.conta_id, c.numero, a.executar_em
+            FROM pagamento_agendado a JOIN conta c ON c.id = a.conta_id
+            WHERE a.status = 'AGENDADO' AND a.executar_em < ?
+              AND (a.executar_em > ? OR (a.executar_em = ? AND a.id > ?))
+            ORDER BY a.executar_em, a.id
+            LIMIT ?""";
+    // Criados há pouco para dentro da janela já carregada (de qualquer nó); a margem cobre commits demorados
+    private static final String RECENTES = """
+            SELECT a.id, a.conta_id, c.numero, a.executar_em
+            FROM pagamento_agendado a JOIN conta c ON c.id = a.conta_id
+            WHERE a.status = 'AGENDADO' AND a.criado_em >= ? AND a.executar_em < ?""";
+    private static final int PAGINA_CARGA = 5000;
+    private static final Duration MARGEM_RECENTES = Duration.ofMinutes(1);
+    private static final LocalDateTime INICIO = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final UUID MENOR_ID = new UUID(0, 0);
+
+    // tentativas: quantas vezes o agendamento já falhou sozinho num lote
+    private record Vencimento(UUID id, UUID contaId, long numeroConta, LocalDateTime executarEm, int tentativas) {
+        Vencimento comNovaTentativa() {
+            return new Vencimento(id, contaId, numeroConta, executarEm, tentativas + 1);
+        }
+    }
+
+    private static final RowMapper<Vencimento> VENCIMENTO = (rs, linha) -> new Vencimento(
+            uuid(rs.getBytes("id")), uuid(rs.getBytes("conta_id")), rs.getLong("numero"),
+            rs.getTimestamp("executar_em").toLocalDateTime(), 0);
+
+    private final PagamentoAgendadoService agendamentoService;
+    private final CoordenacaoDeNos coordenacao;
+    private final MembrosDoCluster cluster;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${conta.agendamento.tique-ms:1000}")
+    private long tiqueMs;
+
+    @Value("${conta.agendamento.horizonte-min:120}")
+    private long horizonteMin;
+
+    @Value("${conta.agendamento.varredura-ms:5000}")
+    private long varreduraMs;
+
+    @Value("${conta.agendamento.tamanho-lote:500}")
+    private int tamanhoLote;
+
+    @Value("${conta.agendamento.executores:4}")
+    private int quantidadeExecutores;
+
+    @Value("${conta.agendamento.nova-tentativa-ms:30000}")
+    private long novaTentativaMs;
+
+    @Value("${conta.agendamento.maximo-tentativas:5}")
+    private int maximoTentativas;
+
+    // Ids na roda ou nas filas, para as cargas sobrepostas não duplicarem ninguém
+    private final Set<UUID> conhecidos = ConcurrentHashMap.newKeySet();
+    // Agendamentos que falharam voltam para a roda pelo relógio, que é o único a mexer nela
+    private final Queue<Vencimento> devolvidos = new ConcurrentLinkedQueue<>();
+    private final List<BlockingQueue<Vencimento>> filas = new ArrayList<>();
+    private final List<Thread> threads = new ArrayList<>();
+
+    private volatile Posse posse;
+    private volatile boolean ativo = true;
+
+    // Só o relógio mexe nestes
+    private RodaDeTempo<Vencimento> roda;
+    private LocalDateTime carregadoAte;
+    private LocalDateTime ultimaVarredura;
+    private long proximaVarreduraNanos;
+
+    @PostConstruct
+    void iniciar() {
+        for (int i = 0; i < quantidadeExecutores; i++) {
+            BlockingQueue<Vencimento> fila = new LinkedBlockingQueue<>();
+            filas.add(fila);
+            threads.add(Thread.ofPlatform().daemon().name("agendamento-executor-" + i)
+                    .start(() -> executarSempre(fila)));
+        }
+        threads.add(Thread.ofPlatform().daemon().name("agendamento-relogio").start(this::girarSempre));
+    }
+
+    @PreDestroy
+    void encerrar() {
+        ativo = false;
+        threads.forEach(Thread::interrupt);
+    }
+
+    private void girarSempre() {
+        while (ativo) {
+            try {
+                girar();
+            } catch (RuntimeException e) {
+                log.warn("Agendamentos: falha no giro do relógio: {}", e.getMessage());
+            }
+            try {
+                Thread.sleep(tiqueMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void girar() {
+        boolean ativoNesteNo = cluster.configurado()
+                ? coordenacao.comoDono(TAREFA + "/" + cluster.noLocal(), this::girarComo)
+                : coordenacao.comoLider(TAREFA, this::girarComo);
+        if (!ativoNesteNo && posse != null)
+            abandonar();
+    }
+
+    private void girarComo(Posse atual) {
+        if (posse == null || !posse.equals(atual))
+            assumir(atual);
+
+        Vencimento devolvido;
+        while ((devolvido = devolvidos.poll()) != null)
+            roda.agendar(devolvido, System.currentTimeMillis() + novaTentativaMs);
+
+        carregar();
+        roda.avancar(System.currentTimeMillis(), this::enfileirar);
+    }
+
+    // Arrendamento novo (ou recuperado): o que havia em memória pode estar desatualizado, então recomeça do banco
+    private void assumir(Posse atual) {
+        descartar();
+        roda = new RodaDeTempo<>(tiqueMs, System.currentTimeMillis());
+        carregadoAte = null;
+        ultimaVarredura = LocalDateTime.now();
+        proximaVarreduraNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(varreduraMs);
+        posse = atual;
+        log.info("Agendamentos: despachante ativo neste nó (token {})", atual.token());
+    }
+
+    private void abandonar() {
+        posse = null;
+        descartar();
+        roda = null;
+        log.info("Agendamentos: arrendamento perdido neste nó; despachante parado");
+    }
+
+    private void descartar() {
+        filas.forEach(BlockingQueue::clear);
+        devolvidos.clear();
+        conhecidos.clear();
+    }
+
+    // A janela avança em degraus de meio horizonte; entre eles, só a varredura dos recém-criados
+    private void carregar() {
+        LocalDateTime agora = LocalDateTime.now();
+        Duration horizonte = Duration.ofMinutes(horizonteMin);
+        if (carregadoAte == null || carregadoAte.isBefore(agora.plus(horizonte.dividedBy(2)))) {
+            LocalDateTime limite = agora.plus(horizonte);
+            int carregados = carregarJanela(carregadoAte == null ? INICIO : carregadoAte, limite);
+            carregadoAte = limite;
+            if (carregados > 0)
+                log.info("Agendamentos: {} carregados até {} ({} na roda)", carregados, limite, roda.tamanho());
+        }
+
+        if (System.nanoTime() - proximaVarreduraNanos >= 0) {
+            LocalDateTime inicio = ultimaVarredura.minus(MARGEM_RECENTES);
+            ultimaVarredura = agora;
+            jdbcTemplate.query(RECENTES, VENCIMENTO, Timestamp.valueOf(inicio), Timestamp.valueOf(carregadoAte))
+                    .forEach(this::agendar);
+            proximaVarreduraNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(varreduraMs);
+        }
+    }
+
+    // Paginado por (executar_em, id) sobre idx_agendamento_status_execucao
+    private int carregarJanela(LocalDateTime desde, LocalDateTime ate) {
+        LocalDateTime dataCursor = desde;
+        UUID idCursor = MENOR_ID;
+        int total = 0;
+        List<Vencimento> pagina;
+        do {
+            pagina = jdbcTemplate.query(JANELA, VENCIMENTO, Timestamp.valueOf(ate), Timestamp.valueOf(dataCursor),
+                    Timestamp.valueOf(dataCursor), bytes(idCursor), PAGINA_CARGA);
+            for (Vencimento vencimento : pagina) {
+                if (agendar(vencimento))
+                    total++;
+            }
+            if (!pagina.isEmpty()) {
+                Vencimento ultimo = pagina.get(pagina.size() - 1);
+                dataCursor = ultimo.executarEm();
+                idCursor = ultimo.id();
+            }
+        } while (pagina.size() == PAGINA_CARGA);
+        return total;
+    }
+
+    // Em cluster, os das contas de outros nós ficam para o despachante do dono
+    private boolean agendar(Vencimento vencimento) {
+        if (!cluster.local(vencimento.numeroConta()) || !conhecidos.add(vencimento.id()))
+            return false;
+        roda.agendar(vencimento, vencimento.executarEm().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        return true;
+    }
+
+    private void enfileirar(Vencimento vencimento) {
+        filas.get(Math.floorMod(vencimento.contaId().hashCode(), filas.size())).add(vencimento);
+    }
+
+    private void executarSempre(BlockingQueue<Vencimento> fila) {
+        List<Vencimento> lote = new ArrayList<>(tamanhoLote);
+        while (ativo) {
+            try {
+                Vencimento primeiro = fila.poll(1, TimeUnit.SECONDS);
+                if (primeiro == null)
+                    continue;
+                lote.add(primeiro);
+                fila.drainTo(lote, tamanhoLote - 1);
+                executar(lote);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                lote.clear();
+            }
+        }
+    }
+
+    private void executar(List<Vencimento> lote) {
+        Posse atual = posse;
+        if (atual == null) {
+            lote.forEach(vencimento -> conhecidos.remove(vencimento.id()));
+            return;
+        }
+
+        try {
+            executarOuDividir(lote, atual);
+        } catch (ArrendamentoPerdidoException e) {
+            // Outro nó assumiu e vai recarregar do banco o que ficou AGENDADO
+            lote.forEach(vencimento -> conhecidos.remove(vencimento.id()));
+        }
+    }
+
+    // Um lote que falha é dividido ao meio, sem separar as contas enquanto houver mais de uma, até isolar o
+    // agendamento com problema: o resto do lote segue na hora e só o isolado volta para a roda. Banco fora do ar
+    // não é culpa de ninguém: o lote volta inteiro, sem dividir nem contar tentativa.
+    private void executarOuDividir(List<Vencimento> lote, Posse atual) {
+        try {
+            long inicioNanos = System.nanoTime();
+            int executados = agendamentoService.executar(lote.stream().map(Vencimento::id).toList(), atual);
+            lote.forEach(vencimento -> conhecidos.remove(vencimento.id()));
+            log.debug("Agendamentos: lote de {} com {} executados em {} ms", lote.size(), executados,
+                    (System.nanoTime() - inicioNanos) / 1_000_000);
+        } catch (ArrendamentoPerdidoException e) {
+            throw e;
+        } catch (DataAccessResourceFailureException e) {
+            log.warn("Agendamentos: banco indisponível, lote de {} de volta em {} ms: {}", lote.size(),
+                    novaTentativaMs, e.getMessage());
+            devolvidos.addAll(lote);
+        } catch (RuntimeException e) {
+            if (lote.size() > 1) {
+                log.debug("Agendamentos: lote de {} falhou, dividindo: {}", lote.size(), e.getMessage());
+                for (List<Vencimento> metade : dividir(lote))
+                    executarOuDividir(metade, atual);
+                return;
+            }
+            devolverOuEstacionar(lote.get(0), e, atual);
+        }
+    }
+
+    private void devolverOuEstacionar(Vencimento vencimento, RuntimeException erro, Posse atual) {
+        Vencimento falho = vencimento.comNovaTentativa();
+        if (falho.tentativas() < maximoTentativas) {
+            log.warn("Agendamentos: {} falhou ({} de {}), nova tentativa em {} ms: {}", falho.id(),
+                    falho.tentativas(), maximoTentativas, novaTentativaMs, erro.getMessage());
+            devolvidos.add(falho);
+            return;
+        }
+
+        try {
+            agendamentoService.estacionar(falho.id(), "Falhou " + falho.tentativas() + " vezes: " + erro.getMessage(),
+                    atual);
+            conhecidos.remove(falho.id());
+            log.error("Agendamentos: {} rejeitado depois de {} tentativas: {}", falho.id(), falho.tentativas(),
+                    erro.getMessage());
+        } catch (ArrendamentoPerdidoException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            log.warn("Agendamentos: não foi possível rejeitar {}, nova tentativa em {} ms: {}", falho.id(),
+                    novaTentativaMs, e.getMessage());
+            devolvidos.add(falho);
+        }
+    }
+
+    // Ordena por conta (estável, preserva a ordem dentro dela) e corta na troca de conta mais próxima do meio;
+    // com uma conta só, corta no meio
+    private static List<List<Vencimento>> dividir(List<Vencimento> lote) {
+        List<Vencimento> ordenado = new ArrayList<>(lote);
+        ordenado.sort(Comparator.comparing(Vencimento::contaId));
+
+        int meio = ordenado.size() / 2;
+        int corte = meio;
+        for (int distancia = 0; distancia < ordenado.size(); distancia++) {
+            if (trocaDeConta(ordenado, meio - distancia)) {
+                corte = meio - distancia;
+                break;
+            }
+            if (trocaDeConta(ordenado, meio + distancia)) {
+                corte = meio + distancia;
+                break;
+            }
+        }
+        return List.of(ordenado.subList(0, corte), ordenado.subList(corte, ordenado.size()));
+    }
+
+    private static boolean trocaDeConta(List<Vencimento> ordenado, int posicao) {
+        return posicao > 0 && posicao < ordenado.size()
+                && !ordenado.get(posicao - 1).contaId().equals(ordenado.get(posicao).contaId());
+    }
+
+    // binary(16) na ordem natural do UUID (bits mais significativos primeiro)
+    private static UUID uuid(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+}
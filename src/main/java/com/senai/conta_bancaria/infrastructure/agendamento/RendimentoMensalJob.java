@@ -0,0 +1,399 @@
+package com.senai.conta_bancaria.infrastructure.agendamento;
+
+import com.senai.conta_bancaria.domain.entity.ContaPoupanca;
+import com.senai.conta_bancaria.domain.entity.ExecucaoRendimento;
+import com.senai.conta_bancaria.domain.entity.Movimentacao;
+import com.senai.conta_bancaria.domain.enums.StatusExecucao;
+import com.senai.conta_bancaria.domain.enums.TipoMovimentacao;
+import com.senai.conta_bancaria.domain.repository.ContaRepository;
+import com.senai.conta_bancaria.domain.repository.ExecucaoRendimentoRepository;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.infrastructure.cache.CacheContasPorCpf;
+import com.senai.conta_bancaria.infrastructure.cache.CacheContasPorNumero;
+import com.senai.conta_bancaria.infrastructure.cluster.MembrosDoCluster;
+import com.senai.conta_bancaria.infrastructure.concorrencia.PoliticaDeRetentativa;
+import com.senai.conta_bancaria.infrastructure.coordenacao.CoordenacaoDeNos;
+import com.senai.conta_bancaria.infrastructure.coordenacao.CoordenacaoDeNos.Posse;
+import com.senai.conta_bancaria.infrastructure.movimentacao.DiarioDeMovimentacoes;
+import com.senai.conta_bancaria.infrastructure.persistencia.ResultadosDeLote;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.YearMonth;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Aplica o rendimento mensal a todas as poupanças ativas, em blocos paginados pelo número da conta.
+// Cada bloco é confirmado junto com o ponto de retomada, então uma execução interrompida continua de onde parou;
+// a coluna competencia_rendimento garante que nenhuma conta receba o rendimento do mesmo mês duas vezes.
+// O disparo agendado só roda no líder, e cada bloco confere o token de cerca antes de confirmar.
+// Com cluster configurado, cada nó aplica o rendimento só às contas que atende (ver executarNasContasLocais).
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RendimentoMensalJob {
+
+    public enum Modo {
+        SQL,  // um UPDATE por bloco, calculado no banco
+        JAVA  // regra do domínio (ContaPoupanca.aplicarRendimento) em blocos paralelos
+    }
+
+    private static final String PROXIMOS_NUMEROS = """
+            SELECT numero FROM conta
+            WHERE tipo_conta = 'POUPANCA' AND ativo = true AND rendimento IS NOT NULL AND numero > ?
+              AND (competencia_rendimento IS NULL OR competencia_rendimento < ?)
+            ORDER BY numero
+            LIMIT ?""";
+
+    // ROUND do MySQL em DECIMAL arredonda metade para longe do zero, o mesmo HALF_UP do Dinheiro.
+    // O INSERT ... SELECT trava as linhas lidas, então o UPDATE seguinte vê exatamente os mesmos saldos.
+    private static final String REGISTRAR_MOVIMENTACOES = """
+            INSERT INTO movimentacao (numero_conta, tipo, valor, saldo_apos, data_hora)
+            SELECT numero, 'RENDIMENTO', ROUND(saldo * rendimento, 2), saldo + ROUND(saldo * rendimento, 2), ?
+            FROM conta
+            WHERE tipo_conta = 'POUPANCA' AND ativo = true AND rendimento IS NOT NULL
+              AND numero > ? AND numero <= ?
+              AND (competencia_rendimento IS NULL OR competencia_rendimento < ?)""";
+
+    private static final String APLICAR_RENDIMENTO = """
+            UPDATE conta
+            SET saldo = saldo + ROUND(saldo * rendimento, 2), competencia_rendimento = ?, versao = versao + 1
+            WHERE tipo_conta = 'POUPANCA' AND ativo = true AND rendimento IS NOT NULL
+              AND numero > ? AND numero <= ?
+              AND (competencia_rendimento IS NULL OR competencia_rendimento < ?)""";
+
+    // Variantes por lista de números, para o cluster: as contas de um bloco não formam uma faixa de um nó só
+    private static final String REGISTRAR_MOVIMENTACOES_DAS_CONTAS = """
+            INSERT INTO movimentacao (numero_conta, tipo, valor, saldo_apos, data_hora)
+            SELECT numero, 'RENDIMENTO', ROUND(saldo * rendimento, 2), saldo + ROUND(saldo * rendimento, 2), ?
+            FROM conta
+            WHERE tipo_conta = 'POUPANCA' AND ativo = true AND rendimento IS NOT NULL
+              AND (competencia_rendimento IS NULL OR competencia_rendimento < ?)
+              AND numero IN (%s)""";
+
+    private static final String APLICAR_RENDIMENTO_DAS_CONTAS = """
+            UPDATE conta
+            SET saldo = saldo + ROUND(saldo * rendimento, 2), competencia_rendimento = ?, versao = versao + 1
+            WHERE tipo_conta = 'POUPANCA' AND ativo = true AND rendimento IS NOT NULL
+              AND (competencia_rendimento IS NULL OR competencia_rendimento < ?)
+              AND numero IN (%s)""";
+
+    private static final String GRAVAR_RENDIMENTO =
+            "UPDATE conta SET saldo = ?, competencia_rendimento = ?, versao = versao + 1 WHERE numero = ? AND versao = ?";
+
+    private static final int BLOCOS_POR_LOG = 100;
+
+    private final ContaRepository repository;
+    private final ExecucaoRendimentoRepository execucaoRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PoliticaDeRetentativa politicaDeRetentativa;
+    private final CacheContasPorCpf cacheContasPorCpf;
+    private final CacheContasPorNumero cacheContasPorNumero;
+    private final DiarioDeMovimentacoes diario;
+    private final MeterRegistry meterRegistry;
+    private final CoordenacaoDeNos coordenacao;
+    private final MembrosDoCluster cluster;
+
+    private final AtomicBoolean emExecucao = new AtomicBoolean();
+
+    @Value("${conta.rendimento.modo:SQL}")
+    private Modo modo;
+
+    @Value("${conta.rendimento.tamanho-bloco:1000}")
+    private int tamanhoBloco;
+
+    @Value("${conta.rendimento.threads:4}")
+    private int threads;
+
+    @Scheduled(cron = "${conta.rendimento.cron:0 0 2 1 * *}")
+    public void executarAgendado() {
+        if (cluster.configurado())
+            coordenacao.comArrendamento("rendimento-mensal/" + cluster.noLocal(),
+                    posse -> executarNasContasLocais(YearMonth.now(), posse));
+        else
+            coordenacao.comoLider("rendimento-mensal", posse -> executar(YearMonth.now(), posse));
+    }
+
+    public void executar(YearMonth mes) {
+        if (cluster.configurado())
+            executarNasContasLocais(mes, null);
+        else
+            executar(mes, null);
+    }
+
+    // Com posse, o trabalho só é confirmado enquanto o arrendamento continuar deste nó
+    private void executar(YearMonth mes, Posse posse) {
+        if (!emExecucao.compareAndSet(false, true)) {
+            log.warn("Rendimento mensal já está em execução, ignorando o disparo para {}", mes);
+            return;
+        }
+
+        try {
+            int competencia = mes.getYear() * 100 + mes.getMonthValue();
+            ExecucaoRendimento execucao = execucaoRepository.findById(competencia)
+                    .orElseGet(() -> execucaoRepository.save(ExecucaoRendimento.iniciar(competencia)));
+
+            if (execucao.getStatus() == StatusExecucao.CONCLUIDA) {
+                log.info("Rendimento de {} já foi aplicado em {}", competencia, execucao.getConcluidaEm());
+                return;
+            }
+            if (execucao.getUltimoNumero() >= 0)
+                log.info("Retomando rendimento de {} a partir da conta {}", competencia, execucao.getUltimoNumero());
+
+            Progresso progresso = new Progresso(execucao);
+            execucao = modo == Modo.SQL
+                    ? executarEmSql(execucao, progresso, posse)
+                    : executarEmParalelo(execucao, progresso, posse);
+
+            transactionTemplate.executeWithoutResult(status -> execucaoRepository
+                    .findById(competencia)
+                    .ifPresent(ExecucaoRendimento::concluir));
+
+            progresso.registrarFim(execucao);
+        } finally {
+            emExecucao.set(false);
+        }
+    }
+
+    private ExecucaoRendimento executarEmSql(ExecucaoRendimento execucao, Progresso progresso, Posse posse) {
+        int competencia = execucao.getCompetencia();
+        List<Long> numeros;
+        while (!(numeros = proximosNumeros(competencia, execucao.getUltimoNumero())).isEmpty()) {
+            long de = execucao.getUltimoNumero();
+            long ate = numeros.get(numeros.size() - 1);
+
+            // O bloco e o ponto de retomada são confirmados na mesma transação
+            execucao = politicaDeRetentativa.executar("rendimento", () -> transactionTemplate.execute(status -> {
+                validar(posse);
+                jdbcTemplate.update(REGISTRAR_MOVIMENTACOES, agora(), de, ate, competencia);
+                int atualizadas = jdbcTemplate.update(APLICAR_RENDIMENTO, competencia, de, ate, competencia);
+                return confirmarBloco(competencia, ate, atualizadas);
+            }));
+
+            cacheContasPorCpf.limpar();
+            cacheContasPorNumero.invalidarFaixa(de, ate);
+            progresso.registrarBloco(execucao);
+        }
+        return execucao;
+    }
+
+    // Cada nó percorre os números pendentes e aplica o rendimento só às suas contas. O ponto de retomada de
+    // execucao_rendimento é de uma execução única, então não é usado: a retomada vem da competencia_rendimento,
+    // que tira da consulta as contas já atualizadas, e uma nova execução recomeça do início sem repetir nenhuma.
+    private void executarNasContasLocais(YearMonth mes, Posse posse) {
+        if (!emExecucao.compareAndSet(false, true)) {
+            log.warn("Rendimento mensal já está em execução, ignorando o disparo para {}", mes);
+            return;
+        }
+
+        try {
+            int competencia = mes.getYear() * 100 + mes.getMonthValue();
+            long inicioNanos = System.nanoTime();
+            long ultimo = -1;
+            long atualizadas = 0;
+            List<Long> numeros;
+            while (!(numeros = proximosNumeros(competencia, ultimo)).isEmpty()) {
+                long de = ultimo;
+                long ate = numeros.get(numeros.size() - 1);
+                ultimo = ate;
+
+                List<Long> locais = numeros.stream().filter(cluster::local).toList();
+                if (locais.isEmpty())
+                    continue;
+                int noBloco = modo == Modo.SQL
+                        ? aplicarEmSql(competencia, locais, posse)
+                        : aplicarEmJava(competencia, de, ate, posse);
+                atualizadas += noBloco;
+                meterRegistry.counter("conta.rendimento.contas", "modo", modo.name()).increment(noBloco);
+            }
+
+            log.info("Rendimento {} concluído nas contas deste nó: {} contas em {} ms", competencia, atualizadas,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicioNanos));
+        } finally {
+            emExecucao.set(false);
+        }
+    }
+
+    private int aplicarEmSql(int competencia, List<Long> numeros, Posse posse) {
+        String marcadores = String.join(",", Collections.nCopies(numeros.size(), "?"));
+        Object[] registrar = new Object[numeros.size() + 2];
+        Object[] aplicar = new Object[numeros.size() + 2];
+        registrar[1] = competencia;
+        aplicar[0] = competencia;
+        aplicar[1] = competencia;
+        for (int i = 0; i < numeros.size(); i++) {
+            registrar[i + 2] = numeros.get(i);
+            aplicar[i + 2] = numeros.get(i);
+        }
+
+        return politicaDeRetentativa.executar("rendimento", () -> transactionTemplate.execute(status -> {
+            validar(posse);
+            registrar[0] = agora();
+            jdbcTemplate.update(REGISTRAR_MOVIMENTACOES_DAS_CONTAS.formatted(marcadores), registrar);
+            return jdbcTemplate.update(APLICAR_RENDIMENTO_DAS_CONTAS.formatted(marcadores), aplicar);
+        }));
+    }
+
+    // Os blocos são processados em paralelo, mas o ponto de retomada só avança na ordem em que foram criados
+    private ExecucaoRendimento executarEmParalelo(ExecucaoRendimento execucao, Progresso progresso, Posse posse) {
+        int competencia = execucao.getCompetencia();
+        int maxEmVoo = threads * 2;
+        ExecutorService pool = Executors.newFixedThreadPool(threads, Thread.ofPlatform().name("rendimento-", 0).factory());
+        Deque<Bloco> emVoo = new ArrayDeque<>(maxEmVoo);
+
+        try {
+            long ultimo = execucao.getUltimoNumero();
+            List<Long> numeros;
+            while (!(numeros = proximosNumeros(competencia, ultimo)).isEmpty()) {
+                long de = ultimo;
+                long ate = numeros.get(numeros.size() - 1);
+                emVoo.addLast(new Bloco(de, ate, pool.submit(() -> aplicarEmJava(competencia, de, ate, posse))));
+                ultimo = ate;
+
+                if (emVoo.size() >= maxEmVoo)
+                    execucao = confirmarMaisAntigo(emVoo, competencia, progresso, posse);
+            }
+            while (!emVoo.isEmpty())
+                execucao = confirmarMaisAntigo(emVoo, competencia, progresso, posse);
+        } finally {
+            emVoo.forEach(bloco -> bloco.resultado().cancel(false));
+            pool.shutdown();
+        }
+        return execucao;
+    }
+
+    private ExecucaoRendimento confirmarMaisAntigo(Deque<Bloco> emVoo, int competencia, Progresso progresso,
+                                                   Posse posse) {
+        Bloco bloco = emVoo.removeFirst();
+        int atualizadas;
+        try {
+            atualizadas = bloco.resultado().get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof RuntimeException causa ? causa : new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Rendimento mensal interrompido", e);
+        }
+
+        ExecucaoRendimento execucao = transactionTemplate.execute(status -> {
+            validar(posse);
+            return confirmarBloco(competencia, bloco.ultimoNumero(), atualizadas);
+        });
+        cacheContasPorCpf.limpar();
+        cacheContasPorNumero.invalidarFaixa(bloco.numeroAnterior(), bloco.ultimoNumero());
+        progresso.registrarBloco(execucao);
+        return execucao;
+    }
+
+    private int aplicarEmJava(int competencia, long de, long ate, Posse posse) {
+        return politicaDeRetentativa.executar("rendimento", () -> transactionTemplate.execute(status -> {
+            validar(posse);
+            List<ContaPoupanca> contas = new ArrayList<>();
+            List<Movimentacao> movimentacoes = new ArrayList<>();
+            for (ContaPoupanca conta : repository.findReadOnlyPoupancasParaRendimento(de, ate)) {
+                if (!cluster.local(conta.getNumero()))
+                    continue;
+                Dinheiro saldoAnterior = conta.getSaldo();
+                if (conta.aplicarRendimento(competencia)) {
+                    contas.add(conta);
+                    movimentacoes.add(Movimentacao.apos(conta, TipoMovimentacao.RENDIMENTO, saldoAnterior));
+                }
+            }
+            gravar(contas, competencia);
+            diario.registrar(movimentacoes);
+            return contas.size();
+        }));
+    }
+
+    private void gravar(List<ContaPoupanca> contas, int competencia) {
+        if (contas.isEmpty())
+            return;
+
+        int[][] resultados = jdbcTemplate.batchUpdate(GRAVAR_RENDIMENTO, contas, contas.size(), (ps, conta) -> {
+            ps.setBigDecimal(1, conta.getSaldo().paraBigDecimal());
+            ps.setInt(2, competencia);
+            ps.setLong(3, conta.getNumero());
+            ps.setLong(4, conta.getVersao());
+        });
+
+        int semEfeito = ResultadosDeLote.primeiroSemEfeito(resultados);
+        if (semEfeito >= 0)
+            throw new OptimisticLockingFailureException(
+                    "Conta " + contas.get(semEfeito).getNumero() + " alterada durante o rendimento");
+    }
+
+    private ExecucaoRendimento confirmarBloco(int competencia, long ultimoNumero, int atualizadas) {
+        ExecucaoRendimento execucao = execucaoRepository.findById(competencia).orElseThrow();
+        execucao.avancar(ultimoNumero, atualizadas);
+        return execucao;
+    }
+
+    // data_hora vem do relógio da JVM, como nas movimentações gravadas pelo DiarioDeMovimentacoes; o NOW(6) do
+    // banco pode estar adiantado ou atrasado e bagunçar a ordem do extrato
+    private static Timestamp agora() {
+        return Timestamp.valueOf(Movimentacao.agora());
+    }
+
+    private void validar(Posse posse) {
+        if (posse != null)
+            coordenacao.validar(posse);
+    }
+
+    private List<Long> proximosNumeros(int competencia, long depoisDe) {
+        return jdbcTemplate.queryForList(PROXIMOS_NUMEROS, Long.class, depoisDe, competencia, tamanhoBloco);
+    }
+
+    private record Bloco(long numeroAnterior, long ultimoNumero, Future<Integer> resultado) {
+    }
+
+    private class Progresso {
+        private final int competencia;
+        private final long contasAnteriores;
+        private final long inicioNanos = System.nanoTime();
+        private long contasNestaExecucao;
+        private long blocos;
+
+        Progresso(ExecucaoRendimento execucao) {
+            this.competencia = execucao.getCompetencia();
+            this.contasAnteriores = execucao.getContasAtualizadas();
+        }
+
+        void registrarBloco(ExecucaoRendimento execucao) {
+            long novas = execucao.getContasAtualizadas() - contasAnteriores - contasNestaExecucao;
+            contasNestaExecucao += novas;
+            meterRegistry.counter("conta.rendimento.contas", "modo", modo.name()).increment(novas);
+
+            if (++blocos % BLOCOS_POR_LOG == 0)
+                log.info("Rendimento {}: {} contas até o número {} ({} contas/s)",
+                        competencia, execucao.getContasAtualizadas(), execucao.getUltimoNumero(), contasPorSegundo());
+        }
+
+        void registrarFim(ExecucaoRendimento execucao) {
+            long duracaoNanos = System.nanoTime() - inicioNanos;
+            meterRegistry.timer("conta.rendimento.duracao", "modo", modo.name())
+                    .record(duracaoNanos, TimeUnit.NANOSECONDS);
+            log.info("Rendimento {} concluído: {} contas nesta execução ({} no total) em {} ms ({} contas/s)",
+                    competencia, contasNestaExecucao, execucao.getContasAtualizadas(),
+                    TimeUnit.NANOSECONDS.toMillis(duracaoNanos), contasPorSegundo());
+        }
+
+        private long contasPorSegundo() {
+            long decorridoNanos = Math.max(1, System.nanoTime() - inicioNanos);
+            return contasNestaExecucao * TimeUnit.SECONDS.toNanos(1) / decorridoNanos;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.senai.conta_bancaria.infrastructure.agendamento;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Roda de tempo hierárquica: NIVEIS níveis de 64 posições; no primeiro cada posição é um tique, em cada nível
+// seguinte as posições são 64 vezes mais largas. Agendar e vencer custam O(1) por item, sem ordenar nada: quando
+// o relógio alcança uma posição de nível alto, os itens dela descem para os níveis de baixo. Um item nunca vence
+// antes do instante pedido (arredondado para cima ao tique). Não é thread-safe: só o relógio do despachante mexe.
+final class RodaDeTempo<T> {
+
+    private static final int BITS = 6;
+    private static final int POSICOES = 1 << BITS;
+    private static final int MASCARA = POSICOES - 1;
+    // 64^4 tiques; com tique de 1 s, cerca de 194 dias. Itens além disso ficam na última posição e são recolocados
+    private static final int NIVEIS = 4;
+    private static final long ALCANCE = 1L << (BITS * NIVEIS);
+
+    private record Item<T>(T valor, long tique) {
+    }
+
+    private final long tiqueMs;
+    private final List<List<List<Item<T>>>> niveis = new ArrayList<>(NIVEIS);
+    // Último tique já vencido
+    private long atual;
+    private int tamanho;
+
+    RodaDeTempo(long tiqueMs, long agoraMs) {
+        this.tiqueMs = tiqueMs;
+        this.atual = agoraMs / tiqueMs;
+        for (int nivel = 0; nivel < NIVEIS; nivel++) {
+            List<List<Item<T>>> posicoes = new ArrayList<>(POSICOES);
+            for (int posicao = 0; posicao < POSICOES; posicao++)
+                posicoes.add(new ArrayList<>());
+            niveis.add(posicoes);
+        }
+    }
+
+    // Instante já passado vence no próximo tique
+    void agendar(T valor, long instanteMs) {
+        colocar(new Item<>(valor, Math.max(Math.ceilDiv(instanteMs, tiqueMs), atual + 1)));
+        tamanho++;
+    }
+
+    // Vence, em ordem de tique, tudo que tem instante até agora
+    void avancar(long agoraMs, Consumer<T> vencido) {
+        long alvo = agoraMs / tiqueMs;
+        if (tamanho == 0) {
+            atual = Math.max(atual, alvo);
+            return;
+        }
+
+        while (atual < alvo && tamanho > 0) {
+            atual++;
+            // Do nível mais alto para o mais baixo: o que desce pode cair numa posição que ainda vai ser esvaziada
+            for (int nivel = NIVEIS - 1; nivel > 0; nivel--) {
+                if ((atual & ((1L << (BITS * nivel)) - 1)) == 0)
+                    retirar(nivel, (int) (atual >>> (BITS * nivel)) & MASCARA).forEach(this::colocar);
+            }
+            for (Item<T> item : retirar(0, (int) atual & MASCARA)) {
+                tamanho--;
+                vencido.accept(item.valor());
+            }
+        }
+        atual = Math.max(atual, alvo);
+    }
+
+    int tamanho() {
+        return tamanho;
+    }
+
+    // No nível mais baixo em que o tique só difere do atual na posição desse nível
+    private void colocar(Item<T> item) {
+        long tique = Math.min(item.tique(), atual + ALCANCE - 1);
+        int nivel = 0;
+        while (nivel < NIVEIS - 1 && (tique >>> (BITS * (nivel + 1))) != (atual >>> (BITS * (nivel + 1))))
+            nivel++;
+        niveis.get(nivel).get((int) (tique >>> (BITS * nivel)) & MASCARA).add(item);
+    }
+
+    private List<Item<T>> retirar(int nivel, int posicao) {
+        List<Item<T>> itens = niveis.get(nivel).get(posicao);
+        if (itens.isEmpty())
+            return List.of();
+        niveis.get(nivel).set(posicao, new ArrayList<>());
+        return itens;
+    }
+}
@@ -0,0 +1,111 @@
+package com.senai.conta_bancaria.infrastructure.cache;
+
+import com.senai.conta_bancaria.domain.event.ContaAlteradaEvent;
+import com.senai.conta_bancaria.domain.valueobject.ResumoConta;
+import com.senai.conta_bancaria.infrastructure.cluster.MembrosDoCluster;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+// Cache LRU pequeno das contas ativas por CPF, invalidado depois do commit de qualquer escrita em conta.
+// Em cluster o cache fica desligado: o CPF não tem dono, as contas dele podem estar em nós diferentes e cadastro,
+// troca de CPF e exclusão do cliente rodam em qualquer nó, mas a invalidação é local.
+@Component
+public class CacheContasPorCpf {
+
+    private record Entrada(List<ResumoConta> contas, long expiraEmNanos) {
+    }
+
+    private final Map<Long, Entrada> entradas;
+    private final Map<Long, Long> cpfPorNumero = new ConcurrentHashMap<>();
+    private final AtomicLong geracao = new AtomicLong();
+    private final long ttlNanos;
+    private final MembrosDoCluster cluster;
+
+    public CacheContasPorCpf(
+            @Value("${conta.cache-cpf.max-entradas:10000}") int maxEntradas,
+            @Value("${conta.cache-cpf.ttl-segundos:60}") long ttlSegundos,
+            MembrosDoCluster cluster) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSegundos);
+        this.cluster = cluster;
+        this.entradas = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entrada> maisAntiga) {
+                if (size() <= maxEntradas)
+                    return false;
+                esquecerNumeros(maisAntiga.getValue());
+                return true;
+            }
+        });
+    }
+
+    public List<ResumoConta> buscar(Long cpf, Function<Long, List<ResumoConta>> carregar) {
+        if (cluster.configurado())
+            return carregar.apply(cpf);
+
+        Entrada entrada = entradas.get(cpf);
+        if (entrada != null && entrada.expiraEmNanos() - System.nanoTime() > 0)
+            return entrada.contas();
+
+        // Se alguma conta mudar enquanto carregamos, o resultado pode já estar velho e não é guardado. A
+        // comparação e o put ficam sob a trava do mapa, a mesma das invalidações: uma invalidação ou acontece
+        // antes (e a geração não bate) ou depois (e remove a entrada recém-guardada)
+        long geracaoInicial = geracao.get();
+        List<ResumoConta> contas = List.copyOf(carregar.apply(cpf));
+
+        synchronized (entradas) {
+            if (geracao.get() == geracaoInicial) {
+                contas.forEach(conta -> cpfPorNumero.put(conta.numero(), cpf));
+                entradas.put(cpf, new Entrada(contas, System.nanoTime() + ttlNanos));
+            }
+        }
+
+        return contas;
+    }
+
+    public void invalidar(Long cpf) {
+        synchronized (entradas) {
+            geracao.incrementAndGet();
+            esquecerNumeros(entradas.remove(cpf));
+        }
+    }
+
+    // Usado por escritas em massa (ex.: rendimento mensal), em que invalidar conta a conta não compensa
+    public void limpar() {
+        synchronized (entradas) {
+            geracao.incrementAndGet();
+            entradas.clear();
+            cpfPorNumero.clear();
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarConta(ContaAlteradaEvent evento) {
+        // O CPF é procurado sob a trava: uma carga não pode guardar a conta entre a busca e a invalidação
+        synchronized (entradas) {
+            Long cpf = evento.cpf();
+            if (cpf == null && evento.numero() != null)
+                cpf = cpfPorNumero.get(evento.numero());
+
+            if (cpf != null) {
+                invalidar(cpf);
+            } else {
+                // CPF fora do cache: basta impedir que uma carga em andamento guarde dados anteriores à escrita
+                geracao.incrementAndGet();
+            }
+        }
+    }
+
+    // O índice reverso só guarda números de entradas presentes, então fica limitado pelo tamanho do cache
+    private void esquecerNumeros(Entrada entrada) {
+        if (entrada != null)
+            entrada.contas().forEach(conta -> cpfPorNumero.remove(conta.numero()));
+    }
+}
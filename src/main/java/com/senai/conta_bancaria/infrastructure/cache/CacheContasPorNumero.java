@@ -0,0 +1,130 @@
+package com.senai.conta_bancaria.infrastructure.cache;
+
+import com.senai.conta_bancaria.domain.event.ContaAlteradaEvent;
+import com.senai.conta_bancaria.domain.valueobject.ResumoConta;
+import com.senai.conta_bancaria.infrastructure.cluster.MembrosDoCluster;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+// Cache read-through do resumo das contas ativas por número (LRU + TTL). Toda escrita em conta publica
+// ContaAlteradaEvent, que remove a entrada logo após o commit, na própria thread que escreveu.
+// O evento é local ao nó: com cluster configurado, só as contas deste nó entram no cache. O saldo delas só é escrito
+// aqui (os créditos vindos de outros nós chegam por CreditosEntreNos); as dos outros nós vão sempre ao banco.
+@Component
+public class CacheContasPorNumero {
+
+    private static final int FAIXAS = 64;
+
+    private record Entrada(ResumoConta conta, long expiraEmNanos) {
+    }
+
+    private final Map<Long, Entrada> entradas;
+    private final long ttlNanos;
+    private final MembrosDoCluster cluster;
+
+    // Geração por faixa de números: uma escrita só descarta as cargas em andamento da sua faixa
+    private final AtomicLongArray geracoes = new AtomicLongArray(FAIXAS);
+
+    private final LongAdder acertos = new LongAdder();
+    private final LongAdder faltas = new LongAdder();
+    private final LongAdder despejos = new LongAdder();
+    private final LongAdder expiracoes = new LongAdder();
+
+    public CacheContasPorNumero(
+            @Value("${conta.cache-numero.max-entradas:50000}") int maxEntradas,
+            @Value("${conta.cache-numero.ttl-segundos:30}") long ttlSegundos,
+            MeterRegistry meterRegistry,
+            MembrosDoCluster cluster) {
+        this.ttlNanos = TimeUnit.SECONDS.toNanos(ttlSegundos);
+        this.cluster = cluster;
+        this.entradas = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entrada> maisAntiga) {
+                if (size() <= maxEntradas)
+                    return false;
+                despejos.increment();
+                return true;
+            }
+        });
+
+        FunctionCounter.builder("conta.cache.numero.requisicoes", acertos, LongAdder::sum)
+                .tag("resultado", "acerto").register(meterRegistry);
+        FunctionCounter.builder("conta.cache.numero.requisicoes", faltas, LongAdder::sum)
+                .tag("resultado", "falta").register(meterRegistry);
+        FunctionCounter.builder("conta.cache.numero.remocoes", despejos, LongAdder::sum)
+                .tag("motivo", "tamanho").register(meterRegistry);
+        FunctionCounter.builder("conta.cache.numero.remocoes", expiracoes, LongAdder::sum)
+                .tag("motivo", "ttl").register(meterRegistry);
+        Gauge.builder("conta.cache.numero.tamanho", entradas, Map::size).register(meterRegistry);
+    }
+
+    // O carregador devolve vazio para conta inexistente ou inativa; ausências não são guardadas
+    public Optional<ResumoConta> buscar(Long numero, Function<Long, Optional<ResumoConta>> carregar) {
+        if (!cluster.local(numero))
+            return carregar.apply(numero);
+
+        Entrada entrada = entradas.get(numero);
+        if (entrada != null) {
+            if (entrada.expiraEmNanos() - System.nanoTime() > 0) {
+                acertos.increment();
+                return Optional.of(entrada.conta());
+            }
+            if (entradas.remove(numero, entrada))
+                expiracoes.increment();
+        }
+        faltas.increment();
+
+        // Se a conta mudar enquanto carregamos, o resultado pode já estar velho e não é guardado
+        int faixa = faixa(numero);
+        long geracaoInicial = geracoes.get(faixa);
+        Optional<ResumoConta> conta = carregar.apply(numero);
+
+        // Comparação e gravação sob a mesma trava das invalidações: nenhuma escrita cabe entre as duas
+        synchronized (entradas) {
+            if (conta.isPresent() && geracoes.get(faixa) == geracaoInicial)
+                entradas.put(numero, new Entrada(conta.get(), System.nanoTime() + ttlNanos));
+        }
+
+        return conta;
+    }
+
+    public void invalidar(Long numero) {
+        synchronized (entradas) {
+            geracoes.incrementAndGet(faixa(numero));
+            entradas.remove(numero);
+        }
+    }
+
+    // Usado por escritas em massa numa faixa contínua de números (ex.: rendimento mensal por blocos)
+    public void invalidarFaixa(long de, long ate) {
+        synchronized (entradas) {
+            for (int i = 0; i < FAIXAS; i++)
+                geracoes.incrementAndGet(i);
+            entradas.keySet().removeIf(numero -> numero > de && numero <= ate);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarConta(ContaAlteradaEvent evento) {
+        if (evento.numero() != null)
+            invalidar(evento.numero());
+    }
+
+    private static int faixa(Long numero) {
+        return (int) Math.floorMod(numero, (long) FAIXAS);
+    }
+}
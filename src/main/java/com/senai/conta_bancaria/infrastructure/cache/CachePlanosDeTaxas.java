@@ -0,0 +1,63 @@
+package com.senai.conta_bancaria.infrastructure.cache;
+
+import com.senai.conta_bancaria.domain.entity.Taxa;
+import com.senai.conta_bancaria.domain.service.PlanosDeTaxas;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.domain.valueobject.PlanoDeTaxas;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+// Planos de taxas compilados, por conjunto de taxas (LRU). A chave são os ids ordenados com a versão de cada
+// taxa, então uma taxa alterada gera outra chave e o plano antigo só sai pelo limite de tamanho.
+@Component
+public class CachePlanosDeTaxas implements PlanosDeTaxas {
+
+    private final Map<String, PlanoDeTaxas> planos;
+
+    public CachePlanosDeTaxas(@Value("${conta.taxas.max-planos:1024}") int maxPlanos) {
+        this.planos = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, PlanoDeTaxas> maisAntigo) {
+                return size() > maxPlanos;
+            }
+        });
+    }
+
+    @Override
+    public PlanoDeTaxas plano(Collection<Taxa> taxas) {
+        if (taxas == null || taxas.isEmpty())
+            return PlanoDeTaxas.VAZIO;
+
+        // Taxa ainda não gravada (sem id ou versão) não tem chave estável
+        if (taxas.stream().anyMatch(taxa -> taxa.getId() == null || taxa.getVersao() == null))
+            return compilar(taxas);
+
+        String chave = taxas.stream()
+                .sorted(Comparator.comparing(Taxa::getId))
+                .map(taxa -> taxa.getId() + '@' + taxa.getVersao())
+                .collect(Collectors.joining(","));
+
+        PlanoDeTaxas plano = planos.get(chave);
+        if (plano == null) {
+            plano = compilar(taxas);
+            planos.put(chave, plano);
+        }
+        return plano;
+    }
+
+    private static PlanoDeTaxas compilar(Collection<Taxa> taxas) {
+        Dinheiro fixo = taxas.stream()
+                .map(Taxa::getValorFixo)
+                .filter(Objects::nonNull)
+                .reduce(Dinheiro.ZERO, Dinheiro::mais);
+        return PlanoDeTaxas.compilar(taxas.stream().map(Taxa::getPercentual).toList(), fixo);
+    }
+}
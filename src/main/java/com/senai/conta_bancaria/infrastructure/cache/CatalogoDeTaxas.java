@@ -0,0 +1,112 @@
+package com.senai.conta_bancaria.infrastructure.cache;
+
+import com.senai.conta_bancaria.domain.entity.Taxa;
+import com.senai.conta_bancaria.domain.event.TaxaAlteradaEvent;
+import com.senai.conta_bancaria.domain.exception.EntidadeNaoEncontradaException;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Fotografia imutável das taxas ativas por id, para o pagamento resolver as taxas sem ir ao banco. É trocada
+// inteira após o commit de qualquer alteração de taxa neste nó (TaxaAlteradaEvent) e, para alterações feitas
+// em outros nós, quando a versão do catálogo no banco muda. As taxas da fotografia são instâncias desanexadas,
+// só de leitura.
+@Component
+@Slf4j
+public class CatalogoDeTaxas {
+
+    // Cresce a cada inserção (+1) e a cada alteração (@Version de Taxa); taxas não são excluídas
+    private static final String VERSAO = "SELECT COUNT(*) + COALESCE(SUM(versao), 0) FROM taxa";
+    private static final String ATIVAS =
+            "SELECT id, descricao, percentual, valor_fixo, versao FROM taxa WHERE ativo = true";
+
+    private record Instantaneo(long versao, Map<String, Taxa> ativas) {
+    }
+
+    private static final Instantaneo VAZIO = new Instantaneo(-1, Map.of());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate novaTransacao;
+    private final AtomicReference<Instantaneo> atual = new AtomicReference<>(VAZIO);
+
+    public CatalogoDeTaxas(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+
+        // A recarga roda depois do commit de quem alterou a taxa, então precisa da própria transação
+        this.novaTransacao = new TransactionTemplate(transactionManager);
+        this.novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.novaTransacao.setReadOnly(true);
+    }
+
+    // Taxas ativas com os ids informados; id desconhecido ou de taxa inativa é rejeitado
+    public Set<Taxa> resolver(Collection<String> ids) {
+        if (ids == null || ids.isEmpty())
+            return new HashSet<>();
+
+        Instantaneo instantaneo = atual.get();
+        if (instantaneo == VAZIO)
+            instantaneo = recarregar();
+
+        Set<Taxa> taxas = new HashSet<>();
+        for (String id : ids) {
+            Taxa taxa = instantaneo.ativas().get(id);
+            if (taxa == null)
+                throw new EntidadeNaoEncontradaException("Taxa não encontrada: " + id);
+            taxas.add(taxa);
+        }
+        return taxas;
+    }
+
+    // Também faz a carga inicial: a primeira execução é logo após a subida
+    @Scheduled(fixedDelayString = "${conta.taxas.verificacao-ms:5000}")
+    public void verificar() {
+        Long versao = jdbcTemplate.queryForObject(VERSAO, Long.class);
+        if (versao == null || versao != atual.get().versao())
+            recarregar();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarTaxa(TaxaAlteradaEvent evento) {
+        recarregar();
+    }
+
+    private Instantaneo recarregar() {
+        Instantaneo novo = novaTransacao.execute(status -> {
+            // Versão lida antes das taxas: uma alteração no meio só faz a próxima verificação recarregar de novo
+            long versao = jdbcTemplate.queryForObject(VERSAO, Long.class);
+            Map<String, Taxa> ativas = jdbcTemplate.query(ATIVAS, (rs, linha) -> Taxa.builder()
+                            .id(rs.getString("id"))
+                            .descricao(rs.getString("descricao"))
+                            .percentual(rs.getBigDecimal("percentual"))
+                            .valorFixo(Dinheiro.deOuNulo(rs.getBigDecimal("valor_fixo")))
+                            .ativo(true)
+                            .versao(rs.getLong("versao"))
+                            .build())
+                    .stream()
+                    .collect(Collectors.toUnmodifiableMap(Taxa::getId, Function.identity()));
+            return new Instantaneo(versao, ativas);
+        });
+
+        // Recargas concorrentes: fica a de versão mais nova
+        Instantaneo vigente = atual.accumulateAndGet(novo,
+                (anterior, candidato) -> candidato.versao() >= anterior.versao() ? candidato : anterior);
+        if (vigente == novo)
+            log.debug("Catálogo de taxas na versão {} ({} ativas)", novo.versao(), novo.ativas().size());
+        return vigente;
+    }
+}
@@ -0,0 +1,49 @@
+package com.senai.conta_bancaria.infrastructure.cluster;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Hash consistente: cada nó ocupa vários pontos (nós virtuais) num anel de 64 bits e a conta pertence ao primeiro
+// ponto a partir do hash do seu número. Entrar ou sair um nó só move as contas dos pontos vizinhos a ele.
+class AnelDeHash {
+
+    private final NavigableMap<Long, String> pontos = new TreeMap<>();
+
+    AnelDeHash(Collection<String> nos, int nosVirtuais) {
+        for (String no : nos)
+            for (int i = 0; i < nosVirtuais; i++)
+                pontos.put(hash(no + '#' + i), no);
+    }
+
+    String donoDe(long numero) {
+        Map.Entry<Long, String> ponto = pontos.ceilingEntry(misturar(numero));
+        return (ponto != null ? ponto : pontos.firstEntry()).getValue();
+    }
+
+    boolean vazio() {
+        return pontos.isEmpty();
+    }
+
+    // FNV-1a de 64 bits seguido da mistura final, para espalhar bem nomes de nó parecidos
+    private static long hash(String texto) {
+        long h = 0xcbf29ce484222325L;
+        for (byte b : texto.getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= 0x100000001b3L;
+        }
+        return misturar(h);
+    }
+
+    // Finalizador do MurmurHash3 (fmix64): números de conta sequenciais caem em pontos bem distribuídos
+    private static long misturar(long x) {
+        x ^= x >>> 33;
+        x *= 0xff51afd7ed558ccdL;
+        x ^= x >>> 33;
+        x *= 0xc4ceb93fe53a87c1L;
+        x ^= x >>> 33;
+        return x;
+    }
+}
@@ -0,0 +1,113 @@
+package com.senai.conta_bancaria.infrastructure.cluster;
+
+import com.senai.conta_bancaria.domain.entity.Conta;
+import com.senai.conta_bancaria.domain.entity.CreditoEntreNos;
+import com.senai.conta_bancaria.domain.entity.Movimentacao;
+import com.senai.conta_bancaria.domain.enums.TipoMovimentacao;
+import com.senai.conta_bancaria.domain.repository.ContaRepository;
+import com.senai.conta_bancaria.domain.repository.CreditoEntreNosRepository;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.infrastructure.concorrencia.PoliticaDeRetentativa;
+import com.senai.conta_bancaria.infrastructure.movimentacao.DiarioDeMovimentacoes;
+import com.senai.conta_bancaria.infrastructure.saldo.SaldosFracionados;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Créditos de transferência entre nós: a conta de destino só é escrita pelo seu dono, como as demais operações de
+// dinheiro. O nó da origem grava o débito e o crédito pendente numa só transação (encaminhar); o dono entrega os
+// seus periodicamente, cada um na própria transação, apagando o pendente junto com o crédito. Assim as
+// invalidações de cache do destino acontecem no nó que guarda a conta em cache.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CreditosEntreNos {
+
+    private static final String APAGAR = "DELETE FROM credito_entre_nos WHERE id = ?";
+
+    private final CreditoEntreNosRepository repository;
+    private final ContaRepository contaRepository;
+    private final MembrosDoCluster cluster;
+    private final SaldosFracionados saldosFracionados;
+    private final DiarioDeMovimentacoes diario;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final PoliticaDeRetentativa politicaDeRetentativa;
+
+    @Value("${conta.cluster.creditos.tamanho-pagina:500}")
+    private int tamanhoPagina;
+
+    // Pendentes já relatados, para não repetir o erro a cada entrega
+    private final Set<Long> parados = ConcurrentHashMap.newKeySet();
+
+    public boolean remoto(Long numeroDestino) {
+        return !cluster.local(numeroDestino);
+    }
+
+    // Na transação do débito da origem: se ela for desfeita, o crédito também é
+    public void encaminhar(Long numeroOrigem, Long numeroDestino, Dinheiro valor) {
+        repository.save(CreditoEntreNos.para(numeroDestino, numeroOrigem, valor, cluster.donoDe(numeroDestino)));
+    }
+
+    @Scheduled(fixedDelayString = "${conta.cluster.creditos.entrega-ms:500}")
+    public void entregar() {
+        if (!cluster.configurado())
+            return;
+
+        long ultimo = 0;
+        List<CreditoEntreNos> pagina;
+        do {
+            pagina = repository.findByNoDestinoAndIdGreaterThanOrderByIdAsc(
+                    cluster.noLocal(), ultimo, Limit.of(tamanhoPagina));
+            for (CreditoEntreNos credito : pagina) {
+                ultimo = credito.getId();
+                try {
+                    politicaDeRetentativa.executar("credito-entre-nos",
+                            () -> transactionTemplate.execute(status -> entregar(credito)));
+                    parados.remove(credito.getId());
+                } catch (RuntimeException e) {
+                    if (parados.add(credito.getId()))
+                        log.error("Crédito {} para a conta {} não pôde ser entregue; fica pendente",
+                                credito.getId(), credito.getNumeroConta(), e);
+                }
+            }
+        } while (pagina.size() == tamanhoPagina);
+    }
+
+    // Conta desativada depois do débito: o crédito fica pendente, visível em credito_entre_nos, até ser resolvido
+    private Boolean entregar(CreditoEntreNos credito) {
+        if (jdbcTemplate.update(APAGAR, credito.getId()) == 0)
+            return false;
+
+        Long numero = credito.getNumeroConta();
+        Optional<Conta> encontrada = contaRepository.findForUpdateByNumeroAndAtivoTrue(numero);
+        if (encontrada.isEmpty())
+            throw new IllegalStateException("Conta " + numero + " inexistente ou inativa");
+
+        Conta destino = encontrada.get();
+        Dinheiro valor = credito.getValor();
+        if (saldosFracionados.fracionada(destino)) {
+            Dinheiro saldo = saldosFracionados.creditar(destino, valor);
+            diario.registrar(Movimentacao.credito(destino, TipoMovimentacao.TRANSFERENCIA_RECEBIDA, valor, saldo,
+                    credito.getNumeroOrigem(), null));
+            return true;
+        }
+
+        Dinheiro saldoAnterior = destino.getSaldo();
+        destino.depositar(valor);
+        diario.registrar(Movimentacao.apos(destino, TipoMovimentacao.TRANSFERENCIA_RECEBIDA, saldoAnterior,
+                credito.getNumeroOrigem(), null));
+        contaRepository.save(destino);
+        return true;
+    }
+}
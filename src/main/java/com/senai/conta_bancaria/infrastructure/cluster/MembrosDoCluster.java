@@ -0,0 +1,108 @@
+package com.senai.conta_bancaria.infrastructure.cluster;
+
+import com.senai.conta_bancaria.domain.exception.ContaEmOutroNoException;
+import com.senai.conta_bancaria.domain.exception.LoteEntreNosException;
+import com.senai.conta_bancaria.domain.repository.ContaRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+// Membros do cluster por configuração estática (endereço base de cada nó) e o dono de cada conta pelo anel de
+// hash consistente. Sem nós configurados, o nó atende todas as contas, como numa instalação única.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class MembrosDoCluster {
+
+    private final ContaRepository contaRepository;
+
+    @Value("${conta.cluster.no-local:}")
+    private String noLocal;
+
+    @Value("${conta.cluster.nos:}")
+    private List<String> nos;
+
+    @Value("${conta.cluster.nos-virtuais:128}")
+    private int nosVirtuais;
+
+    private AnelDeHash anel;
+
+    @PostConstruct
+    void iniciar() {
+        Set<String> membros = new LinkedHashSet<>();
+        nos.stream()
+                .map(MembrosDoCluster::normalizar)
+                .filter(no -> !no.isEmpty())
+                .forEach(membros::add);
+        noLocal = normalizar(noLocal);
+
+        if (!membros.isEmpty() && !membros.contains(noLocal))
+            throw new IllegalStateException(
+                    "conta.cluster.no-local (" + noLocal + ") precisa estar em conta.cluster.nos " + membros);
+
+        anel = new AnelDeHash(membros, nosVirtuais);
+        if (!anel.vazio())
+            log.info("Cluster com {} nós; este nó: {}", membros.size(), noLocal);
+    }
+
+    public boolean configurado() {
+        return !anel.vazio();
+    }
+
+    public String noLocal() {
+        return noLocal;
+    }
+
+    public boolean local(Long numero) {
+        return anel.vazio() || anel.donoDe(numero).equals(noLocal);
+    }
+
+    public String donoDe(Long numero) {
+        return anel.vazio() ? noLocal : anel.donoDe(numero);
+    }
+
+    // Operações de dinheiro só rodam no dono da conta, que a serializa no próprio ledger em memória
+    public void exigirDono(Long numero) {
+        if (!local(numero))
+            throw new ContaEmOutroNoException(numero, anel.donoDe(numero));
+    }
+
+    // Pagamentos chegam pelo id da conta; conta inexistente segue adiante para o serviço responder 404
+    public void exigirDonoDaConta(UUID contaId) {
+        if (configurado())
+            contaRepository.findNumeroById(contaId).ifPresent(this::exigirDono);
+    }
+
+    // Contas, entre as informadas, atendidas por outro nó; as inexistentes não entram
+    public Set<UUID> contasDeOutrosNos(Collection<UUID> contaIds) {
+        if (!configurado() || contaIds.isEmpty())
+            return Set.of();
+
+        Set<UUID> remotas = new HashSet<>();
+        for (ContaRepository.NumeroDaConta conta : contaRepository.findNumerosByIdIn(contaIds))
+            if (!local(conta.getNumero()))
+                remotas.add(conta.getId());
+        return remotas;
+    }
+
+    // Um lote roda numa transação só, no ledger de um nó: todas as contas de origem precisam ter o mesmo dono
+    public void exigirDono(Collection<Long> numeros) {
+        if (!configurado())
+            return;
+
+        Map<String, Long> exemploPorDono = new LinkedHashMap<>();
+        numeros.forEach(numero -> exemploPorDono.putIfAbsent(anel.donoDe(numero), numero));
+        if (exemploPorDono.size() > 1)
+            throw new LoteEntreNosException(exemploPorDono.keySet());
+        exemploPorDono.values().forEach(this::exigirDono);
+    }
+
+    private static String normalizar(String no) {
+        String aparado = no.trim();
+        return aparado.endsWith("/") ? aparado.substring(0, aparado.length() - 1) : aparado;
+    }
+}
@@ -0,0 +1,173 @@
+package com.senai.conta_bancaria.infrastructure.concorrencia;
+
+import com.senai.conta_bancaria.domain.exception.SistemaSobrecarregadoException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Commit em grupo: as operações que chegam dentro de uma janela curta (ou até completar o grupo) são executadas
+// numa única transação, cada uma no seu savepoint. A falha de uma volta só o seu savepoint; as demais seguem no
+// mesmo commit. Os chamadores só recebem o resultado depois do commit.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CommitEmGrupo {
+
+    private final TransactionTemplate transactionTemplate;
+    private final PoliticaDeRetentativa politicaDeRetentativa;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${conta.commit-em-grupo.janela-micros:1500}")
+    private long janelaMicros;
+
+    @Value("${conta.commit-em-grupo.tamanho-maximo:64}")
+    private int tamanhoMaximo;
+
+    @Value("${conta.commit-em-grupo.capacidade-fila:4096}")
+    private int capacidadeFila;
+
+    private BlockingQueue<Membro<?>> fila;
+    private Thread thread;
+    private DistributionSummary tamanhoDosGrupos;
+    private volatile boolean ativo = true;
+
+    private static final class Membro<T> {
+        private final String operacao;
+        private final Supplier<T> acao;
+        private final CompletableFuture<T> resultado = new CompletableFuture<>();
+        private T valor;
+        private RuntimeException erro;
+
+        Membro(String operacao, Supplier<T> acao) {
+            this.operacao = operacao;
+            this.acao = acao;
+        }
+
+        void executar() {
+            valor = acao.get();
+            erro = null;
+        }
+
+        void falha(RuntimeException erro) {
+            this.valor = null;
+            this.erro = erro;
+        }
+
+        void concluir() {
+            if (erro != null)
+                resultado.completeExceptionally(erro);
+            else
+                resultado.complete(valor);
+        }
+    }
+
+    @PostConstruct
+    void iniciar() {
+        fila = new ArrayBlockingQueue<>(capacidadeFila);
+        tamanhoDosGrupos = DistributionSummary.builder("conta.commit-em-grupo.tamanho")
+                .description("Operações gravadas por commit")
+                .register(meterRegistry);
+        thread = new Thread(this::executarGrupos, "commit-em-grupo");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    void encerrar() throws InterruptedException {
+        ativo = false;
+        thread.interrupt();
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public <T> CompletableFuture<T> submeter(String operacao, Supplier<T> acao) {
+        Membro<T> membro = new Membro<>(operacao, acao);
+        if (!ativo || !fila.offer(membro))
+            return CompletableFuture.failedFuture(new SistemaSobrecarregadoException("commit em grupo"));
+        return membro.resultado;
+    }
+
+    private void executarGrupos() {
+        List<Membro<?>> grupo = new ArrayList<>(tamanhoMaximo);
+        while (ativo || !fila.isEmpty()) {
+            try {
+                Membro<?> primeiro = fila.poll(100, TimeUnit.MILLISECONDS);
+                if (primeiro == null)
+                    continue;
+                grupo.add(primeiro);
+
+                // A janela conta a partir do primeiro membro: ninguém espera mais que ela por um commit
+                long prazo = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(janelaMicros);
+                while (grupo.size() < tamanhoMaximo) {
+                    long restante = prazo - System.nanoTime();
+                    Membro<?> proximo = restante > 0 ? fila.poll(restante, TimeUnit.NANOSECONDS) : fila.poll();
+                    if (proximo == null)
+                        break;
+                    grupo.add(proximo);
+                }
+            } catch (InterruptedException e) {
+                // Encerramento: grava o que já foi retirado e esvazia a fila sem esperar a janela
+                fila.drainTo(grupo, tamanhoMaximo - grupo.size());
+            }
+
+            processar(grupo);
+            grupo.clear();
+        }
+    }
+
+    private void processar(List<Membro<?>> grupo) {
+        if (grupo.isEmpty())
+            return;
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> grupo.forEach(membro -> executar(membro, status)));
+        } catch (RuntimeException e) {
+            // O commit do grupo falhou: reaplica cada operação na sua própria transação
+            log.warn("Falha ao gravar grupo de {} operações, reprocessando individualmente: {}",
+                    grupo.size(), e.getMessage());
+            grupo.forEach(this::processarIsolado);
+            return;
+        }
+        tamanhoDosGrupos.record(grupo.size());
+        grupo.forEach(Membro::concluir);
+    }
+
+    private void executar(Membro<?> membro, TransactionStatus status) {
+        Object savepoint = status.createSavepoint();
+        try {
+            membro.executar();
+        } catch (RuntimeException e) {
+            // Se nem o savepoint puder ser desfeito (deadlock derruba a transação inteira), o grupo é refeito
+            status.rollbackToSavepoint(savepoint);
+            membro.falha(e);
+            return;
+        }
+        status.releaseSavepoint(savepoint);
+    }
+
+    private void processarIsolado(Membro<?> membro) {
+        try {
+            politicaDeRetentativa.executar(membro.operacao, () -> transactionTemplate.execute(status -> {
+                membro.executar();
+                return membro;
+            }));
+        } catch (RuntimeException e) {
+            membro.falha(e);
+        }
+        membro.concluir();
+    }
+}
@@ -0,0 +1,85 @@
+package com.senai.conta_bancaria.infrastructure.concorrencia;
+
+import com.senai.conta_bancaria.domain.event.ContaAlteradaEvent;
+import com.senai.conta_bancaria.domain.exception.EntidadeNaoEncontradaException;
+import com.senai.conta_bancaria.domain.exception.SaldoInsuficienteException;
+import com.senai.conta_bancaria.domain.exception.ValoresNegativosException;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+
+// Caminho rápido de saque e depósito: a regra de saldo (com limite e taxa da conta corrente) é avaliada pelo
+// próprio UPDATE condicional, sem carregar a entidade nem segurar a linha enquanto o Java executa.
+// Roda na transação de quem chama; a linha fica travada pelo UPDATE até o commit.
+@Component
+@RequiredArgsConstructor
+public class OperacoesAtomicasConta {
+
+    // A taxa é arredondada como em Dinheiro.multiplicar (HALF_UP em centavos): ROUND do MySQL sobre DECIMAL
+    private static final String TARIFA = "IF(tipo_conta = 'CORRENTE', ROUND(? * COALESCE(taxa, 0), 2), 0)";
+    private static final String DEBITAR = """
+            UPDATE conta
+            SET saldo = saldo - (? + %1$s), versao = versao + 1
+            WHERE numero = ? AND ativo = true
+              AND saldo + IF(tipo_conta = 'CORRENTE', COALESCE(limite, 0), 0) >= ? + %1$s""".formatted(TARIFA);
+    private static final String CREDITAR =
+            "UPDATE conta SET saldo = saldo + ?, versao = versao + 1 WHERE numero = ? AND ativo = true";
+    // Lê a própria linha recém-alterada, ainda travada por esta transação
+    private static final String LER = "SELECT tipo_conta, saldo, taxa FROM conta WHERE numero = ?";
+    private static final String EXISTE = "SELECT COUNT(*) FROM conta WHERE numero = ? AND ativo = true";
+
+    // valor é a variação efetiva do saldo (no saque, inclui a taxa da conta corrente)
+    public record SaldoAtualizado(String tipo, Dinheiro valor, Dinheiro saldo) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public SaldoAtualizado debitar(Long numero, Dinheiro valor) {
+        if (!valor.positivo())
+            throw new ValoresNegativosException("saque");
+
+        BigDecimal decimal = valor.paraBigDecimal();
+        if (jdbcTemplate.update(DEBITAR, decimal, decimal, numero, decimal, decimal) == 0) {
+            if (!existe(numero))
+                throw new EntidadeNaoEncontradaException("conta");
+            throw new SaldoInsuficienteException("saque");
+        }
+
+        return ler(numero, valor, true);
+    }
+
+    public SaldoAtualizado creditar(Long numero, Dinheiro valor) {
+        if (!valor.positivo())
+            throw new ValoresNegativosException("depósito");
+
+        if (jdbcTemplate.update(CREDITAR, valor.paraBigDecimal(), numero) == 0)
+            throw new EntidadeNaoEncontradaException("conta");
+
+        return ler(numero, valor, false);
+    }
+
+    private SaldoAtualizado ler(Long numero, Dinheiro valor, boolean debito) {
+        SaldoAtualizado atualizado = jdbcTemplate.queryForObject(LER, (rs, linha) -> {
+            String tipo = rs.getString("tipo_conta");
+            BigDecimal taxa = rs.getBigDecimal("taxa");
+            Dinheiro efetivo = debito && "CORRENTE".equals(tipo) && taxa != null
+                    ? valor.mais(valor.multiplicar(taxa))
+                    : valor;
+            return new SaldoAtualizado(tipo, efetivo, Dinheiro.de(rs.getBigDecimal("saldo")));
+        }, numero);
+
+        // A gravação via JDBC não passa pelos callbacks do Hibernate, então o evento é publicado aqui
+        eventPublisher.publishEvent(new ContaAlteradaEvent(numero, null));
+        return atualizado;
+    }
+
+    private boolean existe(Long numero) {
+        Integer total = jdbcTemplate.queryForObject(EXISTE, Integer.class, numero);
+        return total != null && total > 0;
+    }
+}
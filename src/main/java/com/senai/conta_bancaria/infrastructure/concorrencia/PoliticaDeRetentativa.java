@@ -0,0 +1,57 @@
+package com.senai.conta_bancaria.infrastructure.concorrencia;
+
+import com.senai.conta_bancaria.domain.exception.ConflitoDeConcorrenciaException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// Repete a ação quando ela falha por concorrência (versão otimista, deadlock ou timeout de lock),
+// com espera exponencial e jitter completo para que as retentativas não colidam de novo.
+@Component
+@RequiredArgsConstructor
+public class PoliticaDeRetentativa {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${conta.concorrencia.max-tentativas:5}")
+    private int maxTentativas;
+
+    @Value("${conta.concorrencia.espera-base-ms:5}")
+    private long esperaBaseMs;
+
+    @Value("${conta.concorrencia.espera-maxima-ms:200}")
+    private long esperaMaximaMs;
+
+    public <T> T executar(String operacao, Supplier<T> acao) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                return acao.get();
+            } catch (ConcurrencyFailureException e) {
+                meterRegistry.counter("conta.concorrencia.conflitos", "operacao", operacao).increment();
+
+                if (tentativa >= maxTentativas) {
+                    meterRegistry.counter("conta.concorrencia.esgotadas", "operacao", operacao).increment();
+                    throw new ConflitoDeConcorrenciaException(operacao);
+                }
+
+                meterRegistry.counter("conta.concorrencia.retentativas", "operacao", operacao).increment();
+                aguardar(operacao, tentativa);
+            }
+        }
+    }
+
+    private void aguardar(String operacao, int tentativa) {
+        long teto = Math.min(esperaMaximaMs, esperaBaseMs << Math.min(tentativa, 16));
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(teto + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflitoDeConcorrenciaException(operacao);
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.senai.conta_bancaria.infrastructure.concorrencia;
+
+import com.senai.conta_bancaria.domain.entity.Conta;
+import com.senai.conta_bancaria.domain.entity.Movimentacao;
+import com.senai.conta_bancaria.domain.enums.TipoMovimentacao;
+import com.senai.conta_bancaria.domain.exception.EntidadeNaoEncontradaException;
+import com.senai.conta_bancaria.domain.exception.TransferenciaParaMesmaContaException;
+import com.senai.conta_bancaria.domain.repository.ContaRepository;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.infrastructure.cluster.CreditosEntreNos;
+import com.senai.conta_bancaria.infrastructure.movimentacao.DiarioDeMovimentacoes;
+import com.senai.conta_bancaria.infrastructure.saldo.SaldosFracionados;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+@Component
+@RequiredArgsConstructor
+public class TransferenciaExecutor {
+
+    private final ContaRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final PoliticaDeRetentativa politicaDeRetentativa;
+    private final DiarioDeMovimentacoes diario;
+    private final SaldosFracionados saldosFracionados;
+    private final CreditosEntreNos creditosEntreNos;
+
+    // Cada tentativa roda em sua própria transação; conflitos são repetidos pela política de retentativa
+    public Conta transferir(Long numeroOrigem, Long numeroDestino, Dinheiro valor) {
+        if (numeroOrigem.equals(numeroDestino))
+            throw new TransferenciaParaMesmaContaException();
+
+        return politicaDeRetentativa.executar("transferencia", () -> transactionTemplate
+                .execute(status -> executar(numeroOrigem, numeroDestino, valor)));
+    }
+
+    // Destino atendido por outro nó: quem escreve nele é o dono, ao entregar o crédito gravado com este débito
+    public boolean destinoEmOutroNo(Long numeroDestino) {
+        return creditosEntreNos.remoto(numeroDestino);
+    }
+
+    private Conta executar(Long numeroOrigem, Long numeroDestino, Dinheiro valor) {
+        if (creditosEntreNos.remoto(numeroDestino))
+            return executarParaOutroNo(numeroOrigem, numeroDestino, valor);
+
+        // O mapa local só indica; quem decide é o fatiasSaldo do destino lido nesta transação
+        if (saldosFracionados.quente(numeroDestino)) {
+            Conta destino = repository
+                    .findByNumeroAndAtivoTrue(numeroDestino)
+                    .orElseThrow(() -> new EntidadeNaoEncontradaException("conta"));
+            if (saldosFracionados.fracionada(destino))
+                return executarParaContaQuente(numeroOrigem, destino, valor);
+        }
+
+        // Trava sempre a conta de menor número primeiro, assim A→B e B→A nunca se bloqueiam em ordem invertida
+        boolean origemPrimeiro = numeroOrigem < numeroDestino;
+        Conta primeira = travar(origemPrimeiro ? numeroOrigem : numeroDestino);
+        Conta segunda = travar(origemPrimeiro ? numeroDestino : numeroOrigem);
+
+        Conta origem = origemPrimeiro ? primeira : segunda;
+        Conta destino = origemPrimeiro ? segunda : primeira;
+
+        saldosFracionados.prepararDebito(origem, valor);
+        Dinheiro saldoOrigem = origem.getSaldo();
+        Dinheiro saldoDestino = destino.getSaldo();
+        origem.transferir(destino, valor);
+
+        diario.registrar(List.of(
+                Movimentacao.apos(origem, TipoMovimentacao.TRANSFERENCIA_ENVIADA, saldoOrigem, numeroDestino, null),
+                Movimentacao.apos(destino, TipoMovimentacao.TRANSFERENCIA_RECEBIDA, saldoDestino, numeroOrigem, null)));
+
+        repository.save(destino);
+        return repository.save(origem);
+    }
+
+    // Só a origem é travada: o destino recebe numa fatia do saldo, sem disputar a própria linha
+    private Conta executarParaContaQuente(Long numeroOrigem, Conta destino, Dinheiro valor) {
+        Long numeroDestino = destino.getNumero();
+        Conta origem = travar(numeroOrigem);
+
+        destino.validarCredito(valor);
+        saldosFracionados.prepararDebito(origem, valor);
+        Dinheiro saldoOrigem = origem.getSaldo();
+        origem.sacar(valor);
+        Dinheiro saldoDestino = saldosFracionados.creditar(destino, valor);
+
+        diario.registrar(List.of(
+                Movimentacao.apos(origem, TipoMovimentacao.TRANSFERENCIA_ENVIADA, saldoOrigem, numeroDestino, null),
+                Movimentacao.credito(destino, TipoMovimentacao.TRANSFERENCIA_RECEBIDA, valor, saldoDestino,
+                        numeroOrigem, null)));
+
+        return repository.save(origem);
+    }
+
+    // Só a origem é travada; o destino é apenas lido para recusar já aqui uma conta inexistente ou inativa
+    private Conta executarParaOutroNo(Long numeroOrigem, Long numeroDestino, Dinheiro valor) {
+        Conta destino = repository
+                .findByNumeroAndAtivoTrue(numeroDestino)
+                .orElseThrow(() -> new EntidadeNaoEncontradaException("conta"));
+        Conta origem = travar(numeroOrigem);
+
+        destino.validarCredito(valor);
+        saldosFracionados.prepararDebito(origem, valor);
+        Dinheiro saldoOrigem = origem.getSaldo();
+        origem.sacar(valor);
+        creditosEntreNos.encaminhar(numeroOrigem, numeroDestino, valor);
+
+        diario.registrar(
+                Movimentacao.apos(origem, TipoMovimentacao.TRANSFERENCIA_ENVIADA, saldoOrigem, numeroDestino, null));
+        return repository.save(origem);
+    }
+
+    private Conta travar(Long numero) {
+        return repository
+                .findForUpdateByNumeroAndAtivoTrue(numero)
+                .orElseThrow(() -> new EntidadeNaoEncontradaException("conta"));
+    }
+}
@@ -0,0 +1,19 @@
+package com.senai.conta_bancaria.infrastructure.config;
+
+import com.senai.conta_bancaria.infrastructure.persistencia.MigracaoIdsBinarios;
+import org.springframework.boot.autoconfigure.orm.jpa.EntityManagerFactoryDependsOnPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// Migrações do esquema que o ddl-auto=update não faz: rodam sobre o DataSource antes de o EntityManagerFactory
+// existir, do mesmo jeito que o Spring Boot ordena o Flyway. Tudo o que usa JPA (repositórios, serviços,
+// controllers, jobs) depende do EntityManagerFactory, então nada toca o banco durante a conversão.
+@Configuration
+public class MigracaoConfig {
+
+    // static: o BeanFactoryPostProcessor precisa existir antes das definições que ele altera
+    @Bean
+    static EntityManagerFactoryDependsOnPostProcessor jpaDependeDasMigracoes() {
+        return new EntityManagerFactoryDependsOnPostProcessor(MigracaoIdsBinarios.class);
+    }
+}
@@ -0,0 +1,43 @@
+package com.senai.conta_bancaria.infrastructure.config;
+
+import com.senai.conta_bancaria.infrastructure.persistencia.DataSourceLimitado;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+// Com spring.threads.virtual.enabled=true o Tomcat, o @Async e o agendador passam a rodar em threads virtuais
+// (e com eles os serviços @Transactional chamados pelas requisições). O acesso ao banco fica limitado pelo
+// DataSourceLimitado ao pool do Hikari menos as conexões reservadas às transações aninhadas (REQUIRES_NEW).
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+@Slf4j
+public class ThreadsVirtuaisConfig {
+
+    // static: o BeanPostProcessor precisa existir antes do DataSource, sem inicializar esta configuração
+    @Bean
+    static BeanPostProcessor limitarConexoes(ObjectProvider<MeterRegistry> meterRegistry,
+                                             @Value("${conta.jdbc.espera-maxima-ms:30000}") long esperaMaximaMs,
+                                             @Value("${conta.jdbc.conexoes-reservadas:2}") int reservadas) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String nome) {
+                if (!(bean instanceof HikariDataSource hikari))
+                    return bean;
+
+                int limite = Math.max(hikari.getMaximumPoolSize() - reservadas, 1);
+                log.info("Threads virtuais ativas: no máximo {} seções simultâneas com o banco ({} conexões para "
+                        + "transações aninhadas)", limite, hikari.getMaximumPoolSize() - limite);
+                return new DataSourceLimitado(hikari, limite, esperaMaximaMs, meterRegistry.getObject());
+            }
+        };
+    }
+}
@@ -0,0 +1,320 @@
+package com.senai.conta_bancaria.infrastructure.coordenacao;
+
+import com.senai.conta_bancaria.domain.exception.ArrendamentoPerdidoException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+// Coordena os jobs agendados entre os nós por arrendamentos na tabela arrendamento. Cada nó pulsa a cada
+// conta.coordenacao.pulso-ms: registra-se em no_ativo, tenta ser (ou continuar) o líder e renova os arrendamentos
+// de partição que estiver usando. Um arrendamento só troca de dono depois de vencido, e cada troca incrementa o
+// token, que a tarefa confere dentro das próprias transações (validar) para que um nó que perdeu a posse sem
+// perceber (pausa longa, rede) não confirme mais nada. A conferência não trava a linha do arrendamento: uma leitura
+// com trava seguraria a renovação do pulso até o commit da tarefa, e um bloco demorado faria o próprio dono perder
+// o arrendamento. Em vez disso ela exige uma folga no prazo, que nenhum outro nó pode tomar antes de vencer.
+@Component
+@Slf4j
+public class CoordenacaoDeNos {
+
+    public static final String LIDER = "lider";
+
+    // Posse de um arrendamento: nome e token de cerca com que ele foi obtido
+    public record Posse(String nome, long token) {
+    }
+
+    @FunctionalInterface
+    public interface TarefaParticionada {
+        void executar(Particao particao, Posse posse);
+    }
+
+    // Um dos shards fixos em que a tarefa é dividida; a conta pertence ao shard numero % total
+    public record Particao(int indice, int total) {
+        public boolean contem(long numero) {
+            return Math.floorMod(numero, total) == indice;
+        }
+    }
+
+    private static final String PULSAR = """
+            INSERT INTO no_ativo (no, ultimo_pulso) VALUES (?, NOW(6))
+            ON DUPLICATE KEY UPDATE ultimo_pulso = NOW(6)""";
+
+    private static final String NOS_ATIVOS =
+            "SELECT no FROM no_ativo WHERE ultimo_pulso > NOW(6) - INTERVAL ? MICROSECOND ORDER BY no";
+
+    private static final String REMOVER_INATIVOS =
+            "DELETE FROM no_ativo WHERE ultimo_pulso < NOW(6) - INTERVAL ? MICROSECOND";
+
+    private static final String SEMEAR =
+            "INSERT IGNORE INTO arrendamento (nome, dono, token, expira_em) VALUES (?, '', 0, NOW(6))";
+
+    // O MySQL aplica o SET da esquerda para a direita: o token é comparado com o dono anterior antes da troca.
+    // Renovar mantém o token; tomar um arrendamento vencido de outro nó o incrementa.
+    private static final String ADQUIRIR = """
+            UPDATE arrendamento
+            SET token = IF(dono = ?, token, token + 1), dono = ?, expira_em = NOW(6) + INTERVAL ? MICROSECOND
+            WHERE nome = ? AND (dono = ? OR expira_em <= NOW(6))""";
+
+    private static final String TOKEN_DO_DONO = "SELECT token FROM arrendamento WHERE nome = ? AND dono = ?";
+
+    private static final String LIBERAR = "UPDATE arrendamento SET expira_em = NOW(6) WHERE nome = ? AND dono = ?";
+
+    // Sem FOR SHARE: o arrendamento precisa durar ao menos a folga além de agora, e nesse intervalo ninguém o toma
+    // (nem incrementa o token), mesmo que este nó pare de renovar logo depois da leitura
+    private static final String VALIDAR = """
+            SELECT token FROM arrendamento
+            WHERE nome = ? AND dono = ? AND token = ? AND expira_em > NOW(6) + INTERVAL ? MICROSECOND""";
+
+    private record Estado(long token, long validoAteNanos) {
+        boolean valido() {
+            return validoAteNanos - System.nanoTime() > 0;
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate novaTransacao;
+
+    private final Map<String, Estado> posses = new ConcurrentHashMap<>();
+    private final Set<String> emUso = ConcurrentHashMap.newKeySet();
+    private final Set<String> mantidos = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock trava = new ReentrantLock();
+
+    @Value("${conta.cluster.no-local:}")
+    private String no;
+
+    @Value("${conta.coordenacao.pulso-ms:5000}")
+    private long pulsoMs;
+
+    @Value("${conta.coordenacao.duracao-arrendamento-ms:15000}")
+    private long duracaoMs;
+
+    @Value("${conta.coordenacao.particoes:16}")
+    private int particoes;
+
+    private volatile List<String> ativos = List.of();
+    private volatile boolean ativo = true;
+    private Thread pulso;
+
+    public CoordenacaoDeNos(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = jdbcTemplate;
+
+        // A conferência do token roda fora da transação da tarefa, em leitura curta na própria conexão
+        this.novaTransacao = new TransactionTemplate(transactionManager);
+        this.novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.novaTransacao.setReadOnly(true);
+    }
+
+    @PostConstruct
+    void iniciar() {
+        if (duracaoMs < 2 * pulsoMs)
+            throw new IllegalStateException(
+                    "conta.coordenacao.duracao-arrendamento-ms precisa ser ao menos o dobro de conta.coordenacao.pulso-ms");
+        if (no.isBlank())
+            no = nomeDoHost() + "-" + Long.toHexString(ThreadLocalRandom.current().nextLong() >>> 32);
+
+        pulso = Thread.ofPlatform().daemon().name("coordenacao-pulso").start(this::pulsarSempre);
+        log.info("Coordenação de jobs: nó {}, pulso de {} ms, arrendamento de {} ms", no, pulsoMs, duracaoMs);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        ativo = false;
+        pulso.interrupt();
+        // Libera os arrendamentos e sai da lista de nós, para que os outros assumam sem esperar o vencimento
+        try {
+            for (String nome : Set.copyOf(posses.keySet()))
+                liberar(nome);
+            jdbcTemplate.update("DELETE FROM no_ativo WHERE no = ?", no);
+        } catch (DataAccessException e) {
+            log.warn("Coordenação: não foi possível liberar os arrendamentos ao encerrar: {}", e.getMessage());
+        }
+    }
+
+    public boolean lider() {
+        Estado estado = posses.get(LIDER);
+        return estado != null && estado.valido();
+    }
+
+    // Executa a tarefa só no líder; nos demais nós o disparo é ignorado e o retorno é false
+    public boolean comoLider(String tarefa, Consumer<Posse> acao) {
+        Estado estado = posses.get(LIDER);
+        if (estado == null || !estado.valido()) {
+            log.debug("{}: este nó não é o líder, disparo ignorado", tarefa);
+            return false;
+        }
+        acao.accept(new Posse(LIDER, estado.token()));
+        return true;
+    }
+
+    // Como o de líder, mas por nome: a partir da primeira chamada o pulso tenta adquirir e renova o arrendamento
+    // enquanto o nó viver. Executa a ação se ele está com este nó; senão retorna false sem executar.
+    public boolean comoDono(String nome, Consumer<Posse> acao) {
+        mantidos.add(nome);
+        Estado estado = posses.get(nome);
+        Posse posse = estado != null && estado.valido() ? new Posse(nome, estado.token()) : adquirirSeLivre(nome);
+        if (posse == null)
+            return false;
+        acao.accept(posse);
+        return true;
+    }
+
+    // Executa a tarefa em cada partição da faixa deste nó. Cada partição tem o próprio arrendamento: enquanto o
+    // dono anterior não o libera ou deixa vencer (entrada ou saída de nós), a partição fica para o próximo disparo.
+    public void porParticao(String tarefa, TarefaParticionada acao) {
+        for (Particao particao : minhasParticoes()) {
+            if (!comArrendamento(tarefa + "/" + particao.indice(), posse -> acao.executar(particao, posse)))
+                log.debug("{}: partição {} ainda com outro nó", tarefa, particao.indice());
+        }
+    }
+
+    // Executa a tarefa sob um arrendamento próprio, renovado pelo pulso enquanto ela roda, e o libera no fim.
+    // Retorna false, sem executar, se o arrendamento está com outro nó.
+    public boolean comArrendamento(String nome, Consumer<Posse> acao) {
+        emUso.add(nome);
+        try {
+            Posse posse = adquirirSeLivre(nome);
+            if (posse == null)
+                return false;
+            acao.accept(posse);
+            return true;
+        } finally {
+            emUso.remove(nome);
+            liberar(nome);
+        }
+    }
+
+    // Dentro da transação da tarefa, antes do trabalho: o bloco validado precisa ser confirmado dentro da folga
+    // (metade do pulso), que é bem maior que a duração de um bloco dos jobs
+    public void validar(Posse posse) {
+        Estado estado = posses.get(posse.nome());
+        if (estado == null || estado.token() != posse.token() || !estado.valido())
+            throw new ArrendamentoPerdidoException(posse.nome(), posse.token());
+
+        long folgaMicros = TimeUnit.MILLISECONDS.toMicros(pulsoMs / 2);
+        List<Long> tokens = novaTransacao.execute(status ->
+                jdbcTemplate.queryForList(VALIDAR, Long.class, posse.nome(), no, posse.token(), folgaMicros));
+        if (tokens == null || tokens.isEmpty())
+            throw new ArrendamentoPerdidoException(posse.nome(), posse.token());
+    }
+
+    // Faixa contígua de partições deste nó, pela posição dele entre os nós ativos
+    List<Particao> minhasParticoes() {
+        List<String> nos = ativos;
+        int posicao = nos.indexOf(no);
+        if (posicao < 0)
+            return List.of();
+
+        int inicio = posicao * particoes / nos.size();
+        int fim = (posicao + 1) * particoes / nos.size();
+        return IntStream.range(inicio, fim)
+                .mapToObj(indice -> new Particao(indice, particoes))
+                .toList();
+    }
+
+    private void pulsarSempre() {
+        while (ativo) {
+            try {
+                pulsar();
+            } catch (DataAccessException e) {
+                log.warn("Coordenação: pulso falhou: {}", e.getMessage());
+            }
+            try {
+                Thread.sleep(pulsoMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private void pulsar() {
+        long duracaoMicros = TimeUnit.MILLISECONDS.toMicros(duracaoMs);
+        jdbcTemplate.update(PULSAR, no);
+        ativos = jdbcTemplate.queryForList(NOS_ATIVOS, String.class, duracaoMicros);
+
+        boolean eraLider = lider();
+        trava.lock();
+        try {
+            adquirir(LIDER);
+            for (String nome : emUso)
+                if (posses.containsKey(nome))
+                    adquirir(nome);
+            for (String nome : mantidos)
+                adquirir(nome);
+        } finally {
+            trava.unlock();
+        }
+
+        if (lider() != eraLider)
+            log.info("Coordenação: nó {} {} o líder", no, lider() ? "passou a ser" : "deixou de ser");
+        if (lider())
+            jdbcTemplate.update(REMOVER_INATIVOS, 10 * duracaoMicros);
+    }
+
+    private Posse adquirirSeLivre(String nome) {
+        trava.lock();
+        try {
+            return adquirir(nome);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    // Adquire ou renova; o prazo local conta a partir de antes do UPDATE, então vence antes do prazo no banco
+    private Posse adquirir(String nome) {
+        long inicioNanos = System.nanoTime();
+        long duracaoMicros = TimeUnit.MILLISECONDS.toMicros(duracaoMs);
+        if (jdbcTemplate.update(ADQUIRIR, no, no, duracaoMicros, nome, no) == 0
+                && jdbcTemplate.update(SEMEAR, nome) == 1)
+            jdbcTemplate.update(ADQUIRIR, no, no, duracaoMicros, nome, no);
+
+        List<Long> tokens = jdbcTemplate.queryForList(TOKEN_DO_DONO, Long.class, nome, no);
+        if (tokens.isEmpty()) {
+            if (posses.remove(nome) != null)
+                log.warn("Coordenação: arrendamento {} perdido", nome);
+            return null;
+        }
+
+        long token = tokens.get(0);
+        Estado anterior = posses.put(nome, new Estado(token, inicioNanos + TimeUnit.MILLISECONDS.toNanos(duracaoMs)));
+        if (anterior == null || anterior.token() != token)
+            log.debug("Coordenação: arrendamento {} adquirido com token {}", nome, token);
+        return new Posse(nome, token);
+    }
+
+    private void liberar(String nome) {
+        trava.lock();
+        try {
+            if (posses.remove(nome) != null)
+                jdbcTemplate.update(LIBERAR, nome, no);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private static String nomeDoHost() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            return "no";
+        }
+    }
+}
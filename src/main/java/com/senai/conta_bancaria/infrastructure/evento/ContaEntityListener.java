@@ -0,0 +1,30 @@
+package com.senai.conta_bancaria.infrastructure.evento;
+
+import com.senai.conta_bancaria.domain.entity.Cliente;
+import com.senai.conta_bancaria.domain.entity.Conta;
+import com.senai.conta_bancaria.domain.event.ContaAlteradaEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.hibernate.Hibernate;
+import org.springframework.context.ApplicationEventPublisher;
+
+// Registrado em META-INF/orm.xml e instanciado pelo Hibernate através do container de beans do Spring
+public class ContaEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ContaEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void aoAlterar(Conta conta) {
+        Cliente cliente = conta.getCliente();
+        // Não inicializa o proxy do cliente durante o flush só para descobrir o CPF
+        Long cpf = cliente != null && Hibernate.isInitialized(cliente) ? cliente.getCpf() : null;
+        eventPublisher.publishEvent(new ContaAlteradaEvent(conta.getNumero(), cpf));
+    }
+}
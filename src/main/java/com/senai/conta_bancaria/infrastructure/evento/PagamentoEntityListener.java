@@ -0,0 +1,25 @@
+package com.senai.conta_bancaria.infrastructure.evento;
+
+import com.senai.conta_bancaria.domain.entity.Pagamento;
+import com.senai.conta_bancaria.domain.event.PagamentoAlteradoEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+// Instanciado pelo Hibernate através do container de beans do Spring
+public class PagamentoEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public PagamentoEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void aoAlterar(Pagamento pagamento) {
+        eventPublisher.publishEvent(new PagamentoAlteradoEvent(pagamento.getId()));
+    }
+}
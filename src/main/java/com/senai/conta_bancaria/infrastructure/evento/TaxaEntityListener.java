@@ -0,0 +1,25 @@
+package com.senai.conta_bancaria.infrastructure.evento;
+
+import com.senai.conta_bancaria.domain.entity.Taxa;
+import com.senai.conta_bancaria.domain.event.TaxaAlteradaEvent;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+// Instanciado pelo Hibernate através do container de beans do Spring
+public class TaxaEntityListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public TaxaEntityListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void aoAlterar(Taxa taxa) {
+        eventPublisher.publishEvent(new TaxaAlteradaEvent(taxa.getId()));
+    }
+}
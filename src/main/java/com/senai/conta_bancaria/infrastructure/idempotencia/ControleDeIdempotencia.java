@@ -0,0 +1,240 @@
+package com.senai.conta_bancaria.infrastructure.idempotencia;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.senai.conta_bancaria.domain.exception.ChaveIdempotenciaReutilizadaException;
+import com.senai.conta_bancaria.domain.exception.RequisicaoEmAndamentoException;
+import com.senai.conta_bancaria.infrastructure.coordenacao.CoordenacaoDeNos;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Honra o cabeçalho Idempotency-Key: a primeira requisição reserva a chave e executa; as repetições recebem a
+// resposta guardada sem passar pelos serviços. Camada quente em memória (LRU + TTL) e camada
+// durável na tabela idempotencia, consultada só quando a chave não está em memória.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ControleDeIdempotencia {
+
+    public static final String CABECALHO = "Idempotency-Key";
+    public static final String CABECALHO_REPETIDA = "Idempotent-Replayed";
+
+    private static final String RESERVAR = """
+            INSERT INTO idempotencia (chave, impressao, status, criada_em, expira_em)
+            VALUES (?, ?, 'EM_ANDAMENTO', ?, ?)""";
+    private static final String BUSCAR =
+            "SELECT impressao, status, status_http, corpo, expira_em FROM idempotencia WHERE chave = ?";
+    private static final String CONCLUIR =
+            "UPDATE idempotencia SET status = 'CONCLUIDA', status_http = ?, corpo = ? WHERE chave = ?";
+    private static final String LIBERAR = "DELETE FROM idempotencia WHERE chave = ? AND status = 'EM_ANDAMENTO'";
+    private static final String REMOVER_EXPIRADA = "DELETE FROM idempotencia WHERE chave = ? AND expira_em <= ?";
+    private static final String REMOVER_EXPIRADAS = "DELETE FROM idempotencia WHERE expira_em <= ? LIMIT 1000";
+
+    private record Resposta(String impressao, int statusHttp, Object corpo, long expiraEmNanos) {
+    }
+
+    private record Registro(String impressao, String status, Integer statusHttp, String corpo, LocalDateTime expiraEm) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final CoordenacaoDeNos coordenacao;
+
+    // Cheia, despeja a chave usada há mais tempo, para que as repetições recentes continuem fora do banco
+    private final Map<String, Resposta> memoria = Collections.synchronizedMap(new LinkedHashMap<>(1024, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Resposta> maisAntiga) {
+            return size() > maxEntradasMemoria;
+        }
+    });
+
+    @Value("${conta.idempotencia.ttl-horas:24}")
+    private long ttlHoras;
+
+    @Value("${conta.idempotencia.ttl-memoria-minutos:10}")
+    private long ttlMemoriaMinutos;
+
+    @Value("${conta.idempotencia.max-entradas-memoria:100000}")
+    private int maxEntradasMemoria;
+
+    public <T> ResponseEntity<T> executar(String chaveCliente, String operacao, Object requisicao, Class<T> tipo,
+                                          Supplier<ResponseEntity<T>> acao) {
+        return executarAsync(chaveCliente, operacao, requisicao, tipo,
+                () -> CompletableFuture.completedFuture(acao.get())).join();
+    }
+
+    public <T> CompletableFuture<ResponseEntity<T>> executarAsync(String chaveCliente, String operacao,
+                                                                  Object requisicao, Class<T> tipo,
+                                                                  Supplier<CompletableFuture<ResponseEntity<T>>> acao) {
+        if (chaveCliente == null || chaveCliente.isBlank())
+            return acao.get();
+
+        String chave = sha256(usuarioAtual() + '\n' + operacao + '\n' + chaveCliente);
+        String impressao = sha256(operacao + '\n' + json(requisicao));
+
+        Resposta emMemoria = memoria.get(chave);
+        if (emMemoria != null && emMemoria.expiraEmNanos() - System.nanoTime() > 0)
+            return CompletableFuture.completedFuture(repetir(emMemoria, impressao, tipo));
+
+        Resposta gravada = reservar(chave, impressao, tipo);
+        if (gravada != null) {
+            lembrar(chave, gravada);
+            return CompletableFuture.completedFuture(repetir(gravada, impressao, tipo));
+        }
+
+        CompletableFuture<ResponseEntity<T>> resultado;
+        try {
+            resultado = acao.get();
+        } catch (RuntimeException e) {
+            liberar(chave);
+            throw e;
+        }
+
+        // Falhas liberam a chave: nada foi movimentado e o cliente pode repetir a mesma requisição
+        return resultado.whenComplete((resposta, erro) -> {
+            if (erro != null)
+                liberar(chave);
+            else
+                concluir(chave, impressao, resposta);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${conta.idempotencia.limpeza-ms:60000}")
+    public void removerExpiradas() {
+        long agoraNanos = System.nanoTime();
+        synchronized (memoria) {
+            memoria.values().removeIf(resposta -> resposta.expiraEmNanos() - agoraNanos <= 0);
+        }
+
+        // A tabela é uma só: basta o líder limpá-la
+        if (!coordenacao.lider())
+            return;
+
+        Timestamp agora = Timestamp.valueOf(LocalDateTime.now());
+        int removidas;
+        do {
+            removidas = jdbcTemplate.update(REMOVER_EXPIRADAS, agora);
+        } while (removidas > 0);
+    }
+
+    // Retorna a resposta já gravada para a chave, ou null se a reserva foi feita agora
+    private <T> Resposta reservar(String chave, String impressao, Class<T> tipo) {
+        for (int tentativa = 0; tentativa < 2; tentativa++) {
+            LocalDateTime agora = LocalDateTime.now();
+            try {
+                jdbcTemplate.update(RESERVAR, chave, impressao,
+                        Timestamp.valueOf(agora), Timestamp.valueOf(agora.plusHours(ttlHoras)));
+                return null;
+            } catch (DuplicateKeyException e) {
+                List<Registro> registros = jdbcTemplate.query(BUSCAR, (rs, linha) -> new Registro(
+                        rs.getString("impressao"),
+                        rs.getString("status"),
+                        rs.getObject("status_http", Integer.class),
+                        rs.getString("corpo"),
+                        rs.getTimestamp("expira_em").toLocalDateTime()), chave);
+
+                if (registros.isEmpty())
+                    continue; // liberada por outra requisição entre o INSERT e o SELECT
+
+                Registro registro = registros.get(0);
+                if (!registro.expiraEm().isAfter(agora)) {
+                    jdbcTemplate.update(REMOVER_EXPIRADA, chave, Timestamp.valueOf(agora));
+                    continue;
+                }
+                if (!registro.impressao().equals(impressao))
+                    throw new ChaveIdempotenciaReutilizadaException();
+                if (!"CONCLUIDA".equals(registro.status()))
+                    throw new RequisicaoEmAndamentoException();
+
+                return new Resposta(registro.impressao(), registro.statusHttp(), ler(registro.corpo(), tipo),
+                        System.nanoTime() + TimeUnit.MINUTES.toNanos(ttlMemoriaMinutos));
+            }
+        }
+        throw new RequisicaoEmAndamentoException();
+    }
+
+    private <T> void concluir(String chave, String impressao, ResponseEntity<T> resposta) {
+        try {
+            jdbcTemplate.update(CONCLUIR, resposta.getStatusCode().value(), json(resposta.getBody()), chave);
+            lembrar(chave, new Resposta(impressao, resposta.getStatusCode().value(), resposta.getBody(),
+                    System.nanoTime() + TimeUnit.MINUTES.toNanos(ttlMemoriaMinutos)));
+        } catch (RuntimeException e) {
+            // A operação já foi aplicada; repetições recebem 409 até a chave expirar, mas nunca reexecutam
+            log.error("Falha ao gravar a resposta da chave de idempotência {}", chave, e);
+        }
+    }
+
+    private void liberar(String chave) {
+        try {
+            jdbcTemplate.update(LIBERAR, chave);
+        } catch (RuntimeException e) {
+            log.error("Falha ao liberar a chave de idempotência {}", chave, e);
+        }
+    }
+
+    private void lembrar(String chave, Resposta resposta) {
+        memoria.put(chave, resposta);
+    }
+
+    private <T> ResponseEntity<T> repetir(Resposta resposta, String impressao, Class<T> tipo) {
+        if (!resposta.impressao().equals(impressao))
+            throw new ChaveIdempotenciaReutilizadaException();
+
+        return ResponseEntity
+                .status(resposta.statusHttp())
+                .header(CABECALHO_REPETIDA, "true")
+                .body(tipo.cast(resposta.corpo()));
+    }
+
+    private String usuarioAtual() {
+        Authentication autenticacao = SecurityContextHolder.getContext().getAuthentication();
+        return autenticacao != null ? autenticacao.getName() : "";
+    }
+
+    private String json(Object valor) {
+        try {
+            return objectMapper.writeValueAsString(valor);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Não foi possível serializar a requisição idempotente", e);
+        }
+    }
+
+    private <T> T ler(String corpo, Class<T> tipo) {
+        try {
+            return corpo != null ? objectMapper.readValue(corpo, tipo) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Resposta idempotente gravada é inválida", e);
+        }
+    }
+
+    private static String sha256(String texto) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(texto.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package com.senai.conta_bancaria.infrastructure.journal;
+
+import com.senai.conta_bancaria.domain.entity.Movimentacao;
+import com.senai.conta_bancaria.domain.enums.TipoMovimentacao;
+import com.senai.conta_bancaria.domain.exception.SistemaSobrecarregadoException;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+// Arquivo do journal de um shard, mapeado em memória e escrito só pela thread do shard. Registros binários de
+// tamanho fixo (64 bytes, o último int é o CRC32C dos 60 anteriores):
+//   lote(8) tipo(4) numero(8) valor(8) saldoApos(8) contraparte(8) versaoAnterior(8) dataHora(8) crc(4)
+// tipo -1 é a marca de lote assentado (confirmado no banco ou descartado). Depois de assentado, o próximo lote
+// recomeça do início do arquivo; a leitura para no primeiro CRC inválido ou no primeiro lote mais antigo.
+// Os números de lote só crescem, também entre subidas (continuarApos), porque identificam o lote no banco
+// (journal_lote). A versão anterior fica só como informação: outros escritores também mudam a versão da conta.
+class ArquivoJournal implements Closeable {
+
+    static final int TAMANHO_REGISTRO = 64;
+    private static final int TAMANHO_DADOS = TAMANHO_REGISTRO - Integer.BYTES;
+    private static final int ASSENTADO = -1;
+    private static final TipoMovimentacao[] TIPOS = TipoMovimentacao.values();
+
+    record Registro(long lote, Movimentacao movimentacao, long versaoAnterior) {
+    }
+
+    private final FileChannel canal;
+    private final MappedByteBuffer mapa;
+    private final int capacidade;
+    private final ByteBuffer registro = ByteBuffer.allocate(TAMANHO_REGISTRO);
+    private final CRC32C crc = new CRC32C();
+
+    private int posicao;
+    private long ultimoLote;
+    private List<Registro> aberto = List.of(); // gravado no journal, ainda não assentado
+    private boolean pendente; // algum lote anterior ficou sem chegar ao banco: não recomeça do início
+    private long primeiroPendente = Long.MAX_VALUE;
+
+    ArquivoJournal(Path caminho, int capacidade) throws IOException {
+        this.capacidade = capacidade;
+        this.canal = FileChannel.open(caminho,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.mapa = canal.map(FileChannel.MapMode.READ_WRITE, 0, (long) capacidade * TAMANHO_REGISTRO);
+    }
+
+    // Grava as movimentações de um lote e força para o disco: um fsync por lote, não por operação
+    void gravar(List<Movimentacao> movimentacoes, Map<Long, Long> versoes) {
+        if (!aberto.isEmpty())
+            throw new IllegalStateException("Lote anterior do journal ainda não foi assentado");
+        if (!pendente)
+            posicao = 0;
+        if (posicao + movimentacoes.size() + 1 > capacidade)
+            throw new SistemaSobrecarregadoException("journal de saldos");
+
+        long lote = ++ultimoLote;
+        List<Registro> registros = new ArrayList<>(movimentacoes.size());
+        for (Movimentacao movimentacao : movimentacoes) {
+            Registro r = new Registro(lote, movimentacao, versoes.get(movimentacao.getNumeroConta()));
+            escrever(posicao++, r);
+            registros.add(r);
+        }
+        mapa.force();
+        aberto = registros;
+    }
+
+    boolean temLoteAberto() {
+        return !aberto.isEmpty();
+    }
+
+    List<Registro> loteAberto() {
+        return aberto;
+    }
+
+    long numeroLoteAberto() {
+        return aberto.get(0).lote();
+    }
+
+    // Menor lote que ainda pode ser reaplicado a partir deste arquivo
+    long primeiroPendente() {
+        return primeiroPendente;
+    }
+
+    // Depois da recuperação: os próximos lotes não podem repetir números que o banco já conhece
+    void continuarApos(long lote) {
+        ultimoLote = Math.max(ultimoLote, lote);
+    }
+
+    // Depois do commit: com a marca em disco, a recuperação nem chega a consultar o banco por este lote
+    void confirmar() {
+        assentar();
+    }
+
+    // Lote desfeito no banco: a marca tem de estar em disco para que a recuperação não o aplique
+    void descartar() {
+        assentar();
+    }
+
+    // Lote confirmado ao cliente que não chegou ao banco: fica no arquivo para a recuperação na próxima subida
+    void manterPendente() {
+        if (aberto.isEmpty())
+            return;
+        primeiroPendente = Math.min(primeiroPendente, numeroLoteAberto());
+        aberto = List.of();
+        pendente = true;
+    }
+
+    private void assentar() {
+        if (aberto.isEmpty())
+            return;
+
+        escreverMarca(posicao++, numeroLoteAberto());
+        mapa.force();
+        aberto = List.of();
+    }
+
+    // Lotes gravados e não assentados, na ordem em que foram gravados
+    List<List<Registro>> lerPendentes() {
+        Map<Long, List<Registro>> lotes = new LinkedHashMap<>();
+        long primeiro = -1;
+        for (int i = 0; i < capacidade; i++) {
+            ByteBuffer lido = ler(i);
+            if (lido == null)
+                break;
+
+            long lote = lido.getLong(0);
+            if (primeiro == -1)
+                primeiro = lote;
+            if (lote < primeiro)
+                break; // sobra de um ciclo anterior do arquivo
+            ultimoLote = Math.max(ultimoLote, lote);
+
+            int tipo = lido.getInt(8);
+            if (tipo == ASSENTADO)
+                lotes.remove(lote);
+            else
+                lotes.computeIfAbsent(lote, l -> new ArrayList<>()).add(decodificar(lido, lote, tipo));
+        }
+        return new ArrayList<>(lotes.values());
+    }
+
+    // Zera o arquivo depois da recuperação
+    void limpar() {
+        byte[] zeros = new byte[TAMANHO_REGISTRO];
+        for (int i = 0; i < capacidade; i++)
+            mapa.put(i * TAMANHO_REGISTRO, zeros);
+        mapa.force();
+        posicao = 0;
+        pendente = false;
+        primeiroPendente = Long.MAX_VALUE;
+        aberto = List.of();
+    }
+
+    @Override
+    public void close() throws IOException {
+        mapa.force();
+        canal.close();
+    }
+
+    private void escrever(int indice, Registro r) {
+        Movimentacao m = r.movimentacao();
+        registro.clear();
+        registro.putLong(r.lote())
+                .putInt(m.getTipo().ordinal())
+                .putLong(m.getNumeroConta())
+                .putLong(m.getValor().centavos())
+                .putLong(m.getSaldoApos().centavos())
+                .putLong(m.getNumeroContraparte() != null ? m.getNumeroContraparte() : 0)
+                .putLong(r.versaoAnterior())
+                .putLong(paraMicros(m.getDataHora()));
+        selar(indice);
+    }
+
+    private void escreverMarca(int indice, long lote) {
+        registro.clear();
+        registro.putLong(lote).putInt(ASSENTADO);
+        while (registro.position() < TAMANHO_DADOS)
+            registro.put((byte) 0);
+        selar(indice);
+    }
+
+    private void selar(int indice) {
+        crc.reset();
+        crc.update(registro.array(), 0, TAMANHO_DADOS);
+        registro.putInt((int) crc.getValue());
+        mapa.put(indice * TAMANHO_REGISTRO, registro.array());
+    }
+
+    private ByteBuffer ler(int indice) {
+        byte[] bytes = new byte[TAMANHO_REGISTRO];
+        mapa.get(indice * TAMANHO_REGISTRO, bytes);
+        crc.reset();
+        crc.update(bytes, 0, TAMANHO_DADOS);
+        ByteBuffer lido = ByteBuffer.wrap(bytes);
+        return lido.getInt(TAMANHO_DADOS) == (int) crc.getValue() && lido.getLong(0) > 0 ? lido : null;
+    }
+
+    private static Registro decodificar(ByteBuffer lido, long lote, int tipo) {
+        long contraparte = lido.getLong(36);
+        Movimentacao movimentacao = Movimentacao.builder()
+                .tipo(TIPOS[tipo])
+                .numeroConta(lido.getLong(12))
+                .valor(Dinheiro.deCentavos(lido.getLong(20)))
+                .saldoApos(Dinheiro.deCentavos(lido.getLong(28)))
+                .numeroContraparte(contraparte != 0 ? contraparte : null)
+                .dataHora(deMicros(lido.getLong(52)))
+                .build();
+        return new Registro(lote, movimentacao, lido.getLong(44));
+    }
+
+    private static long paraMicros(LocalDateTime dataHora) {
+        return dataHora.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dataHora.getNano() / 1_000;
+    }
+
+    private static LocalDateTime deMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+                (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
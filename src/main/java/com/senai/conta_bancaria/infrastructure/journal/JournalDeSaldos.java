@@ -0,0 +1,287 @@
+package com.senai.conta_bancaria.infrastructure.journal;
+
+import com.senai.conta_bancaria.domain.entity.Movimentacao;
+import com.senai.conta_bancaria.domain.event.ContaAlteradaEvent;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.infrastructure.concorrencia.PoliticaDeRetentativa;
+import com.senai.conta_bancaria.infrastructure.movimentacao.DiarioDeMovimentacoes;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+// Journal local das alterações de saldo feitas pelo ledger: cada lote é gravado em disco (arquivo mapeado em
+// memória, um por shard) antes de ir para o banco. Na subida, os lotes que não chegaram ao banco são reaplicados.
+// Modo BANCO: o cliente continua sendo respondido após o commit; o journal só cobre a janela até ele.
+// Modo JOURNAL: o cliente é respondido assim que o lote está em disco, e o commit sai do caminho crítico.
+// Cada lote grava sua marca em journal_lote na mesma transação dos saldos; a reaplicação só acontece se a marca
+// não existir, e então soma a variação do lote a cada conta, qualquer que seja a versão atual dela, desde que a
+// conta ainda comporte o débito (saldo mais limite, como no saque atômico). Um lote que não cabe não é aplicado:
+// vai para o relatório de lotes recusados, para conciliação manual, e a subida segue.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class JournalDeSaldos {
+
+    public enum Modo {
+        DESLIGADO,
+        BANCO,
+        JOURNAL
+    }
+
+    // Crédito sempre entra; débito só se couber no saldo mais o limite da corrente
+    private static final String APLICAR = """
+            UPDATE conta SET saldo = saldo + ?, versao = versao + 1
+            WHERE numero = ?
+              AND (? >= 0 OR saldo + IF(tipo_conta = 'CORRENTE', COALESCE(limite, 0), 0) + ? >= 0)""";
+    private static final String EXISTE = "SELECT COUNT(*) FROM conta WHERE numero = ?";
+    private static final String MARCAR = "INSERT INTO journal_lote (origem, lote) VALUES (?, ?)";
+    // Na reaplicação: nenhuma linha inserida quer dizer que o lote já está no banco
+    private static final String MARCAR_SE_AUSENTE = "INSERT IGNORE INTO journal_lote (origem, lote) VALUES (?, ?)";
+    // As marcas só importam para lotes que ainda podem ser reaplicados (o aberto e os pendentes)
+    private static final String PODAR = "DELETE FROM journal_lote WHERE origem = ? AND lote < ?";
+    private static final String ULTIMO_LOTE = "SELECT MAX(lote) FROM journal_lote WHERE origem = ?";
+    private static final String ARQUIVO_ID = "journal.id";
+    private static final String ARQUIVO_RECUSADOS = "lotes-recusados.txt";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DiarioDeMovimentacoes diario;
+    private final PoliticaDeRetentativa politicaDeRetentativa;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${conta.journal.modo:DESLIGADO}")
+    private Modo modo;
+
+    @Value("${conta.journal.diretorio:journal}")
+    private Path diretorio;
+
+    @Value("${conta.journal.capacidade-registros:65536}")
+    private int capacidadeRegistros;
+
+    private ArquivoJournal[] arquivos = new ArquivoJournal[0];
+    private String[] origens = new String[0];
+    private String id;
+
+    public boolean ativo() {
+        return modo != Modo.DESLIGADO;
+    }
+
+    public boolean confirmaNoJournal() {
+        return modo == Modo.JOURNAL;
+    }
+
+    // Chamado pelo ledger antes de iniciar os shards: recupera todos os arquivos do diretório (inclusive de
+    // shards que deixaram de existir) e deixa abertos os dos shards atuais
+    public void abrir(int shards) {
+        if (!ativo())
+            return;
+
+        try {
+            Files.createDirectories(diretorio);
+            id = lerOuCriarId();
+            Set<Path> atuais = new HashSet<>();
+            arquivos = new ArquivoJournal[shards];
+            origens = new String[shards];
+            for (int i = 0; i < shards; i++) {
+                Path caminho = diretorio.resolve("shard-" + i + ".wal");
+                atuais.add(caminho);
+                arquivos[i] = new ArquivoJournal(caminho, capacidadeRegistros);
+                origens[i] = origem(caminho);
+                recuperar(caminho, arquivos[i]);
+                Long ultimo = jdbcTemplate.queryForObject(ULTIMO_LOTE, Long.class, origens[i]);
+                if (ultimo != null)
+                    arquivos[i].continuarApos(ultimo);
+            }
+
+            try (DirectoryStream<Path> antigos = Files.newDirectoryStream(diretorio, "shard-*.wal")) {
+                for (Path caminho : antigos) {
+                    if (atuais.contains(caminho))
+                        continue;
+                    try (ArquivoJournal arquivo = new ArquivoJournal(caminho, capacidadeRegistros)) {
+                        recuperar(caminho, arquivo);
+                    }
+                    Files.delete(caminho);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Não foi possível abrir o journal de saldos em " + diretorio, e);
+        }
+        log.info("Journal de saldos ativo em {} (modo {})", diretorio.toAbsolutePath(), modo);
+    }
+
+    // Chamado dentro da transação do lote: a marca só existe no banco se os saldos do lote também existirem
+    public void gravar(int shard, List<Movimentacao> movimentacoes, Map<Long, Long> versoes) {
+        if (!ativo() || movimentacoes.isEmpty())
+            return;
+
+        ArquivoJournal arquivo = arquivos[shard];
+        arquivo.gravar(movimentacoes, versoes);
+        long lote = arquivo.numeroLoteAberto();
+        jdbcTemplate.update(MARCAR, origens[shard], lote);
+        jdbcTemplate.update(PODAR, origens[shard], Math.min(lote, arquivo.primeiroPendente()));
+    }
+
+    // Se os clientes deste lote já foram respondidos com base no journal
+    public boolean respondido(int shard) {
+        return confirmaNoJournal() && arquivos[shard].temLoteAberto();
+    }
+
+    public void confirmar(int shard) {
+        if (ativo())
+            arquivos[shard].confirmar();
+    }
+
+    public void descartar(int shard) {
+        if (ativo())
+            arquivos[shard].descartar();
+    }
+
+    // O commit falhou depois de o cliente ter sido respondido: aplica o lote direto a partir do journal.
+    // Se nem assim for possível, o lote fica no arquivo para a próxima subida.
+    public void reaplicar(int shard) {
+        ArquivoJournal arquivo = arquivos[shard];
+        try {
+            politicaDeRetentativa.executar("journal", () -> transactionTemplate.execute(
+                    status -> aplicar(origens[shard], arquivo.loteAberto())));
+            arquivo.confirmar();
+        } catch (LoteRecusadoException e) {
+            // Nenhuma nova tentativa faria o débito caber: fica registrado e o lote é assentado no arquivo
+            relatarRecusado(origens[shard], arquivo.loteAberto(), e);
+            arquivo.descartar();
+        } catch (RuntimeException e) {
+            log.error("Lote {} confirmado pelo journal não pôde ser gravado no banco; fica para a recuperação",
+                    arquivo.numeroLoteAberto(), e);
+            arquivo.manterPendente();
+        }
+    }
+
+    @PreDestroy
+    void fechar() throws IOException {
+        for (ArquivoJournal arquivo : arquivos)
+            arquivo.close();
+    }
+
+    // Um lote que não pode ser reaplicado impede a subida e o arquivo fica intacto: os clientes dele podem já ter
+    // sido respondidos, então não há como seguir em frente sem ele
+    private void recuperar(Path caminho, ArquivoJournal arquivo) {
+        String origem = origem(caminho);
+        for (List<ArquivoJournal.Registro> lote : arquivo.lerPendentes()) {
+            long numero = lote.get(0).lote();
+            int aplicadas;
+            try {
+                aplicadas = transactionTemplate.execute(status -> aplicar(origem, lote));
+            } catch (LoteRecusadoException e) {
+                relatarRecusado(origem, lote, e);
+                continue;
+            } catch (RuntimeException e) {
+                throw new IllegalStateException("Journal " + caminho + ": lote " + numero
+                        + " não pôde ser reaplicado; o arquivo foi mantido para nova tentativa", e);
+            }
+            if (aplicadas == 0)
+                log.info("Journal {}: lote {} já estava no banco", caminho.getFileName(), numero);
+            else
+                log.warn("Journal {}: lote {} reaplicado em {} conta(s)", caminho.getFileName(), numero, aplicadas);
+        }
+        arquivo.limpar();
+    }
+
+    // Retorna quantas contas foram alteradas: zero se o lote já tinha chegado ao banco
+    private int aplicar(String origem, List<ArquivoJournal.Registro> lote) {
+        long numero = lote.get(0).lote();
+        if (jdbcTemplate.update(MARCAR_SE_AUSENTE, origem, numero) == 0)
+            return 0;
+
+        Map<Long, List<ArquivoJournal.Registro>> porConta = new LinkedHashMap<>();
+        for (ArquivoJournal.Registro registro : lote)
+            porConta.computeIfAbsent(registro.movimentacao().getNumeroConta(), n -> new ArrayList<>()).add(registro);
+
+        List<Movimentacao> movimentacoes = new ArrayList<>(lote.size());
+        int aplicadas = 0;
+        for (Map.Entry<Long, List<ArquivoJournal.Registro>> conta : porConta.entrySet()) {
+            Dinheiro variacao = Dinheiro.ZERO;
+            for (ArquivoJournal.Registro registro : conta.getValue())
+                variacao = variacao.mais(registro.movimentacao().valorComSinal());
+
+            BigDecimal valor = variacao.paraBigDecimal();
+            if (jdbcTemplate.update(APLICAR, valor, conta.getKey(), valor, valor) == 0) {
+                // Sem a conta não há onde pôr o dinheiro: a transação desfaz a marca e o lote segue pendente
+                Integer existe = jdbcTemplate.queryForObject(EXISTE, Integer.class, conta.getKey());
+                if (existe == null || existe == 0)
+                    throw new IllegalStateException(
+                            "Conta " + conta.getKey() + " do lote " + numero + " do journal não existe mais");
+                // Débito sem fundos: a transação desfaz o lote inteiro, inclusive os créditos das outras contas
+                throw new LoteRecusadoException(conta.getKey(), variacao);
+            }
+
+            conta.getValue().forEach(registro -> movimentacoes.add(registro.movimentacao()));
+            eventPublisher.publishEvent(new ContaAlteradaEvent(conta.getKey(), null));
+            aplicadas++;
+        }
+
+        diario.registrar(movimentacoes);
+        return aplicadas;
+    }
+
+    // Uma linha por movimentação do lote, acrescentada com fsync: é o que resta do lote depois que o arquivo do
+    // journal for limpo
+    private void relatarRecusado(String origem, List<ArquivoJournal.Registro> lote, LoteRecusadoException e) {
+        long numero = lote.get(0).lote();
+        log.error("Journal {}: lote {} recusado, a conta {} não comporta a variação de {}; registrado em {}",
+                origem, numero, e.numeroConta, e.variacao, ARQUIVO_RECUSADOS);
+
+        StringBuilder linhas = new StringBuilder();
+        for (ArquivoJournal.Registro registro : lote) {
+            Movimentacao m = registro.movimentacao();
+            linhas.append(String.join(";", origem, String.valueOf(numero), String.valueOf(m.getNumeroConta()),
+                    m.getTipo().name(), m.valorComSinal().toString(), String.valueOf(m.getDataHora()),
+                    Objects.toString(m.getReferencia(), ""))).append('\n');
+        }
+        try {
+            Files.writeString(diretorio.resolve(ARQUIVO_RECUSADOS), linhas, StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+        } catch (IOException io) {
+            throw new UncheckedIOException("Não foi possível registrar o lote recusado " + numero, io);
+        }
+    }
+
+    private String origem(Path caminho) {
+        return id + "/" + caminho.getFileName();
+    }
+
+    // Identifica este diretório de journal no banco, que pode ser compartilhado por vários nós
+    private String lerOuCriarId() throws IOException {
+        Path arquivo = diretorio.resolve(ARQUIVO_ID);
+        if (Files.exists(arquivo))
+            return Files.readString(arquivo).strip();
+
+        String novo = UUID.randomUUID().toString();
+        Files.writeString(arquivo, novo, StandardOpenOption.CREATE_NEW, StandardOpenOption.SYNC);
+        return novo;
+    }
+
+    // A conta existe mas o débito do lote não cabe mais nela
+    private static class LoteRecusadoException extends RuntimeException {
+        private final Long numeroConta;
+        private final Dinheiro variacao;
+
+        LoteRecusadoException(Long numeroConta, Dinheiro variacao) {
+            super("Conta " + numeroConta + " não comporta a variação " + variacao);
+            this.numeroConta = numeroConta;
+            this.variacao = variacao;
+        }
+    }
+}
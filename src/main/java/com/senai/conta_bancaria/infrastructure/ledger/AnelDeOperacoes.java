@@ -0,0 +1,69 @@
+package com.senai.conta_bancaria.infrastructure.ledger;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Buffer circular limitado e sem locks (vários produtores, um consumidor por shard).
+// Cada posição guarda um número de sequência que indica se está livre para escrita ou pronta para leitura.
+class AnelDeOperacoes<E> {
+    private final AtomicReferenceArray<E> elementos;
+    private final AtomicLongArray sequencias;
+    private final int mascara;
+    private final AtomicLong cauda = new AtomicLong();
+    private final AtomicLong cabeca = new AtomicLong();
+
+    AnelDeOperacoes(int capacidadeMinima) {
+        int capacidade = Integer.highestOneBit(Math.max(2, capacidadeMinima - 1)) << 1;
+        this.elementos = new AtomicReferenceArray<>(capacidade);
+        this.sequencias = new AtomicLongArray(capacidade);
+        this.mascara = capacidade - 1;
+        for (int i = 0; i < capacidade; i++)
+            sequencias.set(i, i);
+    }
+
+    boolean oferecer(E elemento) {
+        long posicao = cauda.get();
+        while (true) {
+            int indice = (int) (posicao & mascara);
+            long diferenca = sequencias.get(indice) - posicao;
+            if (diferenca == 0) {
+                if (cauda.compareAndSet(posicao, posicao + 1)) {
+                    elementos.lazySet(indice, elemento);
+                    sequencias.lazySet(indice, posicao + 1);
+                    return true;
+                }
+            } else if (diferenca < 0) {
+                return false; // anel cheio
+            }
+            posicao = cauda.get();
+        }
+    }
+
+    E retirar() {
+        long posicao = cabeca.get();
+        while (true) {
+            int indice = (int) (posicao & mascara);
+            long diferenca = sequencias.get(indice) - (posicao + 1);
+            if (diferenca == 0) {
+                if (cabeca.compareAndSet(posicao, posicao + 1)) {
+                    E elemento = elementos.get(indice);
+                    elementos.lazySet(indice, null);
+                    sequencias.lazySet(indice, posicao + mascara + 1);
+                    return elemento;
+                }
+            } else if (diferenca < 0) {
+                return null; // anel vazio
+            }
+            posicao = cabeca.get();
+        }
+    }
+
+    boolean vazio() {
+        return cabeca.get() >= cauda.get();
+    }
+
+    int tamanho() {
+        return (int) Math.max(0, cauda.get() - cabeca.get());
+    }
+}
@@ -0,0 +1,280 @@
+package com.senai.conta_bancaria.infrastructure.ledger;
+
+import com.senai.conta_bancaria.domain.entity.Conta;
+import com.senai.conta_bancaria.domain.entity.Movimentacao;
+import com.senai.conta_bancaria.domain.enums.TipoMovimentacao;
+import com.senai.conta_bancaria.domain.exception.EntidadeNaoEncontradaException;
+import com.senai.conta_bancaria.domain.exception.SistemaSobrecarregadoException;
+import com.senai.conta_bancaria.domain.repository.ContaRepository;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.infrastructure.concorrencia.PoliticaDeRetentativa;
+import com.senai.conta_bancaria.infrastructure.concorrencia.TransferenciaExecutor;
+import com.senai.conta_bancaria.infrastructure.journal.JournalDeSaldos;
+import com.senai.conta_bancaria.infrastructure.movimentacao.DiarioDeMovimentacoes;
+import com.senai.conta_bancaria.infrastructure.saldo.SaldosFracionados;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Ledger em memória: as contas são particionadas pelo número em N shards e cada shard tem uma única
+// thread escritora. As operações de um shard são aplicadas em lote numa só transação.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerContas {
+
+    private static final long ESPERA_OCIOSA_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final ContaRepository repository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransferenciaExecutor transferenciaExecutor;
+    private final PoliticaDeRetentativa politicaDeRetentativa;
+    private final DiarioDeMovimentacoes diario;
+    private final SaldosFracionados saldosFracionados;
+    private final JournalDeSaldos journal;
+
+    @Value("${conta.ledger.shards:4}")
+    private int quantidadeShards;
+
+    @Value("${conta.ledger.capacidade-fila:4096}")
+    private int capacidadeFila;
+
+    @Value("${conta.ledger.tamanho-lote:128}")
+    private int tamanhoLote;
+
+    private Shard[] shards;
+
+    @PostConstruct
+    void iniciar() {
+        journal.abrir(quantidadeShards);
+        shards = new Shard[quantidadeShards];
+        for (int i = 0; i < quantidadeShards; i++) {
+            shards[i] = new Shard(i);
+            shards[i].thread.start();
+        }
+        log.info("Ledger de contas iniciado com {} shards", quantidadeShards);
+    }
+
+    @PreDestroy
+    void encerrar() throws InterruptedException {
+        for (Shard shard : shards) {
+            shard.ativo = false;
+            LockSupport.unpark(shard.thread);
+        }
+        for (Shard shard : shards)
+            shard.thread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public CompletableFuture<Conta> sacar(Long numero, Dinheiro valor) {
+        return submeter(new OperacaoLedger(OperacaoLedger.Tipo.SAQUE, numero, null, valor));
+    }
+
+    public CompletableFuture<Conta> depositar(Long numero, Dinheiro valor) {
+        return submeter(new OperacaoLedger(OperacaoLedger.Tipo.DEPOSITO, numero, null, valor));
+    }
+
+    public CompletableFuture<Conta> transferir(Long numeroOrigem, Long numeroDestino, Dinheiro valor) {
+        OperacaoLedger.Tipo tipo = shardDe(numeroOrigem) == shardDe(numeroDestino)
+                ? OperacaoLedger.Tipo.TRANSFERENCIA
+                : OperacaoLedger.Tipo.TRANSFERENCIA_ENTRE_SHARDS;
+        return submeter(new OperacaoLedger(tipo, numeroOrigem, numeroDestino, valor));
+    }
+
+    private int shardDe(Long numero) {
+        return (int) Math.floorMod(numero, (long) quantidadeShards);
+    }
+
+    private CompletableFuture<Conta> submeter(OperacaoLedger operacao) {
+        Shard shard = shards[shardDe(operacao.getNumero())];
+        if (!shard.ativo || !shard.anel.oferecer(operacao))
+            return CompletableFuture.failedFuture(new SistemaSobrecarregadoException("ledger de contas"));
+
+        LockSupport.unpark(shard.thread);
+        return operacao.getResultado();
+    }
+
+    private class Shard implements Runnable {
+        private final AnelDeOperacoes<OperacaoLedger> anel = new AnelDeOperacoes<>(capacidadeFila);
+        private final int indice;
+        private final Thread thread;
+        private volatile boolean ativo = true;
+
+        Shard(int indice) {
+            this.indice = indice;
+            this.thread = new Thread(this, "ledger-shard-" + indice);
+            this.thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            List<OperacaoLedger> lote = new ArrayList<>(tamanhoLote);
+            while (ativo || !anel.vazio()) {
+                boolean ocioso = true;
+                OperacaoLedger operacao;
+                while (lote.size() < tamanhoLote && (operacao = anel.retirar()) != null) {
+                    ocioso = false;
+                    if (operacao.getTipo() == OperacaoLedger.Tipo.TRANSFERENCIA_ENTRE_SHARDS) {
+                        // Grava o que veio antes para preservar a ordem das operações do shard
+                        processar(indice, lote);
+                        lote.clear();
+                        transferirEntreShards(operacao);
+                    } else {
+                        lote.add(operacao);
+                    }
+                }
+
+                if (ocioso) {
+                    LockSupport.parkNanos(this, ESPERA_OCIOSA_NANOS);
+                    continue;
+                }
+
+                processar(indice, lote);
+                lote.clear();
+            }
+        }
+    }
+
+    private void processar(int shard, List<OperacaoLedger> lote) {
+        if (lote.isEmpty())
+            return;
+
+        try {
+            gravarLote(shard, lote);
+        } catch (RuntimeException e) {
+            // O commit do lote falhou: reaplica cada operação isoladamente para que só a problemática falhe
+            log.warn("Falha ao gravar lote de {} operações no ledger, reprocessando individualmente: {}",
+                    lote.size(), e.getMessage());
+            lote.forEach(operacao -> processarIsolada(shard, operacao));
+            return;
+        }
+        lote.forEach(OperacaoLedger::concluir);
+    }
+
+    private void processarIsolada(int shard, OperacaoLedger operacao) {
+        try {
+            politicaDeRetentativa.executar("ledger", () -> {
+                gravarLote(shard, List.of(operacao));
+                return operacao;
+            });
+        } catch (RuntimeException e) {
+            operacao.falha(e);
+        }
+        operacao.concluir();
+    }
+
+    // Assenta o lote no journal: confirma depois do commit, descarta se a transação falhar. Se os clientes já
+    // foram respondidos com base no journal, a falha não volta para eles: o lote é gravado a partir do journal.
+    private void gravarLote(int shard, List<OperacaoLedger> lote) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> aplicarLote(shard, lote));
+        } catch (RuntimeException e) {
+            if (!journal.respondido(shard)) {
+                journal.descartar(shard);
+                throw e;
+            }
+            log.warn("Commit do lote falhou depois da resposta pelo journal, gravando a partir dele: {}",
+                    e.getMessage());
+            journal.reaplicar(shard);
+            return;
+        }
+        journal.confirmar(shard);
+    }
+
+    private void aplicarLote(int shard, List<OperacaoLedger> lote) {
+        Set<Long> numeros = new HashSet<>();
+        for (OperacaoLedger operacao : lote) {
+            numeros.add(operacao.getNumero());
+            if (operacao.getNumeroDestino() != null)
+                numeros.add(operacao.getNumeroDestino());
+        }
+
+        // Uma única consulta IN carrega todas as contas do lote
+        Map<Long, Conta> contas = repository.findAllByNumeroInAndAtivoTrue(numeros)
+                .stream()
+                .collect(Collectors.toMap(Conta::getNumero, Function.identity()));
+
+        // Conjunto por identidade: o equals/hashCode do Lombok percorreria o cliente e suas contas
+        Set<Conta> alteradas = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Movimentacao> movimentacoes = new ArrayList<>(lote.size());
+        for (OperacaoLedger operacao : lote) {
+            try {
+                aplicar(operacao, contas, alteradas, movimentacoes);
+            } catch (RuntimeException e) {
+                operacao.falha(e);
+            }
+        }
+
+        // Write-ahead: o lote vai para o journal (com fsync) antes de qualquer escrita no banco
+        if (journal.ativo()) {
+            Map<Long, Long> versoes = new HashMap<>();
+            alteradas.forEach(conta -> versoes.put(conta.getNumero(), conta.getVersao()));
+            journal.gravar(shard, movimentacoes, versoes);
+            if (journal.confirmaNoJournal())
+                lote.forEach(OperacaoLedger::concluir);
+        }
+
+        diario.registrar(movimentacoes);
+        repository.saveAll(alteradas);
+    }
+
+    private void aplicar(OperacaoLedger operacao, Map<Long, Conta> contas, Set<Conta> alteradas,
+                         List<Movimentacao> movimentacoes) {
+        Conta conta = buscar(contas, operacao.getNumero());
+        if (operacao.getTipo() != OperacaoLedger.Tipo.DEPOSITO)
+            saldosFracionados.prepararDebito(conta, operacao.getValor());
+        Dinheiro saldoAnterior = conta.getSaldo();
+
+        switch (operacao.getTipo()) {
+            case SAQUE -> {
+                conta.sacar(operacao.getValor());
+                movimentacoes.add(Movimentacao.apos(conta, TipoMovimentacao.SAQUE, saldoAnterior));
+            }
+            case DEPOSITO -> {
+                conta.depositar(operacao.getValor());
+                movimentacoes.add(Movimentacao.apos(conta, TipoMovimentacao.DEPOSITO, saldoAnterior));
+            }
+            case TRANSFERENCIA -> {
+                Conta destino = buscar(contas, operacao.getNumeroDestino());
+                Dinheiro saldoAnteriorDestino = destino.getSaldo();
+                conta.transferir(destino, operacao.getValor());
+                movimentacoes.add(Movimentacao.apos(conta, TipoMovimentacao.TRANSFERENCIA_ENVIADA,
+                        saldoAnterior, destino.getNumero(), null));
+                movimentacoes.add(Movimentacao.apos(destino, TipoMovimentacao.TRANSFERENCIA_RECEBIDA,
+                        saldoAnteriorDestino, conta.getNumero(), null));
+                alteradas.add(destino);
+            }
+            default -> throw new IllegalStateException("Operação fora do lote: " + operacao.getTipo());
+        }
+
+        alteradas.add(conta);
+        operacao.sucesso(conta);
+    }
+
+    private void transferirEntreShards(OperacaoLedger operacao) {
+        try {
+            operacao.sucesso(transferenciaExecutor.transferir(
+                    operacao.getNumero(), operacao.getNumeroDestino(), operacao.getValor()));
+        } catch (RuntimeException e) {
+            operacao.falha(e);
+        }
+        operacao.concluir();
+    }
+
+    private Conta buscar(Map<Long, Conta> contas, Long numero) {
+        Conta conta = contas.get(numero);
+        if (conta == null)
+            throw new EntidadeNaoEncontradaException("conta");
+        return conta;
+    }
+}
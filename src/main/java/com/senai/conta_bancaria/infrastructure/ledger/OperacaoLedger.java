@@ -0,0 +1,52 @@
+package com.senai.conta_bancaria.infrastructure.ledger;
+
+import com.senai.conta_bancaria.domain.entity.Conta;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import lombok.Getter;
+
+import java.util.concurrent.CompletableFuture;
+
+@Getter
+class OperacaoLedger {
+    enum Tipo {
+        SAQUE,
+        DEPOSITO,
+        TRANSFERENCIA,              // origem e destino no mesmo shard
+        TRANSFERENCIA_ENTRE_SHARDS  // executada fora do lote, travando as duas contas em ordem
+    }
+
+    private final Tipo tipo;
+    private final Long numero;
+    private final Long numeroDestino;
+    private final Dinheiro valor;
+    private final CompletableFuture<Conta> resultado = new CompletableFuture<>();
+
+    private Conta conta;
+    private RuntimeException erro;
+
+    OperacaoLedger(Tipo tipo, Long numero, Long numeroDestino, Dinheiro valor) {
+        this.tipo = tipo;
+        this.numero = numero;
+        this.numeroDestino = numeroDestino;
+        this.valor = valor;
+    }
+
+    void sucesso(Conta conta) {
+        this.conta = conta;
+        this.erro = null;
+    }
+
+    void falha(RuntimeException erro) {
+        this.conta = null;
+        this.erro = erro;
+    }
+
+    // Só é chamado depois do commit (ou do fsync do journal, no modo JOURNAL), para que o cliente nunca veja um
+    // saldo não persistido
+    void concluir() {
+        if (erro != null)
+            resultado.completeExceptionally(erro);
+        else
+            resultado.complete(conta);
+    }
+}
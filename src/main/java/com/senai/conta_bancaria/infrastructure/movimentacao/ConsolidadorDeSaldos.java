@@ -0,0 +1,117 @@
+package com.senai.conta_bancaria.infrastructure.movimentacao;
+
+import com.senai.conta_bancaria.domain.entity.ConsolidacaoSaldos;
+import com.senai.conta_bancaria.domain.entity.Conta;
+import com.senai.conta_bancaria.domain.entity.SaldoConsolidado;
+import com.senai.conta_bancaria.domain.enums.StatusExecucao;
+import com.senai.conta_bancaria.domain.repository.ConsolidacaoSaldosRepository;
+import com.senai.conta_bancaria.domain.repository.ContaRepository;
+import com.senai.conta_bancaria.domain.repository.MovimentacaoRepository;
+import com.senai.conta_bancaria.domain.repository.SaldoConsolidadoRepository;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.infrastructure.coordenacao.CoordenacaoDeNos;
+import com.senai.conta_bancaria.infrastructure.coordenacao.CoordenacaoDeNos.Particao;
+import com.senai.conta_bancaria.infrastructure.coordenacao.CoordenacaoDeNos.Posse;
+import com.senai.conta_bancaria.infrastructure.saldo.SaldosFracionados;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+
+// Em segundo plano, grava periodicamente o saldo das contas que tiveram movimentação desde a última rodada.
+// Cada rodada cobre o intervalo (desde, ate], onde "ate" fica uma margem atrás do relógio para que transações
+// ainda abertas não fiquem de fora; o progresso é confirmado por bloco de contas, então uma rodada
+// interrompida é retomada na próxima execução. As contas são divididas em partições (numero % particoes), cada
+// uma com rodadas próprias, e os nós ativos repartem as partições entre si (CoordenacaoDeNos.porParticao).
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ConsolidadorDeSaldos {
+
+    private final ConsolidacaoSaldosRepository consolidacaoRepository;
+    private final SaldoConsolidadoRepository saldoConsolidadoRepository;
+    private final MovimentacaoRepository movimentacaoRepository;
+    private final HistoricoDeSaldos historicoDeSaldos;
+    private final ContaRepository contaRepository;
+    private final SaldosFracionados saldosFracionados;
+    private final TransactionTemplate transactionTemplate;
+    private final CoordenacaoDeNos coordenacao;
+
+    @Value("${conta.consolidacao.margem-segundos:60}")
+    private long margemSegundos;
+
+    @Value("${conta.consolidacao.tamanho-bloco:500}")
+    private int tamanhoBloco;
+
+    @Scheduled(
+            initialDelayString = "${conta.consolidacao.atraso-inicial-ms:60000}",
+            fixedDelayString = "${conta.consolidacao.intervalo-ms:3600000}")
+    public void consolidar() {
+        coordenacao.porParticao("consolidacao-saldos", this::consolidar);
+    }
+
+    private void consolidar(Particao particao, Posse posse) {
+        ConsolidacaoSaldos rodada = consolidacaoRepository
+                .findFirstByParticaoAndStatusOrderByAteDesc(particao.indice(), StatusExecucao.EM_ANDAMENTO)
+                .orElseGet(() -> novaRodada(particao.indice()));
+
+        long inicioNanos = System.nanoTime();
+        List<Long> numeros;
+        while (!(numeros = movimentacaoRepository.findContasMovimentadas(
+                rodada.getDesde(), rodada.getAte(), rodada.getUltimoNumero(),
+                particao.indice(), particao.total(), tamanhoBloco)).isEmpty()) {
+            List<Long> bloco = numeros;
+            Long rodadaId = rodada.getId();
+            LocalDateTime ate = rodada.getAte();
+
+            // As fotografias do bloco e o avanço da rodada são confirmados juntos
+            rodada = transactionTemplate.execute(status -> {
+                coordenacao.validar(posse);
+                // Saldo atual e diário lidos na mesma transação, então enxergam o mesmo estado
+                List<Conta> contas = contaRepository.findReadOnlyByNumeroIn(bloco);
+                Map<Long, Dinheiro> totais = saldosFracionados.totais(contas);
+                List<SaldoConsolidado> saldos = contas.stream()
+                        .map(conta -> SaldoConsolidado.builder()
+                                .numeroConta(conta.getNumero())
+                                .saldo(historicoDeSaldos
+                                        .saldoEm(conta.getNumero(), ate, totais.get(conta.getNumero()))
+                                        .saldo())
+                                .dataHora(ate)
+                                .build())
+                        .toList();
+                saldoConsolidadoRepository.saveAll(saldos);
+
+                ConsolidacaoSaldos atual = consolidacaoRepository.findById(rodadaId).orElseThrow();
+                atual.avancar(bloco.get(bloco.size() - 1), saldos.size());
+                return atual;
+            });
+        }
+
+        Long rodadaId = rodada.getId();
+        transactionTemplate.executeWithoutResult(status -> {
+            coordenacao.validar(posse);
+            consolidacaoRepository.findById(rodadaId).ifPresent(ConsolidacaoSaldos::concluir);
+        });
+
+        log.info("Saldos da partição {} consolidados em {}: {} contas em {} ms", particao.indice(), rodada.getAte(),
+                rodada.getContasConsolidadas(), (System.nanoTime() - inicioNanos) / 1_000_000);
+    }
+
+    private ConsolidacaoSaldos novaRodada(int particao) {
+        // A primeira rodada da partição cobre todo o diário até "ate"
+        LocalDateTime desde = consolidacaoRepository
+                .findFirstByParticaoAndStatusOrderByAteDesc(particao, StatusExecucao.CONCLUIDA)
+                .map(ConsolidacaoSaldos::getAte)
+                .orElse(HistoricoDeSaldos.INICIO);
+        LocalDateTime ate = LocalDateTime.now().minusSeconds(margemSegundos).truncatedTo(ChronoUnit.MICROS);
+
+        return consolidacaoRepository.save(ConsolidacaoSaldos.iniciar(particao, desde, ate));
+    }
+}
@@ -0,0 +1,46 @@
+package com.senai.conta_bancaria.infrastructure.movimentacao;
+
+import com.senai.conta_bancaria.domain.entity.Movimentacao;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Collection;
+import java.util.List;
+
+// Grava as movimentações na transação corrente com INSERT em lote via JDBC
+// (o id IDENTITY impediria o Hibernate de agrupar os inserts).
+@Component
+@RequiredArgsConstructor
+public class DiarioDeMovimentacoes {
+
+    private static final String INSERIR = """
+            INSERT INTO movimentacao (numero_conta, tipo, valor, saldo_apos, numero_contraparte, referencia, data_hora)
+            VALUES (?, ?, ?, ?, ?, ?, ?)""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void registrar(Movimentacao movimentacao) {
+        registrar(List.of(movimentacao));
+    }
+
+    public void registrar(Collection<Movimentacao> movimentacoes) {
+        if (movimentacoes.isEmpty())
+            return;
+
+        jdbcTemplate.batchUpdate(INSERIR, movimentacoes, movimentacoes.size(), (ps, movimentacao) -> {
+            ps.setLong(1, movimentacao.getNumeroConta());
+            ps.setString(2, movimentacao.getTipo().name());
+            ps.setBigDecimal(3, movimentacao.getValor().paraBigDecimal());
+            ps.setBigDecimal(4, movimentacao.getSaldoApos().paraBigDecimal());
+            if (movimentacao.getNumeroContraparte() != null)
+                ps.setLong(5, movimentacao.getNumeroContraparte());
+            else
+                ps.setNull(5, Types.BIGINT);
+            ps.setString(6, movimentacao.getReferencia());
+            ps.setTimestamp(7, Timestamp.valueOf(movimentacao.getDataHora()));
+        });
+    }
+}
@@ -0,0 +1,54 @@
+package com.senai.conta_bancaria.infrastructure.movimentacao;
+
+import com.senai.conta_bancaria.domain.entity.SaldoConsolidado;
+import com.senai.conta_bancaria.domain.enums.TipoMovimentacao;
+import com.senai.conta_bancaria.domain.repository.MovimentacaoRepository;
+import com.senai.conta_bancaria.domain.repository.SaldoConsolidadoRepository;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+// Reconstrói o saldo de uma conta num instante: parte do saldo consolidado mais próximo antes dele e
+// soma apenas as movimentações posteriores, então o custo cresce com as movimentações desde a consolidação.
+@Component
+@RequiredArgsConstructor
+public class HistoricoDeSaldos {
+
+    // Menor valor aceito por DATETIME no MySQL
+    static final LocalDateTime INICIO = LocalDateTime.of(1000, 1, 1, 0, 0);
+    static final LocalDateTime FIM = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    public record SaldoReconstruido(Dinheiro saldo, LocalDateTime consolidadoEm, long movimentacoesReaplicadas) {
+    }
+
+    private final SaldoConsolidadoRepository saldoConsolidadoRepository;
+    private final MovimentacaoRepository movimentacaoRepository;
+
+    // saldoAtual é o saldo total agora (linha conta mais fatias), lido na mesma transação que as movimentações
+    public SaldoReconstruido saldoEm(Long numero, LocalDateTime instante, Dinheiro saldoAtual) {
+        Optional<SaldoConsolidado> consolidado = saldoConsolidadoRepository
+                .findFirstByNumeroContaAndDataHoraLessThanEqualOrderByDataHoraDesc(numero, instante);
+
+        if (consolidado.isEmpty()) {
+            // Sem consolidação anterior: parte do saldo atual e desfaz as movimentações posteriores ao instante.
+            // Não depende do saldo após de nenhuma linha, que é aproximado nos créditos em fatias.
+            MovimentacaoRepository.VariacaoSaldo posterior = movimentacaoRepository
+                    .somarVariacao(numero, TipoMovimentacao.creditos(), instante, FIM);
+            return new SaldoReconstruido(
+                    saldoAtual.menos(Dinheiro.de(posterior.getTotal())),
+                    null,
+                    posterior.getQuantidade());
+        }
+
+        MovimentacaoRepository.VariacaoSaldo variacao = movimentacaoRepository
+                .somarVariacao(numero, TipoMovimentacao.creditos(), consolidado.get().getDataHora(), instante);
+
+        return new SaldoReconstruido(
+                consolidado.get().getSaldo().mais(Dinheiro.de(variacao.getTotal())),
+                consolidado.get().getDataHora(),
+                variacao.getQuantidade());
+    }
+}
@@ -0,0 +1,130 @@
+package com.senai.conta_bancaria.infrastructure.numeracao;
+
+import com.senai.conta_bancaria.domain.valueobject.NumeroConta;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Gerador hi/lo: cada nó reserva um bloco de sequenciais na tabela sequencia_numero e os distribui da memória,
+// então só há ida ao banco a cada "tamanho-bloco" contas. Números de um bloco não usado (ex.: reinício do nó)
+// são descartados, nunca reaproveitados.
+// O bloco seguinte é reservado antes da hora, numa thread própria (sem transação nem conexão de quem pediu o
+// número), quando o atual chega ao último quinto; assim o cadastro, que roda dentro da sua transação, não abre
+// uma segunda transação nem espera por conexão enquanto segura a dele.
+@Component
+@Slf4j
+public class GeradorNumeroConta {
+
+    private static final String SEQUENCIA = "conta";
+
+    // O primeiro bloco começa depois do maior número já existente (números antigos vinham do cliente)
+    private static final String CRIAR_SEQUENCIA = """
+            INSERT IGNORE INTO sequencia_numero (nome, proximo_bloco)
+            SELECT ?, COALESCE(MAX(numero), 0) DIV (10 * ?) + 1 FROM conta""";
+    private static final String TRAVAR_SEQUENCIA =
+            "SELECT proximo_bloco FROM sequencia_numero WHERE nome = ? FOR UPDATE";
+    private static final String AVANCAR_SEQUENCIA =
+            "UPDATE sequencia_numero SET proximo_bloco = proximo_bloco + 1 WHERE nome = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate novaTransacao;
+    private final long tamanhoBloco;
+    private final ReentrantLock trava = new ReentrantLock();
+    private final ExecutorService reservas =
+            Executors.newSingleThreadExecutor(Thread.ofPlatform().daemon().name("numeracao-reserva").factory());
+
+    // Protegidos pela trava
+    private long proximo;
+    private long limite; // exclusivo; proximo == limite indica bloco esgotado
+    private CompletableFuture<Long> seguinte; // bloco reservado (ou em reserva) para quando o atual acabar
+
+    public GeradorNumeroConta(JdbcTemplate jdbcTemplate,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${conta.numeracao.tamanho-bloco:1000}") long tamanhoBloco) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.tamanhoBloco = tamanhoBloco;
+
+        // A reserva do bloco é confirmada mesmo que a transação de quem pediu o número seja desfeita
+        this.novaTransacao = new TransactionTemplate(transactionManager);
+        this.novaTransacao.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    // O primeiro bloco já fica pronto na subida, antes do primeiro cadastro
+    @EventListener(ApplicationReadyEvent.class)
+    public void aquecer() {
+        trava.lock();
+        try {
+            antecipar();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    @PreDestroy
+    void encerrar() {
+        reservas.shutdownNow();
+    }
+
+    // Lock explícito em vez de synchronized: a espera pelo bloco seguinte é I/O e, com threads virtuais,
+    // um monitor prenderia a thread portadora durante a espera
+    public long proximo() {
+        trava.lock();
+        try {
+            if (proximo == limite)
+                usar(proximoBloco());
+            if (limite - proximo <= Math.max(tamanhoBloco / 5, 1))
+                antecipar();
+            return NumeroConta.comDigito(proximo++);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private void antecipar() {
+        if (seguinte == null)
+            seguinte = CompletableFuture.supplyAsync(this::reservarBloco, reservas);
+    }
+
+    // Normalmente já está pronto. Só se a reserva antecipada falhou o bloco é reservado aqui, na thread de quem
+    // pediu o número
+    private long proximoBloco() {
+        CompletableFuture<Long> reserva = seguinte;
+        seguinte = null;
+        if (reserva != null) {
+            try {
+                return reserva.join();
+            } catch (CompletionException e) {
+                log.warn("Reserva antecipada de números de conta falhou, reservando agora: {}", e.getMessage());
+            }
+        }
+        return reservarBloco();
+    }
+
+    private void usar(long bloco) {
+        proximo = bloco * tamanhoBloco;
+        limite = proximo + tamanhoBloco;
+        log.debug("Bloco {} de números de conta em uso ({} a {})", bloco, proximo, limite - 1);
+    }
+
+    private long reservarBloco() {
+        return novaTransacao.execute(status -> {
+            jdbcTemplate.update(CRIAR_SEQUENCIA, SEQUENCIA, tamanhoBloco);
+            Long atual = jdbcTemplate.queryForObject(TRAVAR_SEQUENCIA, Long.class, SEQUENCIA);
+            jdbcTemplate.update(AVANCAR_SEQUENCIA, SEQUENCIA);
+            return atual;
+        });
+    }
+}
@@ -0,0 +1,137 @@
+package com.senai.conta_bancaria.infrastructure.persistencia;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Limita quantas conexões podem estar em uso ao mesmo tempo com um semáforo justo.
+// Com threads virtuais não há mais o teto natural do pool do Tomcat: milhares de requisições disputariam as
+// poucas conexões do Hikari e estourariam o connection-timeout. Aqui elas esperam em fila (FIFO) pela permissão,
+// que só é devolvida quando a conexão é fechada, ou seja, ao fim da seção que usa o banco.
+// Regra para transações aninhadas (REQUIRES_NEW dentro de outra, como em GeradorNumeroConta, CatalogoDeTaxas e
+// CoordenacaoDeNos): a thread que já tem uma permissão abre a segunda conexão sem esperar por outra, senão N
+// threads com N permissões esperariam umas pelas outras até o timeout. Por isso o limite fica abaixo do pool do Hikari
+// (ThreadsVirtuaisConfig): as conexões que sobram atendem essas aberturas aninhadas.
+public class DataSourceLimitado extends DelegatingDataSource {
+
+    // Conexões com permissão abertas pela thread; o contador é capturado na abertura, então um close() em outra
+    // thread ainda desconta da thread certa
+    private final ThreadLocal<AtomicInteger> abertasNaThread = ThreadLocal.withInitial(AtomicInteger::new);
+    private final Semaphore permissoes;
+    private final long esperaMaximaMs;
+    private final Timer espera;
+
+    public DataSourceLimitado(DataSource alvo, int limite, long esperaMaximaMs, MeterRegistry meterRegistry) {
+        super(alvo);
+        this.permissoes = new Semaphore(limite, true);
+        this.esperaMaximaMs = esperaMaximaMs;
+        this.espera = Timer.builder("conta.jdbc.espera")
+                .description("Tempo de espera por uma permissão de conexão")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+        Gauge.builder("conta.jdbc.fila", permissoes, Semaphore::getQueueLength)
+                .description("Threads aguardando uma permissão de conexão")
+                .register(meterRegistry);
+        Gauge.builder("conta.jdbc.em-uso", permissoes, s -> limite - s.availablePermits())
+                .description("Permissões de conexão em uso")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return limitar(super::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String usuario, String senha) throws SQLException {
+        return limitar(() -> super.getConnection(usuario, senha));
+    }
+
+    private interface Abertura {
+        Connection abrir() throws SQLException;
+    }
+
+    private Connection limitar(Abertura abertura) throws SQLException {
+        AtomicInteger abertas = abertasNaThread.get();
+        boolean aninhada = abertas.get() > 0;
+        if (!aninhada)
+            adquirir();
+        abertas.incrementAndGet();
+        try {
+            return liberarAoFechar(abertura.abrir(), abertas, aninhada);
+        } catch (SQLException | RuntimeException e) {
+            devolver(abertas, aninhada);
+            throw e;
+        }
+    }
+
+    private void devolver(AtomicInteger abertas, boolean aninhada) {
+        abertas.decrementAndGet();
+        if (!aninhada)
+            permissoes.release();
+    }
+
+    private void adquirir() throws SQLException {
+        long inicio = System.nanoTime();
+        boolean adquirida;
+        try {
+            adquirida = permissoes.tryAcquire(esperaMaximaMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrompido aguardando uma conexão", e);
+        } finally {
+            espera.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+        }
+
+        // Mesmo tipo de exceção do Hikari ao esgotar o connection-timeout
+        if (!adquirida)
+            throw new SQLTransientConnectionException(
+                    "Nenhuma conexão disponível após " + esperaMaximaMs + " ms");
+    }
+
+    // A permissão é devolvida uma única vez, mesmo que close() seja chamado de novo. equals, hashCode, unwrap e
+    // isWrapperFor respondem pelo proxy: repassados, a conexão não seria igual a si mesma e unwrap(Connection)
+    // devolveria a conexão crua, cujo close() não devolve a permissão.
+    private Connection liberarAoFechar(Connection conexao, AtomicInteger abertas, boolean aninhada) {
+        AtomicBoolean liberada = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, metodo, argumentos) -> switch (metodo.getName()) {
+                    case "equals" -> proxy == argumentos[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "unwrap" -> ((Class<?>) argumentos[0]).isInstance(proxy)
+                            ? proxy
+                            : conexao.unwrap((Class<?>) argumentos[0]);
+                    case "isWrapperFor" -> ((Class<?>) argumentos[0]).isInstance(proxy)
+                            || conexao.isWrapperFor((Class<?>) argumentos[0]);
+                    case "close" -> {
+                        if (liberada.compareAndSet(false, true)) {
+                            try {
+                                conexao.close();
+                            } finally {
+                                devolver(abertas, aninhada);
+                            }
+                        }
+                        yield null;
+                    }
+                    default -> {
+                        try {
+                            yield metodo.invoke(conexao, argumentos);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        }
+                    }
+                });
+    }
+}
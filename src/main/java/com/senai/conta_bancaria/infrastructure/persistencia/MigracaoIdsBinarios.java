@@ -0,0 +1,121 @@
+package com.senai.conta_bancaria.infrastructure.persistencia;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Converte bases antigas (ids UUID em varchar) para binary(16). O ddl-auto=update não altera o tipo de colunas
+// existentes, então a conversão é feita aqui, no lugar: varbinary -> UUID_TO_BIN -> binary(16), preservando PKs e
+// índices. Cada passo é idempotente; uma execução interrompida é retomada na próxima inicialização.
+// Roda direto sobre o DataSource, antes do EntityManagerFactory (MigracaoConfig): o ddl-auto, o Tomcat e as
+// threads do ledger, do despachante e da replicação só começam com as colunas já convertidas.
+@Component
+@Slf4j
+public class MigracaoIdsBinarios {
+
+    private record Coluna(String tabela, String nome) {
+    }
+
+    private record ChaveEstrangeira(String tabela, String nome, String coluna, String tabelaReferenciada) {
+    }
+
+    private static final List<Coluna> COLUNAS = List.of(
+            new Coluna("conta", "id"),
+            new Coluna("pagamento", "id"),
+            new Coluna("pagamento", "conta_id"),
+            new Coluna("pagamento_taxa", "pagamento_id"),
+            new Coluna("codigo_autenticacao", "id"));
+
+    // O MySQL não permite mudar o tipo de uma coluna envolvida em FK; elas são recriadas ao final. Além destas,
+    // qualquer outra FK encontrada no banco apontando para conta.id ou pagamento.id também é refeita.
+    private static final List<ChaveEstrangeira> CHAVES = List.of(
+            new ChaveEstrangeira("pagamento", "fk_pagamento_conta", "conta_id", "conta"),
+            new ChaveEstrangeira("pagamento_taxa", "fk_pagamento_taxa_pagamento", "pagamento_id", "pagamento"),
+            new ChaveEstrangeira("pagamento_agendado", "fk_agendamento_conta", "conta_id", "conta"));
+
+    // queryForList com tipo simples exige exatamente uma coluna no resultado
+    private static final String TIPO_DADO = """
+            SELECT data_type FROM information_schema.columns
+            WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?""";
+    private static final String TIPO_COLUNA = """
+            SELECT data_type, is_nullable FROM information_schema.columns
+            WHERE table_schema = DATABASE() AND table_name = ? AND column_name = ?""";
+    private static final String EXISTE_CHAVE = """
+            SELECT COUNT(*) FROM information_schema.table_constraints
+            WHERE table_schema = DATABASE() AND table_name = ? AND constraint_name = ?
+              AND constraint_type = 'FOREIGN KEY'""";
+    private static final String CHAVES_REFERENCIANDO = """
+            SELECT table_name, constraint_name, column_name, referenced_table_name
+            FROM information_schema.key_column_usage
+            WHERE table_schema = DATABASE() AND referenced_table_name IN ('conta', 'pagamento')
+              AND referenced_column_name = 'id'""";
+    private static final String EXISTE_TABELA = """
+            SELECT COUNT(*) FROM information_schema.tables WHERE table_schema = DATABASE() AND table_name = ?""";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public MigracaoIdsBinarios(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @PostConstruct
+    void migrar() {
+        List<Coluna> pendentes = COLUNAS.stream().filter(this::emTexto).toList();
+        if (pendentes.isEmpty())
+            return;
+
+        log.info("Convertendo ids para binary(16): {}", pendentes);
+        // Por nome: as conhecidas e as que o banco tiver (inclusive com nomes gerados pelo Hibernate)
+        Map<String, ChaveEstrangeira> chaves = new LinkedHashMap<>();
+        CHAVES.stream().filter(chave -> existeTabela(chave.tabela())).forEach(chave -> chaves.put(chave.nome(), chave));
+        jdbcTemplate.query(CHAVES_REFERENCIANDO, (rs, linha) -> new ChaveEstrangeira(rs.getString(1),
+                        rs.getString(2), rs.getString(3), rs.getString(4)))
+                .forEach(chave -> chaves.putIfAbsent(chave.nome(), chave));
+
+        for (ChaveEstrangeira chave : chaves.values())
+            if (existe(chave))
+                jdbcTemplate.execute("ALTER TABLE " + chave.tabela() + " DROP FOREIGN KEY " + chave.nome());
+
+        for (Coluna coluna : pendentes)
+            converter(coluna);
+
+        for (ChaveEstrangeira chave : chaves.values())
+            if (!existe(chave))
+                jdbcTemplate.execute("ALTER TABLE " + chave.tabela() + " ADD CONSTRAINT " + chave.nome()
+                        + " FOREIGN KEY (" + chave.coluna() + ") REFERENCES " + chave.tabelaReferenciada() + " (id)");
+        log.info("Conversão de ids concluída");
+    }
+
+    private boolean emTexto(Coluna coluna) {
+        return jdbcTemplate.queryForList(TIPO_DADO, String.class, coluna.tabela(), coluna.nome()).stream()
+                .anyMatch(tipo -> !tipo.equalsIgnoreCase("binary")); // varbinary = conversão interrompida
+    }
+
+    private void converter(Coluna coluna) {
+        Map<String, Object> tipo = jdbcTemplate.queryForMap(TIPO_COLUNA, coluna.tabela(), coluna.nome());
+        String nulidade = "NO".equals(tipo.get("is_nullable")) ? " NOT NULL" : " NULL";
+        String alterar = "ALTER TABLE " + coluna.tabela() + " MODIFY " + coluna.nome();
+
+        jdbcTemplate.execute(alterar + " varbinary(36)" + nulidade);
+        // Valores com 36 bytes ainda estão no formato textual; os de 16 já foram convertidos
+        jdbcTemplate.update("UPDATE " + coluna.tabela() + " SET " + coluna.nome() + " = UUID_TO_BIN("
+                + coluna.nome() + ") WHERE LENGTH(" + coluna.nome() + ") = 36");
+        jdbcTemplate.execute(alterar + " binary(16)" + nulidade);
+    }
+
+    private boolean existe(ChaveEstrangeira chave) {
+        Integer total = jdbcTemplate.queryForObject(EXISTE_CHAVE, Integer.class, chave.tabela(), chave.nome());
+        return total != null && total > 0;
+    }
+
+    private boolean existeTabela(String tabela) {
+        Integer total = jdbcTemplate.queryForObject(EXISTE_TABELA, Integer.class, tabela);
+        return total != null && total > 0;
+    }
+}
@@ -0,0 +1,82 @@
+package com.senai.conta_bancaria.infrastructure.persistencia;
+
+import com.senai.conta_bancaria.domain.entity.Pagamento;
+import com.senai.conta_bancaria.domain.repository.PagamentoConsulta;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.jpa.HibernateHints;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+// Monta o JPQL só com os filtros informados, para o MySQL escolher o índice certo (conta ou status, ambos
+// seguidos de data_pagamento) em vez de avaliar "(:x is null or ...)" linha a linha. São sempre duas consultas:
+// a página com a conta (muitos-para-um, sem multiplicar linhas, então o LIMIT vai para o banco) e as taxas
+// de todos os pagamentos da página de uma vez.
+public class PagamentoConsultaImpl implements PagamentoConsulta {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Pagamento> buscar(Filtro filtro, LocalDateTime antesDeData, UUID antesDeId, int limite) {
+        StringBuilder jpql = new StringBuilder("select p from Pagamento p join fetch p.conta where 1 = 1");
+        Map<String, Object> parametros = new HashMap<>();
+
+        if (filtro.contaId() != null) {
+            jpql.append(" and p.conta.id = :contaId");
+            parametros.put("contaId", filtro.contaId());
+        }
+        if (filtro.clienteId() != null) {
+            jpql.append(" and p.conta.cliente.id = :clienteId");
+            parametros.put("clienteId", filtro.clienteId());
+        }
+        if (filtro.status() != null) {
+            jpql.append(" and p.status = :status");
+            parametros.put("status", filtro.status());
+        }
+        if (filtro.desde() != null) {
+            jpql.append(" and p.dataPagamento >= :desde");
+            parametros.put("desde", filtro.desde());
+        }
+        if (filtro.ate() != null) {
+            jpql.append(" and p.dataPagamento < :ate");
+            parametros.put("ate", filtro.ate());
+        }
+        if (filtro.valorMinimo() != null) {
+            jpql.append(" and p.valorPago >= :valorMinimo");
+            parametros.put("valorMinimo", filtro.valorMinimo());
+        }
+        if (filtro.valorMaximo() != null) {
+            jpql.append(" and p.valorPago <= :valorMaximo");
+            parametros.put("valorMaximo", filtro.valorMaximo());
+        }
+        if (antesDeData != null) {
+            jpql.append(" and (p.dataPagamento < :antesDeData")
+                    .append(" or (p.dataPagamento = :antesDeData and p.id < :antesDeId))");
+            parametros.put("antesDeData", antesDeData);
+            parametros.put("antesDeId", antesDeId);
+        }
+        jpql.append(" order by p.dataPagamento desc, p.id desc");
+
+        TypedQuery<Pagamento> consulta = entityManager.createQuery(jpql.toString(), Pagamento.class)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .setMaxResults(limite);
+        parametros.forEach(consulta::setParameter);
+        List<Pagamento> pagina = consulta.getResultList();
+
+        // Inicializa as coleções dos pagamentos já gerenciados acima
+        if (!pagina.isEmpty())
+            entityManager.createQuery("select p from Pagamento p left join fetch p.taxas where p in :pagina",
+                            Pagamento.class)
+                    .setHint(HibernateHints.HINT_READ_ONLY, true)
+                    .setParameter("pagina", pagina)
+                    .getResultList();
+
+        return pagina;
+    }
+}
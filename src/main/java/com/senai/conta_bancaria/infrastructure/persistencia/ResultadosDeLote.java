@@ -0,0 +1,22 @@
+package com.senai.conta_bancaria.infrastructure.persistencia;
+
+// O batchUpdate com tamanho de lote devolve um array por lote enviado. Os índices aqui são os da lista original,
+// contando através de todos os lotes.
+public final class ResultadosDeLote {
+
+    private ResultadosDeLote() {
+    }
+
+    // Índice do primeiro item que não alterou nenhuma linha, ou -1 se todos alteraram
+    public static int primeiroSemEfeito(int[][] resultados) {
+        int indice = 0;
+        for (int[] lote : resultados) {
+            for (int linhas : lote) {
+                if (linhas == 0)
+                    return indice;
+                indice++;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,98 @@
+package com.senai.conta_bancaria.infrastructure.remessa;
+
+import com.senai.conta_bancaria.domain.exception.RemessaMuitoGrandeException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.UUID;
+
+// Arquivos de remessa (entrada) e de retorno (uma linha por linha de pagamento) no disco local. Tudo é forçado
+// para o disco antes do commit que aponta para ele, então o ponto de retomada nunca fica à frente dos arquivos.
+@Component
+public class ArquivosDeRemessa {
+
+    public static final String CABECALHO_RETORNO = "linha;status;pagamentoId;valorTotal;mensagem\n";
+
+    private final Path diretorio;
+    private final long tamanhoMaximo;
+
+    public ArquivosDeRemessa(@Value("${conta.remessa.diretorio:remessas}") String diretorio,
+                             @Value("${conta.remessa.tamanho-maximo-mb:200}") long tamanhoMaximoMb) throws IOException {
+        this.diretorio = Files.createDirectories(Path.of(diretorio));
+        this.tamanhoMaximo = tamanhoMaximoMb * 1024 * 1024;
+    }
+
+    // Recusa pelo Content-Length antes de gravar qualquer byte; -1 (não informado) fica para a contagem em receber
+    public void verificarTamanho(long declarado) {
+        if (declarado > tamanhoMaximo)
+            throw new RemessaMuitoGrandeException(tamanhoMaximo / (1024 * 1024));
+    }
+
+    public Path entrada(UUID id) {
+        return diretorio.resolve(id + ".remessa");
+    }
+
+    public Path retorno(UUID id) {
+        return diretorio.resolve(id + ".retorno");
+    }
+
+    // Copia o corpo da requisição em blocos, sem segurá-lo em memória, e cria o retorno só com o cabeçalho.
+    // Devolve o tamanho do retorno.
+    public long receber(UUID id, InputStream corpo) throws IOException {
+        Path temporario = diretorio.resolve(id + ".recebendo");
+        try (ReadableByteChannel origem = Channels.newChannel(corpo);
+             FileChannel destino = FileChannel.open(temporario,
+                     StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer bloco = ByteBuffer.allocate(64 * 1024);
+            long total = 0;
+            int lidos;
+            while ((lidos = origem.read(bloco)) != -1) {
+                total += lidos;
+                if (total > tamanhoMaximo)
+                    throw new RemessaMuitoGrandeException(tamanhoMaximo / (1024 * 1024));
+                bloco.flip();
+                while (bloco.hasRemaining())
+                    destino.write(bloco);
+                bloco.clear();
+            }
+            destino.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporario);
+            throw e;
+        }
+        Files.move(temporario, entrada(id), StandardCopyOption.ATOMIC_MOVE);
+
+        return escreverRetorno(id, 0, List.of(CABECALHO_RETORNO));
+    }
+
+    // Grava as linhas a partir da posição confirmada, descartando o que uma tentativa anterior deixou depois
+    // dela, e devolve a nova posição
+    public long escreverRetorno(UUID id, long posicao, List<String> linhas) throws IOException {
+        try (FileChannel canal = FileChannel.open(retorno(id), StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+            canal.truncate(posicao);
+            canal.position(posicao);
+            ByteBuffer conteudo = StandardCharsets.UTF_8.encode(String.join("", linhas));
+            while (conteudo.hasRemaining())
+                canal.write(conteudo);
+            canal.force(false);
+            return canal.position();
+        }
+    }
+
+    public void remover(UUID id) throws IOException {
+        Files.deleteIfExists(entrada(id));
+        Files.deleteIfExists(retorno(id));
+    }
+}
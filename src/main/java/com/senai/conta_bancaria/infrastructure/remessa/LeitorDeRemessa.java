@@ -0,0 +1,205 @@
+package com.senai.conta_bancaria.infrastructure.remessa;
+
+import com.senai.conta_bancaria.domain.enums.FormatoRemessa;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+// Lê o arquivo de remessa linha a linha, sem carregá-lo inteiro, contando a posição em bytes e o número da
+// linha para que a leitura possa ser retomada exatamente após o último bloco confirmado.
+//
+// CSV (separado por ";"; cabeçalho opcional começando por "contaId"):
+//   contaId;boleto;valor;taxasIds separados por vírgula;observacao
+// POSICIONAL (colunas de largura fixa, numeradas a partir de 1):
+//   1-36 contaId | 37-84 boleto | 85-99 valor em centavos, com zeros à esquerda |
+//   100-207 até 3 ids de taxa de 36 posições, em branco quando não usados | 208 em diante observação
+// Em ambos, linhas em branco e começando por "#" são ignoradas.
+public final class LeitorDeRemessa implements Closeable {
+
+    private static final int TAMANHO_MAXIMO_LINHA = 4096;
+    private static final int TAMANHO_MINIMO_POSICIONAL = 99;
+    private static final int TAXAS_POSICIONAL = 3;
+    private static final int TAMANHO_ID = 36;
+    private static final Pattern UUID_TEXTO =
+            Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+    private static final BigDecimal VALOR_MINIMO = new BigDecimal("0.01");
+
+    private final InputStream entrada;
+    private final FormatoRemessa formato;
+    private final byte[] buffer = new byte[64 * 1024];
+    private final byte[] linha = new byte[TAMANHO_MAXIMO_LINHA];
+    private int inicio;
+    private int fim;
+    private boolean truncada;
+    private long posicao;
+    private long ultimaLinha;
+
+    private LeitorDeRemessa(InputStream entrada, FormatoRemessa formato, long posicao, long ultimaLinha) {
+        this.entrada = entrada;
+        this.formato = formato;
+        this.posicao = posicao;
+        this.ultimaLinha = ultimaLinha;
+    }
+
+    public static LeitorDeRemessa abrir(Path arquivo, FormatoRemessa formato, long posicao, long ultimaLinha)
+            throws IOException {
+        FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+        canal.position(posicao);
+        return new LeitorDeRemessa(Channels.newInputStream(canal), formato, posicao, ultimaLinha);
+    }
+
+    // Até "maximo" linhas de pagamento; lista vazia no fim do arquivo
+    public List<LinhaRemessa> proximas(int maximo) throws IOException {
+        List<LinhaRemessa> linhas = new ArrayList<>(maximo);
+        String texto;
+        while (linhas.size() < maximo && (texto = lerLinha()) != null) {
+            if (truncada) {
+                linhas.add(LinhaRemessa.invalida(ultimaLinha, "Linha com mais de " + TAMANHO_MAXIMO_LINHA + " bytes"));
+                continue;
+            }
+            if (texto.isBlank() || texto.startsWith("#") || cabecalho(texto))
+                continue;
+            linhas.add(formato == FormatoRemessa.CSV ? csv(texto) : posicional(texto));
+        }
+        return linhas;
+    }
+
+    // Posição em bytes logo após a última linha lida
+    public long posicao() {
+        return posicao;
+    }
+
+    public long ultimaLinha() {
+        return ultimaLinha;
+    }
+
+    @Override
+    public void close() throws IOException {
+        entrada.close();
+    }
+
+    private String lerLinha() throws IOException {
+        int tamanho = 0;
+        boolean leuAlgo = false;
+        truncada = false;
+        while (true) {
+            if (inicio == fim) {
+                fim = entrada.read(buffer);
+                inicio = 0;
+                if (fim <= 0) {
+                    fim = 0;
+                    if (!leuAlgo)
+                        return null;
+                    break;
+                }
+            }
+            byte b = buffer[inicio++];
+            posicao++;
+            leuAlgo = true;
+            if (b == '\n')
+                break;
+            if (tamanho < linha.length)
+                linha[tamanho++] = b;
+            else
+                truncada = true;
+        }
+
+        ultimaLinha++;
+        if (tamanho > 0 && linha[tamanho - 1] == '\r')
+            tamanho--;
+        return new String(linha, 0, tamanho, StandardCharsets.UTF_8);
+    }
+
+    private boolean cabecalho(String texto) {
+        return formato == FormatoRemessa.CSV && texto.regionMatches(true, 0, "contaId", 0, 7);
+    }
+
+    private LinhaRemessa csv(String texto) {
+        String[] campos = texto.split(";", -1);
+        if (campos.length < 3)
+            return LinhaRemessa.invalida(ultimaLinha, "Esperados ao menos 3 campos: contaId;boleto;valor");
+
+        BigDecimal valor;
+        try {
+            valor = new BigDecimal(campos[2].trim());
+        } catch (NumberFormatException e) {
+            return LinhaRemessa.invalida(ultimaLinha, "Valor inválido: " + campos[2].trim());
+        }
+
+        Set<String> taxas = new LinkedHashSet<>();
+        if (campos.length > 3)
+            Arrays.stream(campos[3].split(","))
+                    .map(String::trim)
+                    .filter(id -> !id.isEmpty())
+                    .forEach(taxas::add);
+
+        // Um ";" dentro da observação não separa mais nada
+        String observacao = campos.length > 4
+                ? String.join(";", Arrays.copyOfRange(campos, 4, campos.length)).trim()
+                : null;
+
+        return validar(campos[0].trim(), campos[1].trim(), valor, taxas, observacao);
+    }
+
+    private LinhaRemessa posicional(String texto) {
+        if (texto.length() < TAMANHO_MINIMO_POSICIONAL)
+            return LinhaRemessa.invalida(ultimaLinha,
+                    "Linha posicional com menos de " + TAMANHO_MINIMO_POSICIONAL + " posições");
+
+        String centavos = texto.substring(84, 99);
+        if (!centavos.chars().allMatch(Character::isDigit))
+            return LinhaRemessa.invalida(ultimaLinha, "Valor inválido nas posições 85-99: " + centavos);
+
+        Set<String> taxas = new LinkedHashSet<>();
+        for (int i = 0; i < TAXAS_POSICIONAL; i++) {
+            int de = 99 + i * TAMANHO_ID;
+            if (texto.length() <= de)
+                break;
+            String id = texto.substring(de, Math.min(de + TAMANHO_ID, texto.length())).trim();
+            if (!id.isEmpty())
+                taxas.add(id);
+        }
+
+        int inicioObservacao = 99 + TAXAS_POSICIONAL * TAMANHO_ID;
+        String observacao = texto.length() > inicioObservacao ? texto.substring(inicioObservacao).trim() : null;
+
+        return validar(texto.substring(0, 36).trim(), texto.substring(36, 84).trim(),
+                new BigDecimal(centavos).movePointLeft(2), taxas, observacao);
+    }
+
+    // As mesmas regras do PagamentoDto
+    private LinhaRemessa validar(String contaId, String boleto, BigDecimal valor, Set<String> taxas,
+                                 String observacao) {
+        if (!UUID_TEXTO.matcher(contaId).matches())
+            return LinhaRemessa.invalida(ultimaLinha, "O ID da conta deve ser um UUID");
+        if (boleto.isEmpty() || boleto.length() > 120)
+            return LinhaRemessa.invalida(ultimaLinha, "O código do boleto deve ter de 1 a 120 caracteres");
+        if (valor.compareTo(VALOR_MINIMO) < 0)
+            return LinhaRemessa.invalida(ultimaLinha, "O valor deve ser maior que zero");
+        // Como o @Digits(integer = 15, fraction = 2), que ignora os zeros à direita: "10.500" vale, "10.005" não
+        BigDecimal normalizado = valor.stripTrailingZeros();
+        if (normalizado.scale() > 2)
+            return LinhaRemessa.invalida(ultimaLinha, "O valor deve ter no máximo duas casas decimais");
+        if (normalizado.precision() - normalizado.scale() > 15)
+            return LinhaRemessa.invalida(ultimaLinha, "O valor deve ter no máximo 15 dígitos inteiros");
+        if (observacao != null && observacao.length() > 500)
+            return LinhaRemessa.invalida(ultimaLinha, "A observação deve ter no máximo 500 caracteres");
+
+        return new LinhaRemessa(ultimaLinha, UUID.fromString(contaId), boleto, valor, taxas,
+                observacao == null || observacao.isEmpty() ? null : observacao, null);
+    }
+}
@@ -0,0 +1,24 @@
+package com.senai.conta_bancaria.infrastructure.remessa;
+
+import java.math.BigDecimal;
+import java.util.Set;
+import java.util.UUID;
+
+// Uma linha de pagamento do arquivo de remessa; com "erro" preenchido, a linha não pôde ser interpretada
+public record LinhaRemessa(
+        long numero,
+        UUID contaId,
+        String boleto,
+        BigDecimal valor,
+        Set<String> taxasIds,
+        String observacao,
+        String erro
+) {
+    static LinhaRemessa invalida(long numero, String erro) {
+        return new LinhaRemessa(numero, null, null, null, Set.of(), null, erro);
+    }
+
+    public boolean valida() {
+        return erro == null;
+    }
+}
@@ -0,0 +1,60 @@
+package com.senai.conta_bancaria.infrastructure.replicacao;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+
+// Desafio e resposta antes do primeiro quadro: o líder manda 32 bytes aleatórios e o seguidor devolve o
+// HMAC-SHA256 deles com o segredo compartilhado. O segredo nunca passa pela rede e uma resposta gravada não serve
+// para outra conexão. Não cifra o fluxo: fora da máquina, o endereço precisa estar numa rede privada.
+final class AutenticacaoReplicacao {
+
+    private static final int TAMANHO_DESAFIO = 32;
+    private static final String ALGORITMO = "HmacSHA256";
+    private static final SecureRandom ALEATORIO = new SecureRandom();
+
+    private AutenticacaoReplicacao() {
+    }
+
+    // Lado do líder: false se a resposta não confere
+    static boolean desafiar(DataInputStream entrada, DataOutputStream saida, String segredo) throws IOException {
+        byte[] desafio = new byte[TAMANHO_DESAFIO];
+        ALEATORIO.nextBytes(desafio);
+        saida.write(desafio);
+        saida.flush();
+
+        byte[] resposta = new byte[TAMANHO_DESAFIO];
+        entrada.readFully(resposta);
+        return MessageDigest.isEqual(resposta, assinar(segredo, desafio));
+    }
+
+    // Lado do seguidor
+    static void responder(DataInputStream entrada, DataOutputStream saida, String segredo) throws IOException {
+        byte[] desafio = new byte[TAMANHO_DESAFIO];
+        entrada.readFully(desafio);
+        saida.write(assinar(segredo, desafio));
+        saida.flush();
+    }
+
+    static String exigir(String segredo) {
+        if (segredo == null || segredo.isBlank())
+            throw new IllegalStateException("conta.replicacao.segredo é obrigatório com a replicação ligada");
+        return segredo;
+    }
+
+    private static byte[] assinar(String segredo, byte[] desafio) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITMO);
+            mac.init(new SecretKeySpec(segredo.getBytes(StandardCharsets.UTF_8), ALGORITMO));
+            return mac.doFinal(desafio);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC indisponível para a replicação", e);
+        }
+    }
+}
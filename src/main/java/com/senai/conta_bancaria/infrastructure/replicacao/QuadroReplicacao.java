@@ -0,0 +1,91 @@
+package com.senai.conta_bancaria.infrastructure.replicacao;
+
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.domain.valueobject.ResumoConta;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.UUID;
+
+// Enquadramento binário do fluxo de replicação:
+//   comprimento(int) tipo(byte) sequencia(long) conteudo(comprimento - 9 bytes)
+// A sequência começa em 1 a cada conexão e cresce de um em um; o seguidor descarta a conexão ao ver um salto.
+record QuadroReplicacao(byte tipo, long sequencia, byte[] conteudo) {
+
+    static final byte CONTA = 1;              // numero(8) tipo(1: 0 corrente, 1 poupança) saldo em centavos(8)
+    static final byte CONTA_REMOVIDA = 2;     // numero(8)
+    static final byte PAGAMENTO = 3;          // id(16) PagamentoResponseDto em JSON
+    static final byte FIM_DO_INSTANTANEO = 4; // o seguidor passa a servir leituras
+    static final byte PULSO = 5;              // enviado quando não há alterações
+
+    private static final int CABECALHO = Byte.BYTES + Long.BYTES;
+    private static final int TAMANHO_MAXIMO = 1 << 20;
+    private static final byte[] VAZIO = new byte[0];
+
+    static QuadroReplicacao vazio(byte tipo, long sequencia) {
+        return new QuadroReplicacao(tipo, sequencia, VAZIO);
+    }
+
+    static byte[] conta(ResumoConta conta) {
+        return ByteBuffer.allocate(17)
+                .putLong(conta.numero())
+                .put((byte) ("CORRENTE".equals(conta.tipo()) ? 0 : 1))
+                .putLong(conta.saldo().centavos())
+                .array();
+    }
+
+    static byte[] contaRemovida(Long numero) {
+        return ByteBuffer.allocate(8).putLong(numero).array();
+    }
+
+    static byte[] pagamento(UUID id, byte[] json) {
+        return ByteBuffer.allocate(16 + json.length)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .put(json)
+                .array();
+    }
+
+    ResumoConta lerConta() {
+        ByteBuffer buffer = ByteBuffer.wrap(conteudo);
+        long numero = buffer.getLong();
+        String tipoConta = buffer.get() == 0 ? "CORRENTE" : "POUPANCA";
+        return new ResumoConta(numero, tipoConta, Dinheiro.deCentavos(buffer.getLong()));
+    }
+
+    long lerNumero() {
+        return ByteBuffer.wrap(conteudo).getLong();
+    }
+
+    UUID lerIdPagamento() {
+        ByteBuffer buffer = ByteBuffer.wrap(conteudo);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    byte[] lerJsonPagamento() {
+        byte[] json = new byte[conteudo.length - 16];
+        System.arraycopy(conteudo, 16, json, 0, json.length);
+        return json;
+    }
+
+    void escrever(DataOutputStream saida) throws IOException {
+        saida.writeInt(CABECALHO + conteudo.length);
+        saida.writeByte(tipo);
+        saida.writeLong(sequencia);
+        saida.write(conteudo);
+    }
+
+    static QuadroReplicacao ler(DataInputStream entrada) throws IOException {
+        int comprimento = entrada.readInt();
+        if (comprimento < CABECALHO || comprimento > TAMANHO_MAXIMO)
+            throw new IOException("Quadro de replicação com comprimento inválido: " + comprimento);
+
+        byte tipo = entrada.readByte();
+        long sequencia = entrada.readLong();
+        byte[] conteudo = new byte[comprimento - CABECALHO];
+        entrada.readFully(conteudo);
+        return new QuadroReplicacao(tipo, sequencia, conteudo);
+    }
+}
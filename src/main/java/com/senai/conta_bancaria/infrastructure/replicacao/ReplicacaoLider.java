@@ -0,0 +1,343 @@
+package com.senai.conta_bancaria.infrastructure.replicacao;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.senai.conta_bancaria.application.dto.PagamentoResponseDto;
+import com.senai.conta_bancaria.domain.event.ContaAlteradaEvent;
+import com.senai.conta_bancaria.domain.event.PagamentoAlteradoEvent;
+import com.senai.conta_bancaria.domain.repository.ContaRepository;
+import com.senai.conta_bancaria.domain.repository.PagamentoRepository;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.domain.valueobject.ResumoConta;
+import com.senai.conta_bancaria.infrastructure.saldo.SaldosFracionados;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Nó líder da replicação: envia, por TCP, o estado de cada conta e pagamento alterado a todos os seguidores.
+// Os listeners só marcam o que mudou depois do commit; uma única thread publicadora relê o estado atual em lote
+// e o envia. Como a leitura é sempre posterior ao commit e feita por uma só thread, o seguidor converge para o
+// último estado mesmo que as alterações cheguem fora de ordem. Cada seguidor novo recebe antes um instantâneo,
+// lido e enviado em páginas por chave (número da conta, id do pagamento): nada da tabela inteira fica em memória.
+// O socket escuta só no endereço configurado (loopback por padrão) e o seguidor precisa provar que conhece o
+// segredo compartilhado (AutenticacaoReplicacao) antes de receber qualquer quadro.
+@Component
+@ConditionalOnProperty(name = "conta.replicacao.papel", havingValue = "LIDER")
+@RequiredArgsConstructor
+@Slf4j
+public class ReplicacaoLider {
+
+    private static final String INSTANTANEO_CONTAS = """
+            SELECT c.numero, c.tipo_conta, c.saldo + COALESCE(SUM(p.saldo), 0) AS saldo
+            FROM conta c LEFT JOIN saldo_parcial p ON p.numero_conta = c.numero
+            WHERE c.ativo = true AND c.numero > ?
+            GROUP BY c.numero, c.tipo_conta, c.saldo
+            ORDER BY c.numero
+            LIMIT ?""";
+    private static final String INSTANTANEO_PAGAMENTOS = "SELECT id FROM pagamento WHERE id > ? ORDER BY id LIMIT ?";
+    private static final UUID MENOR_ID = new UUID(0, 0);
+    private static final int TAMANHO_LOTE = 500;
+    private static final int PRAZO_AUTENTICACAO_MS = 5_000;
+
+    private final ContaRepository contaRepository;
+    private final PagamentoRepository pagamentoRepository;
+    private final SaldosFracionados saldosFracionados;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${conta.replicacao.endereco:127.0.0.1}")
+    private String endereco;
+
+    @Value("${conta.replicacao.porta:7070}")
+    private int porta;
+
+    @Value("${conta.replicacao.segredo:}")
+    private String segredo;
+
+    @Value("${conta.replicacao.capacidade-fila:65536}")
+    private int capacidadeFila;
+
+    @Value("${conta.replicacao.pulso-ms:500}")
+    private long pulsoMs;
+
+    private final Set<Long> contasAlteradas = ConcurrentHashMap.newKeySet();
+    private final Set<UUID> pagamentosAlterados = ConcurrentHashMap.newKeySet();
+    private final List<Seguidor> seguidores = new CopyOnWriteArrayList<>();
+
+    private ServerSocket servidor;
+    private Thread publicadora;
+    private volatile boolean ativo = true;
+
+    @PostConstruct
+    void iniciar() throws IOException {
+        AutenticacaoReplicacao.exigir(segredo);
+        servidor = new ServerSocket(porta, 50, InetAddress.getByName(endereco));
+        Thread.ofPlatform().daemon().name("replicacao-aceite").start(this::aceitar);
+        publicadora = Thread.ofPlatform().daemon().name("replicacao-publicadora").start(this::publicar);
+        log.info("Replicação: líder aguardando seguidores em {}:{}", endereco, porta);
+    }
+
+    @PreDestroy
+    void encerrar() throws IOException {
+        ativo = false;
+        servidor.close();
+        LockSupport.unpark(publicadora);
+        seguidores.forEach(Seguidor::fechar);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarConta(ContaAlteradaEvent evento) {
+        if (evento.numero() != null && contasAlteradas.add(evento.numero()))
+            LockSupport.unpark(publicadora);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void aoAlterarPagamento(PagamentoAlteradoEvent evento) {
+        if (evento.id() != null && pagamentosAlterados.add(evento.id()))
+            LockSupport.unpark(publicadora);
+    }
+
+    private void aceitar() {
+        while (ativo) {
+            try {
+                Socket socket = servidor.accept();
+                socket.setTcpNoDelay(true);
+                // A autenticação roda na thread do seguidor, para um cliente lento não travar o aceite
+                Thread.ofPlatform().daemon().name("replicacao-" + socket.getRemoteSocketAddress())
+                        .start(new Seguidor(socket)::enviar);
+            } catch (IOException e) {
+                if (ativo)
+                    log.warn("Replicação: falha ao aceitar seguidor: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void publicar() {
+        while (ativo) {
+            if (contasAlteradas.isEmpty() && pagamentosAlterados.isEmpty()) {
+                LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(pulsoMs));
+                if (contasAlteradas.isEmpty() && pagamentosAlterados.isEmpty()) {
+                    difundir(QuadroReplicacao.PULSO, null);
+                    continue;
+                }
+            }
+
+            try {
+                publicarContas(retirar(contasAlteradas));
+                publicarPagamentos(retirar(pagamentosAlterados));
+            } catch (RuntimeException e) {
+                // Os seguidores não sabem o que se perdeu: derruba as conexões para que voltem com um instantâneo
+                log.error("Replicação: falha ao ler alterações, reiniciando seguidores", e);
+                seguidores.forEach(Seguidor::fechar);
+            }
+        }
+    }
+
+    private void publicarContas(List<Long> numeros) {
+        for (int i = 0; i < numeros.size(); i += TAMANHO_LOTE) {
+            List<Long> lote = numeros.subList(i, Math.min(i + TAMANHO_LOTE, numeros.size()));
+            Map<Long, ResumoConta> ativas = new HashMap<>();
+            saldosFracionados.somarFatias(contaRepository.findResumoAtivasByNumeroIn(lote))
+                    .forEach(conta -> ativas.put(conta.numero(), conta));
+
+            for (Long numero : lote) {
+                ResumoConta conta = ativas.get(numero);
+                if (conta != null)
+                    difundir(QuadroReplicacao.CONTA, QuadroReplicacao.conta(conta));
+                else
+                    difundir(QuadroReplicacao.CONTA_REMOVIDA, QuadroReplicacao.contaRemovida(numero));
+            }
+        }
+    }
+
+    private void publicarPagamentos(List<UUID> ids) {
+        for (int i = 0; i < ids.size(); i += TAMANHO_LOTE)
+            pagamentos(ids.subList(i, Math.min(i + TAMANHO_LOTE, ids.size())))
+                    .forEach(conteudo -> difundir(QuadroReplicacao.PAGAMENTO, conteudo));
+    }
+
+    // Pagamentos com conta e taxas carregadas numa consulta só, na forma em que a API os devolve; os que não
+    // existem mais ficam de fora
+    private List<byte[]> pagamentos(List<UUID> ids) {
+        List<PagamentoResponseDto> dtos = transactionTemplate.execute(status -> pagamentoRepository
+                .findReadOnlyComContaETaxasByIdIn(ids).stream()
+                .map(PagamentoResponseDto::fromEntity)
+                .toList());
+
+        List<byte[]> quadros = new ArrayList<>(dtos.size());
+        for (PagamentoResponseDto dto : dtos) {
+            try {
+                quadros.add(QuadroReplicacao.pagamento(UUID.fromString(dto.getId()),
+                        objectMapper.writeValueAsBytes(dto)));
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Não foi possível serializar o pagamento " + dto.getId(), e);
+            }
+        }
+        return quadros;
+    }
+
+    private void difundir(byte tipo, byte[] conteudo) {
+        for (Seguidor seguidor : seguidores)
+            seguidor.oferecer(tipo, conteudo);
+    }
+
+    private static <T> List<T> retirar(Set<T> alterados) {
+        List<T> retirados = new ArrayList<>(alterados.size());
+        for (Iterator<T> it = alterados.iterator(); it.hasNext(); ) {
+            retirados.add(it.next());
+            it.remove();
+        }
+        return retirados;
+    }
+
+    // binary(16) na ordem natural do UUID (bits mais significativos primeiro)
+    private static UUID uuid(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static byte[] bytes(UUID id) {
+        return ByteBuffer.allocate(16)
+                .putLong(id.getMostSignificantBits())
+                .putLong(id.getLeastSignificantBits())
+                .array();
+    }
+
+    private record Envio(byte tipo, byte[] conteudo) {
+    }
+
+    private class Seguidor {
+        private final Socket socket;
+        private final BlockingQueue<Envio> fila = new ArrayBlockingQueue<>(capacidadeFila);
+        private volatile boolean aberto = true;
+        private long sequencia;
+
+        Seguidor(Socket socket) {
+            this.socket = socket;
+        }
+
+        // Seguidor lento demais: em vez de perder quadros em silêncio, a conexão cai e ele volta com instantâneo
+        void oferecer(byte tipo, byte[] conteudo) {
+            if (aberto && !fila.offer(new Envio(tipo, conteudo))) {
+                log.warn("Replicação: fila do seguidor {} cheia, desconectando", socket.getRemoteSocketAddress());
+                fechar();
+            }
+        }
+
+        void enviar() {
+            try (DataOutputStream saida = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream()))) {
+                socket.setSoTimeout(PRAZO_AUTENTICACAO_MS);
+                DataInputStream entrada = new DataInputStream(socket.getInputStream());
+                if (!AutenticacaoReplicacao.desafiar(entrada, saida, segredo)) {
+                    log.warn("Replicação: {} recusado, segredo inválido", socket.getRemoteSocketAddress());
+                    return;
+                }
+                socket.setSoTimeout(0);
+
+                // Registrado antes do instantâneo: nada alterado durante a cópia se perde
+                seguidores.add(this);
+                log.info("Replicação: seguidor {} conectado", socket.getRemoteSocketAddress());
+                enviarInstantaneo(saida);
+                while (aberto) {
+                    Envio envio = fila.poll(pulsoMs, TimeUnit.MILLISECONDS);
+                    if (envio == null)
+                        continue;
+                    escrever(saida, envio.tipo(), envio.conteudo());
+                    // Esvazia o que já está na fila antes de um único flush
+                    while ((envio = fila.poll()) != null)
+                        escrever(saida, envio.tipo(), envio.conteudo());
+                    saida.flush();
+                }
+            } catch (IOException | RuntimeException e) {
+                if (aberto)
+                    log.warn("Replicação: seguidor {} desconectado: {}", socket.getRemoteSocketAddress(),
+                            e.getMessage());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                fechar();
+            }
+        }
+
+        // Cada página é escrita no socket antes da próxima ser lida; as alterações feitas enquanto isso já estão
+        // na fila do seguidor e chegam logo depois do fim do instantâneo
+        private void enviarInstantaneo(DataOutputStream saida) throws IOException {
+            long contas = 0;
+            long ultimoNumero = Long.MIN_VALUE;
+            List<ResumoConta> paginaContas;
+            do {
+                paginaContas = jdbcTemplate.query(INSTANTANEO_CONTAS, (rs, linha) -> new ResumoConta(
+                        rs.getLong("numero"), rs.getString("tipo_conta"), Dinheiro.de(rs.getBigDecimal("saldo"))),
+                        ultimoNumero, TAMANHO_LOTE);
+                for (ResumoConta conta : paginaContas)
+                    escrever(saida, QuadroReplicacao.CONTA, QuadroReplicacao.conta(conta));
+                if (!paginaContas.isEmpty())
+                    ultimoNumero = paginaContas.get(paginaContas.size() - 1).numero();
+                contas += paginaContas.size();
+            } while (aberto && paginaContas.size() == TAMANHO_LOTE);
+
+            long pagamentos = 0;
+            UUID ultimoId = MENOR_ID;
+            List<UUID> paginaIds;
+            do {
+                paginaIds = jdbcTemplate.query(INSTANTANEO_PAGAMENTOS, (rs, linha) -> uuid(rs.getBytes("id")),
+                        bytes(ultimoId), TAMANHO_LOTE);
+                for (byte[] conteudo : pagamentos(paginaIds))
+                    escrever(saida, QuadroReplicacao.PAGAMENTO, conteudo);
+                if (!paginaIds.isEmpty())
+                    ultimoId = paginaIds.get(paginaIds.size() - 1);
+                pagamentos += paginaIds.size();
+            } while (aberto && paginaIds.size() == TAMANHO_LOTE);
+
+            // Desconectado no meio (fila cheia): o seguidor não pode tomar a cópia parcial por completa
+            if (!aberto)
+                return;
+            escrever(saida, QuadroReplicacao.FIM_DO_INSTANTANEO, null);
+            saida.flush();
+            log.info("Replicação: instantâneo enviado a {} ({} contas, {} pagamentos)",
+                    socket.getRemoteSocketAddress(), contas, pagamentos);
+        }
+
+        private void escrever(DataOutputStream saida, byte tipo, byte[] conteudo) throws IOException {
+            QuadroReplicacao quadro = conteudo != null
+                    ? new QuadroReplicacao(tipo, ++sequencia, conteudo)
+                    : QuadroReplicacao.vazio(tipo, ++sequencia);
+            quadro.escrever(saida);
+        }
+
+        void fechar() {
+            aberto = false;
+            seguidores.remove(this);
+            try {
+                socket.close();
+            } catch (IOException ignorada) {
+                // já fechado
+            }
+        }
+    }
+}
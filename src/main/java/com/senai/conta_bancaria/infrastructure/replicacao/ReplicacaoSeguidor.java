@@ -0,0 +1,161 @@
+package com.senai.conta_bancaria.infrastructure.replicacao;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.senai.conta_bancaria.application.dto.PagamentoResponseDto;
+import com.senai.conta_bancaria.domain.valueobject.ResumoConta;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Nó seguidor da replicação: mantém em memória o último estado de contas e pagamentos recebido do líder e serve
+// leituras a partir dele. Só responde enquanto está em dia (instantâneo completo e quadros chegando dentro do
+// prazo); fora disso quem consulta volta para o banco. Qualquer salto de sequência derruba a conexão, e a
+// próxima começa com um instantâneo novo.
+@Component
+@ConditionalOnProperty(name = "conta.replicacao.papel", havingValue = "SEGUIDOR")
+@RequiredArgsConstructor
+@Slf4j
+public class ReplicacaoSeguidor {
+
+    private static final long ESPERA_RECONEXAO_MS = 1_000;
+    private static final int PRAZO_INSTANTANEO_MS = 30_000;
+
+    private final ObjectMapper objectMapper;
+
+    @Value("${conta.replicacao.host-lider:localhost}")
+    private String hostLider;
+
+    @Value("${conta.replicacao.porta:7070}")
+    private int porta;
+
+    @Value("${conta.replicacao.pulso-ms:500}")
+    private long pulsoMs;
+
+    @Value("${conta.replicacao.segredo:}")
+    private String segredo;
+
+    private volatile Map<Long, ResumoConta> contas = new ConcurrentHashMap<>();
+    private volatile Map<UUID, PagamentoResponseDto> pagamentos = new ConcurrentHashMap<>();
+    private volatile boolean sincronizado;
+    private volatile long ultimoQuadroNanos;
+    private volatile boolean ativo = true;
+    private volatile Socket socket;
+
+    @PostConstruct
+    void iniciar() {
+        AutenticacaoReplicacao.exigir(segredo);
+        Thread.ofPlatform().daemon().name("replicacao-seguidor").start(this::seguir);
+    }
+
+    @PreDestroy
+    void encerrar() {
+        ativo = false;
+        fechar();
+    }
+
+    // Em dia: instantâneo aplicado e o último quadro (alteração ou pulso) chegou há menos de 4 pulsos
+    public boolean emDia() {
+        return sincronizado && System.nanoTime() - ultimoQuadroNanos < TimeUnit.MILLISECONDS.toNanos(4 * pulsoMs);
+    }
+
+    public Optional<ResumoConta> conta(Long numero) {
+        return Optional.ofNullable(contas.get(numero));
+    }
+
+    public Optional<PagamentoResponseDto> pagamento(UUID id) {
+        return Optional.ofNullable(pagamentos.get(id));
+    }
+
+    private void seguir() {
+        while (ativo) {
+            try (Socket conexao = new Socket()) {
+                socket = conexao;
+                conexao.connect(new InetSocketAddress(hostLider, porta), (int) ESPERA_RECONEXAO_MS);
+                conexao.setSoTimeout(PRAZO_INSTANTANEO_MS);
+                DataInputStream entrada = new DataInputStream(new BufferedInputStream(conexao.getInputStream()));
+                AutenticacaoReplicacao.responder(entrada, new DataOutputStream(conexao.getOutputStream()), segredo);
+                log.info("Replicação: conectado ao líder {}:{}", hostLider, porta);
+                receber(entrada);
+            } catch (IOException | RuntimeException e) {
+                if (ativo)
+                    log.warn("Replicação: conexão com o líder perdida: {}", e.getMessage());
+            } finally {
+                sincronizado = false;
+            }
+
+            if (ativo) {
+                try {
+                    Thread.sleep(ESPERA_RECONEXAO_MS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receber(DataInputStream entrada) throws IOException {
+        // O instantâneo é montado à parte; as leituras seguem no estado anterior até ele terminar
+        Map<Long, ResumoConta> novasContas = new ConcurrentHashMap<>();
+        Map<UUID, PagamentoResponseDto> novosPagamentos = new ConcurrentHashMap<>();
+        long esperada = 1;
+
+        while (ativo) {
+            QuadroReplicacao quadro = QuadroReplicacao.ler(entrada);
+            if (quadro.sequencia() != esperada)
+                throw new IOException("Sequência " + quadro.sequencia() + " recebida, esperada " + esperada);
+            esperada++;
+            ultimoQuadroNanos = System.nanoTime();
+
+            switch (quadro.tipo()) {
+                case QuadroReplicacao.CONTA -> {
+                    ResumoConta conta = quadro.lerConta();
+                    novasContas.put(conta.numero(), conta);
+                }
+                case QuadroReplicacao.CONTA_REMOVIDA -> novasContas.remove(quadro.lerNumero());
+                case QuadroReplicacao.PAGAMENTO -> novosPagamentos.put(quadro.lerIdPagamento(),
+                        objectMapper.readValue(quadro.lerJsonPagamento(), PagamentoResponseDto.class));
+                case QuadroReplicacao.FIM_DO_INSTANTANEO -> {
+                    contas = novasContas;
+                    pagamentos = novosPagamentos;
+                    sincronizado = true;
+                    // A partir daqui o líder manda ao menos um pulso por intervalo; silêncio maior é falha
+                    socket.setSoTimeout((int) (4 * pulsoMs));
+                    log.info("Replicação: instantâneo aplicado ({} contas, {} pagamentos)",
+                            novasContas.size(), novosPagamentos.size());
+                }
+                case QuadroReplicacao.PULSO -> {
+                    // só renova o prazo
+                }
+                default -> throw new IOException("Tipo de quadro de replicação desconhecido: " + quadro.tipo());
+            }
+        }
+    }
+
+    private void fechar() {
+        Socket atual = socket;
+        if (atual == null)
+            return;
+        try {
+            atual.close();
+        } catch (IOException ignorada) {
+            // já fechado
+        }
+    }
+}
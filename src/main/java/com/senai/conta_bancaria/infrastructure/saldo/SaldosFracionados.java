@@ -0,0 +1,196 @@
+package com.senai.conta_bancaria.infrastructure.saldo;
+
+import com.senai.conta_bancaria.domain.entity.Conta;
+import com.senai.conta_bancaria.domain.event.ContaAlteradaEvent;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.domain.valueobject.ResumoConta;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+// Saldo fracionado das contas "quentes" (ex.: contas de recebimento de lojistas): cada crédito soma numa das K
+// fatias da tabela saldo_parcial, sorteada, em vez de disputar a linha da conta; créditos concorrentes só se
+// esperam quando caem na mesma fatia. O saldo é a linha conta mais a soma das fatias, e débitos que a linha
+// sozinha não cobre consolidam antes as fatias na conta.
+// Quem decide se um crédito vai para uma fatia é o fatiasSaldo da conta lida na transação; o mapa local é só um
+// atalho para escolher o caminho e pode estar até uma recarga atrasado. Por isso as leituras (somarFatias, totais)
+// e a consolidação sempre consultam as fatias no banco, qualquer que seja o fatiasSaldo: um crédito pode cair numa
+// fatia enquanto outra transação desliga o modo. Só poupanças não podem ser fracionadas (ver ContaService).
+@Component
+@RequiredArgsConstructor
+public class SaldosFracionados {
+
+    public static final int MAXIMO_FATIAS = 64;
+
+    private static final String CREDITAR = """
+            INSERT INTO saldo_parcial (numero_conta, fatia, saldo) VALUES (?, ?, ?) AS novo
+            ON DUPLICATE KEY UPDATE saldo = saldo_parcial.saldo + novo.saldo""";
+    private static final String SOMAR = "SELECT COALESCE(SUM(saldo), 0) FROM saldo_parcial WHERE numero_conta = ?";
+    private static final String SOMAR_TRAVANDO = SOMAR + " FOR UPDATE";
+    private static final String ZERAR = "UPDATE saldo_parcial SET saldo = 0 WHERE numero_conta = ? AND saldo <> 0";
+    private static final String SOMAR_POR_CONTA = """
+            SELECT numero_conta, SUM(saldo) AS saldo FROM saldo_parcial
+            WHERE numero_conta IN (%s) GROUP BY numero_conta HAVING SUM(saldo) <> 0""";
+    // Também as contas com dinheiro em fatias sem estar fracionadas (crédito que correu com o desligamento)
+    private static final String CONTAS_COM_FATIAS = """
+            SELECT numero, fatias_saldo FROM conta WHERE ativo = true AND fatias_saldo > 1
+            UNION
+            SELECT DISTINCT numero_conta, 0 FROM saldo_parcial WHERE saldo <> 0""";
+    // Bem abaixo do limite de 65.535 parâmetros do MySQL
+    private static final int MAXIMO_PARAMETROS = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+
+    // Contas com fatias por número (0 quando só restam fatias de quando a conta era fracionada), para desviar
+    // créditos do ledger sem carregar a conta; recarregado periodicamente porque outro nó pode ter ligado ou
+    // desligado o modo
+    private volatile Map<Long, Integer> fatiasPorConta = Map.of();
+
+    // Só uma indicação: a conta carregada na transação é que confirma (fracionada)
+    public boolean quente(Long numero) {
+        return fatiasPorConta.getOrDefault(numero, 0) > 1;
+    }
+
+    // Fracionada ou com saldo que ficou nas fatias depois do desligamento: o saldo pode estar além da linha conta
+    public boolean comFatias(Long numero) {
+        return fatiasPorConta.containsKey(numero);
+    }
+
+    public boolean fracionada(Conta conta) {
+        return conta.getFatiasSaldo() > 1;
+    }
+
+    // Soma o valor numa fatia sorteada, na transação corrente, e devolve o saldo total visto por ela. Com créditos
+    // concorrentes em outras fatias, esse total é aproximado; o saldo exato é o lido depois do commit.
+    public Dinheiro creditar(Conta conta, Dinheiro valor) {
+        if (!fracionada(conta))
+            throw new IllegalStateException("Conta " + conta.getNumero() + " não está com o saldo fracionado");
+
+        int fatia = ThreadLocalRandom.current().nextInt(conta.getFatiasSaldo());
+        jdbcTemplate.update(CREDITAR, conta.getNumero(), fatia, valor.paraBigDecimal());
+        // Modo ligado por outro nó depois da última recarga: as leituras deste nó passam a somar as fatias
+        if (!fatiasPorConta.containsKey(conta.getNumero()))
+            registrarModo(conta.getNumero(), conta.getFatiasSaldo());
+
+        // A gravação via JDBC não passa pelos callbacks do Hibernate, então o evento é publicado aqui
+        eventPublisher.publishEvent(new ContaAlteradaEvent(conta.getNumero(), null));
+        return total(conta);
+    }
+
+    // Saldo devolvido nas respostas de escrita. A conta lida na transação diz se está fracionada; sem isso, só o
+    // mapa local indica sobra de fatias, e a maioria das escritas dispensa a consulta
+    public Dinheiro total(Conta conta) {
+        if (!fracionada(conta) && !comFatias(conta.getNumero()))
+            return conta.getSaldo();
+
+        BigDecimal parcial = jdbcTemplate.queryForObject(SOMAR, BigDecimal.class, conta.getNumero());
+        return conta.getSaldo().mais(Dinheiro.de(parcial));
+    }
+
+    // Consulta no banco, sem o mapa local: usada antes de recusar um saque que a linha conta não cobre
+    public boolean temSaldoEmFatias(Long numero) {
+        return Dinheiro.de(jdbcTemplate.queryForObject(SOMAR, BigDecimal.class, numero)).positivo();
+    }
+
+    // Total de cada conta de um bloco com uma única consulta às fatias
+    public Map<Long, Dinheiro> totais(Collection<Conta> contas) {
+        Map<Long, Dinheiro> parciais = parciais(contas.stream().map(Conta::getNumero).toList());
+        Map<Long, Dinheiro> totais = new HashMap<>();
+        for (Conta conta : contas)
+            totais.put(conta.getNumero(),
+                    conta.getSaldo().mais(parciais.getOrDefault(conta.getNumero(), Dinheiro.ZERO)));
+        return totais;
+    }
+
+    // Chamado antes de todo débito: consolida as fatias só quando a linha conta não cobre o valor.
+    // Retorna se a conta foi alterada, para quem grava a conta fora do Hibernate.
+    public boolean prepararDebito(Conta conta, Dinheiro valor) {
+        return !conta.comporta(valor) && consolidar(conta);
+    }
+
+    // Trava as fatias (créditos nelas esperam o commit), zera e passa o total para a linha conta.
+    // Quem chama precisa gravar a conta na mesma transação.
+    public boolean consolidar(Conta conta) {
+        Dinheiro parcial = Dinheiro.de(jdbcTemplate.queryForObject(SOMAR_TRAVANDO, BigDecimal.class, conta.getNumero()));
+        if (!parcial.positivo())
+            return false;
+
+        jdbcTemplate.update(ZERAR, conta.getNumero());
+        conta.setSaldo(conta.getSaldo().mais(parcial));
+        return true;
+    }
+
+    // Leituras por projeção: uma consulta pela chave (numero_conta, fatia) para a lista inteira, que não devolve
+    // linhas para contas sem fatias. Não filtra pelo mapa local, que pode não ter visto o modo ligado em outro nó;
+    // as leituras por número e por CPF passam antes pelos caches, então só as cargas pagam a consulta.
+    public List<ResumoConta> somarFatias(List<ResumoConta> contas) {
+        if (contas.isEmpty())
+            return contas;
+
+        Map<Long, Dinheiro> parciais = parciais(contas.stream().map(ResumoConta::numero).toList());
+        if (parciais.isEmpty())
+            return contas;
+        return contas.stream()
+                .map(conta -> conta.somandoAoSaldo(parciais.getOrDefault(conta.numero(), Dinheiro.ZERO)))
+                .toList();
+    }
+
+    public Optional<ResumoConta> somarFatias(Optional<ResumoConta> conta) {
+        return conta.map(resumo -> somarFatias(List.of(resumo)).get(0));
+    }
+
+    private Map<Long, Dinheiro> parciais(List<Long> numeros) {
+        Map<Long, Dinheiro> parciais = new HashMap<>();
+        if (numeros.isEmpty())
+            return parciais;
+
+        for (int i = 0; i < numeros.size(); i += MAXIMO_PARAMETROS) {
+            List<Long> bloco = numeros.subList(i, Math.min(i + MAXIMO_PARAMETROS, numeros.size()));
+            String parametros = String.join(",", Collections.nCopies(bloco.size(), "?"));
+            jdbcTemplate.query(SOMAR_POR_CONTA.formatted(parametros),
+                    rs -> {
+                        parciais.put(rs.getLong("numero_conta"), Dinheiro.de(rs.getBigDecimal("saldo")));
+                    },
+                    bloco.toArray());
+        }
+        return parciais;
+    }
+
+    // Atualiza o mapa local só depois do commit de quem ligou ou desligou o modo
+    public void registrarModo(Long numero, int fatias) {
+        Runnable registrar = () -> {
+            // Desligado fica com 0 até a próxima recarga, que só o mantém se ainda houver saldo em fatias
+            Map<Long, Integer> novo = new HashMap<>(fatiasPorConta);
+            novo.put(numero, Math.max(fatias, 0));
+            fatiasPorConta = Map.copyOf(novo);
+        };
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            registrar.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                registrar.run();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${conta.saldo-fracionado.recarga-ms:30000}")
+    public void recarregar() {
+        fatiasPorConta = jdbcTemplate.query(CONTAS_COM_FATIAS, (rs, linha) -> Map.entry(rs.getLong(1), rs.getInt(2)))
+                .stream()
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, Map.Entry::getValue, Math::max));
+    }
+}
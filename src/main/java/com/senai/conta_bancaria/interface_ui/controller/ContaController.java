@@ -1,7 +1,10 @@
 package com.senai.conta_bancaria.interface_ui.controller;
 
 import com.senai.conta_bancaria.application.dto.*;
+import com.senai.conta_bancaria.application.service.ContaLoteService;
 import com.senai.conta_bancaria.application.service.ContaService;
+import com.senai.conta_bancaria.infrastructure.cluster.MembrosDoCluster;
+import com.senai.conta_bancaria.infrastructure.idempotencia.ControleDeIdempotencia;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -11,17 +14,31 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Tag(name = "Contas", description = "Gerenciamento de contas bancárias.")
+@ApiResponse(responseCode = "307", description = ContaController.REDIRECIONAMENTO_AO_DONO)
 @RestController
 @RequestMapping("/api/conta")
 @RequiredArgsConstructor
 public class ContaController {
+
+    // Vale para toda rota que recebe o número da conta (e para o POST /pagamentos): ver GlobalExceptionHandler
+    static final String REDIRECIONAMENTO_AO_DONO = "Conta atendida por outro nó do cluster. Reenvie a mesma " +
+            "requisição, com os mesmos cabeçalhos (Authorization e Idempotency-Key), ao endereço do Location: " +
+            "clientes HTTP descartam o Authorization ao seguir sozinhos um redirecionamento para outro host. " +
+            "O campo dono do corpo é o endereço base do nó que atende a conta.";
+
     private final ContaService service;
+    private final ContaLoteService loteService;
+    private final ControleDeIdempotencia idempotencia;
+    private final MembrosDoCluster cluster;
 
     // CRUD
 
@@ -91,10 +108,57 @@ public class ContaController {
     )
     @GetMapping("/numero/{numero}")
     public ResponseEntity<ContaResumoDto> buscarConta(@PathVariable Long numero) {
+        cluster.exigirDono(numero);
         return ResponseEntity
                 .ok(service.buscarConta(numero));
     }
 
+    @Operation(
+            summary = "Extrato da conta",
+            description = "Lista as movimentações da conta, da mais recente para a mais antiga. Para a próxima " +
+                    "página, envie no parâmetro cursor o valor de proximoCursor da resposta anterior.",
+            parameters = {
+                    @Parameter(name = "numero", description = "Número da conta", example = "102030"),
+                    @Parameter(name = "cursor", description = "Cursor devolvido pela página anterior"),
+                    @Parameter(name = "limite", description = "Itens por página (máximo 200)", example = "50")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Extrato encontrado."),
+                    @ApiResponse(responseCode = "400", description = "Cursor inválido."),
+                    @ApiResponse(responseCode = "404", description = "Conta não encontrada.")
+            }
+    )
+    @GetMapping("/{numero}/extrato")
+    public ResponseEntity<ExtratoDto> extrato(@PathVariable Long numero,
+                                              @RequestParam(required = false) String cursor,
+                                              @RequestParam(defaultValue = "50") int limite) {
+        cluster.exigirDono(numero);
+        return ResponseEntity
+                .ok(service.extrato(numero, cursor, limite));
+    }
+
+    @Operation(
+            summary = "Saldo em uma data",
+            description = "Reconstrói o saldo da conta no instante informado a partir da consolidação mais " +
+                    "próxima anterior e das movimentações seguintes.",
+            parameters = {
+                    @Parameter(name = "numero", description = "Número da conta", example = "102030"),
+                    @Parameter(name = "em", description = "Instante (ISO-8601)", example = "2025-01-31T23:59:59")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Saldo reconstruído."),
+                    @ApiResponse(responseCode = "404", description = "Conta não encontrada.")
+            }
+    )
+    @GetMapping("/{numero}/saldo")
+    public ResponseEntity<SaldoHistoricoDto> saldoEm(@PathVariable Long numero,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                     LocalDateTime em) {
+        cluster.exigirDono(numero);
+        return ResponseEntity
+                .ok(service.saldoEm(numero, em));
+    }
+
     // Update
     @Operation(
             summary = "Atualizar uma conta",
@@ -146,10 +210,32 @@ public class ContaController {
     @PutMapping("/{numero}")
     public ResponseEntity<ContaResumoDto> atualizarConta(@PathVariable Long numero,
                                                          @Valid @RequestBody ContaAtualizacaoDto dto) {
+        cluster.exigirDono(numero);
         return ResponseEntity
                 .ok(service.atualizarConta(numero, dto));
     }
 
+    @Operation(
+            summary = "Definir fatias do saldo",
+            description = "Liga o modo de conta quente (quantidade > 1): os créditos são distribuídos entre as " +
+                    "fatias do saldo e somados na leitura. Quantidade 0 ou 1 desliga o modo e consolida o saldo.",
+            parameters = {
+                    @Parameter(name = "numero", description = "Número da conta", example = "102030"),
+                    @Parameter(name = "quantidade", description = "Quantidade de fatias (até 64)", example = "16")
+            },
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Modo atualizado."),
+                    @ApiResponse(responseCode = "404", description = "Conta não encontrada.")
+            }
+    )
+    @PutMapping("/{numero}/fatias-saldo")
+    public ResponseEntity<ContaResumoDto> definirFatiasSaldo(@PathVariable Long numero,
+                                                             @RequestParam int quantidade) {
+        cluster.exigirDono(numero);
+        return ResponseEntity
+                .ok(service.definirFatiasSaldo(numero, quantidade));
+    }
+
     // Delete
     @Operation(
             summary = "Apagar uma conta",
@@ -171,6 +257,7 @@ public class ContaController {
     )
     @DeleteMapping("/{numero}")
     public ResponseEntity<Void> apagarConta(@PathVariable Long numero) {
+        cluster.exigirDono(numero);
         service.apagarConta(numero);
         return ResponseEntity
                 .noContent() // status code: 204 (encontrado, sem conteúdo)
@@ -179,29 +266,80 @@ public class ContaController {
 
     // Ações específicas
 
+    // Com o cabeçalho Idempotency-Key, repetições da mesma requisição devolvem a resposta original sem reexecutar
+    // Em cluster, tudo o que lê ou altera uma conta pelo número só roda no nó dono dela; os demais respondem 307
+
     @PostMapping("/{numero}/sacar")
-    public ResponseEntity<ContaResumoDto> sacar(@PathVariable Long numero,
-                                                @Valid @RequestBody ValorSaqueDepositoDto dto) {
-        return ResponseEntity
-                .ok(service.sacar(numero, dto));
+    public CompletableFuture<ResponseEntity<ContaResumoDto>> sacar(
+            @PathVariable Long numero,
+            @Valid @RequestBody ValorSaqueDepositoDto dto,
+            @RequestHeader(value = ControleDeIdempotencia.CABECALHO, required = false) String chaveIdempotencia) {
+        cluster.exigirDono(numero);
+        return idempotencia.executarAsync(chaveIdempotencia, "sacar", List.of(numero, dto), ContaResumoDto.class,
+                () -> service
+                        .sacarAsync(numero, dto)
+                        .thenApply(ResponseEntity::ok));
     }
 
     @PostMapping("/{numero}/depositar")
-    public ResponseEntity<ContaResumoDto> depositar(@PathVariable Long numero,
-                                                    @Valid @RequestBody ValorSaqueDepositoDto dto) {
-        return ResponseEntity
-                .ok(service.depositar(numero, dto));
+    public CompletableFuture<ResponseEntity<ContaResumoDto>> depositar(
+            @PathVariable Long numero,
+            @Valid @RequestBody ValorSaqueDepositoDto dto,
+            @RequestHeader(value = ControleDeIdempotencia.CABECALHO, required = false) String chaveIdempotencia) {
+        cluster.exigirDono(numero);
+        return idempotencia.executarAsync(chaveIdempotencia, "depositar", List.of(numero, dto), ContaResumoDto.class,
+                () -> service
+                        .depositarAsync(numero, dto)
+                        .thenApply(ResponseEntity::ok));
     }
 
     @PostMapping("/{numero}/transferir")
-    public ResponseEntity<ContaResumoDto> transferir(@PathVariable Long numero,
-                                                     @Valid @RequestBody TransferenciaDto dto) {
+    public CompletableFuture<ResponseEntity<ContaResumoDto>> transferir(
+            @PathVariable Long numero,
+            @Valid @RequestBody TransferenciaDto dto,
+            @RequestHeader(value = ControleDeIdempotencia.CABECALHO, required = false) String chaveIdempotencia) {
+        cluster.exigirDono(numero);
+        return idempotencia.executarAsync(chaveIdempotencia, "transferir", List.of(numero, dto), ContaResumoDto.class,
+                () -> service
+                        .transferirAsync(numero, dto)
+                        .thenApply(ResponseEntity::ok));
+    }
+
+    @Operation(
+            summary = "Processar lote de operações",
+            description = "Aplica, na ordem enviada, uma lista de saques, depósitos e transferências. No modo " +
+                    "TUDO_OU_NADA qualquer falha cancela o lote; no modo MELHOR_ESFORCO as operações válidas " +
+                    "são gravadas e as demais reportadas.",
+            requestBody = @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    required = true,
+                    content = @Content(
+                            schema = @Schema(implementation = LoteOperacoesDto.class),
+                            examples = @ExampleObject(name = "Exemplo de lote", value = """
+                                    {
+                                        "modo": "MELHOR_ESFORCO",
+                                        "operacoes": [
+                                            { "tipo": "DEPOSITO", "numero": 102030, "valor": 100 },
+                                            { "tipo": "TRANSFERENCIA", "numero": 102030, "numeroDestino": 405060, "valor": 50 }
+                                        ]
+                                    }
+                                    """)
+                    )
+            ),
+            responses = {
+                    @ApiResponse(responseCode = "200", description = "Lote processado; veja o resultado de cada item."),
+                    @ApiResponse(responseCode = "400", description = "Erro de validação.")
+            }
+    )
+    @PostMapping("/lote")
+    public ResponseEntity<LoteResultadoDto> processarLote(@Valid @RequestBody LoteOperacoesDto dto) {
+        cluster.exigirDono(dto.operacoes().stream().map(OperacaoLoteDto::numero).toList());
         return ResponseEntity
-                .ok(service.transferir(numero, dto));
+                .ok(loteService.processar(dto));
     }
 
     @PostMapping("/{numero}/rendimento")
     public ResponseEntity<ContaResumoDto> rendimento(@PathVariable Long numero) {
+        cluster.exigirDono(numero);
         return ResponseEntity
                 .ok(service.rendimento(numero));
     }
@@ -0,0 +1,54 @@
+package com.senai.conta_bancaria.interface_ui.controller;
+
+import com.senai.conta_bancaria.application.dto.PagamentoAgendadoDto;
+import com.senai.conta_bancaria.application.dto.PagamentoAgendadoResponseDto;
+import com.senai.conta_bancaria.application.service.PagamentoAgendadoService;
+import com.senai.conta_bancaria.infrastructure.idempotencia.ControleDeIdempotencia;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/pagamentos/agendados")
+@RequiredArgsConstructor
+@Tag(name = "Pagamentos agendados", description = "Pagamento de boletos em data futura")
+@SecurityRequirement(name = "bearer-jwt")
+public class PagamentoAgendadoController {
+
+    private final PagamentoAgendadoService agendamentoService;
+    private final ControleDeIdempotencia idempotencia;
+
+    @PostMapping
+    @PreAuthorize("hasRole('CLIENTE') or hasRole('GERENTE') or hasRole('ADMIN')")
+    @Operation(summary = "Agendar pagamento",
+            description = "O pagamento é executado na data informada, com as regras e taxas vigentes nesse momento")
+    public ResponseEntity<PagamentoAgendadoResponseDto> agendar(
+            @Valid @RequestBody PagamentoAgendadoDto dto,
+            @RequestHeader(value = ControleDeIdempotencia.CABECALHO, required = false) String chaveIdempotencia) {
+        return idempotencia.executar(chaveIdempotencia, "pagamento-agendado", dto,
+                PagamentoAgendadoResponseDto.class,
+                () -> ResponseEntity.status(HttpStatus.CREATED).body(agendamentoService.agendar(dto)));
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasRole('CLIENTE') or hasRole('GERENTE') or hasRole('ADMIN')")
+    @Operation(summary = "Buscar pagamento agendado por ID")
+    public ResponseEntity<PagamentoAgendadoResponseDto> buscar(@PathVariable UUID id) {
+        return ResponseEntity.ok(agendamentoService.buscar(id));
+    }
+
+    @DeleteMapping("/{id}")
+    @PreAuthorize("hasRole('CLIENTE') or hasRole('GERENTE') or hasRole('ADMIN')")
+    @Operation(summary = "Cancelar pagamento agendado", description = "Só enquanto ainda não foi executado")
+    public ResponseEntity<PagamentoAgendadoResponseDto> cancelar(@PathVariable UUID id) {
+        return ResponseEntity.ok(agendamentoService.cancelar(id));
+    }
+}
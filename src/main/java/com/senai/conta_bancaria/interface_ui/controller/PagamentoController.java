@@ -1,19 +1,25 @@
 package com.senai.conta_bancaria.interface_ui.controller;
 
+import com.senai.conta_bancaria.application.dto.FiltroPagamentosDto;
 import com.senai.conta_bancaria.application.dto.PagamentoDto;
 import com.senai.conta_bancaria.application.dto.PagamentoResponseDto;
+import com.senai.conta_bancaria.application.dto.PaginaPagamentosDto;
 import com.senai.conta_bancaria.application.service.PagamentoAppService;
+import com.senai.conta_bancaria.infrastructure.cluster.MembrosDoCluster;
+import com.senai.conta_bancaria.infrastructure.idempotencia.ControleDeIdempotencia;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springdoc.core.annotations.ParameterObject;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/pagamentos")
@@ -22,45 +28,63 @@ import java.util.List;
 @SecurityRequirement(name = "bearer-jwt")
 public class PagamentoController {
     
+    private static final String DESCRICAO_FILTROS = "Do mais recente para o mais antigo, filtrando por período " +
+            "[desde, ate), status e faixa de valor pago, todos opcionais. Para a próxima página, repita os filtros " +
+            "e envie no parâmetro cursor o valor de proximoCursor da resposta anterior (limite máximo 200).";
+    
     private final PagamentoAppService pagamentoAppService;
+    private final ControleDeIdempotencia idempotencia;
+    private final MembrosDoCluster cluster;
     
     @PostMapping
     @PreAuthorize("hasRole('CLIENTE') or hasRole('GERENTE') or hasRole('ADMIN')")
     @Operation(summary = "Realizar pagamento", description = "Clientes podem realizar pagamentos de suas contas")
-    public ResponseEntity<PagamentoResponseDto> realizarPagamento(@Valid @RequestBody PagamentoDto dto) {
-        PagamentoResponseDto pagamento = pagamentoAppService.realizarPagamento(dto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(pagamento);
+    @ApiResponse(responseCode = "307", description = ContaController.REDIRECIONAMENTO_AO_DONO)
+    public ResponseEntity<PagamentoResponseDto> realizarPagamento(
+            @Valid @RequestBody PagamentoDto dto,
+            @RequestHeader(value = ControleDeIdempotencia.CABECALHO, required = false) String chaveIdempotencia) {
+        cluster.exigirDonoDaConta(UUID.fromString(dto.getContaId()));
+        return idempotencia.executar(chaveIdempotencia, "pagamento", dto, PagamentoResponseDto.class, () -> {
+            PagamentoResponseDto pagamento = pagamentoAppService.realizarPagamento(dto);
+            return ResponseEntity.status(HttpStatus.CREATED).body(pagamento);
+        });
     }
     
     @GetMapping
     @PreAuthorize("hasRole('GERENTE') or hasRole('ADMIN')")
-    @Operation(summary = "Listar todos os pagamentos", description = "Apenas gerentes podem ver todos os pagamentos")
-    public ResponseEntity<List<PagamentoResponseDto>> listarTodos() {
-        List<PagamentoResponseDto> pagamentos = pagamentoAppService.listarTodos();
-        return ResponseEntity.ok(pagamentos);
+    @Operation(summary = "Listar todos os pagamentos",
+            description = "Apenas gerentes podem ver todos os pagamentos. " + DESCRICAO_FILTROS)
+    public ResponseEntity<PaginaPagamentosDto> listarTodos(@ParameterObject FiltroPagamentosDto filtro,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "50") int limite) {
+        return ResponseEntity.ok(pagamentoAppService.listarTodos(filtro, cursor, limite));
     }
     
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('CLIENTE') or hasRole('GERENTE') or hasRole('ADMIN')")
     @Operation(summary = "Buscar pagamento por ID")
-    public ResponseEntity<PagamentoResponseDto> buscarPorId(@PathVariable String id) {
+    public ResponseEntity<PagamentoResponseDto> buscarPorId(@PathVariable UUID id) {
         PagamentoResponseDto pagamento = pagamentoAppService.buscarPorId(id);
         return ResponseEntity.ok(pagamento);
     }
     
     @GetMapping("/conta/{contaId}")
     @PreAuthorize("hasRole('CLIENTE') or hasRole('GERENTE') or hasRole('ADMIN')")
-    @Operation(summary = "Listar pagamentos por conta")
-    public ResponseEntity<List<PagamentoResponseDto>> listarPorConta(@PathVariable String contaId) {
-        List<PagamentoResponseDto> pagamentos = pagamentoAppService.listarPorConta(contaId);
-        return ResponseEntity.ok(pagamentos);
+    @Operation(summary = "Listar pagamentos por conta", description = DESCRICAO_FILTROS)
+    public ResponseEntity<PaginaPagamentosDto> listarPorConta(@PathVariable UUID contaId,
+                                                              @ParameterObject FiltroPagamentosDto filtro,
+                                                              @RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "50") int limite) {
+        return ResponseEntity.ok(pagamentoAppService.listarPorConta(contaId, filtro, cursor, limite));
     }
     
     @GetMapping("/cliente/{clienteId}")
     @PreAuthorize("hasRole('CLIENTE') or hasRole('GERENTE') or hasRole('ADMIN')")
-    @Operation(summary = "Listar pagamentos por cliente")
-    public ResponseEntity<List<PagamentoResponseDto>> listarPorCliente(@PathVariable String clienteId) {
-        List<PagamentoResponseDto> pagamentos = pagamentoAppService.listarPorCliente(clienteId);
-        return ResponseEntity.ok(pagamentos);
+    @Operation(summary = "Listar pagamentos por cliente", description = DESCRICAO_FILTROS)
+    public ResponseEntity<PaginaPagamentosDto> listarPorCliente(@PathVariable String clienteId,
+                                                                @ParameterObject FiltroPagamentosDto filtro,
+                                                                @RequestParam(required = false) String cursor,
+                                                                @RequestParam(defaultValue = "50") int limite) {
+        return ResponseEntity.ok(pagamentoAppService.listarPorCliente(clienteId, filtro, cursor, limite));
     }
 }
@@ -0,0 +1,63 @@
+package com.senai.conta_bancaria.interface_ui.controller;
+
+import com.senai.conta_bancaria.application.dto.RemessaPagamentosDto;
+import com.senai.conta_bancaria.application.service.RemessaPagamentosService;
+import com.senai.conta_bancaria.domain.enums.FormatoRemessa;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.UUID;
+
+@RestController
+@RequestMapping("/pagamentos/remessas")
+@RequiredArgsConstructor
+@Tag(name = "Remessas de pagamento", description = "Pagamento de boletos em lote por arquivo")
+@SecurityRequirement(name = "bearer-jwt")
+public class RemessaPagamentosController {
+
+    private final RemessaPagamentosService remessaService;
+
+    // O corpo é o próprio arquivo, lido como fluxo direto da requisição. Acima de conta.remessa.tamanho-maximo-mb a
+    // resposta é 413: de imediato quando o Content-Length já passa do limite, senão ao atingi-lo durante a cópia
+    @PostMapping(consumes = {"text/csv", MediaType.TEXT_PLAIN_VALUE, MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    @Operation(summary = "Enviar remessa de pagamentos",
+            description = "Recebe um arquivo CSV ou posicional e processa os pagamentos em segundo plano")
+    @ApiResponse(responseCode = "413", description = "Arquivo maior que o limite de conta.remessa.tamanho-maximo-mb")
+    public ResponseEntity<RemessaPagamentosDto> receber(
+            @RequestParam(defaultValue = "CSV") FormatoRemessa formato,
+            HttpServletRequest request) throws IOException {
+        RemessaPagamentosDto remessa =
+                remessaService.receber(formato, request.getInputStream(), request.getContentLengthLong());
+        return ResponseEntity.accepted()
+                .location(URI.create("/pagamentos/remessas/" + remessa.id()))
+                .body(remessa);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Consultar andamento da remessa")
+    public ResponseEntity<RemessaPagamentosDto> buscar(@PathVariable UUID id) {
+        return ResponseEntity.ok(remessaService.buscar(id));
+    }
+
+    @GetMapping("/{id}/retorno")
+    @Operation(summary = "Baixar arquivo de retorno",
+            description = "Uma linha por pagamento da remessa, com status, id do pagamento e mensagem")
+    public ResponseEntity<Resource> retorno(@PathVariable UUID id) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("text/csv"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + id + ".retorno.csv\"")
+                .body(new FileSystemResource(remessaService.retorno(id)));
+    }
+}
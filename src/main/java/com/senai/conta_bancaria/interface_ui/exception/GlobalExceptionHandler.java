@@ -6,6 +6,7 @@ import jakarta.validation.ConstraintViolationException;
 import org.springframework.core.convert.ConversionFailedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -202,6 +203,109 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(ConflitoDeConcorrenciaException.class)
+    public ProblemDetail handleConflitoDeConcorrencia(ConflitoDeConcorrenciaException ex, HttpServletRequest request) {
+        return ProblemDetailUtils.buildProblem(
+                HttpStatus.CONFLICT,
+                "Conflito de concorrência.",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+    }
+
+    @ExceptionHandler(SistemaSobrecarregadoException.class)
+    public ProblemDetail handleSistemaSobrecarregado(SistemaSobrecarregadoException ex, HttpServletRequest request) {
+        return ProblemDetailUtils.buildProblem(
+                HttpStatus.SERVICE_UNAVAILABLE,
+                "Sistema sobrecarregado.",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+    }
+
+    @ExceptionHandler(CursorInvalidoException.class)
+    public ProblemDetail handleCursorInvalido(CursorInvalidoException ex, HttpServletRequest request) {
+        return ProblemDetailUtils.buildProblem(
+                HttpStatus.BAD_REQUEST,
+                "Cursor inválido.",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+    }
+
+    @ExceptionHandler(RequisicaoEmAndamentoException.class)
+    public ProblemDetail handleRequisicaoEmAndamento(RequisicaoEmAndamentoException ex, HttpServletRequest request) {
+        return ProblemDetailUtils.buildProblem(
+                HttpStatus.CONFLICT,
+                "Requisição em andamento.",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+    }
+
+    @ExceptionHandler(ChaveIdempotenciaReutilizadaException.class)
+    public ProblemDetail handleChaveIdempotenciaReutilizada(ChaveIdempotenciaReutilizadaException ex,
+                                                            HttpServletRequest request) {
+        return ProblemDetailUtils.buildProblem(
+                HttpStatus.UNPROCESSABLE_ENTITY,
+                "Idempotency-Key reutilizada.",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+    }
+
+    // 307 preserva método e corpo: o cliente repete a mesma requisição (com a mesma Idempotency-Key) no nó dono.
+    // Contrato: o Location aponta para outro host, e os clientes HTTP descartam o Authorization ao seguir um
+    // redirecionamento entre hosts. O cliente não deve seguir o 307 automaticamente: reenvia a requisição ao
+    // Location com os mesmos cabeçalhos (o token vale em qualquer nó) e pode guardar "dono" para as próximas.
+    @ExceptionHandler(ContaEmOutroNoException.class)
+    public ResponseEntity<ProblemDetail> handleContaEmOutroNo(ContaEmOutroNoException ex, HttpServletRequest request) {
+        String destino = ex.getDono() + request.getRequestURI()
+                + (request.getQueryString() != null ? "?" + request.getQueryString() : "");
+        ProblemDetail problema = ProblemDetailUtils.buildProblem(
+                HttpStatus.TEMPORARY_REDIRECT,
+                "Conta atendida por outro nó.",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+        problema.setProperty("dono", ex.getDono());
+        return ResponseEntity
+                .status(HttpStatus.TEMPORARY_REDIRECT)
+                .location(URI.create(destino))
+                .body(problema);
+    }
+
+    @ExceptionHandler(LoteEntreNosException.class)
+    public ProblemDetail handleLoteEntreNos(LoteEntreNosException ex, HttpServletRequest request) {
+        return ProblemDetailUtils.buildProblem(
+                HttpStatus.UNPROCESSABLE_ENTITY,
+                "Lote com contas de nós diferentes.",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+    }
+
+    @ExceptionHandler(RemessaMuitoGrandeException.class)
+    public ProblemDetail handleRemessaMuitoGrande(RemessaMuitoGrandeException ex, HttpServletRequest request) {
+        return ProblemDetailUtils.buildProblem(
+                HttpStatus.PAYLOAD_TOO_LARGE,
+                "Arquivo de remessa grande demais.",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+    }
+
+    @ExceptionHandler(SaldoFracionadoInvalidoException.class)
+    public ProblemDetail handleSaldoFracionadoInvalido(SaldoFracionadoInvalidoException ex,
+                                                       HttpServletRequest request) {
+        return ProblemDetailUtils.buildProblem(
+                HttpStatus.BAD_REQUEST,
+                "Saldo fracionado inválido.",
+                ex.getMessage(),
+                request.getRequestURI()
+        );
+    }
+
     @ExceptionHandler(Exception.class)
     public ProblemDetail handleException(Exception ex, HttpServletRequest request) {
         return ProblemDetailUtils.buildProblem(
@@ -0,0 +1,68 @@
+package com.senai.conta_bancaria.application.dto;
+
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Valores com mais de duas casas decimais são recusados na entrada (400) em vez de arredondados em silêncio
+class ValoresMonetariosDtoTest {
+
+    private static ValidatorFactory fabrica;
+    private static Validator validator;
+
+    @BeforeAll
+    static void criarValidator() {
+        fabrica = Validation.buildDefaultValidatorFactory();
+        validator = fabrica.getValidator();
+    }
+
+    @AfterAll
+    static void fecharValidator() {
+        fabrica.close();
+    }
+
+    @Test
+    void saqueEDepositoAceitamAteDuasCasas() {
+        assertTrue(validator.validate(new ValorSaqueDepositoDto(new BigDecimal("10.25"))).isEmpty());
+        assertTrue(validator.validate(new ValorSaqueDepositoDto(new BigDecimal("10.5"))).isEmpty());
+        assertTrue(validator.validate(new ValorSaqueDepositoDto(new BigDecimal("10"))).isEmpty());
+    }
+
+    @Test
+    void saqueEDepositoRecusamMeioCentavo() {
+        Set<ConstraintViolation<ValorSaqueDepositoDto>> violacoes =
+                validator.validate(new ValorSaqueDepositoDto(new BigDecimal("0.005")));
+
+        assertEquals(1, violacoes.size());
+        assertEquals("O valor deve ter no máximo duas casas decimais.", violacoes.iterator().next().getMessage());
+    }
+
+    @Test
+    void transferenciaLoteEPagamentoRecusamTresCasas() {
+        BigDecimal tresCasas = new BigDecimal("1.001");
+
+        assertFalse(validator.validate(new TransferenciaDto(2L, tresCasas)).isEmpty());
+        assertFalse(validator.validate(
+                new OperacaoLoteDto(OperacaoLoteDto.Tipo.DEPOSITO, 1L, null, tresCasas)).isEmpty());
+
+        PagamentoDto pagamento = new PagamentoDto();
+        pagamento.setValorPago(tresCasas);
+        assertTrue(validator.validate(pagamento).stream()
+                .anyMatch(violacao -> violacao.getPropertyPath().toString().equals("valorPago")
+                        && violacao.getMessage().contains("duas casas decimais")));
+    }
+
+    @Test
+    void valorAlemDoQueCabeEmCentavosEhRecusado() {
+        assertFalse(validator.validate(new ValorSaqueDepositoDto(new BigDecimal("1E+16"))).isEmpty());
+    }
+}
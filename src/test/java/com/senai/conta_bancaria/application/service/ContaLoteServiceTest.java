@@ -0,0 +1,189 @@
+package com.senai.conta_bancaria.application.service;
+
+import com.senai.conta_bancaria.application.dto.LoteOperacoesDto;
+import com.senai.conta_bancaria.application.dto.LoteResultadoDto;
+import com.senai.conta_bancaria.application.dto.OperacaoLoteDto;
+import com.senai.conta_bancaria.domain.entity.Conta;
+import com.senai.conta_bancaria.domain.entity.ContaPoupanca;
+import com.senai.conta_bancaria.domain.repository.ContaRepository;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.infrastructure.cluster.CreditosEntreNos;
+import com.senai.conta_bancaria.infrastructure.concorrencia.PoliticaDeRetentativa;
+import com.senai.conta_bancaria.infrastructure.movimentacao.DiarioDeMovimentacoes;
+import com.senai.conta_bancaria.infrastructure.saldo.SaldosFracionados;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ContaLoteServiceTest {
+
+    @Mock
+    ContaRepository repository;
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @Mock
+    PoliticaDeRetentativa politicaDeRetentativa;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    DiarioDeMovimentacoes diario;
+
+    @Mock
+    SaldosFracionados saldosFracionados;
+
+    @Mock
+    CreditosEntreNos creditosEntreNos;
+
+    @Mock
+    TransactionStatus status;
+
+    @InjectMocks
+    ContaLoteService service;
+
+    private ContaPoupanca conta1;
+    private ContaPoupanca conta2;
+    private ContaPoupanca conta3;
+
+    @BeforeEach
+    void preparar() {
+        conta1 = poupanca(1L, 10_000);
+        conta2 = poupanca(2L, 500);
+        conta3 = poupanca(3L, 0);
+        when(repository.findReadOnlyByNumeroInAndAtivoTrue(anyCollection()))
+                .thenReturn(List.of(conta1, conta2, conta3));
+        when(politicaDeRetentativa.executar(anyString(), any()))
+                .thenAnswer(invocacao -> invocacao.<Supplier<?>>getArgument(1).get());
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocacao -> invocacao.<TransactionCallback<?>>getArgument(0).doInTransaction(status));
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .thenAnswer(invocacao -> umPorLinha(invocacao.<Collection<?>>getArgument(1).size()));
+    }
+
+    @Test
+    void melhorEsforcoGravaAsValidasEReportaAsQueFalharam() {
+        LoteResultadoDto resultado = service.processar(lote(LoteOperacoesDto.Modo.MELHOR_ESFORCO,
+                operacao(OperacaoLoteDto.Tipo.DEPOSITO, 3L, null, "1.00"),
+                operacao(OperacaoLoteDto.Tipo.SAQUE, 2L, null, "50.00"),
+                operacao(OperacaoLoteDto.Tipo.TRANSFERENCIA, 1L, 2L, "20.00")));
+
+        assertEquals(2, resultado.aplicadas());
+        assertEquals(1, resultado.falhas());
+        assertEquals(LoteResultadoDto.Status.FALHOU, resultado.itens().get(1).status());
+        assertEquals(Dinheiro.deCentavos(100), conta3.getSaldo());
+        assertEquals(Dinheiro.deCentavos(8_000), conta1.getSaldo());
+        assertEquals(Dinheiro.deCentavos(2_500), conta2.getSaldo());
+        assertEquals(List.of(1L, 2L, 3L), gravadas());
+        verify(status, never()).setRollbackOnly();
+    }
+
+    @Test
+    void tudoOuNadaCancelaNaPrimeiraFalhaSemGravar() {
+        LoteResultadoDto resultado = service.processar(lote(LoteOperacoesDto.Modo.TUDO_OU_NADA,
+                operacao(OperacaoLoteDto.Tipo.DEPOSITO, 3L, null, "1.00"),
+                operacao(OperacaoLoteDto.Tipo.SAQUE, 2L, null, "50.00"),
+                operacao(OperacaoLoteDto.Tipo.DEPOSITO, 1L, null, "1.00")));
+
+        assertEquals(0, resultado.aplicadas());
+        assertEquals(List.of(LoteResultadoDto.Status.CANCELADA, LoteResultadoDto.Status.FALHOU,
+                        LoteResultadoDto.Status.CANCELADA),
+                resultado.itens().stream().map(LoteResultadoDto.Item::status).toList());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        verify(status).setRollbackOnly();
+    }
+
+    // O driver pode devolver um array por lote enviado; a conta sem efeito no segundo array é a terceira da lista
+    @Test
+    void versaoMudadaEmQualquerLoteDoBatchDerrubaATransacao() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .thenReturn(new int[][]{{1, 1}, {0}});
+
+        OptimisticLockingFailureException erro = assertThrows(OptimisticLockingFailureException.class,
+                () -> service.processar(lote(LoteOperacoesDto.Modo.MELHOR_ESFORCO,
+                        operacao(OperacaoLoteDto.Tipo.DEPOSITO, 3L, null, "1.00"),
+                        operacao(OperacaoLoteDto.Tipo.DEPOSITO, 1L, null, "1.00"),
+                        operacao(OperacaoLoteDto.Tipo.DEPOSITO, 2L, null, "1.00"))));
+
+        assertTrue(erro.getMessage().contains("Conta 3"), erro.getMessage());
+        verify(diario, never()).registrar(anyList());
+    }
+
+    // O destino em outro nó não é gravado aqui: o crédito vai para o dono na mesma transação do débito
+    @Test
+    void transferenciaParaOutroNoSoDebitaEEncaminhaOCredito() {
+        when(creditosEntreNos.remoto(2L)).thenReturn(true);
+
+        LoteResultadoDto resultado = service.processar(lote(LoteOperacoesDto.Modo.TUDO_OU_NADA,
+                operacao(OperacaoLoteDto.Tipo.TRANSFERENCIA, 1L, 2L, "20.00")));
+
+        assertEquals(1, resultado.aplicadas());
+        assertEquals(Dinheiro.deCentavos(8_000), conta1.getSaldo());
+        assertEquals(Dinheiro.deCentavos(500), conta2.getSaldo());
+        verify(creditosEntreNos).encaminhar(1L, 2L, Dinheiro.deCentavos(2_000));
+        assertEquals(List.of(1L), gravadas());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Long> gravadas() {
+        ArgumentCaptor<Collection<Conta>> contas = ArgumentCaptor.forClass(Collection.class);
+        verify(jdbcTemplate).batchUpdate(anyString(), contas.capture(), anyInt(),
+                any(ParameterizedPreparedStatementSetter.class));
+        return contas.getValue().stream().map(Conta::getNumero).toList();
+    }
+
+    private static int[][] umPorLinha(int linhas) {
+        int[] lote = new int[linhas];
+        Arrays.fill(lote, 1);
+        return new int[][]{lote};
+    }
+
+    private static LoteOperacoesDto lote(LoteOperacoesDto.Modo modo, OperacaoLoteDto... operacoes) {
+        return new LoteOperacoesDto(modo, List.of(operacoes));
+    }
+
+    private static OperacaoLoteDto operacao(OperacaoLoteDto.Tipo tipo, Long numero, Long destino, String valor) {
+        return new OperacaoLoteDto(tipo, numero, destino, new BigDecimal(valor));
+    }
+
+    private static ContaPoupanca poupanca(long numero, long centavos) {
+        return ContaPoupanca.builder()
+                .id(UUID.randomUUID())
+                .numero(numero)
+                .saldo(Dinheiro.deCentavos(centavos))
+                .ativo(true)
+                .versao(0L)
+                .build();
+    }
+}
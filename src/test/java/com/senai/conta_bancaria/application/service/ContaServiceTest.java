@@ -0,0 +1,281 @@
+package com.senai.conta_bancaria.application.service;
+
+import com.senai.conta_bancaria.application.dto.ContaResumoDto;
+import com.senai.conta_bancaria.application.dto.ExtratoDto;
+import com.senai.conta_bancaria.application.dto.SaldoHistoricoDto;
+import com.senai.conta_bancaria.application.dto.TransferenciaDto;
+import com.senai.conta_bancaria.application.dto.ValorSaqueDepositoDto;
+import com.senai.conta_bancaria.domain.entity.ContaCorrente;
+import com.senai.conta_bancaria.domain.entity.ContaPoupanca;
+import com.senai.conta_bancaria.domain.entity.Movimentacao;
+import com.senai.conta_bancaria.domain.enums.TipoMovimentacao;
+import com.senai.conta_bancaria.domain.exception.CursorInvalidoException;
+import com.senai.conta_bancaria.domain.exception.EntidadeNaoEncontradaException;
+import com.senai.conta_bancaria.domain.exception.SaldoFracionadoInvalidoException;
+import com.senai.conta_bancaria.domain.exception.SaldoInsuficienteException;
+import com.senai.conta_bancaria.domain.repository.ContaRepository;
+import com.senai.conta_bancaria.domain.repository.MovimentacaoRepository;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.domain.valueobject.ResumoConta;
+import com.senai.conta_bancaria.infrastructure.cache.CacheContasPorNumero;
+import com.senai.conta_bancaria.infrastructure.concorrencia.OperacoesAtomicasConta;
+import com.senai.conta_bancaria.infrastructure.concorrencia.PoliticaDeRetentativa;
+import com.senai.conta_bancaria.infrastructure.concorrencia.TransferenciaExecutor;
+import com.senai.conta_bancaria.infrastructure.ledger.LedgerContas;
+import com.senai.conta_bancaria.infrastructure.movimentacao.DiarioDeMovimentacoes;
+import com.senai.conta_bancaria.infrastructure.movimentacao.HistoricoDeSaldos;
+import com.senai.conta_bancaria.infrastructure.saldo.SaldosFracionados;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ContaServiceTest {
+
+    private static final LocalDateTime INICIO = LocalDateTime.of(2026, 10, 1, 9, 0);
+
+    @Mock
+    ContaRepository repository;
+
+    @Mock
+    CacheContasPorNumero cacheContasPorNumero;
+
+    @Mock
+    MovimentacaoRepository movimentacaoRepository;
+
+    @Mock
+    HistoricoDeSaldos historicoDeSaldos;
+
+    @Mock
+    SaldosFracionados saldosFracionados;
+
+    @Mock
+    OperacoesAtomicasConta operacoesAtomicas;
+
+    @Mock
+    DiarioDeMovimentacoes diario;
+
+    @Mock
+    PoliticaDeRetentativa politicaDeRetentativa;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @Mock
+    LedgerContas ledger;
+
+    @Mock
+    TransferenciaExecutor transferenciaExecutor;
+
+    @InjectMocks
+    ContaService service;
+
+    @BeforeEach
+    void preparar() {
+        when(cacheContasPorNumero.buscar(eq(1L), any()))
+                .thenReturn(Optional.of(new ResumoConta(1L, "CORRENTE", Dinheiro.deCentavos(100_00))));
+        when(cacheContasPorNumero.buscar(eq(2L), any())).thenReturn(Optional.empty());
+        when(politicaDeRetentativa.executar(anyString(), any()))
+                .thenAnswer(invocacao -> invocacao.<Supplier<?>>getArgument(1).get());
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocacao -> invocacao.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(repository.save(any())).thenAnswer(invocacao -> invocacao.getArgument(0));
+    }
+
+    // Mesma data_hora em todas as linhas: o id desempata a ordem e o cursor
+    @Test
+    void primeiraPaginaTrazOLimiteEOCursorDaUltimaLinha() {
+        when(movimentacaoRepository.findExtrato(1L, Limit.of(4))).thenReturn(movimentacoes(10, 7));
+
+        ExtratoDto extrato = service.extrato(1L, null, 3);
+
+        assertEquals(3, extrato.movimentacoes().size());
+        assertEquals(new CursorExtrato(INICIO, 8L), CursorExtrato.decodificar(extrato.proximoCursor()));
+    }
+
+    @Test
+    void cursorContinuaDepoisDaUltimaLinhaEntregueEUltimaPaginaNaoTemCursor() {
+        String cursor = new CursorExtrato(INICIO, 8L).codificar();
+        when(movimentacaoRepository.findExtratoAntesDe(1L, INICIO, 8L, Limit.of(4))).thenReturn(movimentacoes(7, 6));
+
+        ExtratoDto extrato = service.extrato(1L, cursor, 3);
+
+        assertEquals(2, extrato.movimentacoes().size());
+        assertNull(extrato.proximoCursor());
+        verify(movimentacaoRepository, never()).findExtrato(anyLong(), any());
+    }
+
+    @Test
+    void limiteForaDaFaixaEhAjustado() {
+        when(movimentacaoRepository.findExtrato(anyLong(), any())).thenReturn(List.of());
+
+        service.extrato(1L, "", 0);
+        service.extrato(1L, null, 10_000);
+
+        verify(movimentacaoRepository).findExtrato(1L, Limit.of(2));
+        verify(movimentacaoRepository).findExtrato(1L, Limit.of(201));
+    }
+
+    @Test
+    void contaInexistenteOuCursorInvalidoSaoRecusados() {
+        assertThrows(EntidadeNaoEncontradaException.class, () -> service.extrato(2L, null, 10));
+        assertThrows(CursorInvalidoException.class, () -> service.extrato(1L, "%%%", 10));
+        verifyNoInteractions(movimentacaoRepository);
+    }
+
+    // A auditoria continua enxergando o histórico de uma conta encerrada
+    @Test
+    void saldoHistoricoValeParaContaEncerrada() {
+        ContaCorrente encerrada = ContaCorrente.builder()
+                .numero(3L)
+                .saldo(Dinheiro.ZERO)
+                .ativo(false)
+                .build();
+        when(repository.findByNumero(3L)).thenReturn(Optional.of(encerrada));
+        when(repository.findByNumeroAndAtivoTrue(3L)).thenReturn(Optional.empty());
+        when(saldosFracionados.totais(List.of(encerrada))).thenReturn(Map.of(3L, Dinheiro.ZERO));
+        when(historicoDeSaldos.saldoEm(3L, INICIO, Dinheiro.ZERO))
+                .thenReturn(new HistoricoDeSaldos.SaldoReconstruido(Dinheiro.deCentavos(250_00), null, 4));
+
+        SaldoHistoricoDto saldo = service.saldoEm(3L, INICIO);
+
+        assertEquals(new BigDecimal("250.00"), saldo.saldo());
+        assertEquals(4, saldo.movimentacoesReaplicadas());
+    }
+
+    @Test
+    void saldoHistoricoDeContaInexistenteEhNaoEncontrado() {
+        when(repository.findByNumero(9L)).thenReturn(Optional.empty());
+
+        assertThrows(EntidadeNaoEncontradaException.class, () -> service.saldoEm(9L, INICIO));
+        verifyNoInteractions(historicoDeSaldos);
+    }
+
+    @Test
+    void saldoFracionadoEhRecusadoEmPoupanca() {
+        ContaPoupanca poupanca = ContaPoupanca.builder()
+                .numero(4L)
+                .saldo(Dinheiro.ZERO)
+                .ativo(true)
+                .build();
+        when(repository.findByNumeroAndAtivoTrue(4L)).thenReturn(Optional.of(poupanca));
+
+        assertThrows(SaldoFracionadoInvalidoException.class, () -> service.definirFatiasSaldo(4L, 8));
+        verify(repository, never()).save(any());
+
+        // Desligar continua permitido: só consolida o que estiver nas fatias
+        service.definirFatiasSaldo(4L, 0);
+        verify(saldosFracionados).consolidar(poupanca);
+    }
+
+    // O mapa local não conhece a conta quente (ligada em outro nó): o UPDATE recusa, mas as fatias cobrem o saque
+    @Test
+    void saqueQueALinhaNaoCobreConsultaAsFatiasMesmoComMapaDesatualizado() {
+        ReflectionTestUtils.setField(service, "modo", ContaService.ModoOperacao.ATOMICO);
+        ContaCorrente conta = ContaCorrente.builder()
+                .numero(1L)
+                .saldo(Dinheiro.deCentavos(10_00))
+                .ativo(true)
+                .limite(Dinheiro.ZERO)
+                .taxa(BigDecimal.ZERO)
+                .fatiasSaldo(4)
+                .build();
+        when(saldosFracionados.quente(1L)).thenReturn(false);
+        when(saldosFracionados.temSaldoEmFatias(1L)).thenReturn(true);
+        when(operacoesAtomicas.debitar(1L, Dinheiro.deCentavos(50_00)))
+                .thenThrow(new SaldoInsuficienteException("saque"));
+        when(repository.findByNumeroAndAtivoTrue(1L)).thenReturn(Optional.of(conta));
+        when(saldosFracionados.prepararDebito(conta, Dinheiro.deCentavos(50_00))).thenAnswer(invocacao -> {
+            conta.setSaldo(conta.getSaldo().mais(Dinheiro.deCentavos(60_00)));
+            return true;
+        });
+        when(saldosFracionados.total(conta)).thenAnswer(invocacao -> conta.getSaldo());
+
+        ContaResumoDto resumo = service.sacarAsync(1L, new ValorSaqueDepositoDto(new BigDecimal("50.00"))).join();
+
+        assertEquals(new BigDecimal("20.00"), resumo.saldo());
+        verify(diario).registrar(any(Movimentacao.class));
+    }
+
+    // Conta comum sem saldo: a recusa sai do UPDATE e da consulta às fatias, sem carregar a entidade
+    @Test
+    void saqueSemSaldoNemFatiasEhRecusadoSemCarregarAConta() {
+        ReflectionTestUtils.setField(service, "modo", ContaService.ModoOperacao.ATOMICO);
+        when(operacoesAtomicas.debitar(1L, Dinheiro.deCentavos(50_00)))
+                .thenThrow(new SaldoInsuficienteException("saque"));
+        when(saldosFracionados.temSaldoEmFatias(1L)).thenReturn(false);
+
+        assertThrows(SaldoInsuficienteException.class,
+                () -> service.sacarAsync(1L, new ValorSaqueDepositoDto(new BigDecimal("50.00"))));
+        verify(repository, never()).findByNumeroAndAtivoTrue(anyLong());
+        verifyNoInteractions(diario);
+    }
+
+    @Test
+    void depositoAtomicoRegistraAMovimentacaoComOSaldoDoUpdate() {
+        ReflectionTestUtils.setField(service, "modo", ContaService.ModoOperacao.ATOMICO);
+        when(operacoesAtomicas.creditar(1L, Dinheiro.deCentavos(25_00))).thenReturn(
+                new OperacoesAtomicasConta.SaldoAtualizado("CORRENTE", Dinheiro.deCentavos(25_00),
+                        Dinheiro.deCentavos(125_00)));
+
+        ContaResumoDto resumo = service.depositarAsync(1L, new ValorSaqueDepositoDto(new BigDecimal("25.00")))
+                .join();
+
+        assertEquals(new BigDecimal("125.00"), resumo.saldo());
+        verify(diario).registrar(argThat((Movimentacao movimentacao) ->
+                movimentacao.getValor().equals(Dinheiro.deCentavos(25_00))
+                        && movimentacao.getSaldoApos().equals(Dinheiro.deCentavos(125_00))));
+        verify(repository, never()).findByNumeroAndAtivoTrue(anyLong());
+    }
+
+    // O ledger deste nó escreveria o destino; com destino em outro nó o executor só debita e encaminha o crédito
+    @Test
+    void transferenciaParaDestinoEmOutroNoNaoPassaPeloLedger() {
+        ContaCorrente origem = ContaCorrente.builder().numero(1L).saldo(Dinheiro.deCentavos(80_00)).build();
+        when(transferenciaExecutor.destinoEmOutroNo(2L)).thenReturn(true);
+        when(transferenciaExecutor.transferir(1L, 2L, Dinheiro.deCentavos(20_00))).thenReturn(origem);
+        when(saldosFracionados.total(origem)).thenReturn(origem.getSaldo());
+
+        ContaResumoDto resumo = service.transferirAsync(1L, new TransferenciaDto(2L, new BigDecimal("20.00")))
+                .join();
+
+        assertEquals(new BigDecimal("80.00"), resumo.saldo());
+        verifyNoInteractions(ledger);
+    }
+
+    // Ids decrescentes de "ate" até "desde", como a consulta devolve
+    private static List<Movimentacao> movimentacoes(long ate, long desde) {
+        return LongStream.iterate(ate, id -> id >= desde, id -> id - 1)
+                .mapToObj(id -> Movimentacao.builder()
+                        .id(id)
+                        .numeroConta(1L)
+                        .tipo(TipoMovimentacao.DEPOSITO)
+                        .valor(Dinheiro.deCentavos(1_00))
+                        .saldoApos(Dinheiro.deCentavos(id * 1_00))
+                        .dataHora(INICIO)
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,36 @@
+package com.senai.conta_bancaria.application.service;
+
+import com.senai.conta_bancaria.domain.exception.CursorInvalidoException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorExtratoTest {
+
+    @Test
+    void codificarEDecodificarPreservaPosicaoComMicrossegundos() {
+        CursorExtrato cursor = new CursorExtrato(LocalDateTime.of(2026, 10, 18, 3, 11, 36, 123_456_000), 987L);
+
+        String texto = cursor.codificar();
+
+        assertFalse(texto.contains("="), "sem padding, para ir direto na query string");
+        assertEquals(cursor, CursorExtrato.decodificar(texto));
+    }
+
+    @Test
+    void cursorAdulteradoEhRecusado() {
+        assertThrows(CursorInvalidoException.class, () -> CursorExtrato.decodificar("não é base64!"));
+        assertThrows(CursorInvalidoException.class, () -> CursorExtrato.decodificar(base64("sem-separador")));
+        assertThrows(CursorInvalidoException.class, () -> CursorExtrato.decodificar(base64("ontem|1")));
+        assertThrows(CursorInvalidoException.class,
+                () -> CursorExtrato.decodificar(base64("2026-10-18T03:11:36|um")));
+    }
+
+    private static String base64(String texto) {
+        return Base64.getUrlEncoder().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,39 @@
+package com.senai.conta_bancaria.application.service;
+
+import com.senai.conta_bancaria.domain.exception.CursorInvalidoException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CursorPagamentosTest {
+
+    @Test
+    void codificarEDecodificarPreservaPosicaoComMicrossegundos() {
+        CursorPagamentos cursor = new CursorPagamentos(
+                LocalDateTime.of(2026, 10, 18, 3, 59, 22, 123_456_000), UUID.randomUUID());
+
+        String texto = cursor.codificar();
+
+        assertFalse(texto.contains("="), "sem padding, para ir direto na query string");
+        assertEquals(cursor, CursorPagamentos.decodificar(texto));
+    }
+
+    @Test
+    void cursorAdulteradoEhRecusado() {
+        assertThrows(CursorInvalidoException.class, () -> CursorPagamentos.decodificar("não é base64!"));
+        assertThrows(CursorInvalidoException.class, () -> CursorPagamentos.decodificar(base64("sem-separador")));
+        assertThrows(CursorInvalidoException.class,
+                () -> CursorPagamentos.decodificar(base64("ontem|" + UUID.randomUUID())));
+        assertThrows(CursorInvalidoException.class,
+                () -> CursorPagamentos.decodificar(base64("2026-10-18T03:59:22|não-é-uuid")));
+    }
+
+    private static String base64(String texto) {
+        return Base64.getUrlEncoder().encodeToString(texto.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,111 @@
+package com.senai.conta_bancaria.application.service;
+
+import com.senai.conta_bancaria.application.dto.FiltroPagamentosDto;
+import com.senai.conta_bancaria.application.dto.PaginaPagamentosDto;
+import com.senai.conta_bancaria.domain.entity.ContaPoupanca;
+import com.senai.conta_bancaria.domain.entity.Pagamento;
+import com.senai.conta_bancaria.domain.enums.PagamentoStatus;
+import com.senai.conta_bancaria.domain.exception.PagamentoInvalidoException;
+import com.senai.conta_bancaria.domain.repository.PagamentoConsulta;
+import com.senai.conta_bancaria.domain.repository.PagamentoRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Listagem paginada por cursor: o repositório é simulado, o que se verifica é o uso do cursor e dos filtros
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PagamentoAppServiceTest {
+
+    private static final FiltroPagamentosDto SEM_FILTRO = new FiltroPagamentosDto(null, null, null, null, null);
+    private static final LocalDateTime AGORA = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+    @Mock
+    PagamentoRepository pagamentoRepository;
+
+    @InjectMocks
+    PagamentoAppService service;
+
+    @Test
+    void itemAMaisViraCursorDaProximaPagina() {
+        List<Pagamento> pagamentos = pagamentos(3);
+        when(pagamentoRepository.buscar(any(), isNull(), isNull(), eq(3))).thenReturn(pagamentos);
+
+        PaginaPagamentosDto pagina = service.listarTodos(SEM_FILTRO, null, 2);
+
+        assertEquals(2, pagina.pagamentos().size());
+        CursorPagamentos cursor = CursorPagamentos.decodificar(pagina.proximoCursor());
+        assertEquals(pagamentos.get(1).getId(), cursor.id());
+        assertEquals(pagamentos.get(1).getDataPagamento(), cursor.dataPagamento());
+    }
+
+    @Test
+    void cursorRecebidoContinuaDepoisDoUltimoEntregue() {
+        Pagamento ultimo = pagamentos(1).get(0);
+        UUID contaId = UUID.randomUUID();
+        when(pagamentoRepository.buscar(any(), any(), any(), anyInt())).thenReturn(List.of());
+
+        PaginaPagamentosDto pagina = service.listarPorConta(contaId,
+                new FiltroPagamentosDto(null, null, PagamentoStatus.SUCESSO, null, null),
+                CursorPagamentos.de(ultimo).codificar(), 50);
+
+        assertNull(pagina.proximoCursor());
+        ArgumentCaptor<PagamentoConsulta.Filtro> filtro = ArgumentCaptor.forClass(PagamentoConsulta.Filtro.class);
+        verify(pagamentoRepository).buscar(filtro.capture(), eq(ultimo.getDataPagamento()), eq(ultimo.getId()),
+                eq(51));
+        assertEquals(contaId, filtro.getValue().contaId());
+        assertEquals(PagamentoStatus.SUCESSO, filtro.getValue().status());
+    }
+
+    @Test
+    void limiteFicaEntreUmEOMaximo() {
+        when(pagamentoRepository.buscar(any(), any(), any(), anyInt())).thenReturn(List.of());
+
+        service.listarPorCliente("cliente", SEM_FILTRO, null, 10_000);
+        service.listarPorCliente("cliente", SEM_FILTRO, "", 0);
+
+        verify(pagamentoRepository).buscar(any(), isNull(), isNull(), eq(201));
+        verify(pagamentoRepository).buscar(any(), isNull(), isNull(), eq(2));
+    }
+
+    @Test
+    void faixasInvertidasSaoRecusadasSemConsultar() {
+        assertThrows(PagamentoInvalidoException.class, () -> service.listarTodos(
+                new FiltroPagamentosDto(AGORA, AGORA, null, null, null), null, 10));
+        assertThrows(PagamentoInvalidoException.class, () -> service.listarTodos(
+                new FiltroPagamentosDto(null, null, null, new BigDecimal("10"), new BigDecimal("9.99")), null, 10));
+
+        verifyNoInteractions(pagamentoRepository);
+    }
+
+    private static List<Pagamento> pagamentos(int quantidade) {
+        ContaPoupanca conta = ContaPoupanca.builder().id(UUID.randomUUID()).numero(7L).build();
+        return IntStream.range(0, quantidade)
+                .mapToObj(i -> Pagamento.builder()
+                        .id(UUID.randomUUID())
+                        .conta(conta)
+                        .boleto("B" + i)
+                        .valorPago(new BigDecimal("10.00"))
+                        .dataPagamento(AGORA.minusMinutes(i))
+                        .status(PagamentoStatus.SUCESSO)
+                        .taxas(new HashSet<>())
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,81 @@
+package com.senai.conta_bancaria.benchmark;
+
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Compara o caminho antigo em BigDecimal (saque da conta corrente e cálculo de taxa) com o Dinheiro em centavos.
+// Execução: mvn test-compile exec:java -Dexec.classpathScope=test
+//           -Dexec.mainClass=com.senai.conta_bancaria.benchmark.DinheiroBenchmark
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class DinheiroBenchmark {
+
+    private final BigDecimal taxaCorrente = new BigDecimal("0.05");
+    private final BigDecimal percentualTaxa = new BigDecimal("2.50");
+
+    private BigDecimal saldoDecimal;
+    private BigDecimal limiteDecimal;
+    private BigDecimal valorDecimal;
+    private BigDecimal valorFixoDecimal;
+
+    private Dinheiro saldo;
+    private Dinheiro limite;
+    private Dinheiro valor;
+    private Dinheiro valorFixo;
+
+    @Setup
+    public void preparar() {
+        saldoDecimal = new BigDecimal("15230.75");
+        limiteDecimal = new BigDecimal("500.00");
+        valorDecimal = new BigDecimal("123.45");
+        valorFixoDecimal = new BigDecimal("1.99");
+
+        saldo = Dinheiro.de(saldoDecimal);
+        limite = Dinheiro.de(limiteDecimal);
+        valor = Dinheiro.de(valorDecimal);
+        valorFixo = Dinheiro.de(valorFixoDecimal);
+    }
+
+    @Benchmark
+    public BigDecimal sacarBigDecimal() {
+        BigDecimal valorComTaxa = valorDecimal.add(valorDecimal.multiply(taxaCorrente));
+        if (valorComTaxa.compareTo(saldoDecimal.add(limiteDecimal)) > 0)
+            throw new IllegalStateException();
+        return saldoDecimal.subtract(valorComTaxa);
+    }
+
+    @Benchmark
+    public Dinheiro sacarDinheiro() {
+        Dinheiro valorComTaxa = valor.mais(valor.multiplicar(taxaCorrente));
+        if (valorComTaxa.maiorQue(saldo.mais(limite)))
+            throw new IllegalStateException();
+        return saldo.menos(valorComTaxa);
+    }
+
+    @Benchmark
+    public BigDecimal calcularTaxaBigDecimal() {
+        BigDecimal taxaPercentual = valorDecimal.multiply(percentualTaxa).divide(new BigDecimal("100"));
+        return taxaPercentual.add(valorFixoDecimal);
+    }
+
+    @Benchmark
+    public Dinheiro calcularTaxaDinheiro() {
+        return valor.percentual(percentualTaxa, Dinheiro.ARREDONDAMENTO_PADRAO).mais(valorFixo);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(DinheiroBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
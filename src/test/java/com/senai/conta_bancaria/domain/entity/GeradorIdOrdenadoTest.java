@@ -0,0 +1,34 @@
+package com.senai.conta_bancaria.domain.entity;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GeradorIdOrdenadoTest {
+
+    @Test
+    void idsSaoVersao7ComPrefixoDeTempo() {
+        long antes = System.currentTimeMillis();
+        UUID id = GeradorIdOrdenado.novo();
+
+        assertEquals(7, id.version());
+        assertEquals(2, id.variant());
+        assertTrue((id.getMostSignificantBits() >>> 16) >= antes);
+    }
+
+    // Vários ids no mesmo milissegundo continuam crescentes, na ordem em que o binary(16) é comparado
+    @Test
+    void idsGeradosEmSequenciaSaoEstritamenteCrescentes() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 20_000; i++)
+            ids.add(GeradorIdOrdenado.novo());
+
+        for (int i = 1; i < ids.size(); i++)
+            assertTrue(Long.compareUnsigned(ids.get(i - 1).getMostSignificantBits(),
+                    ids.get(i).getMostSignificantBits()) < 0, "id " + i + " fora de ordem");
+    }
+}
@@ -0,0 +1,47 @@
+package com.senai.conta_bancaria.domain.entity;
+
+import com.senai.conta_bancaria.domain.enums.TipoMovimentacao;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MovimentacaoTest {
+
+    // O valor registrado é a diferença real do saldo: no saque da conta corrente inclui a taxa
+    @Test
+    void valorEhADiferencaEfetivaDoSaldo() {
+        ContaCorrente conta = ContaCorrente.builder()
+                .id(UUID.randomUUID())
+                .numero(1L)
+                .saldo(Dinheiro.deCentavos(100_00))
+                .ativo(true)
+                .limite(Dinheiro.ZERO)
+                .taxa(new BigDecimal("0.05"))
+                .build();
+        Dinheiro saldoAnterior = conta.getSaldo();
+
+        conta.sacar(Dinheiro.deCentavos(10_00));
+        Movimentacao movimentacao = Movimentacao.apos(conta, TipoMovimentacao.SAQUE, saldoAnterior);
+
+        assertEquals(saldoAnterior.menos(conta.getSaldo()), movimentacao.getValor());
+        assertTrue(movimentacao.getValor().positivo());
+        assertEquals(conta.getSaldo(), movimentacao.getSaldoApos());
+        assertEquals(Dinheiro.ZERO.menos(movimentacao.getValor()), movimentacao.valorComSinal());
+    }
+
+    @Test
+    void creditoTemSinalPositivoEDataNaPrecisaoDaColuna() {
+        Movimentacao movimentacao = Movimentacao.de(1L, TipoMovimentacao.DEPOSITO, Dinheiro.deCentavos(5_00),
+                Dinheiro.deCentavos(105_00), null, null);
+
+        assertEquals(Dinheiro.deCentavos(5_00), movimentacao.valorComSinal());
+        assertEquals(movimentacao.getDataHora().truncatedTo(ChronoUnit.MICROS), movimentacao.getDataHora());
+        assertFalse(movimentacao.getDataHora().isAfter(LocalDateTime.now()));
+    }
+}
@@ -0,0 +1,59 @@
+package com.senai.conta_bancaria.domain.entity;
+
+import com.senai.conta_bancaria.domain.enums.StatusAgendamento;
+import com.senai.conta_bancaria.domain.exception.PagamentoInvalidoException;
+import jakarta.persistence.Id;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagamentoAgendadoTest {
+
+    private static final LocalDateTime AMANHA = LocalDateTime.now().plusDays(1);
+
+    @Test
+    void agendarComecaAgendadoComCopiaDosIdsDeTaxa() {
+        Set<String> taxas = new HashSet<>(Set.of("tarifa"));
+
+        PagamentoAgendado agendado = PagamentoAgendado.agendar(new ContaPoupanca(), "B1", new BigDecimal("10.00"),
+                taxas, null, AMANHA);
+        taxas.add("outra");
+
+        assertEquals(StatusAgendamento.AGENDADO, agendado.getStatus());
+        assertEquals(Set.of("tarifa"), agendado.getTaxasIds());
+        assertNotNull(agendado.getCriadoEm());
+        assertTrue(PagamentoAgendado.agendar(new ContaPoupanca(), "B2", BigDecimal.ONE, null, null, AMANHA)
+                .getTaxasIds().isEmpty());
+    }
+
+    @Test
+    void soAgendadoPodeSerCancelado() {
+        PagamentoAgendado agendado = PagamentoAgendado.agendar(new ContaPoupanca(), "B1", BigDecimal.ONE,
+                Set.of(), null, AMANHA);
+
+        agendado.cancelar();
+        assertEquals(StatusAgendamento.CANCELADO, agendado.getStatus());
+        assertThrows(PagamentoInvalidoException.class, agendado::cancelar);
+
+        agendado.setStatus(StatusAgendamento.EXECUTADO);
+        assertThrows(PagamentoInvalidoException.class, agendado::cancelar);
+    }
+
+    // O id usa o gerador do próprio domínio (UUID v7 em binary(16)), como Conta e Pagamento
+    @Test
+    void idOrdenadoNoTempoGravadoEmBinario() throws Exception {
+        Field id = PagamentoAgendado.class.getDeclaredField("id");
+
+        assertNotNull(id.getAnnotation(Id.class));
+        assertNotNull(id.getAnnotation(IdOrdenadoNoTempo.class));
+        assertEquals(SqlTypes.BINARY, id.getAnnotation(JdbcTypeCode.class).value());
+    }
+}
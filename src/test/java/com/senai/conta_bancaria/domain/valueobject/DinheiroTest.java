@@ -0,0 +1,104 @@
+package com.senai.conta_bancaria.domain.valueobject;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.EnumSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DinheiroTest {
+
+    private static final Set<RoundingMode> MODOS = EnumSet.complementOf(EnumSet.of(RoundingMode.UNNECESSARY));
+
+    @Test
+    void conversaoDeBigDecimalArredondaMetadeParaLongeDoZeroPorPadrao() {
+        assertEquals(1, Dinheiro.de(new BigDecimal("0.005")).centavos());
+        assertEquals(0, Dinheiro.de(new BigDecimal("0.0049")).centavos());
+        assertEquals(-1, Dinheiro.de(new BigDecimal("-0.005")).centavos());
+        assertEquals(12_346, Dinheiro.de(new BigDecimal("123.455")).centavos());
+    }
+
+    @Test
+    void arredondamentoBancarioLevaOEmpateParaOPar() {
+        assertEquals(2, Dinheiro.de(new BigDecimal("0.025"), Dinheiro.ARREDONDAMENTO_BANCARIO).centavos());
+        assertEquals(4, Dinheiro.de(new BigDecimal("0.035"), Dinheiro.ARREDONDAMENTO_BANCARIO).centavos());
+        assertEquals(-2, Dinheiro.de(new BigDecimal("-0.025"), Dinheiro.ARREDONDAMENTO_BANCARIO).centavos());
+    }
+
+    @Test
+    void multiplicarArredondaComoOBigDecimalEmTodosOsModos() {
+        Random aleatorio = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            long centavos = aleatorio.nextLong(-1_000_000_000L, 1_000_000_000L);
+            BigDecimal fator = BigDecimal.valueOf(aleatorio.nextLong(-10_000_000L, 10_000_000L),
+                    aleatorio.nextInt(0, 7));
+            for (RoundingMode modo : MODOS) {
+                long esperado = BigDecimal.valueOf(centavos).multiply(fator).setScale(0, modo).longValueExact();
+                assertEquals(esperado, Dinheiro.deCentavos(centavos).multiplicar(fator, modo).centavos(),
+                        () -> centavos + " x " + fator + " em " + modo);
+            }
+        }
+    }
+
+    @Test
+    void percentualDivideOFatorPorCem() {
+        Dinheiro valor = Dinheiro.de(new BigDecimal("123.45"));
+
+        assertEquals(new BigDecimal("3.09"), valor.percentual(new BigDecimal("2.50"), RoundingMode.HALF_UP)
+                .paraBigDecimal());
+        assertEquals(new BigDecimal("3.08"), valor.percentual(new BigDecimal("2.50"), RoundingMode.DOWN)
+                .paraBigDecimal());
+        assertEquals(valor, valor.percentual(new BigDecimal("100"), RoundingMode.UNNECESSARY));
+    }
+
+    @Test
+    void conversaoDeBigDecimalConfereComUnscaledValueEmTodosOsModos() {
+        Random aleatorio = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            BigDecimal valor = BigDecimal.valueOf(aleatorio.nextLong(-1_000_000_000_000L, 1_000_000_000_000L),
+                    aleatorio.nextInt(-2, 8));
+            for (RoundingMode modo : MODOS) {
+                long esperado = valor.setScale(2, modo).unscaledValue().longValueExact();
+                assertEquals(esperado, Dinheiro.de(valor, modo).centavos(), () -> valor + " em " + modo);
+            }
+        }
+    }
+
+    @Test
+    void fatorComExpoentePositivoEhNormalizado() {
+        BigDecimal mil = new BigDecimal("1E+3");
+        assertEquals(Dinheiro.deCentavos(5_000), Dinheiro.deCentavos(5).multiplicar(mil));
+    }
+
+    @Test
+    void arredondamentoDesnecessarioComRestoFalha() {
+        Dinheiro valor = Dinheiro.deCentavos(1);
+        assertThrows(ArithmeticException.class,
+                () -> valor.multiplicar(new BigDecimal("0.5"), RoundingMode.UNNECESSARY));
+    }
+
+    @Test
+    void overflowNuncaPassaEmSilencio() {
+        Dinheiro maximo = Dinheiro.deCentavos(Long.MAX_VALUE);
+        Dinheiro minimo = Dinheiro.deCentavos(Long.MIN_VALUE);
+
+        assertThrows(ArithmeticException.class, () -> maximo.mais(Dinheiro.deCentavos(1)));
+        assertThrows(ArithmeticException.class, () -> minimo.menos(Dinheiro.deCentavos(1)));
+        assertThrows(ArithmeticException.class, () -> maximo.multiplicar(new BigDecimal("2")));
+        assertThrows(ArithmeticException.class, () -> Dinheiro.de(new BigDecimal("1E+30")));
+        assertThrows(ArithmeticException.class, minimo::absoluto);
+        assertThrows(ArithmeticException.class,
+                () -> Dinheiro.deCentavos(1).multiplicar(new BigDecimal("1E-20")));
+    }
+
+    @Test
+    void paraBigDecimalSempreComDuasCasas() {
+        assertEquals(new BigDecimal("1.50"), Dinheiro.deCentavos(150).paraBigDecimal());
+        assertEquals("-0.07", Dinheiro.deCentavos(-7).toString());
+        assertSame(Dinheiro.ZERO, Dinheiro.de(new BigDecimal("0.001")));
+    }
+}
@@ -0,0 +1,67 @@
+package com.senai.conta_bancaria.domain.valueobject;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NumeroContaTest {
+
+    @Test
+    void digitoDeLuhnDoExemploClassico() {
+        assertEquals(79_927_398_713L, NumeroConta.comDigito(7_992_739_871L));
+        assertTrue(NumeroConta.valido(79_927_398_713L));
+        assertFalse(NumeroConta.valido(79_927_398_710L));
+    }
+
+    @Test
+    void todoNumeroGeradoEhValido() {
+        Random aleatorio = new Random(7);
+        for (int i = 0; i < 100_000; i++) {
+            long sequencial = aleatorio.nextLong(0, 1_000_000_000_000L);
+            assertTrue(NumeroConta.valido(NumeroConta.comDigito(sequencial)), () -> "sequencial " + sequencial);
+        }
+        assertEquals(0, NumeroConta.comDigito(0));
+    }
+
+    @Test
+    void detectaQualquerDigitoTrocado() {
+        long numero = NumeroConta.comDigito(1_020_304L);
+        String texto = Long.toString(numero);
+        for (int posicao = 0; posicao < texto.length(); posicao++) {
+            for (char digito = '0'; digito <= '9'; digito++) {
+                if (digito == texto.charAt(posicao))
+                    continue;
+                char[] alterado = texto.toCharArray();
+                alterado[posicao] = digito;
+                long trocado = Long.parseLong(new String(alterado));
+                assertFalse(NumeroConta.valido(trocado), () -> numero + " -> " + trocado);
+            }
+        }
+    }
+
+    @Test
+    void detectaTransposicaoDeVizinhosForaDe09() {
+        long numero = NumeroConta.comDigito(1_234_567L);
+        String texto = Long.toString(numero);
+        for (int posicao = 0; posicao + 1 < texto.length(); posicao++) {
+            char a = texto.charAt(posicao);
+            char b = texto.charAt(posicao + 1);
+            if (a == b || (a == '0' && b == '9') || (a == '9' && b == '0'))
+                continue;
+            char[] alterado = texto.toCharArray();
+            alterado[posicao] = b;
+            alterado[posicao + 1] = a;
+            long transposto = Long.parseLong(new String(alterado));
+            assertFalse(NumeroConta.valido(transposto), () -> numero + " -> " + transposto);
+        }
+    }
+
+    @Test
+    void sequencialForaDoIntervaloEhRecusado() {
+        assertThrows(IllegalArgumentException.class, () -> NumeroConta.comDigito(-1));
+        assertThrows(IllegalArgumentException.class, () -> NumeroConta.comDigito(Long.MAX_VALUE / 10));
+        assertFalse(NumeroConta.valido(-18));
+    }
+}
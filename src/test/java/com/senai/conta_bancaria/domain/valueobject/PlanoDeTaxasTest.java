@@ -0,0 +1,69 @@
+package com.senai.conta_bancaria.domain.valueobject;
+
+import com.senai.conta_bancaria.domain.entity.Taxa;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PlanoDeTaxasTest {
+
+    // O plano tem que cobrar exatamente a soma de Taxa.calcularTaxa, com cada percentual arredondado à parte
+    @Test
+    void totalIgualASomaDasTaxasUmaAUma() {
+        Random aleatorio = new Random(7);
+        for (int i = 0; i < 20_000; i++) {
+            List<Taxa> taxas = new ArrayList<>();
+            for (int t = aleatorio.nextInt(1, 6); t > 0; t--)
+                taxas.add(taxa(BigDecimal.valueOf(aleatorio.nextLong(0, 10_000), aleatorio.nextInt(0, 5)),
+                        aleatorio.nextBoolean() ? Dinheiro.deCentavos(aleatorio.nextLong(0, 10_000)) : null));
+            Dinheiro valorBase = Dinheiro.deCentavos(aleatorio.nextLong(0, 100_000_000L));
+
+            Dinheiro esperado = taxas.stream()
+                    .map(taxa -> taxa.calcularTaxa(valorBase))
+                    .reduce(Dinheiro.ZERO, Dinheiro::mais);
+            assertEquals(esperado, compilar(taxas).totalTaxas(valorBase), "caso " + i);
+        }
+    }
+
+    // Três taxas de 0,5% sobre R$ 1,01: 0,505 arredonda para 0,51 cada; o percentual somado daria 1,52
+    @Test
+    void cadaPercentualEhArredondadoAParte() {
+        BigDecimal meioPorCento = new BigDecimal("0.5");
+        PlanoDeTaxas plano = PlanoDeTaxas.compilar(List.of(meioPorCento, meioPorCento, meioPorCento), Dinheiro.ZERO);
+
+        assertEquals(Dinheiro.deCentavos(3), plano.totalTaxas(Dinheiro.deCentavos(101)));
+    }
+
+    @Test
+    void parteFixaEntraUmaVezSoMesmoSemPercentual() {
+        PlanoDeTaxas plano = PlanoDeTaxas.compilar(List.of(BigDecimal.ZERO, new BigDecimal("0.00")),
+                Dinheiro.deCentavos(250));
+
+        assertEquals(Dinheiro.deCentavos(250), plano.totalTaxas(Dinheiro.deCentavos(1_000_000)));
+        assertEquals(Dinheiro.ZERO, PlanoDeTaxas.VAZIO.totalTaxas(Dinheiro.deCentavos(1_000_000)));
+    }
+
+    @Test
+    void percentualComCasasDemaisEhRecusadoNaCompilacao() {
+        assertThrows(ArithmeticException.class,
+                () -> PlanoDeTaxas.compilar(List.of(new BigDecimal("1.00000000000000001")), Dinheiro.ZERO));
+    }
+
+    private static PlanoDeTaxas compilar(List<Taxa> taxas) {
+        Dinheiro fixo = taxas.stream()
+                .map(Taxa::getValorFixo)
+                .filter(Objects::nonNull)
+                .reduce(Dinheiro.ZERO, Dinheiro::mais);
+        return PlanoDeTaxas.compilar(taxas.stream().map(Taxa::getPercentual).toList(), fixo);
+    }
+
+    private static Taxa taxa(BigDecimal percentual, Dinheiro valorFixo) {
+        return Taxa.builder().percentual(percentual).valorFixo(valorFixo).build();
+    }
+}
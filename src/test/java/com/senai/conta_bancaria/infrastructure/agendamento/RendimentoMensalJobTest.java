@@ -0,0 +1,301 @@
+package com.senai.conta_bancaria.infrastructure.agendamento;
+
+import com.senai.conta_bancaria.domain.entity.ContaPoupanca;
+import com.senai.conta_bancaria.domain.entity.ExecucaoRendimento;
+import com.senai.conta_bancaria.domain.enums.StatusExecucao;
+import com.senai.conta_bancaria.domain.exception.ArrendamentoPerdidoException;
+import com.senai.conta_bancaria.domain.repository.ContaRepository;
+import com.senai.conta_bancaria.domain.repository.ExecucaoRendimentoRepository;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.infrastructure.cache.CacheContasPorCpf;
+import com.senai.conta_bancaria.infrastructure.cache.CacheContasPorNumero;
+import com.senai.conta_bancaria.infrastructure.cluster.MembrosDoCluster;
+import com.senai.conta_bancaria.infrastructure.concorrencia.PoliticaDeRetentativa;
+import com.senai.conta_bancaria.infrastructure.coordenacao.CoordenacaoDeNos;
+import com.senai.conta_bancaria.infrastructure.coordenacao.CoordenacaoDeNos.Posse;
+import com.senai.conta_bancaria.infrastructure.movimentacao.DiarioDeMovimentacoes;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// O "banco" é um mapa de poupanças por número; as consultas e os UPDATEs do job são simulados sobre ele
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class RendimentoMensalJobTest {
+
+    private static final YearMonth MES = YearMonth.of(2026, 10);
+    private static final int COMPETENCIA = 202610;
+
+    @Mock
+    ContaRepository repository;
+
+    @Mock
+    ExecucaoRendimentoRepository execucaoRepository;
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @Mock
+    PoliticaDeRetentativa politicaDeRetentativa;
+
+    @Mock
+    CacheContasPorCpf cacheContasPorCpf;
+
+    @Mock
+    CacheContasPorNumero cacheContasPorNumero;
+
+    @Mock
+    DiarioDeMovimentacoes diario;
+
+    @Mock
+    CoordenacaoDeNos coordenacao;
+
+    @Mock
+    MembrosDoCluster cluster;
+
+    private final NavigableMap<Long, ContaPoupanca> contas = new ConcurrentSkipListMap<>();
+    private final Map<Integer, ExecucaoRendimento> execucoes = new HashMap<>();
+    private final AtomicInteger blocosAplicados = new AtomicInteger();
+    private final List<Object> horariosDasMovimentacoes = Collections.synchronizedList(new ArrayList<>());
+
+    private RendimentoMensalJob job;
+
+    @BeforeEach
+    void preparar() {
+        // 25 poupanças com R$ 100,00 e 1% ao mês; a 10 já recebeu o rendimento deste mês
+        for (long numero = 1; numero <= 25; numero++)
+            contas.put(numero, poupanca(numero, numero == 10 ? COMPETENCIA : null));
+
+        when(politicaDeRetentativa.executar(anyString(), any()))
+                .thenAnswer(invocacao -> invocacao.<Supplier<?>>getArgument(1).get());
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocacao -> invocacao.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        doAnswer(invocacao -> {
+            invocacao.<Consumer<Object>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+
+        when(execucaoRepository.findById(anyInt()))
+                .thenAnswer(invocacao -> Optional.ofNullable(execucoes.get(invocacao.<Integer>getArgument(0))));
+        when(execucaoRepository.save(any())).thenAnswer(invocacao -> {
+            ExecucaoRendimento execucao = invocacao.getArgument(0);
+            execucoes.put(execucao.getCompetencia(), execucao);
+            return execucao;
+        });
+
+        when(jdbcTemplate.queryForList(anyString(), eq(Long.class), any(Object[].class)))
+                .thenAnswer(invocacao -> proximosNumeros(invocacao.getArguments()));
+        when(jdbcTemplate.update(anyString(), any(Object[].class)))
+                .thenAnswer(invocacao -> atualizar(invocacao.getArgument(0), invocacao.getArguments()));
+        when(repository.findReadOnlyPoupancasParaRendimento(anyLong(), anyLong()))
+                .thenAnswer(invocacao -> copias(invocacao.getArgument(0), invocacao.getArgument(1)));
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .thenAnswer(invocacao -> gravar(invocacao.getArgument(1)));
+
+        when(cluster.configurado()).thenReturn(false);
+        when(cluster.local(anyLong())).thenReturn(true);
+
+        job = new RendimentoMensalJob(repository, execucaoRepository, jdbcTemplate, transactionTemplate,
+                politicaDeRetentativa, cacheContasPorCpf, cacheContasPorNumero, diario, new SimpleMeterRegistry(),
+                coordenacao, cluster);
+        ReflectionTestUtils.setField(job, "tamanhoBloco", 4);
+        ReflectionTestUtils.setField(job, "threads", 3);
+    }
+
+    @Test
+    void modoJavaAplicaUmaVezEmTodasAsContasPendentes() {
+        ReflectionTestUtils.setField(job, "modo", RendimentoMensalJob.Modo.JAVA);
+
+        job.executar(MES);
+
+        assertTodasComRendimento();
+        ExecucaoRendimento execucao = execucoes.get(COMPETENCIA);
+        assertEquals(StatusExecucao.CONCLUIDA, execucao.getStatus());
+        assertEquals(25L, execucao.getUltimoNumero());
+        assertEquals(24, execucao.getContasAtualizadas());
+        // Blocos de 4 entre as 24 pendentes: 6 blocos, cada um invalidando a própria faixa do cache
+        verify(cacheContasPorNumero, times(6)).invalidarFaixa(anyLong(), anyLong());
+    }
+
+    @Test
+    void modoSqlConfirmaCadaBlocoComOPontoDeRetomada() {
+        ReflectionTestUtils.setField(job, "modo", RendimentoMensalJob.Modo.SQL);
+        LocalDateTime inicio = LocalDateTime.now().minusSeconds(1);
+
+        job.executar(MES);
+
+        assertTodasComRendimento();
+        assertEquals(6, blocosAplicados.get());
+        assertEquals(24, execucoes.get(COMPETENCIA).getContasAtualizadas());
+        assertEquals(StatusExecucao.CONCLUIDA, execucoes.get(COMPETENCIA).getStatus());
+        // A data das movimentações vem do relógio da JVM, como nas demais gravações, e não do NOW(6) do banco
+        assertEquals(6, horariosDasMovimentacoes.size());
+        for (Object horario : horariosDasMovimentacoes) {
+            Timestamp timestamp = assertInstanceOf(Timestamp.class, horario);
+            assertFalse(timestamp.toLocalDateTime().isBefore(inicio));
+            assertFalse(timestamp.toLocalDateTime().isAfter(LocalDateTime.now()));
+        }
+    }
+
+    @Test
+    void execucaoInterrompidaRetomaDoUltimoBlocoConfirmado() {
+        ReflectionTestUtils.setField(job, "modo", RendimentoMensalJob.Modo.SQL);
+        ExecucaoRendimento interrompida = ExecucaoRendimento.iniciar(COMPETENCIA);
+        interrompida.avancar(12L, 11);
+        execucoes.put(COMPETENCIA, interrompida);
+        // O bloco até a conta 12 já tinha sido confirmado antes da queda
+        contas.headMap(12L, true).values().forEach(conta -> conta.aplicarRendimento(COMPETENCIA));
+
+        job.executar(MES);
+
+        assertTodasComRendimento();
+        assertEquals(24, execucoes.get(COMPETENCIA).getContasAtualizadas());
+    }
+
+    @Test
+    void mesJaConcluidoNaoEhAplicadoDeNovo() {
+        ReflectionTestUtils.setField(job, "modo", RendimentoMensalJob.Modo.JAVA);
+        job.executar(MES);
+        clearInvocations(jdbcTemplate, repository);
+
+        job.executar(MES);
+
+        verifyNoInteractions(repository);
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyCollection(), anyInt(), any());
+        assertTodasComRendimento();
+    }
+
+    // Disparo agendado: o token de cerca é conferido antes de cada bloco; perdido o arrendamento, nada mais é
+    // confirmado e o ponto de retomada fica no último bloco que passou
+    @Test
+    void arrendamentoPerdidoInterrompeOJobNoBlocoSeguinte() {
+        ReflectionTestUtils.setField(job, "modo", RendimentoMensalJob.Modo.SQL);
+        Posse posse = new Posse(CoordenacaoDeNos.LIDER, 7);
+        when(coordenacao.comoLider(anyString(), any())).thenAnswer(invocacao -> {
+            invocacao.<Consumer<Posse>>getArgument(1).accept(posse);
+            return true;
+        });
+        AtomicInteger validacoes = new AtomicInteger();
+        doAnswer(invocacao -> {
+            if (validacoes.incrementAndGet() > 2)
+                throw new ArrendamentoPerdidoException(posse.nome(), posse.token());
+            return null;
+        }).when(coordenacao).validar(posse);
+
+        assertThrows(ArrendamentoPerdidoException.class, job::executarAgendado);
+
+        assertEquals(2, blocosAplicados.get());
+        ExecucaoRendimento execucao = execucoes.get(YearMonth.now().getYear() * 100 + YearMonth.now().getMonthValue());
+        assertEquals(StatusExecucao.EM_ANDAMENTO, execucao.getStatus());
+    }
+
+    private void assertTodasComRendimento() {
+        for (ContaPoupanca conta : contas.values()) {
+            assertEquals(Dinheiro.deCentavos(101_00), conta.getSaldo(), "conta " + conta.getNumero());
+            assertEquals(COMPETENCIA, conta.getCompetenciaRendimento());
+        }
+    }
+
+    // PROXIMOS_NUMEROS: (depoisDe, competencia, limite)
+    private List<Long> proximosNumeros(Object[] argumentos) {
+        long depoisDe = ((Number) argumentos[2]).longValue();
+        int competencia = (Integer) argumentos[3];
+        int limite = (Integer) argumentos[4];
+        return contas.tailMap(depoisDe, false).values().stream()
+                .filter(conta -> pendente(conta, competencia))
+                .map(ContaPoupanca::getNumero)
+                .limit(limite)
+                .toList();
+    }
+
+    // Modo SQL por faixa: o INSERT das movimentações só é contado; o UPDATE aplica o rendimento em (de, ate]
+    private int atualizar(String sql, Object[] argumentos) {
+        if (sql.contains("INSERT INTO movimentacao"))
+            horariosDasMovimentacoes.add(argumentos[1]);
+        if (!sql.contains("UPDATE conta"))
+            return 0;
+        int competencia = (Integer) argumentos[1];
+        long de = ((Number) argumentos[2]).longValue();
+        long ate = ((Number) argumentos[3]).longValue();
+        int atualizadas = 0;
+        for (ContaPoupanca conta : contas.subMap(de, false, ate, true).values()) {
+            if (conta.aplicarRendimento(competencia))
+                atualizadas++;
+        }
+        blocosAplicados.incrementAndGet();
+        return atualizadas;
+    }
+
+    private List<ContaPoupanca> copias(long de, long ate) {
+        return contas.subMap(de, false, ate, true).values().stream()
+                .map(RendimentoMensalJobTest::copia)
+                .toList();
+    }
+
+    // A consulta é somente leitura: o job altera a cópia e só o batchUpdate grava no "banco"
+    private static ContaPoupanca copia(ContaPoupanca conta) {
+        return ContaPoupanca.builder()
+                .id(conta.getId())
+                .numero(conta.getNumero())
+                .saldo(conta.getSaldo())
+                .ativo(true)
+                .versao(conta.getVersao())
+                .rendimento(conta.getRendimento())
+                .competenciaRendimento(conta.getCompetenciaRendimento())
+                .build();
+    }
+
+    private int[][] gravar(Collection<ContaPoupanca> gravadas) {
+        int[] linhas = new int[gravadas.size()];
+        int i = 0;
+        for (ContaPoupanca gravada : gravadas) {
+            ContaPoupanca conta = contas.get(gravada.getNumero());
+            conta.setSaldo(gravada.getSaldo());
+            conta.setCompetenciaRendimento(gravada.getCompetenciaRendimento());
+            linhas[i++] = 1;
+        }
+        return new int[][]{linhas};
+    }
+
+    private static boolean pendente(ContaPoupanca conta, int competencia) {
+        return conta.getCompetenciaRendimento() == null || conta.getCompetenciaRendimento() < competencia;
+    }
+
+    private static ContaPoupanca poupanca(long numero, Integer competencia) {
+        return ContaPoupanca.builder()
+                .id(UUID.randomUUID())
+                .numero(numero)
+                .saldo(Dinheiro.deCentavos(competencia != null && competencia == COMPETENCIA ? 101_00 : 100_00))
+                .ativo(true)
+                .versao(0L)
+                .rendimento(new BigDecimal("0.01"))
+                .competenciaRendimento(competencia)
+                .build();
+    }
+}
@@ -0,0 +1,139 @@
+package com.senai.conta_bancaria.infrastructure.agendamento;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RodaDeTempoTest {
+
+    private static final long TIQUE_MS = 1_000;
+    private static final long INICIO_MS = 1_735_689_600_123L;
+    private static final long DIA_MS = 86_400_000L;
+
+    private record Agendado(int id, long instanteMs) {
+    }
+
+    @Test
+    void nadaVenceAntesNemDepoisDoTiqueEmQueFoiPedidoENadaSePerde() {
+        Random aleatorio = new Random(2025);
+        RodaDeTempo<Agendado> roda = new RodaDeTempo<>(TIQUE_MS, INICIO_MS);
+        Map<Integer, Long> tiqueDevido = new HashMap<>();
+
+        // Do passado recente até meses à frente, cobrindo os quatro níveis
+        for (int id = 0; id < 20_000; id++) {
+            long instante = INICIO_MS + aleatorio.nextLong(-5 * TIQUE_MS, 120 * DIA_MS);
+            roda.agendar(new Agendado(id, instante), instante);
+            tiqueDevido.put(id, Math.max(Math.ceilDiv(instante, TIQUE_MS), INICIO_MS / TIQUE_MS + 1));
+        }
+        assertEquals(20_000, roda.tamanho());
+
+        Set<Integer> vencidos = new HashSet<>();
+        avancarAteEsvaziar(roda, aleatorio, tiqueDevido, INICIO_MS, vencidos);
+        assertEquals(tiqueDevido.keySet(), vencidos);
+    }
+
+    @Test
+    void agendarDuranteOAvancoTambemRespeitaOTique() {
+        Random aleatorio = new Random(99);
+        RodaDeTempo<Agendado> roda = new RodaDeTempo<>(TIQUE_MS, INICIO_MS);
+        Map<Integer, Long> tiqueDevido = new HashMap<>();
+        Set<Integer> vencidos = new HashSet<>();
+
+        long agora = INICIO_MS;
+        int proximoId = 0;
+        for (int passo = 0; passo < 5_000; passo++) {
+            for (int i = 0; i < 5; i++) {
+                long instante = agora + aleatorio.nextLong(-10 * TIQUE_MS, 3 * DIA_MS);
+                roda.agendar(new Agendado(proximoId, instante), instante);
+                tiqueDevido.put(proximoId++, Math.max(Math.ceilDiv(instante, TIQUE_MS), agora / TIQUE_MS + 1));
+            }
+
+            long anterior = agora;
+            agora += aleatorio.nextLong(1, 120_000);
+            long alvo = agora;
+            roda.avancar(agora, agendado -> vencer(agendado, tiqueDevido, anterior, alvo, vencidos));
+        }
+
+        avancarAteEsvaziar(roda, aleatorio, tiqueDevido, agora, vencidos);
+        assertEquals(proximoId, vencidos.size());
+    }
+
+    @Test
+    void instantePassadoVenceNoProximoTique() {
+        RodaDeTempo<String> roda = new RodaDeTempo<>(TIQUE_MS, INICIO_MS);
+        roda.agendar("atrasado", INICIO_MS - DIA_MS);
+        List<String> vencidos = new ArrayList<>();
+
+        roda.avancar(INICIO_MS, vencidos::add);
+        assertTrue(vencidos.isEmpty());
+
+        roda.avancar(INICIO_MS + TIQUE_MS, vencidos::add);
+        assertEquals(List.of("atrasado"), vencidos);
+        assertEquals(0, roda.tamanho());
+    }
+
+    @Test
+    void alemDoAlcanceDaRodaOItemEsperaORecolocamento() {
+        // Tique de 1 ms: o alcance de 64^4 tiques fica em cerca de 4,6 horas
+        long alcanceMs = 1L << 24;
+        RodaDeTempo<String> roda = new RodaDeTempo<>(1, 0);
+        long instante = 2 * alcanceMs + 12_345;
+        roda.agendar("distante", instante);
+        List<String> vencidos = new ArrayList<>();
+
+        roda.avancar(instante - 1, vencidos::add);
+        assertTrue(vencidos.isEmpty());
+        assertEquals(1, roda.tamanho());
+
+        roda.avancar(instante, vencidos::add);
+        assertEquals(List.of("distante"), vencidos);
+    }
+
+    @Test
+    void venceEmOrdemDeTique() {
+        RodaDeTempo<Long> roda = new RodaDeTempo<>(TIQUE_MS, INICIO_MS);
+        Random aleatorio = new Random(5);
+        for (int i = 0; i < 2_000; i++) {
+            long instante = INICIO_MS + aleatorio.nextLong(0, DIA_MS);
+            roda.agendar(Math.max(Math.ceilDiv(instante, TIQUE_MS), INICIO_MS / TIQUE_MS + 1), instante);
+        }
+
+        List<Long> tiques = new ArrayList<>();
+        roda.avancar(INICIO_MS + DIA_MS + TIQUE_MS, tiques::add);
+
+        assertEquals(2_000, tiques.size());
+        for (int i = 1; i < tiques.size(); i++)
+            assertTrue(tiques.get(i - 1) <= tiques.get(i));
+    }
+
+    // Avança em passos aleatórios (de um tique a vários dias) até a roda esvaziar, conferindo cada vencimento
+    private static void avancarAteEsvaziar(RodaDeTempo<Agendado> roda, Random aleatorio,
+                                           Map<Integer, Long> tiqueDevido, long agoraMs, Set<Integer> vencidos) {
+        long ultimoMs = tiqueDevido.values().stream().mapToLong(Long::longValue).max().orElse(0) * TIQUE_MS;
+        long agora = agoraMs;
+        while (roda.tamanho() > 0) {
+            assertTrue(agora < ultimoMs, "itens na roda depois do último instante agendado");
+            long anterior = agora;
+            agora += aleatorio.nextInt(4) == 0 ? aleatorio.nextLong(1, 3 * DIA_MS) : aleatorio.nextLong(1, 90_000);
+            long alvo = agora;
+            roda.avancar(agora, agendado -> vencer(agendado, tiqueDevido, anterior, alvo, vencidos));
+        }
+    }
+
+    // Vence na chamada cujo tique alcança o devido, e não numa anterior
+    private static void vencer(Agendado agendado, Map<Integer, Long> tiqueDevido, long anteriorMs, long agoraMs,
+                               Set<Integer> vencidos) {
+        long devido = tiqueDevido.get(agendado.id());
+        assertTrue(devido <= agoraMs / TIQUE_MS, "venceu antes do tique " + devido);
+        assertTrue(devido > anteriorMs / TIQUE_MS, "venceu depois do tique " + devido);
+        assertTrue(vencidos.add(agendado.id()), "venceu duas vezes: " + agendado.id());
+    }
+}
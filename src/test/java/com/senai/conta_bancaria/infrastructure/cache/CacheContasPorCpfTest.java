@@ -0,0 +1,139 @@
+package com.senai.conta_bancaria.infrastructure.cache;
+
+import com.senai.conta_bancaria.domain.event.ContaAlteradaEvent;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.domain.valueobject.ResumoConta;
+import com.senai.conta_bancaria.infrastructure.cluster.MembrosDoCluster;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CacheContasPorCpfTest {
+
+    private static final Long CPF = 12345678901L;
+
+    @Mock
+    MembrosDoCluster cluster;
+
+    private CacheContasPorCpf cache;
+    private final AtomicInteger cargas = new AtomicInteger();
+
+    @BeforeEach
+    void preparar() {
+        when(cluster.configurado()).thenReturn(false);
+        cache = new CacheContasPorCpf(2, 60, cluster);
+    }
+
+    @Test
+    void segundaLeituraVemDoCacheAteUmaEscritaNaConta() {
+        cache.buscar(CPF, cpf -> carregar(7L, 100));
+        cache.buscar(CPF, cpf -> carregar(7L, 100));
+        assertEquals(1, cargas.get());
+
+        // Evento sem CPF: a conta é achada pelo índice reverso
+        cache.aoAlterarConta(new ContaAlteradaEvent(7L, null));
+
+        List<ResumoConta> contas = cache.buscar(CPF, cpf -> carregar(7L, 90));
+        assertEquals(2, cargas.get());
+        assertEquals(Dinheiro.deCentavos(90), contas.get(0).saldo());
+    }
+
+    @Test
+    void cargaQueCruzaUmaEscritaNaoEhGuardada() {
+        cache.buscar(CPF, cpf -> {
+            List<ResumoConta> lidas = carregar(7L, 100);
+            // A escrita confirma enquanto a carga ainda está em andamento
+            cache.aoAlterarConta(new ContaAlteradaEvent(7L, null));
+            return lidas;
+        });
+
+        cache.buscar(CPF, cpf -> carregar(7L, 90));
+        assertEquals(2, cargas.get());
+    }
+
+    @Test
+    void despejoPorTamanhoEsqueceOsNumerosDaEntrada() {
+        cache.buscar(1L, cpf -> carregar(10L, 1));
+        cache.buscar(2L, cpf -> carregar(20L, 2));
+        cache.buscar(3L, cpf -> carregar(30L, 3));
+
+        // O CPF 1 saiu pelo LRU; uma escrita na conta 10 não o encontra mais e só avança a geração
+        cache.aoAlterarConta(new ContaAlteradaEvent(10L, null));
+        cache.buscar(2L, cpf -> carregar(20L, 2));
+        assertEquals(3, cargas.get());
+    }
+
+    // Leitores carregam enquanto escritores alteram o "banco" e publicam o evento, como no AFTER_COMMIT. Depois que
+    // as escritas param, o cache nunca pode ficar com um saldo anterior à última escrita.
+    @Test
+    void invalidacoesConcorrentesNuncaDeixamEntradaVelha() throws Exception {
+        AtomicLong banco = new AtomicLong();
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+
+        try {
+            for (int rodada = 0; rodada < 100; rodada++) {
+                AtomicBoolean escrevendo = new AtomicBoolean(true);
+                List<Future<?>> tarefas = new ArrayList<>();
+                for (int leitor = 0; leitor < 2; leitor++) {
+                    tarefas.add(threads.submit(() -> {
+                        while (escrevendo.get())
+                            cache.buscar(CPF, cpf -> {
+                                long saldo = banco.get();
+                                Thread.yield();
+                                return List.of(new ResumoConta(7L, "CORRENTE", Dinheiro.deCentavos(saldo)));
+                            });
+                    }));
+                }
+                tarefas.add(threads.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        banco.incrementAndGet();
+                        cache.aoAlterarConta(new ContaAlteradaEvent(7L, i % 2 == 0 ? CPF : null));
+                        Thread.yield();
+                    }
+                    escrevendo.set(false);
+                }));
+                for (Future<?> tarefa : tarefas)
+                    tarefa.get(10, TimeUnit.SECONDS);
+
+                long atual = banco.get();
+                List<ResumoConta> contas = cache.buscar(CPF, cpf ->
+                        List.of(new ResumoConta(7L, "CORRENTE", Dinheiro.deCentavos(banco.get()))));
+                assertEquals(Dinheiro.deCentavos(atual), contas.get(0).saldo(), "rodada " + rodada);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    @Test
+    void limparDescartaTudo() {
+        cache.buscar(CPF, cpf -> carregar(7L, 100));
+        cache.limpar();
+        cache.buscar(CPF, cpf -> carregar(7L, 100));
+        assertEquals(2, cargas.get());
+    }
+
+    private List<ResumoConta> carregar(Long numero, long centavos) {
+        cargas.incrementAndGet();
+        return List.of(new ResumoConta(numero, "CORRENTE", Dinheiro.deCentavos(centavos)));
+    }
+}
@@ -0,0 +1,172 @@
+package com.senai.conta_bancaria.infrastructure.cache;
+
+import com.senai.conta_bancaria.domain.event.ContaAlteradaEvent;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.domain.valueobject.ResumoConta;
+import com.senai.conta_bancaria.infrastructure.cluster.MembrosDoCluster;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CacheContasPorNumeroTest {
+
+    @Mock
+    MembrosDoCluster cluster;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CacheContasPorNumero cache;
+    private final AtomicInteger cargas = new AtomicInteger();
+
+    @BeforeEach
+    void preparar() {
+        when(cluster.local(anyLong())).thenReturn(true);
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new CacheContasPorNumero(2, 60, meterRegistry, cluster);
+    }
+
+    @Test
+    void segundaLeituraVemDoCacheAteUmaEscritaNaConta() {
+        cache.buscar(7L, numero -> carregar(numero, 100));
+        cache.buscar(7L, numero -> carregar(numero, 100));
+        assertEquals(1, cargas.get());
+
+        cache.aoAlterarConta(new ContaAlteradaEvent(7L, null));
+
+        Optional<ResumoConta> conta = cache.buscar(7L, numero -> carregar(numero, 90));
+        assertEquals(2, cargas.get());
+        assertEquals(Dinheiro.deCentavos(90), conta.orElseThrow().saldo());
+        assertEquals(1, meterRegistry.get("conta.cache.numero.requisicoes").tag("resultado", "acerto")
+                .functionCounter().count());
+    }
+
+    // Em cluster o nó guarda só as contas que atende: as dos outros donos mudam sem evento aqui
+    @Test
+    void emClusterSoAsContasDoProprioNoSaoGuardadas() {
+        when(cluster.local(8L)).thenReturn(false);
+
+        cache.buscar(7L, numero -> carregar(numero, 100));
+        cache.buscar(7L, numero -> carregar(numero, 100));
+        cache.buscar(8L, numero -> carregar(numero, 100));
+        cache.buscar(8L, numero -> carregar(numero, 100));
+
+        assertEquals(3, cargas.get());
+    }
+
+    @Test
+    void cargaQueCruzaUmaEscritaNaoEhGuardada() {
+        cache.buscar(7L, numero -> {
+            Optional<ResumoConta> lida = carregar(numero, 100);
+            cache.invalidar(7L);
+            return lida;
+        });
+
+        cache.buscar(7L, numero -> carregar(numero, 90));
+        assertEquals(2, cargas.get());
+    }
+
+    @Test
+    void contaInexistenteNaoEhGuardada() {
+        cache.buscar(7L, numero -> {
+            cargas.incrementAndGet();
+            return Optional.empty();
+        });
+        cache.buscar(7L, numero -> carregar(numero, 100));
+
+        assertEquals(2, cargas.get());
+    }
+
+    @Test
+    void invalidarFaixaSoDescartaOsNumerosDoIntervalo() {
+        cache.buscar(3L, numero -> carregar(numero, 1));
+        cache.buscar(9L, numero -> carregar(numero, 1));
+
+        cache.invalidarFaixa(0L, 4L);
+        cache.buscar(3L, numero -> carregar(numero, 2));
+        cache.buscar(9L, numero -> carregar(numero, 2));
+
+        assertEquals(3, cargas.get());
+    }
+
+    @Test
+    void despejoPorTamanhoRemoveAMenosUsadaRecentemente() {
+        cache.buscar(1L, numero -> carregar(numero, 1));
+        cache.buscar(2L, numero -> carregar(numero, 2));
+        cache.buscar(1L, numero -> carregar(numero, 1));
+        cache.buscar(3L, numero -> carregar(numero, 3));
+
+        cache.buscar(1L, numero -> carregar(numero, 1));
+        assertEquals(3, cargas.get());
+        cache.buscar(2L, numero -> carregar(numero, 2));
+        assertEquals(4, cargas.get());
+        assertEquals(2, meterRegistry.get("conta.cache.numero.remocoes").tag("motivo", "tamanho")
+                .functionCounter().count());
+    }
+
+    // Mesmo cenário do cache por CPF: depois que as escritas param, nenhum saldo anterior à última pode sobrar
+    @Test
+    void invalidacoesConcorrentesNuncaDeixamEntradaVelha() throws Exception {
+        AtomicLong banco = new AtomicLong();
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+
+        try {
+            for (int rodada = 0; rodada < 100; rodada++) {
+                AtomicBoolean escrevendo = new AtomicBoolean(true);
+                List<Future<?>> tarefas = new ArrayList<>();
+                for (int leitor = 0; leitor < 2; leitor++) {
+                    tarefas.add(threads.submit(() -> {
+                        while (escrevendo.get())
+                            cache.buscar(7L, numero -> {
+                                long saldo = banco.get();
+                                Thread.yield();
+                                return Optional.of(new ResumoConta(numero, "CORRENTE", Dinheiro.deCentavos(saldo)));
+                            });
+                    }));
+                }
+                tarefas.add(threads.submit(() -> {
+                    for (int i = 0; i < 50; i++) {
+                        banco.incrementAndGet();
+                        cache.aoAlterarConta(new ContaAlteradaEvent(7L, null));
+                        Thread.yield();
+                    }
+                    escrevendo.set(false);
+                }));
+                for (Future<?> tarefa : tarefas)
+                    tarefa.get(10, TimeUnit.SECONDS);
+
+                long atual = banco.get();
+                Optional<ResumoConta> conta = cache.buscar(7L, numero ->
+                        Optional.of(new ResumoConta(numero, "CORRENTE", Dinheiro.deCentavos(banco.get()))));
+                assertEquals(Dinheiro.deCentavos(atual), conta.orElseThrow().saldo(), "rodada " + rodada);
+            }
+        } finally {
+            threads.shutdownNow();
+        }
+    }
+
+    private Optional<ResumoConta> carregar(Long numero, long centavos) {
+        cargas.incrementAndGet();
+        return Optional.of(new ResumoConta(numero, "CORRENTE", Dinheiro.deCentavos(centavos)));
+    }
+}
@@ -0,0 +1,61 @@
+package com.senai.conta_bancaria.infrastructure.cache;
+
+import com.senai.conta_bancaria.domain.entity.Taxa;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.domain.valueobject.PlanoDeTaxas;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachePlanosDeTaxasTest {
+
+    private final CachePlanosDeTaxas cache = new CachePlanosDeTaxas(2);
+
+    @Test
+    void mesmoConjuntoEmOutraOrdemReusaOPlano() {
+        Taxa a = taxa("a", 0L, "1.50");
+        Taxa b = taxa("b", 0L, "2.00");
+
+        PlanoDeTaxas plano = cache.plano(List.of(a, b));
+
+        assertSame(plano, cache.plano(List.of(b, a)));
+        assertEquals(Dinheiro.deCentavos(350), plano.totalTaxas(Dinheiro.deCentavos(10_000)));
+    }
+
+    @Test
+    void taxaAlteradaGeraOutroPlano() {
+        PlanoDeTaxas antes = cache.plano(Set.of(taxa("a", 0L, "1.50")));
+        PlanoDeTaxas depois = cache.plano(Set.of(taxa("a", 1L, "3.00")));
+
+        assertNotSame(antes, depois);
+        assertEquals(Dinheiro.deCentavos(300), depois.totalTaxas(Dinheiro.deCentavos(10_000)));
+    }
+
+    @Test
+    void planoMenosUsadoSaiPeloLimite() {
+        PlanoDeTaxas a = cache.plano(Set.of(taxa("a", 0L, "1.00")));
+        PlanoDeTaxas b = cache.plano(Set.of(taxa("b", 0L, "1.00")));
+        cache.plano(Set.of(taxa("a", 0L, "1.00")));
+        cache.plano(Set.of(taxa("c", 0L, "1.00")));
+
+        assertSame(a, cache.plano(Set.of(taxa("a", 0L, "1.00"))));
+        assertNotSame(b, cache.plano(Set.of(taxa("b", 0L, "1.00"))));
+    }
+
+    @Test
+    void taxaSemIdOuVersaoNaoEhGuardada() {
+        Taxa nova = Taxa.builder().percentual(new BigDecimal("1.00")).build();
+
+        assertNotSame(cache.plano(Set.of(nova)), cache.plano(Set.of(nova)));
+        assertSame(PlanoDeTaxas.VAZIO, cache.plano(Set.of()));
+        assertSame(PlanoDeTaxas.VAZIO, cache.plano(null));
+    }
+
+    private static Taxa taxa(String id, Long versao, String percentual) {
+        return Taxa.builder().id(id).versao(versao).percentual(new BigDecimal(percentual)).build();
+    }
+}
@@ -0,0 +1,123 @@
+package com.senai.conta_bancaria.infrastructure.cache;
+
+import com.senai.conta_bancaria.domain.entity.Taxa;
+import com.senai.conta_bancaria.domain.event.TaxaAlteradaEvent;
+import com.senai.conta_bancaria.domain.exception.EntidadeNaoEncontradaException;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// O banco é simulado só nas duas consultas do catálogo: a versão e as linhas de taxas ativas
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CatalogoDeTaxasTest {
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    private final List<ResultSet> ativas = new ArrayList<>();
+    private CatalogoDeTaxas catalogo;
+
+    @BeforeEach
+    void preparar() throws Exception {
+        ativas.add(linha("tarifa", "2.50", "1.00"));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*)"), eq(Long.class))).thenReturn(1L);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class))).thenAnswer(invocacao -> {
+            RowMapper<?> mapeador = invocacao.getArgument(1);
+            List<Object> taxas = new ArrayList<>();
+            for (int i = 0; i < ativas.size(); i++)
+                taxas.add(mapeador.mapRow(ativas.get(i), i));
+            return taxas;
+        });
+
+        catalogo = new CatalogoDeTaxas(jdbcTemplate, transactionManager);
+    }
+
+    @Test
+    void resolveAsTaxasAtivasSemIrAoBancoDepoisDaCarga() {
+        Set<Taxa> taxas = catalogo.resolver(List.of("tarifa"));
+        catalogo.resolver(List.of("tarifa"));
+
+        Taxa taxa = taxas.iterator().next();
+        assertEquals(Dinheiro.deCentavos(350), taxa.calcularTaxa(Dinheiro.deCentavos(10_000)));
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class));
+    }
+
+    // Antes do catálogo a taxa era buscada por id e a inativa também entrava no pagamento; agora é recusada
+    @Test
+    void taxaInativaEhRecusadaComoDesconhecida() {
+        EntidadeNaoEncontradaException erro = assertThrows(EntidadeNaoEncontradaException.class,
+                () -> catalogo.resolver(List.of("tarifa", "inativa")));
+
+        assertTrue(erro.getMessage().contains("inativa"));
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(sql.capture(), any(RowMapper.class));
+        assertTrue(sql.getValue().contains("WHERE ativo = true"));
+    }
+
+    @Test
+    void verificacaoSoRecarregaQuandoAVersaoMuda() throws Exception {
+        catalogo.verificar();
+        catalogo.verificar();
+        verify(jdbcTemplate, times(1)).query(anyString(), any(RowMapper.class));
+
+        // Taxa criada em outro nó
+        ativas.add(linha("nova", "1.00", null));
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*)"), eq(Long.class))).thenReturn(2L);
+        catalogo.verificar();
+
+        assertEquals(1, catalogo.resolver(List.of("nova")).size());
+        verify(jdbcTemplate, times(2)).query(anyString(), any(RowMapper.class));
+    }
+
+    @Test
+    void alteracaoConfirmadaNesteNoTrocaOCatalogo() {
+        catalogo.resolver(List.of("tarifa"));
+
+        // Desativada: o commit publica o evento e a taxa some da próxima fotografia
+        ativas.clear();
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*)"), eq(Long.class))).thenReturn(2L);
+        catalogo.aoAlterarTaxa(new TaxaAlteradaEvent("tarifa"));
+
+        assertThrows(EntidadeNaoEncontradaException.class, () -> catalogo.resolver(List.of("tarifa")));
+    }
+
+    @Test
+    void semIdsNaoCarregaNada() {
+        assertTrue(catalogo.resolver(List.of()).isEmpty());
+        assertTrue(catalogo.resolver(null).isEmpty());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private static ResultSet linha(String id, String percentual, String valorFixo) throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getString("id")).thenReturn(id);
+        when(rs.getString("descricao")).thenReturn("Taxa " + id);
+        when(rs.getBigDecimal("percentual")).thenReturn(new BigDecimal(percentual));
+        when(rs.getBigDecimal("valor_fixo")).thenReturn(valorFixo != null ? new BigDecimal(valorFixo) : null);
+        when(rs.getLong("versao")).thenReturn(0L);
+        return rs;
+    }
+}
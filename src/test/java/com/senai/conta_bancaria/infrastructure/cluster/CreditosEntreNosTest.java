@@ -0,0 +1,185 @@
+package com.senai.conta_bancaria.infrastructure.cluster;
+
+import com.senai.conta_bancaria.domain.entity.ContaCorrente;
+import com.senai.conta_bancaria.domain.entity.CreditoEntreNos;
+import com.senai.conta_bancaria.domain.entity.Movimentacao;
+import com.senai.conta_bancaria.domain.enums.TipoMovimentacao;
+import com.senai.conta_bancaria.domain.repository.ContaRepository;
+import com.senai.conta_bancaria.domain.repository.CreditoEntreNosRepository;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.infrastructure.concorrencia.PoliticaDeRetentativa;
+import com.senai.conta_bancaria.infrastructure.movimentacao.DiarioDeMovimentacoes;
+import com.senai.conta_bancaria.infrastructure.saldo.SaldosFracionados;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CreditosEntreNosTest {
+
+    private static final String NO_LOCAL = "http://no-a:8080";
+
+    @Mock
+    CreditoEntreNosRepository repository;
+
+    @Mock
+    ContaRepository contaRepository;
+
+    @Mock
+    MembrosDoCluster cluster;
+
+    @Mock
+    SaldosFracionados saldosFracionados;
+
+    @Mock
+    DiarioDeMovimentacoes diario;
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @Mock
+    PoliticaDeRetentativa politicaDeRetentativa;
+
+    @InjectMocks
+    CreditosEntreNos creditos;
+
+    private ContaCorrente destino;
+
+    @BeforeEach
+    void preparar() {
+        ReflectionTestUtils.setField(creditos, "tamanhoPagina", 2);
+        destino = ContaCorrente.builder()
+                .id(UUID.randomUUID())
+                .numero(7L)
+                .saldo(Dinheiro.deCentavos(1_000))
+                .ativo(true)
+                .versao(0L)
+                .build();
+
+        when(cluster.configurado()).thenReturn(true);
+        when(cluster.noLocal()).thenReturn(NO_LOCAL);
+        when(politicaDeRetentativa.executar(anyString(), any()))
+                .thenAnswer(invocacao -> invocacao.<Supplier<?>>getArgument(1).get());
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocacao -> invocacao.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(jdbcTemplate.update(startsWith("DELETE FROM credito_entre_nos"), any(Object[].class))).thenReturn(1);
+        when(contaRepository.findForUpdateByNumeroAndAtivoTrue(7L)).thenReturn(Optional.of(destino));
+    }
+
+    @Test
+    void encaminharGravaOCreditoParaODonoDoDestino() {
+        when(cluster.donoDe(7L)).thenReturn("http://no-b:8080");
+
+        creditos.encaminhar(3L, 7L, Dinheiro.deCentavos(250));
+
+        ArgumentCaptor<CreditoEntreNos> gravado = ArgumentCaptor.forClass(CreditoEntreNos.class);
+        verify(repository).save(gravado.capture());
+        assertEquals(7L, gravado.getValue().getNumeroConta());
+        assertEquals(3L, gravado.getValue().getNumeroOrigem());
+        assertEquals("http://no-b:8080", gravado.getValue().getNoDestino());
+    }
+
+    @Test
+    void donoCreditaOsSeusEApagaCadaPendenteNaMesmaTransacao() {
+        paginas(List.of(credito(1L, 250), credito(2L, 100)), List.of());
+
+        creditos.entregar();
+
+        assertEquals(Dinheiro.deCentavos(1_350), destino.getSaldo());
+        verify(contaRepository, times(2)).save(destino);
+        verify(jdbcTemplate).update(startsWith("DELETE FROM credito_entre_nos"), eq(1L));
+        verify(jdbcTemplate).update(startsWith("DELETE FROM credito_entre_nos"), eq(2L));
+        verify(diario, times(2)).registrar(argThat((Movimentacao movimentacao) ->
+                movimentacao.getTipo() == TipoMovimentacao.TRANSFERENCIA_RECEBIDA
+                        && movimentacao.getNumeroContraparte() == 3L));
+        // A segunda página começa depois do último id visto
+        verify(repository).findByNoDestinoAndIdGreaterThanOrderByIdAsc(eq(NO_LOCAL), eq(2L), any(Limit.class));
+    }
+
+    @Test
+    void creditoJaEntreguePorOutraExecucaoNaoCreditaDeNovo() {
+        paginas(List.of(credito(1L, 250)));
+        when(jdbcTemplate.update(startsWith("DELETE FROM credito_entre_nos"), any(Object[].class))).thenReturn(0);
+
+        creditos.entregar();
+
+        assertEquals(Dinheiro.deCentavos(1_000), destino.getSaldo());
+        verify(contaRepository, never()).save(any());
+    }
+
+    // Destino desativado depois do débito: o crédito não se perde e não impede a entrega dos seguintes
+    @Test
+    void destinoInativoDeixaOCreditoPendenteESegueParaOProximo() {
+        CreditoEntreNos parado = CreditoEntreNos.builder()
+                .id(1L).numeroConta(9L).numeroOrigem(3L).valor(Dinheiro.deCentavos(50)).noDestino(NO_LOCAL).build();
+        paginas(List.of(parado, credito(2L, 100)), List.of());
+
+        creditos.entregar();
+
+        assertEquals(Dinheiro.deCentavos(1_100), destino.getSaldo());
+        verify(contaRepository).save(destino);
+    }
+
+    @Test
+    void destinoFracionadoRecebeNumaFatia() {
+        paginas(List.of(credito(1L, 250)));
+        when(saldosFracionados.fracionada(destino)).thenReturn(true);
+        when(saldosFracionados.creditar(destino, Dinheiro.deCentavos(250))).thenReturn(Dinheiro.deCentavos(1_250));
+
+        creditos.entregar();
+
+        verify(saldosFracionados).creditar(destino, Dinheiro.deCentavos(250));
+        verify(contaRepository, never()).save(any());
+    }
+
+    @Test
+    void semClusterNaoHaNadaAEntregar() {
+        when(cluster.configurado()).thenReturn(false);
+
+        creditos.entregar();
+
+        verifyNoInteractions(repository);
+    }
+
+    @SafeVarargs
+    private void paginas(List<CreditoEntreNos>... paginas) {
+        var stub = when(repository.findByNoDestinoAndIdGreaterThanOrderByIdAsc(eq(NO_LOCAL), anyLong(),
+                any(Limit.class)));
+        for (List<CreditoEntreNos> pagina : paginas)
+            stub = stub.thenReturn(pagina);
+    }
+
+    private static CreditoEntreNos credito(long id, long centavos) {
+        return CreditoEntreNos.builder()
+                .id(id)
+                .numeroConta(7L)
+                .numeroOrigem(3L)
+                .valor(Dinheiro.deCentavos(centavos))
+                .noDestino(NO_LOCAL)
+                .build();
+    }
+}
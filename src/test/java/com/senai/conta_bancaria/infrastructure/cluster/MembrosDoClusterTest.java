@@ -0,0 +1,95 @@
+package com.senai.conta_bancaria.infrastructure.cluster;
+
+import com.senai.conta_bancaria.domain.exception.ContaEmOutroNoException;
+import com.senai.conta_bancaria.domain.exception.LoteEntreNosException;
+import com.senai.conta_bancaria.domain.repository.ContaRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class MembrosDoClusterTest {
+
+    private static final List<String> NOS = List.of("http://no-a:8080", "http://no-b:8080", "http://no-c:8080");
+
+    @Test
+    void contasSequenciaisSeEspalhamPorTodosOsNos() {
+        AnelDeHash anel = new AnelDeHash(NOS, 128);
+
+        Map<String, Integer> porNo = new HashMap<>();
+        for (long numero = 1; numero <= 30_000; numero++)
+            porNo.merge(anel.donoDe(numero), 1, Integer::sum);
+
+        assertEquals(NOS.size(), porNo.size());
+        porNo.forEach((no, contas) -> assertTrue(contas > 7_000 && contas < 13_000, no + ": " + contas));
+    }
+
+    // Hash consistente: a saída de um nó só move as contas que eram dele
+    @Test
+    void saidaDeUmNoSoMoveAsContasDele() {
+        AnelDeHash antes = new AnelDeHash(NOS, 128);
+        AnelDeHash depois = new AnelDeHash(NOS.subList(0, 2), 128);
+
+        for (long numero = 1; numero <= 10_000; numero++) {
+            String dono = antes.donoDe(numero);
+            if (!dono.equals(NOS.get(2)))
+                assertEquals(dono, depois.donoDe(numero), "conta " + numero);
+        }
+    }
+
+    @Test
+    void contaDeOutroNoApontaParaODonoSemBarraFinal() {
+        MembrosDoCluster membros = membros("http://no-a:8080/", List.of("http://no-a:8080/", " http://no-b:8080"));
+        long remota = primeiraContaDe(membros, "http://no-b:8080");
+
+        ContaEmOutroNoException erro = assertThrows(ContaEmOutroNoException.class, () -> membros.exigirDono(remota));
+        assertEquals("http://no-b:8080", erro.getDono());
+        assertFalse(membros.local(remota));
+        assertEquals("http://no-b:8080", membros.donoDe(remota));
+    }
+
+    @Test
+    void loteComOrigensDeDonosDiferentesEhRecusado() {
+        MembrosDoCluster membros = membros(NOS.get(0), NOS);
+        long local = primeiraContaDe(membros, NOS.get(0));
+        long remota = primeiraContaDe(membros, NOS.get(1));
+
+        membros.exigirDono(List.of(local, local));
+        assertThrows(LoteEntreNosException.class, () -> membros.exigirDono(List.of(local, remota)));
+    }
+
+    @Test
+    void semNosConfiguradosTodaContaEhLocal() {
+        MembrosDoCluster membros = membros("", List.of());
+
+        assertFalse(membros.configurado());
+        assertTrue(membros.local(42L));
+        membros.exigirDono(42L);
+    }
+
+    @Test
+    void noLocalForaDaListaImpedeASubida() {
+        assertThrows(IllegalStateException.class, () -> membros("http://no-x:8080", NOS));
+    }
+
+    private static MembrosDoCluster membros(String noLocal, List<String> nos) {
+        MembrosDoCluster membros = new MembrosDoCluster(mock(ContaRepository.class));
+        ReflectionTestUtils.setField(membros, "noLocal", noLocal);
+        ReflectionTestUtils.setField(membros, "nos", nos);
+        ReflectionTestUtils.setField(membros, "nosVirtuais", 128);
+        membros.iniciar();
+        return membros;
+    }
+
+    private static long primeiraContaDe(MembrosDoCluster membros, String no) {
+        long numero = 1;
+        while (!membros.donoDe(numero).equals(no))
+            numero++;
+        return numero;
+    }
+}
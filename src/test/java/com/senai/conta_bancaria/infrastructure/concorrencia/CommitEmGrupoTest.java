@@ -0,0 +1,142 @@
+package com.senai.conta_bancaria.infrastructure.concorrencia;
+
+import com.senai.conta_bancaria.domain.exception.SaldoInsuficienteException;
+import com.senai.conta_bancaria.domain.exception.SistemaSobrecarregadoException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// A janela é longa e o grupo fecha pelo tamanho máximo, então os três envios de cada teste formam um único grupo
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CommitEmGrupoTest {
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @Mock
+    PoliticaDeRetentativa politicaDeRetentativa;
+
+    @Mock
+    TransactionStatus status;
+
+    private final List<String> eventos = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicBoolean commitFalha = new AtomicBoolean();
+    private SimpleMeterRegistry meterRegistry;
+    private CommitEmGrupo commitEmGrupo;
+
+    @BeforeEach
+    void preparar() {
+        when(status.createSavepoint()).thenAnswer(invocacao -> new Object());
+        doAnswer(invocacao -> eventos.add("rollback savepoint")).when(status).rollbackToSavepoint(any());
+        doAnswer(invocacao -> {
+            eventos.add("begin grupo");
+            invocacao.<Consumer<TransactionStatus>>getArgument(0).accept(status);
+            if (commitFalha.get())
+                throw new CannotAcquireLockException("deadlock no commit");
+            eventos.add("commit grupo");
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+        when(transactionTemplate.execute(any())).thenAnswer(invocacao -> {
+            Object resultado = invocacao.<TransactionCallback<?>>getArgument(0).doInTransaction(status);
+            eventos.add("commit isolado");
+            return resultado;
+        });
+        when(politicaDeRetentativa.executar(anyString(), any()))
+                .thenAnswer(invocacao -> invocacao.<Supplier<?>>getArgument(1).get());
+
+        meterRegistry = new SimpleMeterRegistry();
+        commitEmGrupo = new CommitEmGrupo(transactionTemplate, politicaDeRetentativa, meterRegistry);
+        ReflectionTestUtils.setField(commitEmGrupo, "janelaMicros", TimeUnit.SECONDS.toMicros(10));
+        ReflectionTestUtils.setField(commitEmGrupo, "tamanhoMaximo", 3);
+        ReflectionTestUtils.setField(commitEmGrupo, "capacidadeFila", 3);
+        commitEmGrupo.iniciar();
+    }
+
+    @AfterEach
+    void encerrar() throws InterruptedException {
+        commitEmGrupo.encerrar();
+    }
+
+    @Test
+    void operacoesDaJanelaSaoGravadasNumUnicoCommit() {
+        List<CompletableFuture<String>> resultados = List.of(
+                submeter("a"), submeter("b"), submeter("c"));
+
+        assertEquals(List.of("a", "b", "c"), resultados.stream().map(CompletableFuture::join).toList());
+        assertEquals(List.of("begin grupo", "a", "b", "c", "commit grupo"), eventos);
+        assertEquals(1, meterRegistry.summary("conta.commit-em-grupo.tamanho").count());
+        assertEquals(3, meterRegistry.summary("conta.commit-em-grupo.tamanho").totalAmount());
+    }
+
+    // A falha de um membro desfaz só o seu savepoint; os demais entram no mesmo commit
+    @Test
+    void falhaDeUmMembroNaoDerrubaOGrupo() {
+        CompletableFuture<String> a = submeter("a");
+        CompletableFuture<String> falha = commitEmGrupo.submeter("deposito", () -> {
+            throw new SaldoInsuficienteException("saque");
+        });
+        CompletableFuture<String> c = submeter("c");
+
+        assertEquals("a", a.join());
+        assertEquals("c", c.join());
+        CompletionException erro = assertThrows(CompletionException.class, falha::join);
+        assertInstanceOf(SaldoInsuficienteException.class, erro.getCause());
+        assertEquals(List.of("begin grupo", "a", "rollback savepoint", "c", "commit grupo"), eventos);
+    }
+
+    // O commit do grupo falhou: cada operação é refeita na sua própria transação, pela política de retentativa
+    @Test
+    void commitQueFalhaReaplicaCadaMembroIsolado() {
+        commitFalha.set(true);
+
+        List<CompletableFuture<String>> resultados = List.of(
+                submeter("a"), submeter("b"), submeter("c"));
+
+        assertEquals(List.of("a", "b", "c"), resultados.stream().map(CompletableFuture::join).toList());
+        assertEquals(List.of("begin grupo", "a", "b", "c",
+                "a", "commit isolado", "b", "commit isolado", "c", "commit isolado"), eventos);
+        verify(politicaDeRetentativa, times(3)).executar(eq("deposito"), any());
+        assertEquals(0, meterRegistry.summary("conta.commit-em-grupo.tamanho").count());
+    }
+
+    @Test
+    void submissaoDepoisDoEncerramentoEhRecusadaSemEsperar() throws InterruptedException {
+        commitEmGrupo.encerrar();
+
+        CompletionException erro = assertThrows(CompletionException.class, () -> submeter("a").join());
+        assertInstanceOf(SistemaSobrecarregadoException.class, erro.getCause());
+    }
+
+    private CompletableFuture<String> submeter(String nome) {
+        return commitEmGrupo.submeter("deposito", () -> {
+            eventos.add(nome);
+            return nome;
+        });
+    }
+}
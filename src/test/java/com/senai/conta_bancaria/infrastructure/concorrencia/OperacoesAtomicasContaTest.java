@@ -0,0 +1,126 @@
+package com.senai.conta_bancaria.infrastructure.concorrencia;
+
+import com.senai.conta_bancaria.domain.event.ContaAlteradaEvent;
+import com.senai.conta_bancaria.domain.exception.EntidadeNaoEncontradaException;
+import com.senai.conta_bancaria.domain.exception.SaldoInsuficienteException;
+import com.senai.conta_bancaria.domain.exception.ValoresNegativosException;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.ResultSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Uma conta corrente simulada atrás do JdbcTemplate: o UPDATE aplica a mesma regra do WHERE (saldo + limite cobre
+// valor + tarifa arredondada) e a leitura devolve a linha alterada
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OperacoesAtomicasContaTest {
+
+    private static final BigDecimal TAXA = new BigDecimal("0.015");
+    private static final BigDecimal LIMITE = new BigDecimal("50.00");
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    OperacoesAtomicasConta operacoes;
+
+    private BigDecimal saldo = new BigDecimal("100.00");
+    private boolean ativa = true;
+
+    @BeforeEach
+    void preparar() throws Exception {
+        when(jdbcTemplate.update(startsWith("""
+                UPDATE conta
+                SET saldo = saldo - ("""), any(Object[].class))).thenAnswer(invocacao -> {
+            BigDecimal valor = invocacao.getArgument(1);
+            BigDecimal comTarifa = valor.add(valor.multiply(TAXA).setScale(2, RoundingMode.HALF_UP));
+            if (!ativa || saldo.add(LIMITE).compareTo(comTarifa) < 0)
+                return 0;
+            saldo = saldo.subtract(comTarifa);
+            return 1;
+        });
+        when(jdbcTemplate.update(startsWith("UPDATE conta SET saldo = saldo + ?"), any(Object[].class)))
+                .thenAnswer(invocacao -> {
+                    if (!ativa)
+                        return 0;
+                    saldo = saldo.add(invocacao.getArgument(1));
+                    return 1;
+                });
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*)"), eq(Integer.class), any(Object[].class)))
+                .thenAnswer(invocacao -> ativa ? 1 : 0);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT tipo_conta"), any(RowMapper.class), any(Object[].class)))
+                .thenAnswer(invocacao -> invocacao.<RowMapper<?>>getArgument(1).mapRow(linha(), 0));
+    }
+
+    @Test
+    void saqueDebitaValorMaisTarifaEPublicaOEvento() {
+        OperacoesAtomicasConta.SaldoAtualizado atualizado = operacoes.debitar(7L, Dinheiro.deCentavos(10_00));
+
+        // 10,00 + 1,5% = 10,15
+        assertEquals(Dinheiro.deCentavos(10_15), atualizado.valor());
+        assertEquals(Dinheiro.deCentavos(89_85), atualizado.saldo());
+        assertEquals("CORRENTE", atualizado.tipo());
+        verify(eventPublisher).publishEvent(new ContaAlteradaEvent(7L, null));
+    }
+
+    // 145,00 + 2,175 de tarifa, arredondada para 2,18 (HALF_UP, como em Dinheiro)
+    @Test
+    void saqueUsaOLimiteMasNaoPassaDele() {
+        assertEquals(Dinheiro.deCentavos(-47_18), operacoes.debitar(7L, Dinheiro.deCentavos(145_00)).saldo());
+
+        // Restam 2,82 de limite: 2,80 + 0,04 de tarifa não cabe
+        assertThrows(SaldoInsuficienteException.class, () -> operacoes.debitar(7L, Dinheiro.deCentavos(2_80)));
+        assertEquals(new BigDecimal("-47.18"), saldo);
+    }
+
+    @Test
+    void contaInexistenteOuInativaNaoEhConfundidaComSaldoInsuficiente() {
+        ativa = false;
+
+        assertThrows(EntidadeNaoEncontradaException.class, () -> operacoes.debitar(7L, Dinheiro.deCentavos(1_00)));
+        assertThrows(EntidadeNaoEncontradaException.class, () -> operacoes.creditar(7L, Dinheiro.deCentavos(1_00)));
+        verifyNoInteractions(eventPublisher);
+    }
+
+    @Test
+    void depositoSomaSemTarifa() {
+        OperacoesAtomicasConta.SaldoAtualizado atualizado = operacoes.creditar(7L, Dinheiro.deCentavos(10_00));
+
+        assertEquals(Dinheiro.deCentavos(10_00), atualizado.valor());
+        assertEquals(Dinheiro.deCentavos(110_00), atualizado.saldo());
+    }
+
+    @Test
+    void valoresNaoPositivosSaoRecusadosAntesDoBanco() {
+        assertThrows(ValoresNegativosException.class, () -> operacoes.debitar(7L, Dinheiro.ZERO));
+        assertThrows(ValoresNegativosException.class, () -> operacoes.creditar(7L, Dinheiro.deCentavos(-1)));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    private ResultSet linha() throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getString("tipo_conta")).thenReturn("CORRENTE");
+        when(resultSet.getBigDecimal("taxa")).thenReturn(TAXA);
+        when(resultSet.getBigDecimal("saldo")).thenReturn(saldo);
+        return resultSet;
+    }
+}
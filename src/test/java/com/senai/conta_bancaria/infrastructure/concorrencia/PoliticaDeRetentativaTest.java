@@ -0,0 +1,74 @@
+package com.senai.conta_bancaria.infrastructure.concorrencia;
+
+import com.senai.conta_bancaria.domain.exception.ConflitoDeConcorrenciaException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PoliticaDeRetentativaTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PoliticaDeRetentativa politica;
+
+    @BeforeEach
+    void preparar() {
+        meterRegistry = new SimpleMeterRegistry();
+        politica = new PoliticaDeRetentativa(meterRegistry);
+        ReflectionTestUtils.setField(politica, "maxTentativas", 4);
+        ReflectionTestUtils.setField(politica, "esperaBaseMs", 1L);
+        ReflectionTestUtils.setField(politica, "esperaMaximaMs", 2L);
+    }
+
+    @Test
+    void repeteConflitosDeVersaoEDeLockAteDarCerto() {
+        AtomicInteger tentativas = new AtomicInteger();
+
+        String resultado = politica.executar("transferencia", () -> switch (tentativas.incrementAndGet()) {
+            case 1 -> throw new OptimisticLockingFailureException("versão mudou");
+            case 2 -> throw new CannotAcquireLockException("deadlock");
+            default -> "ok";
+        });
+
+        assertEquals("ok", resultado);
+        assertEquals(3, tentativas.get());
+        assertEquals(2, contador("conta.concorrencia.retentativas"));
+    }
+
+    @Test
+    void desisteNoLimiteComConflitoDeConcorrencia() {
+        AtomicInteger tentativas = new AtomicInteger();
+
+        assertThrows(ConflitoDeConcorrenciaException.class, () -> politica.executar("transferencia", () -> {
+            tentativas.incrementAndGet();
+            throw new OptimisticLockingFailureException("versão mudou");
+        }));
+
+        assertEquals(4, tentativas.get());
+        assertEquals(4, contador("conta.concorrencia.conflitos"));
+        assertEquals(1, contador("conta.concorrencia.esgotadas"));
+    }
+
+    @Test
+    void erroQueNaoEhDeConcorrenciaNaoEhRepetido() {
+        AtomicInteger tentativas = new AtomicInteger();
+
+        assertThrows(DataIntegrityViolationException.class, () -> politica.executar("transferencia", () -> {
+            tentativas.incrementAndGet();
+            throw new DataIntegrityViolationException("chave duplicada");
+        }));
+
+        assertEquals(1, tentativas.get());
+    }
+
+    private double contador(String nome) {
+        return meterRegistry.counter(nome, "operacao", "transferencia").count();
+    }
+}
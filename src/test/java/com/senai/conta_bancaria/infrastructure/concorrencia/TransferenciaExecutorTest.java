@@ -0,0 +1,193 @@
+package com.senai.conta_bancaria.infrastructure.concorrencia;
+
+import com.senai.conta_bancaria.domain.entity.Conta;
+import com.senai.conta_bancaria.domain.entity.ContaPoupanca;
+import com.senai.conta_bancaria.domain.entity.Movimentacao;
+import com.senai.conta_bancaria.domain.enums.TipoMovimentacao;
+import com.senai.conta_bancaria.domain.exception.EntidadeNaoEncontradaException;
+import com.senai.conta_bancaria.domain.exception.TransferenciaParaMesmaContaException;
+import com.senai.conta_bancaria.domain.repository.ContaRepository;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.infrastructure.cluster.CreditosEntreNos;
+import com.senai.conta_bancaria.infrastructure.movimentacao.DiarioDeMovimentacoes;
+import com.senai.conta_bancaria.infrastructure.saldo.SaldosFracionados;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// As travas de linha do banco são simuladas por um ReentrantLock por conta, liberado no fim da "transação". Uma
+// espera maior que o timeout vira CannotAcquireLockException, como o lock wait timeout do MySQL.
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TransferenciaExecutorTest {
+
+    @Mock
+    ContaRepository repository;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @Mock
+    DiarioDeMovimentacoes diario;
+
+    @Mock
+    SaldosFracionados saldosFracionados;
+
+    @Mock
+    CreditosEntreNos creditosEntreNos;
+
+    private final Map<Long, Conta> contas = new ConcurrentHashMap<>();
+    private final Map<Long, ReentrantLock> travas = new ConcurrentHashMap<>();
+    private final ThreadLocal<List<ReentrantLock>> travadas = ThreadLocal.withInitial(ArrayList::new);
+
+    private SimpleMeterRegistry meterRegistry;
+    private TransferenciaExecutor executor;
+
+    @BeforeEach
+    void preparar() {
+        contas.put(3L, poupanca(3L, 100_000));
+        contas.put(7L, poupanca(7L, 100_000));
+
+        when(repository.findForUpdateByNumeroAndAtivoTrue(anyLong())).thenAnswer(invocacao -> {
+            Long numero = invocacao.getArgument(0);
+            ReentrantLock trava = travas.computeIfAbsent(numero, n -> new ReentrantLock());
+            if (!trava.tryLock(200, TimeUnit.MILLISECONDS))
+                throw new CannotAcquireLockException("Lock wait timeout exceeded na conta " + numero);
+            travadas.get().add(trava);
+            return Optional.ofNullable(contas.get(numero));
+        });
+        when(repository.save(any())).thenAnswer(invocacao -> invocacao.getArgument(0));
+        when(transactionTemplate.execute(any())).thenAnswer(invocacao -> {
+            try {
+                return invocacao.<TransactionCallback<?>>getArgument(0).doInTransaction(null);
+            } finally {
+                travadas.get().forEach(ReentrantLock::unlock);
+                travadas.get().clear();
+            }
+        });
+
+        meterRegistry = new SimpleMeterRegistry();
+        PoliticaDeRetentativa politica = new PoliticaDeRetentativa(meterRegistry);
+        ReflectionTestUtils.setField(politica, "maxTentativas", 5);
+        ReflectionTestUtils.setField(politica, "esperaBaseMs", 1L);
+        ReflectionTestUtils.setField(politica, "esperaMaximaMs", 5L);
+        executor = new TransferenciaExecutor(repository, transactionTemplate, politica, diario, saldosFracionados,
+                creditosEntreNos);
+    }
+
+    @Test
+    void travaSempreAContaDeMenorNumeroPrimeiro() {
+        executor.transferir(7L, 3L, Dinheiro.deCentavos(10));
+        executor.transferir(3L, 7L, Dinheiro.deCentavos(10));
+
+        InOrder ordem = inOrder(repository);
+        ordem.verify(repository).findForUpdateByNumeroAndAtivoTrue(3L);
+        ordem.verify(repository).findForUpdateByNumeroAndAtivoTrue(7L);
+        ordem.verify(repository).findForUpdateByNumeroAndAtivoTrue(3L);
+        ordem.verify(repository).findForUpdateByNumeroAndAtivoTrue(7L);
+    }
+
+    // A→B e B→A ao mesmo tempo: com a ordem fixa nenhuma espera chega ao timeout e nenhum centavo se perde
+    @Test
+    void transferenciasCruzadasConcorrentesNaoSeTravamNemPerdemDinheiro() throws Exception {
+        int porSentido = 500;
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+
+        try {
+            List<Future<?>> envios = new ArrayList<>();
+            for (int t = 0; t < 4; t++) {
+                boolean ida = t % 2 == 0;
+                envios.add(threads.submit(() -> {
+                    for (int i = 0; i < porSentido / 2; i++)
+                        executor.transferir(ida ? 3L : 7L, ida ? 7L : 3L, Dinheiro.deCentavos(ida ? 2 : 1));
+                }));
+            }
+            for (Future<?> envio : envios)
+                envio.get(30, TimeUnit.SECONDS);
+        } finally {
+            threads.shutdownNow();
+        }
+
+        assertEquals(Dinheiro.deCentavos(100_000 - porSentido * 2 + porSentido), contas.get(3L).getSaldo());
+        assertEquals(Dinheiro.deCentavos(100_000 + porSentido * 2 - porSentido), contas.get(7L).getSaldo());
+        assertEquals(0, meterRegistry.counter("conta.concorrencia.conflitos", "operacao", "transferencia").count());
+    }
+
+    @Test
+    void conflitoRepeteEmNovaTransacao() {
+        when(repository.save(any()))
+                .thenThrow(new CannotAcquireLockException("deadlock"))
+                .thenAnswer(invocacao -> invocacao.getArgument(0));
+
+        Conta origem = executor.transferir(3L, 7L, Dinheiro.deCentavos(10));
+
+        verify(transactionTemplate, times(2)).execute(any());
+        assertEquals(3L, origem.getNumero());
+    }
+
+    // Destino de outro nó: só a origem é travada e escrita; o crédito fica para o dono do destino
+    @Test
+    void destinoEmOutroNoNaoEhTravadoNemEscrito() {
+        when(creditosEntreNos.remoto(7L)).thenReturn(true);
+        when(repository.findByNumeroAndAtivoTrue(7L)).thenReturn(Optional.of(contas.get(7L)));
+
+        executor.transferir(3L, 7L, Dinheiro.deCentavos(10));
+
+        verify(repository, never()).findForUpdateByNumeroAndAtivoTrue(7L);
+        verify(repository, never()).save(contas.get(7L));
+        verify(creditosEntreNos).encaminhar(3L, 7L, Dinheiro.deCentavos(10));
+        verify(diario).registrar(argThat((Movimentacao movimentacao) ->
+                movimentacao.getTipo() == TipoMovimentacao.TRANSFERENCIA_ENVIADA));
+        assertEquals(Dinheiro.deCentavos(99_990), contas.get(3L).getSaldo());
+        assertEquals(Dinheiro.deCentavos(100_000), contas.get(7L).getSaldo());
+    }
+
+    @Test
+    void destinoInativoEmOutroNoEhRecusadoAntesDoDebito() {
+        when(creditosEntreNos.remoto(7L)).thenReturn(true);
+        when(repository.findByNumeroAndAtivoTrue(7L)).thenReturn(Optional.empty());
+
+        assertThrows(EntidadeNaoEncontradaException.class, () -> executor.transferir(3L, 7L, Dinheiro.deCentavos(10)));
+        verify(creditosEntreNos, never()).encaminhar(anyLong(), anyLong(), any());
+        assertEquals(Dinheiro.deCentavos(100_000), contas.get(3L).getSaldo());
+    }
+
+    @Test
+    void transferenciaParaAPropriaContaEhRecusadaSemAbrirTransacao() {
+        assertThrows(TransferenciaParaMesmaContaException.class,
+                () -> executor.transferir(3L, 3L, Dinheiro.deCentavos(10)));
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    private static ContaPoupanca poupanca(long numero, long centavos) {
+        return ContaPoupanca.builder()
+                .id(UUID.randomUUID())
+                .numero(numero)
+                .saldo(Dinheiro.deCentavos(centavos))
+                .ativo(true)
+                .versao(0L)
+                .build();
+    }
+}
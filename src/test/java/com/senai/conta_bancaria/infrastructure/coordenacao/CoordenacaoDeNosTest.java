@@ -0,0 +1,155 @@
+package com.senai.conta_bancaria.infrastructure.coordenacao;
+
+import com.senai.conta_bancaria.domain.exception.ArrendamentoPerdidoException;
+import com.senai.conta_bancaria.infrastructure.coordenacao.CoordenacaoDeNos.Particao;
+import com.senai.conta_bancaria.infrastructure.coordenacao.CoordenacaoDeNos.Posse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CoordenacaoDeNosTest {
+
+    private static final String NO = "no-a";
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    private CoordenacaoDeNos coordenacao;
+
+    @BeforeEach
+    void preparar() {
+        coordenacao = new CoordenacaoDeNos(jdbcTemplate, transactionManager);
+        ReflectionTestUtils.setField(coordenacao, "no", NO);
+        ReflectionTestUtils.setField(coordenacao, "pulsoMs", 2000L);
+        ReflectionTestUtils.setField(coordenacao, "duracaoMs", 6000L);
+        ReflectionTestUtils.setField(coordenacao, "particoes", 16);
+
+        when(jdbcTemplate.queryForList(startsWith("SELECT token FROM arrendamento WHERE"), eq(Long.class),
+                any(Object[].class))).thenReturn(List.of(4L));
+        when(jdbcTemplate.queryForList(contains("token = ?"), eq(Long.class), any(Object[].class)))
+                .thenReturn(List.of(4L));
+    }
+
+    @Test
+    void tarefaRodaComOTokenDoArrendamentoELiberaNoFim() {
+        AtomicReference<Posse> recebida = new AtomicReference<>();
+
+        assertTrue(coordenacao.comArrendamento("job", recebida::set));
+
+        assertEquals(new Posse("job", 4L), recebida.get());
+        verify(jdbcTemplate).update(contains("SET expira_em = NOW(6)"), eq("job"), eq(NO));
+    }
+
+    @Test
+    void arrendamentoComOutroNoNaoExecutaATarefa() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT token FROM arrendamento WHERE"), eq(Long.class),
+                any(Object[].class))).thenReturn(List.of());
+        AtomicReference<Posse> recebida = new AtomicReference<>();
+
+        assertFalse(coordenacao.comArrendamento("job", recebida::set));
+
+        assertNull(recebida.get());
+        verify(jdbcTemplate, never()).update(contains("SET expira_em = NOW(6)"), any(Object[].class));
+    }
+
+    // A conferência não pode segurar a linha até o commit da tarefa, senão a renovação do pulso fica esperando
+    @Test
+    void validacaoLeComFolgaEmTransacaoPropriaSemTravarALinha() {
+        coordenacao.comArrendamento("job", coordenacao::validar);
+
+        verify(transactionManager).getTransaction(argThat((TransactionDefinition definicao) ->
+                definicao.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW
+                        && definicao.isReadOnly()));
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).queryForList(sql.capture(), eq(Long.class), eq("job"), eq(NO), eq(4L), eq(1_000_000L));
+        assertTrue(sql.getValue().contains("expira_em > NOW(6) + INTERVAL ? MICROSECOND"));
+        assertFalse(sql.getValue().contains("FOR SHARE"));
+    }
+
+    @Test
+    void validacaoRecusaArrendamentoQueNoBancoJaNaoEhDesteNo() {
+        when(jdbcTemplate.queryForList(contains("token = ?"), eq(Long.class), any(Object[].class)))
+                .thenReturn(List.of());
+
+        assertThrows(ArrendamentoPerdidoException.class,
+                () -> coordenacao.comArrendamento("job", coordenacao::validar));
+    }
+
+    @Test
+    void posseLiberadaEhRecusadaSemIrAoBanco() {
+        AtomicReference<Posse> recebida = new AtomicReference<>();
+        coordenacao.comArrendamento("job", recebida::set);
+
+        assertThrows(ArrendamentoPerdidoException.class, () -> coordenacao.validar(recebida.get()));
+        verifyNoInteractions(transactionManager);
+        verify(jdbcTemplate, never()).queryForList(contains("token = ?"), eq(Long.class), any(Object[].class));
+    }
+
+    @Test
+    void pulsoRenovaOArrendamentoEmUsoEnquantoATarefaRoda() {
+        coordenacao.comArrendamento("job", posse -> {
+            ReflectionTestUtils.invokeMethod(coordenacao, "pulsar");
+            coordenacao.validar(posse);
+        });
+
+        verify(jdbcTemplate, times(2)).update(contains("SET token"), eq(NO), eq(NO), eq(6_000_000L), eq("job"), eq(NO));
+    }
+
+    // Outro nó tomou o arrendamento vencido e este o recuperou depois: o token novo invalida a posse antiga
+    @Test
+    void posseComTokenAntigoEhRecusadaDepoisDeUmaTroca() {
+        when(jdbcTemplate.queryForList(startsWith("SELECT token FROM arrendamento WHERE"), eq(Long.class),
+                any(Object[].class))).thenReturn(List.of(4L), List.of(4L), List.of(6L));
+
+        assertThrows(ArrendamentoPerdidoException.class, () -> coordenacao.comArrendamento("job", posse -> {
+            ReflectionTestUtils.invokeMethod(coordenacao, "pulsar");
+            coordenacao.validar(posse);
+        }));
+    }
+
+    @Test
+    void particoesSeDividemEntreOsNosAtivosSemSobraNemSobreposicao() {
+        List<String> nos = List.of("no-a", "no-b", "no-c");
+        ReflectionTestUtils.setField(coordenacao, "ativos", nos);
+
+        List<Integer> indices = new ArrayList<>();
+        for (String no : nos) {
+            ReflectionTestUtils.setField(coordenacao, "no", no);
+            coordenacao.minhasParticoes().stream().map(Particao::indice).forEach(indices::add);
+        }
+
+        assertEquals(IntStream.range(0, 16).boxed().toList(), indices);
+        ReflectionTestUtils.setField(coordenacao, "no", "no-d");
+        assertTrue(coordenacao.minhasParticoes().isEmpty());
+    }
+
+    @Test
+    void arrendamentoMenorQueDoisPulsosEhRecusadoNaSubida() {
+        ReflectionTestUtils.setField(coordenacao, "duracaoMs", 3000L);
+
+        assertThrows(IllegalStateException.class, () -> coordenacao.iniciar());
+    }
+}
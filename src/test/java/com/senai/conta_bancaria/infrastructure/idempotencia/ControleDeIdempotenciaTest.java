@@ -0,0 +1,86 @@
+package com.senai.conta_bancaria.infrastructure.idempotencia;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.senai.conta_bancaria.domain.exception.ChaveIdempotenciaReutilizadaException;
+import com.senai.conta_bancaria.infrastructure.coordenacao.CoordenacaoDeNos;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// O banco é um mock que aceita toda reserva: uma chave fora da memória sempre reexecuta a ação, então contar as
+// execuções mostra o que a camada quente ainda guarda
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ControleDeIdempotenciaTest {
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    CoordenacaoDeNos coordenacao;
+
+    private final AtomicInteger execucoes = new AtomicInteger();
+    private ControleDeIdempotencia controle;
+
+    @BeforeEach
+    void preparar() {
+        controle = new ControleDeIdempotencia(jdbcTemplate, new ObjectMapper(), coordenacao);
+        ReflectionTestUtils.setField(controle, "ttlHoras", 24L);
+        ReflectionTestUtils.setField(controle, "ttlMemoriaMinutos", 10L);
+        ReflectionTestUtils.setField(controle, "maxEntradasMemoria", 2);
+    }
+
+    @Test
+    void repeticaoRecebeARespostaGuardadaSemReexecutar() {
+        ResponseEntity<String> primeira = executar("a", "deposito 10");
+        ResponseEntity<String> repetida = executar("a", "deposito 10");
+
+        assertEquals(1, execucoes.get());
+        assertEquals(primeira.getBody(), repetida.getBody());
+        assertEquals("true", repetida.getHeaders().getFirst(ControleDeIdempotencia.CABECALHO_REPETIDA));
+        assertThrows(ChaveIdempotenciaReutilizadaException.class, () -> executar("a", "deposito 20"));
+    }
+
+    // Cheia, a memória continua aceitando chaves novas e despeja a usada há mais tempo
+    @Test
+    void memoriaCheiaDespejaAChaveMenosUsadaRecentemente() {
+        executar("a", "x");
+        executar("b", "x");
+        executar("a", "x"); // "a" passa a ser a mais recente
+        executar("c", "x"); // despeja "b"
+        assertEquals(3, execucoes.get());
+
+        executar("c", "x");
+        executar("a", "x");
+        assertEquals(3, execucoes.get());
+
+        executar("b", "x");
+        assertEquals(4, execucoes.get());
+    }
+
+    @Test
+    void entradaExpiradaNaMemoriaVoltaAoBanco() {
+        ReflectionTestUtils.setField(controle, "ttlMemoriaMinutos", 0L);
+
+        executar("a", "x");
+        executar("a", "x");
+
+        assertEquals(2, execucoes.get());
+    }
+
+    private ResponseEntity<String> executar(String chave, String requisicao) {
+        return controle.executar(chave, "deposito", requisicao, String.class,
+                () -> ResponseEntity.ok("resposta " + execucoes.incrementAndGet()));
+    }
+}
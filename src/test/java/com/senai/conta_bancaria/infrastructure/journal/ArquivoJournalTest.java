@@ -0,0 +1,125 @@
+package com.senai.conta_bancaria.infrastructure.journal;
+
+import com.senai.conta_bancaria.domain.entity.Movimentacao;
+import com.senai.conta_bancaria.domain.enums.TipoMovimentacao;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArquivoJournalTest {
+
+    private static final int CAPACIDADE = 64;
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void recuperaSoOsLotesNaoAssentadosNaOrdemEmQueForamGravados() throws Exception {
+        Path caminho = diretorio.resolve("shard-0.wal");
+        try (ArquivoJournal arquivo = new ArquivoJournal(caminho, CAPACIDADE)) {
+            arquivo.gravar(List.of(deposito(1L, 100)), Map.of(1L, 0L));
+            arquivo.confirmar();
+
+            arquivo.gravar(List.of(deposito(2L, 200), saque(3L, 50)), Map.of(2L, 4L, 3L, 7L));
+            arquivo.manterPendente();
+
+            arquivo.gravar(List.of(deposito(4L, 300)), Map.of(4L, 1L));
+            arquivo.descartar();
+
+            // Queda entre o fsync do lote e o commit
+            arquivo.gravar(List.of(deposito(5L, 400)), Map.of(5L, 2L));
+        }
+
+        try (ArquivoJournal arquivo = new ArquivoJournal(caminho, CAPACIDADE)) {
+            List<List<ArquivoJournal.Registro>> pendentes = arquivo.lerPendentes();
+
+            assertEquals(2, pendentes.size());
+            List<ArquivoJournal.Registro> pendente = pendentes.get(0);
+            assertEquals(2, pendente.size());
+            assertEquals(2L, pendente.get(0).lote());
+            assertEquals(2L, pendente.get(0).movimentacao().getNumeroConta());
+            assertEquals(Dinheiro.deCentavos(200), pendente.get(0).movimentacao().valorComSinal());
+            assertEquals(Dinheiro.deCentavos(-50), pendente.get(1).movimentacao().valorComSinal());
+            assertEquals(7L, pendente.get(1).versaoAnterior());
+
+            List<ArquivoJournal.Registro> aberto = pendentes.get(1);
+            assertEquals(4L, aberto.get(0).lote());
+            assertEquals(5L, aberto.get(0).movimentacao().getNumeroConta());
+        }
+    }
+
+    @Test
+    void lotesAssentadosNaoVoltamNaRecuperacao() throws Exception {
+        Path caminho = diretorio.resolve("shard-0.wal");
+        try (ArquivoJournal arquivo = new ArquivoJournal(caminho, CAPACIDADE)) {
+            for (int i = 0; i < 10; i++) {
+                arquivo.gravar(List.of(deposito(1L, 100)), Map.of(1L, (long) i));
+                arquivo.confirmar();
+            }
+        }
+
+        try (ArquivoJournal arquivo = new ArquivoJournal(caminho, CAPACIDADE)) {
+            assertTrue(arquivo.lerPendentes().isEmpty());
+        }
+    }
+
+    @Test
+    void numeracaoDosLotesContinuaDepoisDaLimpeza() throws Exception {
+        Path caminho = diretorio.resolve("shard-0.wal");
+        try (ArquivoJournal arquivo = new ArquivoJournal(caminho, CAPACIDADE)) {
+            arquivo.gravar(List.of(deposito(1L, 100)), Map.of(1L, 0L));
+        }
+
+        try (ArquivoJournal arquivo = new ArquivoJournal(caminho, CAPACIDADE)) {
+            assertEquals(1, arquivo.lerPendentes().size());
+            arquivo.limpar();
+            arquivo.continuarApos(41L);
+
+            arquivo.gravar(List.of(deposito(1L, 100)), Map.of(1L, 1L));
+            assertEquals(42L, arquivo.numeroLoteAberto());
+        }
+    }
+
+    @Test
+    void primeiroPendenteAcompanhaOsLotesMantidos() throws Exception {
+        try (ArquivoJournal arquivo = new ArquivoJournal(diretorio.resolve("shard-0.wal"), CAPACIDADE)) {
+            assertEquals(Long.MAX_VALUE, arquivo.primeiroPendente());
+
+            arquivo.gravar(List.of(deposito(1L, 100)), Map.of(1L, 0L));
+            arquivo.confirmar();
+            arquivo.gravar(List.of(deposito(1L, 100)), Map.of(1L, 1L));
+            arquivo.manterPendente();
+            arquivo.gravar(List.of(deposito(1L, 100)), Map.of(1L, 2L));
+            arquivo.manterPendente();
+
+            assertEquals(2L, arquivo.primeiroPendente());
+            arquivo.limpar();
+            assertEquals(Long.MAX_VALUE, arquivo.primeiroPendente());
+        }
+    }
+
+    static Movimentacao deposito(long numero, long centavos) {
+        return movimentacao(numero, TipoMovimentacao.DEPOSITO, centavos);
+    }
+
+    static Movimentacao saque(long numero, long centavos) {
+        return movimentacao(numero, TipoMovimentacao.SAQUE, centavos);
+    }
+
+    private static Movimentacao movimentacao(long numero, TipoMovimentacao tipo, long centavos) {
+        return Movimentacao.builder()
+                .numeroConta(numero)
+                .tipo(tipo)
+                .valor(Dinheiro.deCentavos(centavos))
+                .saldoApos(Dinheiro.deCentavos(centavos))
+                .dataHora(LocalDateTime.of(2025, 1, 1, 12, 0))
+                .build();
+    }
+}
@@ -0,0 +1,193 @@
+package com.senai.conta_bancaria.infrastructure.journal;
+
+import com.senai.conta_bancaria.domain.entity.Movimentacao;
+import com.senai.conta_bancaria.infrastructure.concorrencia.PoliticaDeRetentativa;
+import com.senai.conta_bancaria.infrastructure.movimentacao.DiarioDeMovimentacoes;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static com.senai.conta_bancaria.infrastructure.journal.ArquivoJournalTest.deposito;
+import static com.senai.conta_bancaria.infrastructure.journal.ArquivoJournalTest.saque;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Recuperação na subida: a marca em journal_lote decide se o lote entra, nunca a versão da conta; o saldo mais o
+// limite decide se o débito ainda cabe
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class JournalDeSaldosTest {
+
+    private static final int CAPACIDADE = 64;
+    private static final String ORIGEM = "teste/shard-0.wal";
+
+    @TempDir
+    Path diretorio;
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    @Mock
+    DiarioDeMovimentacoes diario;
+
+    @Mock
+    PoliticaDeRetentativa politicaDeRetentativa;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    private JournalDeSaldos journal;
+
+    @BeforeEach
+    void preparar() throws Exception {
+        Files.writeString(diretorio.resolve("journal.id"), "teste");
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocacao -> invocacao.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+
+        journal = new JournalDeSaldos(jdbcTemplate, transactionTemplate, diario, politicaDeRetentativa,
+                eventPublisher);
+        ReflectionTestUtils.setField(journal, "modo", JournalDeSaldos.Modo.JOURNAL);
+        ReflectionTestUtils.setField(journal, "diretorio", diretorio);
+        ReflectionTestUtils.setField(journal, "capacidadeRegistros", CAPACIDADE);
+    }
+
+    @Test
+    void loteSemMarcaEhReaplicadoPelaVariacaoSemOlharAVersao() throws Exception {
+        gravarSemAssentar();
+        when(jdbcTemplate.update(startsWith("INSERT IGNORE"), eq(ORIGEM), eq(1L))).thenReturn(1);
+        when(jdbcTemplate.update(startsWith("UPDATE conta"), any(), anyLong(), any(), any())).thenReturn(1);
+
+        journal.abrir(1);
+
+        BigDecimal conta10 = new BigDecimal("1.50");
+        BigDecimal conta20 = new BigDecimal("3.00");
+        verify(jdbcTemplate).update(startsWith("UPDATE conta"), eq(conta10), eq(10L), eq(conta10), eq(conta10));
+        verify(jdbcTemplate).update(startsWith("UPDATE conta"), eq(conta20), eq(20L), eq(conta20), eq(conta20));
+        verify(diario).registrar(argThat((Collection<Movimentacao> movimentacoes) -> movimentacoes.size() == 3));
+        assertPendentes(0);
+    }
+
+    @Test
+    void loteComMarcaNaoEhReaplicado() throws Exception {
+        gravarSemAssentar();
+        when(jdbcTemplate.update(startsWith("INSERT IGNORE"), eq(ORIGEM), eq(1L))).thenReturn(0);
+
+        journal.abrir(1);
+
+        verify(jdbcTemplate, never()).update(startsWith("UPDATE conta"), any(), anyLong(), any(), any());
+        verifyNoInteractions(diario);
+        assertPendentes(0);
+    }
+
+    @Test
+    void loteQueNaoPodeSerAplicadoImpedeASubidaEFicaNoArquivo() throws Exception {
+        gravarSemAssentar();
+        when(jdbcTemplate.update(startsWith("INSERT IGNORE"), eq(ORIGEM), eq(1L))).thenReturn(1);
+        when(jdbcTemplate.update(startsWith("UPDATE conta"), any(), eq(10L), any(), any())).thenReturn(1);
+        when(jdbcTemplate.update(startsWith("UPDATE conta"), any(), eq(20L), any(), any())).thenReturn(0);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*)"), eq(Integer.class), eq(20L))).thenReturn(0);
+
+        assertThrows(IllegalStateException.class, () -> journal.abrir(1));
+        assertPendentes(1);
+    }
+
+    // A conta existe mas não comporta o débito: o lote inteiro é desfeito, relatado e a subida segue
+    @Test
+    void loteSemFundosEhRecusadoERelatadoSemImpedirASubida() throws Exception {
+        try (ArquivoJournal arquivo = new ArquivoJournal(diretorio.resolve("shard-0.wal"), CAPACIDADE)) {
+            arquivo.gravar(List.of(saque(10L, 500), deposito(20L, 500)), Map.of(10L, 3L, 20L, 8L));
+        }
+        when(jdbcTemplate.update(startsWith("INSERT IGNORE"), eq(ORIGEM), eq(1L))).thenReturn(1);
+        when(jdbcTemplate.update(startsWith("UPDATE conta"), any(), eq(10L), any(), any())).thenReturn(0);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*)"), eq(Integer.class), eq(10L))).thenReturn(1);
+
+        journal.abrir(1);
+
+        verify(jdbcTemplate, never()).update(startsWith("UPDATE conta"), any(), eq(20L), any(), any());
+        verifyNoInteractions(diario, eventPublisher);
+        List<String> relatadas = Files.readAllLines(diretorio.resolve("lotes-recusados.txt"));
+        assertEquals(2, relatadas.size());
+        assertTrue(relatadas.get(0).startsWith(ORIGEM + ";1;10;SAQUE;-5.00;"), relatadas.get(0));
+        assertTrue(relatadas.get(1).startsWith(ORIGEM + ";1;20;DEPOSITO;5.00;"), relatadas.get(1));
+        assertPendentes(0);
+    }
+
+    @Test
+    void reaplicacaoDoDebitoSoAconteceSeCouberNoSaldoMaisLimite() throws Exception {
+        gravarSemAssentar();
+        when(jdbcTemplate.update(startsWith("INSERT IGNORE"), eq(ORIGEM), eq(1L))).thenReturn(1);
+        when(jdbcTemplate.update(startsWith("UPDATE conta"), any(), anyLong(), any(), any())).thenReturn(1);
+
+        journal.abrir(1);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, atLeastOnce()).update(sql.capture(), any(), eq(10L), any(), any());
+        assertTrue(sql.getValue().contains("? >= 0 OR saldo + IF(tipo_conta = 'CORRENTE', COALESCE(limite, 0), 0)"),
+                sql.getValue());
+    }
+
+    // O commit falhou depois da resposta e o débito já não cabe: nenhuma subida futura o aplicaria
+    @Test
+    void loteRespondidoSemFundosEhRelatadoEAssentadoNaHora() throws Exception {
+        when(politicaDeRetentativa.executar(eq("journal"), any()))
+                .thenAnswer(invocacao -> invocacao.<Supplier<?>>getArgument(1).get());
+        journal.abrir(1);
+        journal.gravar(0, List.of(saque(10L, 500)), Map.of(10L, 3L));
+        when(jdbcTemplate.update(startsWith("INSERT IGNORE"), eq(ORIGEM), anyLong())).thenReturn(1);
+        when(jdbcTemplate.queryForObject(startsWith("SELECT COUNT(*)"), eq(Integer.class), eq(10L))).thenReturn(1);
+
+        journal.reaplicar(0);
+
+        assertEquals(1, Files.readAllLines(diretorio.resolve("lotes-recusados.txt")).size());
+        assertPendentes(0);
+    }
+
+    @Test
+    void novosLotesContinuamAposOUltimoConhecidoPeloBanco() {
+        when(jdbcTemplate.queryForObject(startsWith("SELECT MAX(lote)"), eq(Long.class), eq(ORIGEM)))
+                .thenReturn(41L);
+        journal.abrir(1);
+
+        journal.gravar(0, List.of(deposito(10L, 100)), Map.of(10L, 0L));
+
+        verify(jdbcTemplate).update(startsWith("INSERT INTO journal_lote"), eq(ORIGEM), eq(42L));
+        verify(jdbcTemplate).update(startsWith("DELETE FROM journal_lote"), eq(ORIGEM), eq(42L));
+    }
+
+    private void gravarSemAssentar() throws Exception {
+        try (ArquivoJournal arquivo = new ArquivoJournal(diretorio.resolve("shard-0.wal"), CAPACIDADE)) {
+            arquivo.gravar(List.of(deposito(10L, 200), saque(10L, 50), deposito(20L, 300)),
+                    Map.of(10L, 3L, 20L, 8L));
+        }
+    }
+
+    private void assertPendentes(int esperados) throws Exception {
+        journal.fechar();
+        try (ArquivoJournal arquivo = new ArquivoJournal(diretorio.resolve("shard-0.wal"), CAPACIDADE)) {
+            assertEquals(esperados, arquivo.lerPendentes().size());
+        }
+    }
+}
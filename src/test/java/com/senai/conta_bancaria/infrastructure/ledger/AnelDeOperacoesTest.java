@@ -0,0 +1,93 @@
+package com.senai.conta_bancaria.infrastructure.ledger;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnelDeOperacoesTest {
+
+    private record Item(int produtor, int sequencia) {
+    }
+
+    @Test
+    void capacidadeArredondaParaPotenciaDeDoisERecusaQuandoCheio() {
+        AnelDeOperacoes<Integer> anel = new AnelDeOperacoes<>(5);
+
+        for (int i = 0; i < 8; i++)
+            assertTrue(anel.oferecer(i));
+        assertFalse(anel.oferecer(8));
+        assertEquals(8, anel.tamanho());
+
+        assertEquals(0, anel.retirar());
+        assertTrue(anel.oferecer(8));
+    }
+
+    @Test
+    void retiraNaOrdemEmQueFoiOferecidoEDepoisFicaVazio() {
+        AnelDeOperacoes<Integer> anel = new AnelDeOperacoes<>(4);
+
+        // Várias voltas pelo mesmo buffer
+        for (int volta = 0; volta < 10; volta++) {
+            for (int i = 0; i < 4; i++)
+                assertTrue(anel.oferecer(volta * 4 + i));
+            for (int i = 0; i < 4; i++)
+                assertEquals(volta * 4 + i, anel.retirar());
+        }
+
+        assertNull(anel.retirar());
+        assertTrue(anel.vazio());
+    }
+
+    // Vários produtores e um consumidor, como num shard do ledger: nada se perde, nada sai duas vezes e a ordem de
+    // cada produtor é mantida
+    @Test
+    void variosProdutoresUmConsumidorSemPerdaNemDuplicacao() throws Exception {
+        int produtores = 4;
+        int porProdutor = 20_000;
+        AnelDeOperacoes<Item> anel = new AnelDeOperacoes<>(64);
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(produtores);
+
+        try {
+            List<Future<?>> envios = new ArrayList<>();
+            for (int p = 0; p < produtores; p++) {
+                int produtor = p;
+                envios.add(executor.submit(() -> {
+                    largada.await();
+                    for (int i = 0; i < porProdutor; i++)
+                        while (!anel.oferecer(new Item(produtor, i)))
+                            Thread.yield();
+                    return null;
+                }));
+            }
+
+            largada.countDown();
+            int[] proximoEsperado = new int[produtores];
+            int recebidos = 0;
+            while (recebidos < produtores * porProdutor) {
+                Item item = anel.retirar();
+                if (item == null) {
+                    Thread.yield();
+                    continue;
+                }
+                assertEquals(proximoEsperado[item.produtor()]++, item.sequencia(), "fora de ordem: " + item);
+                recebidos++;
+            }
+
+            for (Future<?> envio : envios)
+                envio.get();
+            assertNull(anel.retirar());
+            for (int p = 0; p < produtores; p++)
+                assertEquals(porProdutor, proximoEsperado[p]);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package com.senai.conta_bancaria.infrastructure.movimentacao;
+
+import com.senai.conta_bancaria.domain.entity.SaldoConsolidado;
+import com.senai.conta_bancaria.domain.repository.MovimentacaoRepository;
+import com.senai.conta_bancaria.domain.repository.SaldoConsolidadoRepository;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class HistoricoDeSaldosTest {
+
+    private static final LocalDateTime INSTANTE = LocalDateTime.of(2026, 9, 15, 12, 0);
+    private static final LocalDateTime CONSOLIDACAO = LocalDateTime.of(2026, 8, 31, 23, 59, 59);
+
+    @Mock
+    SaldoConsolidadoRepository saldoConsolidadoRepository;
+
+    @Mock
+    MovimentacaoRepository movimentacaoRepository;
+
+    @InjectMocks
+    HistoricoDeSaldos historico;
+
+    @Test
+    void partindoDaConsolidacaoSomaAsMovimentacoesAteOInstante() {
+        when(saldoConsolidadoRepository.findFirstByNumeroContaAndDataHoraLessThanEqualOrderByDataHoraDesc(1L, INSTANTE))
+                .thenReturn(Optional.of(SaldoConsolidado.builder()
+                        .numeroConta(1L)
+                        .saldo(Dinheiro.deCentavos(500_00))
+                        .dataHora(CONSOLIDACAO)
+                        .build()));
+        when(movimentacaoRepository.somarVariacao(eq(1L), anyCollection(), eq(CONSOLIDACAO), eq(INSTANTE)))
+                .thenReturn(variacao("-120.50", 3));
+
+        HistoricoDeSaldos.SaldoReconstruido saldo = historico.saldoEm(1L, INSTANTE, Dinheiro.deCentavos(1));
+
+        assertEquals(Dinheiro.deCentavos(379_50), saldo.saldo());
+        assertEquals(CONSOLIDACAO, saldo.consolidadoEm());
+        assertEquals(3, saldo.movimentacoesReaplicadas());
+    }
+
+    // Sem consolidação: o saldo atual menos o que entrou depois do instante
+    @Test
+    void semConsolidacaoDesfazAsMovimentacoesPosterioresAoSaldoAtual() {
+        when(saldoConsolidadoRepository.findFirstByNumeroContaAndDataHoraLessThanEqualOrderByDataHoraDesc(1L, INSTANTE))
+                .thenReturn(Optional.empty());
+        when(movimentacaoRepository.somarVariacao(eq(1L), anyCollection(), eq(INSTANTE), eq(HistoricoDeSaldos.FIM)))
+                .thenReturn(variacao("40.00", 2));
+
+        HistoricoDeSaldos.SaldoReconstruido saldo = historico.saldoEm(1L, INSTANTE, Dinheiro.deCentavos(100_00));
+
+        assertEquals(Dinheiro.deCentavos(60_00), saldo.saldo());
+        assertNull(saldo.consolidadoEm());
+        assertEquals(2, saldo.movimentacoesReaplicadas());
+    }
+
+    private static MovimentacaoRepository.VariacaoSaldo variacao(String total, long quantidade) {
+        return new MovimentacaoRepository.VariacaoSaldo() {
+            @Override
+            public BigDecimal getTotal() {
+                return new BigDecimal(total);
+            }
+
+            @Override
+            public long getQuantidade() {
+                return quantidade;
+            }
+        };
+    }
+}
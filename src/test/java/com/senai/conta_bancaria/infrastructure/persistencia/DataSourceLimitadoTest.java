@@ -0,0 +1,123 @@
+package com.senai.conta_bancaria.infrastructure.persistencia;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLTransientConnectionException;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class DataSourceLimitadoTest {
+
+    @Mock
+    DataSource alvo;
+
+    private final ExecutorService outraThread = Executors.newSingleThreadExecutor();
+    private SimpleMeterRegistry meterRegistry;
+    private DataSourceLimitado dataSource;
+
+    @BeforeEach
+    void preparar() throws Exception {
+        when(alvo.getConnection()).thenAnswer(invocacao -> mock(Connection.class));
+        meterRegistry = new SimpleMeterRegistry();
+        dataSource = new DataSourceLimitado(alvo, 1, 200, meterRegistry);
+    }
+
+    @AfterEach
+    void encerrar() {
+        outraThread.shutdownNow();
+    }
+
+    // Pools e gerenciadores de transação guardam a conexão em mapas e comparam por identidade
+    @Test
+    void proxyEhIgualASiMesmoEUnwrapNaoEscapaDaPermissao() throws Exception {
+        Connection conexao = dataSource.getConnection();
+        Connection crua = conexao.unwrap(Connection.class);
+
+        assertEquals(conexao, conexao);
+        assertEquals(conexao.hashCode(), conexao.hashCode());
+        assertTrue(new HashSet<>(Set.of(conexao)).contains(conexao));
+        assertSame(conexao, crua);
+        assertTrue(conexao.isWrapperFor(Connection.class));
+
+        crua.close();
+        assertEquals(0, emUso());
+    }
+
+    @Test
+    void closeRepetidoDevolveAPermissaoUmaVez() throws Exception {
+        Connection conexao = dataSource.getConnection();
+        conexao.close();
+        conexao.close();
+
+        try (Connection outra = dataSource.getConnection()) {
+            assertEquals(1, emUso());
+            assertThrows(SQLTransientConnectionException.class, this::abrirEmOutraThread);
+        }
+    }
+
+    @Test
+    void semPermissaoAEsperaTerminaNoTimeout() throws Exception {
+        try (Connection conexao = dataSource.getConnection()) {
+            assertThrows(SQLTransientConnectionException.class, this::abrirEmOutraThread);
+        }
+        assertEquals(0, emUso());
+    }
+
+    // REQUIRES_NEW dentro de uma transação: a segunda conexão da mesma thread não espera por outra permissão
+    @Test
+    void conexaoAninhadaNaMesmaThreadNaoEsperaNemConsomePermissao() throws Exception {
+        try (Connection externa = dataSource.getConnection()) {
+            long inicio = System.nanoTime();
+            try (Connection aninhada = dataSource.getConnection()) {
+                assertNotSame(externa, aninhada);
+                assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio) < 200);
+                assertEquals(1, emUso());
+            }
+            // Fechar a aninhada não libera a permissão da externa
+            assertThrows(SQLTransientConnectionException.class, this::abrirEmOutraThread);
+        }
+
+        abrirEmOutraThread().close();
+        assertEquals(0, emUso());
+    }
+
+    @Test
+    void falhaDoPoolDevolveAPermissao() throws Exception {
+        when(alvo.getConnection()).thenThrow(new SQLTransientConnectionException("pool esgotado"));
+
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+        assertEquals(0, emUso());
+    }
+
+    // A permissão é por thread: a disputa precisa vir de outra
+    private Connection abrirEmOutraThread() throws Exception {
+        try {
+            return outraThread.submit(() -> dataSource.getConnection()).get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw (Exception) e.getCause();
+        }
+    }
+
+    private double emUso() {
+        return meterRegistry.get("conta.jdbc.em-uso").gauge().value();
+    }
+}
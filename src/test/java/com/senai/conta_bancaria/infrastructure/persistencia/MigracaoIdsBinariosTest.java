@@ -0,0 +1,123 @@
+package com.senai.conta_bancaria.infrastructure.persistencia;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import javax.sql.DataSource;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// Um driver JDBC simulado por trás do JdbcTemplate real: os resultados têm as colunas que o MySQL devolveria, então
+// um mapeamento incompatível com a consulta (ex.: uma coluna esperada, duas recebidas) falha como no banco
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class MigracaoIdsBinariosTest {
+
+    @Mock
+    DataSource dataSource;
+
+    @Mock
+    Connection conexao;
+
+    @Mock
+    Statement statement;
+
+    // "tabela.coluna" -> data_type no information_schema
+    private final Map<String, String> tipos = new HashMap<>();
+    private final List<String> alteracoes = new ArrayList<>();
+
+    @BeforeEach
+    void preparar() throws SQLException {
+        for (String coluna : List.of("conta.id", "pagamento.id", "pagamento.conta_id", "pagamento_taxa.pagamento_id",
+                "codigo_autenticacao.id"))
+            tipos.put(coluna, "binary");
+
+        when(dataSource.getConnection()).thenReturn(conexao);
+        when(conexao.createStatement()).thenReturn(statement);
+        when(statement.execute(anyString())).thenAnswer(invocacao -> alteracoes.add(invocacao.getArgument(0)));
+        when(statement.executeUpdate(anyString())).thenAnswer(invocacao -> {
+            alteracoes.add(invocacao.getArgument(0));
+            return 1;
+        });
+        when(statement.executeQuery(anyString()))
+                .thenAnswer(invocacao -> resultado(invocacao.getArgument(0), Map.of()));
+        when(conexao.prepareStatement(anyString())).thenAnswer(invocacao -> consulta(invocacao.getArgument(0)));
+    }
+
+    // Toda inicialização depois da primeira encontra o esquema já convertido
+    @Test
+    void esquemaJaConvertidoIniciaSemAlterarNada() {
+        assertDoesNotThrow(() -> new MigracaoIdsBinarios(dataSource).migrar());
+
+        assertTrue(alteracoes.isEmpty());
+    }
+
+    @Test
+    void conversaoInterrompidaEhRetomadaSoNaColunaPendente() {
+        tipos.put("pagamento.conta_id", "varbinary");
+
+        new MigracaoIdsBinarios(dataSource).migrar();
+
+        assertEquals(List.of(
+                "ALTER TABLE pagamento MODIFY conta_id varbinary(36) NOT NULL",
+                "UPDATE pagamento SET conta_id = UUID_TO_BIN(conta_id) WHERE LENGTH(conta_id) = 36",
+                "ALTER TABLE pagamento MODIFY conta_id binary(16) NOT NULL"), alteracoes);
+    }
+
+    private PreparedStatement consulta(String sql) throws SQLException {
+        PreparedStatement preparada = mock(PreparedStatement.class);
+        Map<Integer, Object> parametros = new HashMap<>();
+        doAnswer(invocacao -> parametros.put(invocacao.getArgument(0), invocacao.getArgument(1)))
+                .when(preparada).setObject(anyInt(), any());
+        doAnswer(invocacao -> parametros.put(invocacao.getArgument(0), invocacao.getArgument(1)))
+                .when(preparada).setString(anyInt(), any());
+        when(preparada.executeQuery()).thenAnswer(invocacao -> resultado(sql, parametros));
+        return preparada;
+    }
+
+    private ResultSet resultado(String sql, Map<Integer, Object> parametros) throws SQLException {
+        String tipo = tipos.get(parametros.get(1) + "." + parametros.get(2));
+        if (sql.contains("SELECT data_type, is_nullable"))
+            return linhas(new String[]{"data_type", "is_nullable"}, List.<Object[]>of(new Object[]{tipo, "NO"}));
+        if (sql.contains("SELECT data_type"))
+            return linhas(new String[]{"data_type"}, List.<Object[]>of(new Object[]{tipo}));
+        if (sql.contains("SELECT COUNT(*)"))
+            return linhas(new String[]{"COUNT(*)"}, List.<Object[]>of(new Object[]{0}));
+        return linhas(new String[]{"table_name", "constraint_name", "column_name", "referenced_table_name"},
+                List.of());
+    }
+
+    private static ResultSet linhas(String[] colunas, List<Object[]> linhas) throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        ResultSetMetaData metadados = mock(ResultSetMetaData.class);
+        AtomicInteger atual = new AtomicInteger(-1);
+
+        when(metadados.getColumnCount()).thenReturn(colunas.length);
+        when(metadados.getColumnLabel(anyInt()))
+                .thenAnswer(invocacao -> colunas[invocacao.<Integer>getArgument(0) - 1]);
+        when(metadados.getColumnName(anyInt()))
+                .thenAnswer(invocacao -> colunas[invocacao.<Integer>getArgument(0) - 1]);
+        when(resultSet.getMetaData()).thenReturn(metadados);
+        when(resultSet.next()).thenAnswer(invocacao -> atual.incrementAndGet() < linhas.size());
+        when(resultSet.getObject(anyInt()))
+                .thenAnswer(invocacao -> linhas.get(atual.get())[invocacao.<Integer>getArgument(0) - 1]);
+        when(resultSet.getString(anyInt()))
+                .thenAnswer(invocacao -> (String) linhas.get(atual.get())[invocacao.<Integer>getArgument(0) - 1]);
+        when(resultSet.getInt(anyInt())).thenAnswer(invocacao ->
+                ((Number) linhas.get(atual.get())[invocacao.<Integer>getArgument(0) - 1]).intValue());
+        return resultSet;
+    }
+}
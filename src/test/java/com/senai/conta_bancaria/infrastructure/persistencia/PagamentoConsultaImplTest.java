@@ -0,0 +1,110 @@
+package com.senai.conta_bancaria.infrastructure.persistencia;
+
+import com.senai.conta_bancaria.domain.entity.Pagamento;
+import com.senai.conta_bancaria.domain.enums.PagamentoStatus;
+import com.senai.conta_bancaria.domain.repository.PagamentoConsulta.Filtro;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// O JPQL é conferido como texto: só os filtros informados entram, para o MySQL escolher o índice
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PagamentoConsultaImplTest {
+
+    private static final LocalDateTime AGORA = LocalDateTime.of(2026, 10, 18, 12, 0);
+
+    @Mock
+    EntityManager entityManager;
+
+    @SuppressWarnings("unchecked")
+    private final TypedQuery<Pagamento> pagina = mock(TypedQuery.class, RETURNS_SELF);
+    @SuppressWarnings("unchecked")
+    private final TypedQuery<Pagamento> taxas = mock(TypedQuery.class, RETURNS_SELF);
+
+    private final PagamentoConsultaImpl consulta = new PagamentoConsultaImpl();
+
+    @BeforeEach
+    void preparar() {
+        ReflectionTestUtils.setField(consulta, "entityManager", entityManager);
+        when(entityManager.createQuery(startsWith("select p from Pagamento p join fetch p.conta"), eq(Pagamento.class)))
+                .thenReturn(pagina);
+        when(entityManager.createQuery(contains("left join fetch p.taxas"), eq(Pagamento.class))).thenReturn(taxas);
+        when(pagina.getResultList()).thenReturn(List.of());
+    }
+
+    @Test
+    void soOsFiltrosInformadosEntramNaConsulta() {
+        UUID contaId = UUID.randomUUID();
+
+        consulta.buscar(new Filtro(contaId, null, AGORA.minusDays(1), null, PagamentoStatus.SUCESSO, null, null),
+                null, null, 21);
+
+        String jpql = jpqlDaPagina();
+        assertTrue(jpql.contains("p.conta.id = :contaId"));
+        assertTrue(jpql.contains("p.status = :status"));
+        assertTrue(jpql.contains("p.dataPagamento >= :desde"));
+        assertFalse(jpql.contains(":clienteId"));
+        assertFalse(jpql.contains(":ate"));
+        assertFalse(jpql.contains(":valorMinimo"));
+        assertFalse(jpql.contains(":antesDeData"));
+        assertFalse(jpql.contains("is null"));
+        assertTrue(jpql.endsWith("order by p.dataPagamento desc, p.id desc"));
+        verify(pagina).setParameter("contaId", contaId);
+        verify(pagina).setMaxResults(21);
+    }
+
+    @Test
+    void cursorContinuaDepoisDoParDataEId() {
+        UUID id = UUID.randomUUID();
+
+        consulta.buscar(new Filtro(null, null, null, null, null, null, null), AGORA, id, 10);
+
+        assertTrue(jpqlDaPagina().contains(
+                "(p.dataPagamento < :antesDeData or (p.dataPagamento = :antesDeData and p.id < :antesDeId))"));
+        verify(pagina).setParameter("antesDeData", AGORA);
+        verify(pagina).setParameter("antesDeId", id);
+    }
+
+    // Duas consultas por página, qualquer que seja o tamanho: a página com a conta e as taxas de todos de uma vez
+    @Test
+    void taxasDaPaginaInteiraVemNumaSoConsulta() {
+        List<Pagamento> pagamentos = List.of(new Pagamento(), new Pagamento(), new Pagamento());
+        when(pagina.getResultList()).thenReturn(pagamentos);
+
+        assertSame(pagamentos, consulta.buscar(new Filtro(null, null, null, null, null, null, null), null, null, 3));
+
+        verify(entityManager, times(2)).createQuery(anyString(), eq(Pagamento.class));
+        verify(taxas).setParameter("pagina", pagamentos);
+        verify(taxas).getResultList();
+    }
+
+    @Test
+    void paginaVaziaNaoBuscaTaxas() {
+        consulta.buscar(new Filtro(null, null, null, null, null, null, null), null, null, 3);
+
+        verify(entityManager, never()).createQuery(contains("left join fetch p.taxas"), eq(Pagamento.class));
+    }
+
+    private String jpqlDaPagina() {
+        ArgumentCaptor<String> jpql = ArgumentCaptor.forClass(String.class);
+        verify(entityManager, atLeastOnce()).createQuery(jpql.capture(), eq(Pagamento.class));
+        return jpql.getAllValues().get(0);
+    }
+}
@@ -0,0 +1,22 @@
+package com.senai.conta_bancaria.infrastructure.persistencia;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ResultadosDeLoteTest {
+
+    @Test
+    void todosAlteraramLinha() {
+        assertEquals(-1, ResultadosDeLote.primeiroSemEfeito(new int[][]{{1, 1}, {1}}));
+        assertEquals(-1, ResultadosDeLote.primeiroSemEfeito(new int[0][]));
+    }
+
+    // O índice conta através dos lotes: o primeiro item do segundo lote de dois é o índice 2
+    @Test
+    void indiceDoItemSemEfeitoEmLotesSeguintes() {
+        assertEquals(2, ResultadosDeLote.primeiroSemEfeito(new int[][]{{1, 1}, {0, 1}}));
+        assertEquals(4, ResultadosDeLote.primeiroSemEfeito(new int[][]{{1, 1}, {1, 1}, {0}}));
+        assertEquals(0, ResultadosDeLote.primeiroSemEfeito(new int[][]{{0, 0}, {0}}));
+    }
+}
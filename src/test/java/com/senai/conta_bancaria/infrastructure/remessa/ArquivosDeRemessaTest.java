@@ -0,0 +1,74 @@
+package com.senai.conta_bancaria.infrastructure.remessa;
+
+import com.senai.conta_bancaria.domain.exception.RemessaMuitoGrandeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ArquivosDeRemessaTest {
+
+    private static final int UM_MB = 1024 * 1024;
+
+    @TempDir
+    Path diretorio;
+
+    private ArquivosDeRemessa arquivos;
+
+    @BeforeEach
+    void preparar() throws Exception {
+        arquivos = new ArquivosDeRemessa(diretorio.toString(), 1);
+    }
+
+    @Test
+    void arquivoNoLimiteEhGravadoComORetornoSoComCabecalho() throws Exception {
+        UUID id = UUID.randomUUID();
+
+        long posicao = arquivos.receber(id, new ByteArrayInputStream(new byte[UM_MB]));
+
+        assertEquals(UM_MB, Files.size(arquivos.entrada(id)));
+        assertEquals(ArquivosDeRemessa.CABECALHO_RETORNO, Files.readString(arquivos.retorno(id)));
+        assertEquals(ArquivosDeRemessa.CABECALHO_RETORNO.length(), posicao);
+    }
+
+    // Sem Content-Length (ou com um falso) o limite vale durante a cópia, e nada fica no diretório
+    @Test
+    void corpoAlemDoLimiteEhRecusadoSemDeixarArquivos() throws Exception {
+        UUID id = UUID.randomUUID();
+
+        assertThrows(RemessaMuitoGrandeException.class,
+                () -> arquivos.receber(id, new ByteArrayInputStream(new byte[UM_MB + 1])));
+
+        try (var restantes = Files.list(diretorio)) {
+            assertEquals(0, restantes.count());
+        }
+    }
+
+    @Test
+    void tamanhoDeclaradoAlemDoLimiteEhRecusadoAntesDeLer() {
+        assertThrows(RemessaMuitoGrandeException.class, () -> arquivos.verificarTamanho(UM_MB + 1L));
+        assertDoesNotThrow(() -> arquivos.verificarTamanho(UM_MB));
+        assertDoesNotThrow(() -> arquivos.verificarTamanho(-1));
+    }
+
+    // Uma tentativa anterior do bloco deixou linhas depois da posição confirmada: elas são descartadas
+    @Test
+    void retornoReescritoAPartirDaPosicaoConfirmada() throws Exception {
+        UUID id = UUID.randomUUID();
+        long confirmada = arquivos.receber(id, new ByteArrayInputStream("x\n".getBytes(StandardCharsets.UTF_8)));
+        arquivos.escreverRetorno(id, confirmada, List.of("1;ERRO;;;perdida\n"));
+
+        long posicao = arquivos.escreverRetorno(id, confirmada, List.of("1;OK;p1;10.00;\n"));
+
+        assertEquals(ArquivosDeRemessa.CABECALHO_RETORNO + "1;OK;p1;10.00;\n", Files.readString(arquivos.retorno(id)));
+        assertEquals(Files.size(arquivos.retorno(id)), posicao);
+    }
+}
@@ -0,0 +1,132 @@
+package com.senai.conta_bancaria.infrastructure.remessa;
+
+import com.senai.conta_bancaria.domain.enums.FormatoRemessa;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LeitorDeRemessaTest {
+
+    private static final String CONTA = "0b7e4a2c-1d3f-4e5a-9b8c-7d6e5f4a3b2c";
+    private static final String TAXA = "5f1c2d3e-4a5b-4c6d-8e7f-9a0b1c2d3e4f";
+
+    @TempDir
+    Path diretorio;
+
+    @Test
+    void csvIgnoraCabecalhoComentariosEBrancos() throws Exception {
+        List<LinhaRemessa> linhas = ler(FormatoRemessa.CSV, """
+                contaId;boleto;valor;taxas;observacao
+                # comentário
+
+                %s;B1;10.50;%s;luz; agua
+                """.formatted(CONTA, TAXA));
+
+        assertEquals(1, linhas.size());
+        LinhaRemessa linha = linhas.get(0);
+        assertTrue(linha.valida());
+        assertEquals(4, linha.numero());
+        assertEquals(UUID.fromString(CONTA), linha.contaId());
+        assertEquals(new BigDecimal("10.50"), linha.valor());
+        assertEquals(Set.of(TAXA), linha.taxasIds());
+        assertEquals("luz; agua", linha.observacao());
+    }
+
+    // As mesmas regras do @Digits(integer = 15, fraction = 2) do PagamentoDto, que ignora zeros à direita
+    @Test
+    void valorComMaisDeDuasCasasSignificativasEhRecusado() throws Exception {
+        List<LinhaRemessa> linhas = ler(FormatoRemessa.CSV, """
+                %1$s;B1;10.500
+                %1$s;B2;10.005
+                %1$s;B3;1E+2
+                %1$s;B4;1000000000000000
+                %1$s;B5;0.00
+                """.formatted(CONTA));
+
+        assertTrue(linhas.get(0).valida());
+        assertEquals("O valor deve ter no máximo duas casas decimais", linhas.get(1).erro());
+        assertTrue(linhas.get(2).valida());
+        assertEquals("O valor deve ter no máximo 15 dígitos inteiros", linhas.get(3).erro());
+        assertEquals("O valor deve ser maior que zero", linhas.get(4).erro());
+    }
+
+    @Test
+    void linhasInvalidasGuardamONumeroEOMotivo() throws Exception {
+        List<LinhaRemessa> linhas = ler(FormatoRemessa.CSV, """
+                nao-eh-uuid;B1;10.00
+                %s;B2
+                %s;B3;dez
+                """.formatted(CONTA, CONTA));
+
+        assertEquals(List.of(1L, 2L, 3L), linhas.stream().map(LinhaRemessa::numero).toList());
+        assertEquals("O ID da conta deve ser um UUID", linhas.get(0).erro());
+        assertEquals("Esperados ao menos 3 campos: contaId;boleto;valor", linhas.get(1).erro());
+        assertEquals("Valor inválido: dez", linhas.get(2).erro());
+    }
+
+    @Test
+    void posicionalLeValorEmCentavosETaxas() throws Exception {
+        String linha = "%-36s%-48s%015d%-36s%-36s%-36s%s".formatted(CONTA, "B1", 1050, TAXA, "", "", "obs");
+
+        List<LinhaRemessa> linhas = ler(FormatoRemessa.POSICIONAL, linha + "\r\n");
+
+        assertTrue(linhas.get(0).valida(), linhas.get(0).erro());
+        assertEquals(new BigDecimal("10.50"), linhas.get(0).valor());
+        assertEquals(Set.of(TAXA), linhas.get(0).taxasIds());
+        assertEquals("obs", linhas.get(0).observacao());
+    }
+
+    // A leitura retomada na posição e linha confirmadas continua exatamente da linha seguinte
+    @Test
+    void retomadaContinuaDaPosicaoConfirmada() throws Exception {
+        Path arquivo = gravar("""
+                %1$s;B1;1.00
+                %1$s;B2;2.00
+                %1$s;B3;3.00
+                """.formatted(CONTA));
+
+        long posicao;
+        long ultimaLinha;
+        try (LeitorDeRemessa leitor = LeitorDeRemessa.abrir(arquivo, FormatoRemessa.CSV, 0, 0)) {
+            assertEquals("B1", leitor.proximas(1).get(0).boleto());
+            posicao = leitor.posicao();
+            ultimaLinha = leitor.ultimaLinha();
+        }
+
+        try (LeitorDeRemessa leitor = LeitorDeRemessa.abrir(arquivo, FormatoRemessa.CSV, posicao, ultimaLinha)) {
+            List<LinhaRemessa> resto = leitor.proximas(10);
+            assertEquals(List.of("B2", "B3"), resto.stream().map(LinhaRemessa::boleto).toList());
+            assertEquals(List.of(2L, 3L), resto.stream().map(LinhaRemessa::numero).toList());
+            assertTrue(leitor.proximas(10).isEmpty());
+        }
+    }
+
+    @Test
+    void linhaLongaDemaisViraErroSemDerrubarAsSeguintes() throws Exception {
+        List<LinhaRemessa> linhas = ler(FormatoRemessa.CSV,
+                "x".repeat(5000) + "\n" + CONTA + ";B2;2.00\n");
+
+        assertEquals("Linha com mais de 4096 bytes", linhas.get(0).erro());
+        assertTrue(linhas.get(1).valida());
+    }
+
+    private List<LinhaRemessa> ler(FormatoRemessa formato, String conteudo) throws Exception {
+        try (LeitorDeRemessa leitor = LeitorDeRemessa.abrir(gravar(conteudo), formato, 0, 0)) {
+            return leitor.proximas(100);
+        }
+    }
+
+    private Path gravar(String conteudo) throws Exception {
+        return Files.write(Files.createTempFile(diretorio, "remessa", ".txt"),
+                conteudo.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,52 @@
+package com.senai.conta_bancaria.infrastructure.replicacao;
+
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.domain.valueobject.ResumoConta;
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuadroReplicacaoTest {
+
+    @Test
+    void contaEPagamentoSobrevivemAIdaEVoltaPeloFluxo() throws Exception {
+        ResumoConta conta = new ResumoConta(7L, "POUPANCA", Dinheiro.deCentavos(-1_50));
+        UUID id = UUID.randomUUID();
+        byte[] json = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream saida = new DataOutputStream(bytes);
+        new QuadroReplicacao(QuadroReplicacao.CONTA, 1, QuadroReplicacao.conta(conta)).escrever(saida);
+        new QuadroReplicacao(QuadroReplicacao.PAGAMENTO, 2, QuadroReplicacao.pagamento(id, json)).escrever(saida);
+        QuadroReplicacao.vazio(QuadroReplicacao.PULSO, 3).escrever(saida);
+
+        DataInputStream entrada = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        QuadroReplicacao primeiro = QuadroReplicacao.ler(entrada);
+        assertEquals(1, primeiro.sequencia());
+        assertEquals(conta, primeiro.lerConta());
+
+        QuadroReplicacao segundo = QuadroReplicacao.ler(entrada);
+        assertEquals(id, segundo.lerIdPagamento());
+        assertArrayEquals(json, segundo.lerJsonPagamento());
+
+        QuadroReplicacao terceiro = QuadroReplicacao.ler(entrada);
+        assertEquals(QuadroReplicacao.PULSO, terceiro.tipo());
+        assertEquals(0, terceiro.conteudo().length);
+    }
+
+    // Um comprimento corrompido não pode virar uma alocação gigante
+    @Test
+    void comprimentoForaDosLimitesEhRecusado() {
+        byte[] grande = {0x7f, 0, 0, 0};
+        byte[] curto = {0, 0, 0, 1};
+
+        assertThrows(IOException.class,
+                () -> QuadroReplicacao.ler(new DataInputStream(new ByteArrayInputStream(grande))));
+        assertThrows(IOException.class,
+                () -> QuadroReplicacao.ler(new DataInputStream(new ByteArrayInputStream(curto))));
+    }
+}
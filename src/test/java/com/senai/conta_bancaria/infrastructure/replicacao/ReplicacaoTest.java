@@ -0,0 +1,148 @@
+package com.senai.conta_bancaria.infrastructure.replicacao;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.senai.conta_bancaria.domain.event.ContaAlteradaEvent;
+import com.senai.conta_bancaria.domain.repository.ContaRepository;
+import com.senai.conta_bancaria.domain.repository.PagamentoRepository;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.domain.valueobject.ResumoConta;
+import com.senai.conta_bancaria.infrastructure.saldo.SaldosFracionados;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.net.ServerSocket;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.when;
+
+// Líder e seguidor de verdade, ligados por TCP no loopback; só o banco do líder é simulado
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ReplicacaoTest {
+
+    private static final String SEGREDO = "segredo-de-teste";
+    private static final long PULSO_MS = 200;
+
+    @Mock
+    ContaRepository contaRepository;
+
+    @Mock
+    PagamentoRepository pagamentoRepository;
+
+    @Mock
+    SaldosFracionados saldosFracionados;
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    TransactionTemplate transactionTemplate;
+
+    private ReplicacaoLider lider;
+    private ReplicacaoSeguidor seguidor;
+
+    @BeforeEach
+    void preparar() throws Exception {
+        when(jdbcTemplate.query(startsWith("SELECT c.numero"), any(RowMapper.class), any(Object[].class)))
+                .thenAnswer(invocacao -> List.of(conta(7L, 100)));
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocacao -> invocacao.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        when(saldosFracionados.somarFatias(anyList())).thenAnswer(invocacao -> invocacao.getArgument(0));
+
+        lider = new ReplicacaoLider(contaRepository, pagamentoRepository, saldosFracionados, jdbcTemplate,
+                transactionTemplate, new ObjectMapper());
+        ReflectionTestUtils.setField(lider, "endereco", "127.0.0.1");
+        ReflectionTestUtils.setField(lider, "porta", 0);
+        ReflectionTestUtils.setField(lider, "segredo", SEGREDO);
+        ReflectionTestUtils.setField(lider, "capacidadeFila", 1024);
+        ReflectionTestUtils.setField(lider, "pulsoMs", PULSO_MS);
+        lider.iniciar();
+    }
+
+    @AfterEach
+    void encerrar() throws Exception {
+        if (seguidor != null)
+            seguidor.encerrar();
+        lider.encerrar();
+    }
+
+    @Test
+    void seguidorRecebeOInstantaneoEDepoisAsAlteracoes() throws Exception {
+        seguir(SEGREDO);
+        aguardar(seguidor::emDia);
+        assertEquals(Optional.of(conta(7L, 100)), seguidor.conta(7L));
+
+        when(contaRepository.findResumoAtivasByNumeroIn(List.of(7L))).thenReturn(List.of(conta(7L, 90)));
+        lider.aoAlterarConta(new ContaAlteradaEvent(7L, null));
+        aguardar(() -> seguidor.conta(7L).equals(Optional.of(conta(7L, 90))));
+
+        // Conta que deixou de estar ativa sai do seguidor
+        when(contaRepository.findResumoAtivasByNumeroIn(List.of(7L))).thenReturn(List.of());
+        lider.aoAlterarConta(new ContaAlteradaEvent(7L, null));
+        aguardar(() -> seguidor.conta(7L).isEmpty());
+    }
+
+    // Sem mudanças, os pulsos mantêm o seguidor em dia além do prazo de 4 pulsos
+    @Test
+    void pulsosMantemOSeguidorEmDiaSemAlteracoes() throws Exception {
+        seguir(SEGREDO);
+        aguardar(seguidor::emDia);
+
+        Thread.sleep(6 * PULSO_MS);
+        assertTrue(seguidor.emDia());
+    }
+
+    @Test
+    void seguidorComSegredoErradoNaoRecebeNada() throws Exception {
+        seguir("outro-segredo");
+
+        Thread.sleep(5 * PULSO_MS);
+        assertFalse(seguidor.emDia());
+        assertTrue(seguidor.conta(7L).isEmpty());
+    }
+
+    @Test
+    void semSegredoNenhumDosLadosSobe() {
+        ReplicacaoSeguidor semSegredo = new ReplicacaoSeguidor(new ObjectMapper());
+        ReflectionTestUtils.setField(semSegredo, "segredo", " ");
+
+        assertThrows(IllegalStateException.class, semSegredo::iniciar);
+    }
+
+    private void seguir(String segredo) {
+        int porta = ((ServerSocket) ReflectionTestUtils.getField(lider, "servidor")).getLocalPort();
+        seguidor = new ReplicacaoSeguidor(new ObjectMapper());
+        ReflectionTestUtils.setField(seguidor, "hostLider", "127.0.0.1");
+        ReflectionTestUtils.setField(seguidor, "porta", porta);
+        ReflectionTestUtils.setField(seguidor, "pulsoMs", PULSO_MS);
+        ReflectionTestUtils.setField(seguidor, "segredo", segredo);
+        seguidor.iniciar();
+    }
+
+    private static void aguardar(BooleanSupplier condicao) throws InterruptedException {
+        long limite = System.nanoTime() + 10_000_000_000L;
+        while (!condicao.getAsBoolean()) {
+            assertTrue(System.nanoTime() < limite, "condição não atingida em 10 s");
+            Thread.sleep(20);
+        }
+    }
+
+    private static ResumoConta conta(long numero, long centavos) {
+        return new ResumoConta(numero, "CORRENTE", Dinheiro.deCentavos(centavos));
+    }
+}
@@ -0,0 +1,125 @@
+package com.senai.conta_bancaria.infrastructure.saldo;
+
+import com.senai.conta_bancaria.domain.entity.ContaCorrente;
+import com.senai.conta_bancaria.domain.valueobject.Dinheiro;
+import com.senai.conta_bancaria.domain.valueobject.ResumoConta;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+// As fatias ficam num mapa conta -> soma, lido e alterado pelas consultas simuladas do JdbcTemplate
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class SaldosFracionadosTest {
+
+    @Mock
+    JdbcTemplate jdbcTemplate;
+
+    @Mock
+    ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    SaldosFracionados saldosFracionados;
+
+    private final Map<Long, BigDecimal> fatias = new HashMap<>();
+
+    @BeforeEach
+    void preparar() throws Exception {
+        doAnswer(invocacao -> {
+            RowCallbackHandler handler = invocacao.getArgument(1);
+            for (Object numero : Arrays.copyOfRange(invocacao.getArguments(), 2, invocacao.getArguments().length)) {
+                BigDecimal saldo = fatias.get((Long) numero);
+                if (saldo != null && saldo.signum() != 0)
+                    handler.processRow(linha((Long) numero, saldo));
+            }
+            return null;
+        }).when(jdbcTemplate).query(anyString(), any(RowCallbackHandler.class), any(Object[].class));
+        when(jdbcTemplate.queryForObject(anyString(), eq(BigDecimal.class), anyLong()))
+                .thenAnswer(invocacao -> fatias.getOrDefault(invocacao.<Long>getArgument(2), BigDecimal.ZERO));
+        when(jdbcTemplate.update(startsWith("UPDATE saldo_parcial SET saldo = 0"), anyLong()))
+                .thenAnswer(invocacao -> fatias.put(invocacao.getArgument(1), BigDecimal.ZERO) != null ? 1 : 0);
+    }
+
+    // Outro nó ligou o modo e este ainda não recarregou o mapa: a leitura mesmo assim soma as fatias
+    @Test
+    void somarFatiasNaoDependeDoMapaLocal() {
+        fatias.put(7L, new BigDecimal("30.00"));
+
+        List<ResumoConta> contas = saldosFracionados.somarFatias(List.of(
+                new ResumoConta(7L, "CORRENTE", Dinheiro.deCentavos(100_00)),
+                new ResumoConta(8L, "CORRENTE", Dinheiro.deCentavos(5_00))));
+
+        assertFalse(saldosFracionados.comFatias(7L));
+        assertEquals(Dinheiro.deCentavos(130_00), contas.get(0).saldo());
+        assertEquals(Dinheiro.deCentavos(5_00), contas.get(1).saldo());
+    }
+
+    @Test
+    void totalDeContaSemFatiasNaoConsultaOBanco() {
+        assertEquals(Dinheiro.deCentavos(100_00), saldosFracionados.total(conta(7L, 0)));
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void totalDeContaFracionadaSomaAsFatias() {
+        fatias.put(7L, new BigDecimal("12.34"));
+
+        assertEquals(Dinheiro.deCentavos(112_34), saldosFracionados.total(conta(7L, 4)));
+    }
+
+    // Fatias que sobraram do desligamento continuam no total enquanto o mapa as conhece
+    @Test
+    void totalIncluiFatiasQueSobraramDoDesligamento() {
+        fatias.put(7L, new BigDecimal("1.00"));
+        saldosFracionados.registrarModo(7L, 0);
+
+        assertEquals(Dinheiro.deCentavos(101_00), saldosFracionados.total(conta(7L, 0)));
+    }
+
+    @Test
+    void consolidarPassaAsFatiasParaALinhaDaConta() {
+        fatias.put(7L, new BigDecimal("40.00"));
+        ContaCorrente conta = conta(7L, 4);
+
+        assertTrue(saldosFracionados.consolidar(conta));
+
+        assertEquals(Dinheiro.deCentavos(140_00), conta.getSaldo());
+        assertEquals(0, fatias.get(7L).signum());
+        assertFalse(saldosFracionados.consolidar(conta));
+    }
+
+    private static ContaCorrente conta(Long numero, int fatiasSaldo) {
+        return ContaCorrente.builder()
+                .numero(numero)
+                .saldo(Dinheiro.deCentavos(100_00))
+                .ativo(true)
+                .limite(Dinheiro.ZERO)
+                .taxa(BigDecimal.ZERO)
+                .fatiasSaldo(fatiasSaldo)
+                .build();
+    }
+
+    private static ResultSet linha(Long numero, BigDecimal saldo) throws Exception {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getLong("numero_conta")).thenReturn(numero);
+        when(resultSet.getBigDecimal("saldo")).thenReturn(saldo);
+        return resultSet;
+    }
+}
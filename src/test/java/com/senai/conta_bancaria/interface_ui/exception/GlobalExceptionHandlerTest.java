@@ -0,0 +1,59 @@
+package com.senai.conta_bancaria.interface_ui.exception;
+
+import com.senai.conta_bancaria.domain.exception.ContaEmOutroNoException;
+import com.senai.conta_bancaria.domain.exception.RemessaMuitoGrandeException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.net.URI;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Contrato do redirecionamento ao nó dono: o cliente reenvia a mesma requisição, com os próprios cabeçalhos, ao
+// Location; o corpo traz o dono para que as próximas já saiam para ele
+class GlobalExceptionHandlerTest {
+
+    private final GlobalExceptionHandler handler = new GlobalExceptionHandler();
+
+    @Test
+    void contaEmOutroNoRedirecionaComMetodoECaminhoPreservados() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/conta/42/transferir");
+        request.setQueryString("origem=app");
+        request.addHeader("Authorization", "Bearer token");
+
+        ResponseEntity<ProblemDetail> resposta =
+                handler.handleContaEmOutroNo(new ContaEmOutroNoException(42L, "http://no-b:8080"), request);
+
+        // 307, e não 302/303: o método e o corpo não mudam no reenvio
+        assertEquals(HttpStatus.TEMPORARY_REDIRECT, resposta.getStatusCode());
+        assertEquals(URI.create("http://no-b:8080/api/conta/42/transferir?origem=app"),
+                resposta.getHeaders().getLocation());
+        assertEquals("http://no-b:8080", resposta.getBody().getProperties().get("dono"));
+        assertEquals(URI.create("/api/conta/42/transferir"), resposta.getBody().getInstance());
+        // Nada da credencial volta na resposta: o reenvio é responsabilidade do cliente
+        assertFalse(resposta.getHeaders().containsKey("Authorization"));
+    }
+
+    @Test
+    void semQueryStringOLocationNaoGanhaInterrogacao() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/conta/numero/42");
+
+        ResponseEntity<ProblemDetail> resposta =
+                handler.handleContaEmOutroNo(new ContaEmOutroNoException(42L, "http://no-b:8080"), request);
+
+        assertEquals(URI.create("http://no-b:8080/api/conta/numero/42"), resposta.getHeaders().getLocation());
+    }
+
+    @Test
+    void remessaAlemDoLimiteResponde413() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/pagamentos/remessas");
+
+        ProblemDetail problema = handler.handleRemessaMuitoGrande(new RemessaMuitoGrandeException(200), request);
+
+        assertEquals(HttpStatus.PAYLOAD_TOO_LARGE.value(), problema.getStatus());
+        assertEquals("Arquivo de remessa maior que 200 MB.", problema.getDetail());
+    }
+}